@@ -0,0 +1,112 @@
+package io.github.montytsai.currencyapi.coindesk.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測 CoinDesk DTO 的 JSON 反序列化、防禦性複製與轉換後回應的序列化 (搭配 {@code -prof gc} 觀察配置量)。
+ * <ul>
+ * <li>{@code deserialize}：上游回應的解碼，setTime / setBpi 各複製一次。</li>
+ * <li>{@code getBpi} / {@code getTime}：每次呼叫 getter 都建立新的複本 (HashMap / TimeData)。</li>
+ * <li>{@code serializeTransformed}：{@code /coindesk/transformed} 的回應內容。</li>
+ * </ul>
+ * {@code currencies} 為 BPI 的幣別數，3 為 coindesk.json 的實際內容。
+ * ObjectMapper 以 {@link Jackson2ObjectMapperBuilder} 建立，與應用程式相同。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CoinDeskResponseBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoinDeskResponseBenchmark {
+
+    @Param({"3", "100"})
+    public int currencies;
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+    private CoinDeskResponse response;
+    private TransformedCoinDeskResponse transformed;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        CoinDeskResponse sample;
+        try (InputStream in = CoinDeskResponseBenchmark.class.getResourceAsStream("/coindesk/coindesk.json")) {
+            sample = objectMapper.readValue(in, CoinDeskResponse.class);
+        }
+        Map<String, CoinDeskResponse.BpiData> bpi = new LinkedHashMap<>(sample.getBpi());
+        List<CoinDeskResponse.BpiData> templates = new ArrayList<>(bpi.values());
+        for (int i = bpi.size(); i < currencies; i++) {
+            CoinDeskResponse.BpiData template = templates.get(i % templates.size());
+            CoinDeskResponse.BpiData copy = new CoinDeskResponse.BpiData();
+            copy.setCode(String.format("C%02d", i));
+            copy.setSymbol(template.getSymbol());
+            copy.setRate(template.getRate());
+            copy.setDescription(template.getDescription());
+            copy.setRateFloat(template.getRateFloat());
+            bpi.put(copy.getCode(), copy);
+        }
+        sample.setBpi(bpi);
+
+        payload = objectMapper.writeValueAsBytes(sample);
+        response = objectMapper.readValue(payload, CoinDeskResponse.class);
+
+        transformed = new TransformedCoinDeskResponse();
+        transformed.setUpdatedTime("2024/09/02 07:07:20");
+        List<TransformedCoinDeskResponse.CurrencyInfo> infos = new ArrayList<>();
+        for (CoinDeskResponse.BpiData data : bpi.values()) {
+            TransformedCoinDeskResponse.CurrencyInfo info = new TransformedCoinDeskResponse.CurrencyInfo();
+            info.setCode(data.getCode());
+            info.setChineseName("名稱");
+            info.setRate(data.getRateFloat());
+            infos.add(info);
+        }
+        transformed.setCurrencyInfo(infos);
+        System.out.printf("PAYLOAD currencies=%d: original=%d bytes%n", currencies, payload.length);
+    }
+
+    @Benchmark
+    public CoinDeskResponse deserialize() throws IOException {
+        return objectMapper.readValue(payload, CoinDeskResponse.class);
+    }
+
+    @Benchmark
+    public Map<String, CoinDeskResponse.BpiData> getBpi() {
+        return response.getBpi();
+    }
+
+    @Benchmark
+    public CoinDeskResponse.TimeData getTime() {
+        return response.getTime();
+    }
+
+    @Benchmark
+    public byte[] serializeTransformed() throws IOException {
+        return objectMapper.writeValueAsBytes(transformed);
+    }
+
+}
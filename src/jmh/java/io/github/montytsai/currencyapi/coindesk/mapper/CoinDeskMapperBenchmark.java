@@ -0,0 +1,132 @@
+package io.github.montytsai.currencyapi.coindesk.mapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測 {@link CoinDeskMapper#toTransformedResponse} 的成本與配置量 (搭配 {@code -prof gc})。
+ * <ul>
+ * <li>{@code currencies}：BPI 的幣別數。3 為 coindesk.json 的實際內容，100 以複製的幣別模擬上游增加幣別。</li>
+ * <li>{@code updatedTime}：{@code iso} 為正常的 ISO 8601 時間；{@code invalid} 走 formatUpdatedTime 的例外路徑。</li>
+ * <li>{@code formatUpdatedTime}：BPI 為空的回應，只剩時間格式轉換。</li>
+ * </ul>
+ * 所有幣別都在幣別目錄中，量測的是一般情況；無效時間會記錄含堆疊的 ERROR，因此量測時將 Mapper 的日誌關閉，只量測轉換本身。
+ * ApiMetrics 使用沒有後端的 registry，指標成本另見 ApiMetricsBenchmark。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CoinDeskMapperBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoinDeskMapperBenchmark {
+
+    @Param({"3", "100"})
+    public int currencies;
+
+    @Param({"iso", "invalid"})
+    public String updatedTime;
+
+    private CoinDeskMapper mapper;
+    private CurrencyLookupTable lookupTable;
+    private CoinDeskResponse original;
+    private CoinDeskResponse timeOnly;
+
+    @Setup
+    public void setUp() throws IOException {
+        ((Logger) LoggerFactory.getLogger(CoinDeskMapper.class)).setLevel(Level.OFF);
+        mapper = new CoinDeskMapper(new ApiMetrics(new CompositeMeterRegistry()));
+
+        CoinDeskResponse sample;
+        try (InputStream in = CoinDeskMapperBenchmark.class.getResourceAsStream("/coindesk/coindesk.json")) {
+            sample = Jackson2ObjectMapperBuilder.json().build().readValue(in, CoinDeskResponse.class);
+        }
+        CoinDeskResponse.TimeData time = sample.getTime();
+        if ("invalid".equals(updatedTime)) {
+            time.setUpdatedISO("Sep 2, 2024 at 07:07 GMT");
+        }
+
+        Map<String, CoinDeskResponse.BpiData> bpi = new LinkedHashMap<>(sample.getBpi());
+        List<CoinDeskResponse.BpiData> templates = new ArrayList<>(bpi.values());
+        for (int i = bpi.size(); i < currencies; i++) {
+            CoinDeskResponse.BpiData template = templates.get(i % templates.size());
+            CoinDeskResponse.BpiData copy = new CoinDeskResponse.BpiData();
+            copy.setCode(String.format("C%02d", i));
+            copy.setSymbol(template.getSymbol());
+            copy.setRate(template.getRate());
+            copy.setDescription(template.getDescription());
+            copy.setRateFloat(template.getRateFloat());
+            bpi.put(copy.getCode(), copy);
+        }
+
+        original = new CoinDeskResponse();
+        original.setTime(time);
+        original.setBpi(bpi);
+        timeOnly = new CoinDeskResponse();
+        timeOnly.setTime(time);
+        timeOnly.setBpi(Collections.emptyMap());
+
+        List<Currency> catalog = new ArrayList<>();
+        for (String code : bpi.keySet()) {
+            Currency entry = new Currency();
+            entry.setCode(code);
+            entry.setDisplayName(code + " 名稱");
+            entry.setActive(true);
+            catalog.add(entry);
+        }
+        CurrencyRepository repository = (CurrencyRepository) Proxy.newProxyInstance(
+                CurrencyRepository.class.getClassLoader(),
+                new Class<?>[]{CurrencyRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAll".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return catalog;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        lookupTable = new CurrencyLookupTable(repository);
+        lookupTable.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public TransformedCoinDeskResponse toTransformedResponse() {
+        return mapper.toTransformedResponse(original, lookupTable);
+    }
+
+    @Benchmark
+    public TransformedCoinDeskResponse formatUpdatedTime() {
+        return mapper.toTransformedResponse(timeOnly, lookupTable);
+    }
+
+}
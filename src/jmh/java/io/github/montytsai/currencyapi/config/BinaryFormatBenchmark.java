@@ -0,0 +1,151 @@
+package io.github.montytsai.currencyapi.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 JSON / CBOR / Smile 三種格式對 API 回應 DTO 的編碼與解碼成本。
+ * <p>
+ * 三個 DTO 各以實際的回應內容作為樣本：{@code /coindesk/original} (coindesk.json)、{@code /coindesk/transformed}
+ * 與 {@code /currencies} (data.sql 的三筆啟用幣別)。ObjectMapper 以 {@link Jackson2ObjectMapperBuilder} 建立，
+ * 與應用程式 (見 {@link BinaryFormatConfig}) 相同。
+ * 各格式的 payload 大小在 Setup 時輸出 (PAYLOAD 開頭的行)。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BinaryFormatBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private JavaType currencyListType;
+
+    private CoinDeskResponse original;
+    private TransformedCoinDeskResponse transformed;
+    private List<CurrencyResponse> currencies;
+
+    private byte[] originalBytes;
+    private byte[] transformedBytes;
+    private byte[] currenciesBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = builderFor(format).build();
+        currencyListType = mapper.getTypeFactory().constructCollectionType(List.class, CurrencyResponse.class);
+
+        try (InputStream in = BinaryFormatBenchmark.class.getResourceAsStream("/coindesk/coindesk.json")) {
+            original = Jackson2ObjectMapperBuilder.json().build().readValue(in, CoinDeskResponse.class);
+        }
+        transformed = transform(original);
+        currencies = sampleCurrencies();
+
+        originalBytes = mapper.writeValueAsBytes(original);
+        transformedBytes = mapper.writeValueAsBytes(transformed);
+        currenciesBytes = mapper.writeValueAsBytes(currencies);
+        System.out.printf("PAYLOAD %s: original=%d bytes, transformed=%d bytes, currencies=%d bytes%n",
+                format, originalBytes.length, transformedBytes.length, currenciesBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeOriginal() throws IOException {
+        return mapper.writeValueAsBytes(original);
+    }
+
+    @Benchmark
+    public CoinDeskResponse decodeOriginal() throws IOException {
+        return mapper.readValue(originalBytes, CoinDeskResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeTransformed() throws IOException {
+        return mapper.writeValueAsBytes(transformed);
+    }
+
+    @Benchmark
+    public TransformedCoinDeskResponse decodeTransformed() throws IOException {
+        return mapper.readValue(transformedBytes, TransformedCoinDeskResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeCurrencies() throws IOException {
+        return mapper.writeValueAsBytes(currencies);
+    }
+
+    @Benchmark
+    public List<CurrencyResponse> decodeCurrencies() throws IOException {
+        return mapper.readValue(currenciesBytes, currencyListType);
+    }
+
+    private static Jackson2ObjectMapperBuilder builderFor(String format) {
+        switch (format) {
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile();
+            default:
+                return Jackson2ObjectMapperBuilder.json();
+        }
+    }
+
+    private static TransformedCoinDeskResponse transform(CoinDeskResponse original) {
+        List<TransformedCoinDeskResponse.CurrencyInfo> infos = new ArrayList<>();
+        for (CoinDeskResponse.BpiData bpi : original.getBpi().values()) {
+            TransformedCoinDeskResponse.CurrencyInfo info = new TransformedCoinDeskResponse.CurrencyInfo();
+            info.setCode(bpi.getCode());
+            info.setChineseName(bpi.getDescription());
+            info.setRate(bpi.getRateFloat());
+            infos.add(info);
+        }
+        TransformedCoinDeskResponse response = new TransformedCoinDeskResponse();
+        response.setUpdatedTime("2024/09/02 07:07:20");
+        response.setCurrencyInfo(infos);
+        return response;
+    }
+
+    private static List<CurrencyResponse> sampleCurrencies() {
+        String[][] rows = {{"USD", "美金", "$"}, {"GBP", "英鎊", "£"}, {"EUR", "歐元", "€"}};
+        LocalDateTime now = LocalDateTime.of(2024, 9, 2, 7, 7, 20);
+        List<CurrencyResponse> result = new ArrayList<>();
+        for (String[] row : rows) {
+            CurrencyResponse currency = new CurrencyResponse();
+            currency.setCode(row[0]);
+            currency.setDisplayName(row[1]);
+            currency.setSymbol(row[2]);
+            currency.setActive(true);
+            currency.setCreatedAt(now);
+            currency.setUpdatedAt(now);
+            result.add(currency);
+        }
+        return result;
+    }
+
+}
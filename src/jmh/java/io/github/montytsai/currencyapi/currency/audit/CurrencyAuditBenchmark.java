@@ -0,0 +1,89 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import io.github.montytsai.currencyapi.CurrencyApiDemoApplication;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.service.CurrencyService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測稽核紀錄對寫入路徑 ({@link CurrencyService#partialUpdate}，含交易與 UPDATE) 的額外延遲。
+ * <ul>
+ * <li>{@code off}：停用稽核紀錄。</li>
+ * <li>{@code async}：預設設定，提交後放入佇列，由背景執行緒批次寫入。</li>
+ * <li>{@code caller-runs}：佇列容量 1 且寫入執行緒不再取出，每筆事件都由請求執行緒直接 INSERT
+ *     (等同同步寫入稽核紀錄的成本)。</li>
+ * </ul>
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyAuditBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyAuditBenchmark {
+
+    private static final String[] DISPLAY_NAMES = {"美金", "美元"};
+
+    @Param({"off", "async", "caller-runs"})
+    public String audit;
+
+    private ConfigurableApplicationContext context;
+    private CurrencyService currencyService;
+    private CurrencyUpdateRequest[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean callerRuns = "caller-runs".equals(audit);
+        context = new SpringApplicationBuilder(CurrencyApiDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--currency.audit.enabled=" + !"off".equals(audit),
+                        "--currency.audit.capacity=" + (callerRuns ? 1 : 8192),
+                        "--currency.audit.flush-interval=" + (callerRuns ? "1h" : "100ms"),
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.io.github.montytsai=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        currencyService = context.getBean(CurrencyService.class);
+        requests = new CurrencyUpdateRequest[DISPLAY_NAMES.length];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new CurrencyUpdateRequest();
+            requests[i].setDisplayName(Optional.of(DISPLAY_NAMES[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Currency partialUpdate() {
+        next ^= 1; // 每次都實際變更欄位，UPDATE 不會被略過
+        return currencyService.partialUpdate("USD", requests[next]);
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.github.montytsai.currencyapi.currency.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 量測幣別清單的 Entity → DTO 轉換與 JSON 序列化 ({@code GET /currencies} 的回應路徑)，搭配 {@code -prof gc} 觀察每筆的配置量。
+ * <ul>
+ * <li>{@code fromEntityStream}：與 CurrencyController 相同的 stream().map().collect()。</li>
+ * <li>{@code fromEntityLoop}：預先配置容量的迴圈，作為 stream 額外成本的對照。</li>
+ * <li>{@code serialize}：轉換後清單的 JSON 序列化。</li>
+ * </ul>
+ * {@code size} 為幣別筆數：10 接近目前的資料量，1000 / 100000 用來觀察成本是否隨筆數線性成長。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyResponseBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyResponseBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Currency> entities;
+    private List<CurrencyResponse> responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.of(2024, 9, 2, 7, 7, 20);
+        entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Currency currency = new Currency();
+            currency.setCode(String.format("C%05d", i));
+            currency.setDisplayName("幣別 " + i);
+            currency.setSymbol("$");
+            currency.setActive(true);
+            currency.setCreatedAt(now);
+            currency.setUpdatedAt(now);
+            entities.add(currency);
+        }
+        responses = this.fromEntityStream();
+    }
+
+    @Benchmark
+    public List<CurrencyResponse> fromEntityStream() {
+        return entities.stream()
+                .map(CurrencyResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<CurrencyResponse> fromEntityLoop() {
+        List<CurrencyResponse> result = new ArrayList<>(entities.size());
+        for (Currency currency : entities) {
+            result.add(CurrencyResponse.fromEntity(currency));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.github.montytsai.currencyapi.currency.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 量測 {@link IdempotentRequests} 在請求處理之外的額外成本 (處理本身為直接回傳固定的回應)。
+ * <ul>
+ * <li>{@code withoutKey}：未帶標頭，不經過任何檢查 (基準)。</li>
+ * <li>{@code replay}：重送已完成的 key，計算雜湊並由記憶體回傳保存的回應，不查詢資料庫。</li>
+ * <li>{@code newKey}：每次都是新的 key，計算雜湊、取得 key (記憶體中沒有，以一次主鍵查詢確認其他節點未完成)、
+ *     在交易中執行並 INSERT 一筆 IDEMPOTENCY_KEY (H2 記憶體資料庫)。</li>
+ * </ul>
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="IdempotentRequestsBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotentRequestsBenchmark {
+
+    private static final String OPERATION = "POST /currencies";
+    private static final String REPLAYED_KEY = "replayed-key";
+
+    private IdempotentRequests idempotentRequests;
+    private CurrencyCreateRequest request;
+    private Supplier<ResponseEntity<CurrencyResponse>> action;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:idempotency-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        idempotentRequests = new IdempotentRequests(true, Duration.ofHours(24), 10_000, Duration.ofSeconds(10), "",
+                new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource), objectMapper, new SimpleMeterRegistry());
+        idempotentRequests.afterPropertiesSet();
+
+        request = new CurrencyCreateRequest();
+        request.setCode("JPY");
+        request.setDisplayName("日圓");
+        request.setSymbol("¥");
+        CurrencyResponse body = new CurrencyResponse();
+        body.setCode("JPY");
+        body.setDisplayName("日圓");
+        body.setSymbol("¥");
+        body.setActive(true);
+        body.setCreatedAt(LocalDateTime.now());
+        body.setUpdatedAt(body.getCreatedAt());
+        ResponseEntity<CurrencyResponse> response = ResponseEntity.status(HttpStatus.CREATED).body(body);
+        action = () -> response;
+
+        idempotentRequests.execute(REPLAYED_KEY, OPERATION, request, CurrencyResponse.class, action);
+    }
+
+    @Benchmark
+    public ResponseEntity<CurrencyResponse> withoutKey() {
+        return idempotentRequests.execute(null, OPERATION, request, CurrencyResponse.class, action);
+    }
+
+    @Benchmark
+    public ResponseEntity<CurrencyResponse> replay() {
+        return idempotentRequests.execute(REPLAYED_KEY, OPERATION, request, CurrencyResponse.class, action);
+    }
+
+    @Benchmark
+    public ResponseEntity<CurrencyResponse> newKey() {
+        return idempotentRequests.execute("key-" + next++, OPERATION, request, CurrencyResponse.class, action);
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.montytsai.currencyapi.currency.lookup;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 比較 CoinDesk 轉換路徑中「依代碼查詢幣別名稱」的三種做法：
+ * <ul>
+ * <li>{@code hashMapPerRequest}：原本的做法，每次請求以 findAll 結果建立 {@code HashMap<String, Currency>} 後查詢。</li>
+ * <li>{@code hashMapLookup}：預先建立好的 {@code HashMap<String, Currency>}。</li>
+ * <li>{@code denseTableLookup}：{@link CurrencyLookupTable} 的壓縮代碼陣列查詢。</li>
+ * </ul>
+ * 查詢用的代碼每次都以新字串建立，模擬 JSON 反序列化後尚未快取 hashCode 的情況。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyLookupTableBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyLookupTableBenchmark {
+
+    private static final String[] CATALOG_CODES = {
+            "USD", "GBP", "EUR", "CAD", "JPY", "TWD", "CNY", "HKD", "KRW", "SGD",
+            "AUD", "NZD", "CHF", "SEK", "NOK", "DKK", "THB", "MYR", "IDR", "PHP",
+            "VND", "INR", "ZAR", "BRL", "MXN", "ARS", "RUB", "TRY", "PLN", "CZK"};
+
+    private static final char[][] BPI_CODES = {"USD".toCharArray(), "GBP".toCharArray(), "EUR".toCharArray()};
+
+    private List<Currency> catalog;
+    private Map<String, Currency> hashMap;
+    private CurrencyLookupTable table;
+
+    @Setup
+    public void setUp() {
+        catalog = new ArrayList<>();
+        for (String code : CATALOG_CODES) {
+            Currency currency = new Currency();
+            currency.setCode(code);
+            currency.setDisplayName(code + " name");
+            currency.setSymbol("$");
+            currency.setActive(true);
+            catalog.add(currency);
+        }
+        hashMap = toMap(catalog);
+
+        CurrencyRepository repository = (CurrencyRepository) Proxy.newProxyInstance(
+                CurrencyRepository.class.getClassLoader(),
+                new Class<?>[]{CurrencyRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAll".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return catalog;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        table = new CurrencyLookupTable(repository);
+        table.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public void hashMapPerRequest(Blackhole blackhole) {
+        Map<String, Currency> map = toMap(catalog);
+        for (char[] code : BPI_CODES) {
+            Currency currency = map.get(new String(code));
+            blackhole.consume(currency != null ? currency.getDisplayName() : null);
+        }
+    }
+
+    @Benchmark
+    public void hashMapLookup(Blackhole blackhole) {
+        for (char[] code : BPI_CODES) {
+            Currency currency = hashMap.get(new String(code));
+            blackhole.consume(currency != null ? currency.getDisplayName() : null);
+        }
+    }
+
+    @Benchmark
+    public void denseTableLookup(Blackhole blackhole) {
+        for (char[] code : BPI_CODES) {
+            int id = table.idOf(new String(code));
+            blackhole.consume(id != CurrencyLookupTable.NO_ID ? table.displayName(id) : null);
+        }
+    }
+
+    private static Map<String, Currency> toMap(List<Currency> currencies) {
+        return currencies.stream()
+                .collect(Collectors.toMap(Currency::getCode, Function.identity(), (existing, replacement) -> existing, HashMap::new));
+    }
+
+}
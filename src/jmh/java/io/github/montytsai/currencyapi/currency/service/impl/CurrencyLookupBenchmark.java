@@ -0,0 +1,97 @@
+package io.github.montytsai.currencyapi.currency.service.impl;
+
+import io.github.montytsai.currencyapi.CurrencyApiDemoApplication;
+import io.github.montytsai.currencyapi.currency.service.CurrencyService;
+import io.github.montytsai.currencyapi.exception.ResourceNotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 90% 未命中 (不存在的幣別代碼) 的工作負載，量測 {@link CurrencyService#findActiveByCode} 的吞吐量。
+ * <p>
+ * 透過 {@code negativeCache} 參數比較啟用與停用 ActiveCurrencyCodeIndex 時的差異。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyLookupBenchmark"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyLookupBenchmark {
+
+    /**
+     * 每 10 個代碼中有 1 個存在 (USD/GBP/EUR 輪流)，其餘 9 個不存在。
+     */
+    private static final String[] CODES = new String[100];
+
+    static {
+        String[] hits = {"USD", "GBP", "EUR"};
+        for (int i = 0; i < CODES.length; i++) {
+            CODES[i] = (i % 10 == 0) ? hits[(i / 10) % hits.length] : String.format("X%02d", i);
+        }
+    }
+
+    @Param({"true", "false"})
+    public boolean negativeCache;
+
+    private ConfigurableApplicationContext context;
+    private CurrencyService currencyService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CurrencyApiDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--currency.negative-cache.enabled=" + negativeCache,
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.io.github.montytsai=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        currencyService = context.getBean(CurrencyService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextCode() {
+            String code = CODES[next];
+            next = (next + 1) % CODES.length;
+            return code;
+        }
+    }
+
+    @Benchmark
+    public Object findActiveByCode(Cursor cursor) {
+        try {
+            return currencyService.findActiveByCode(cursor.nextCode());
+        } catch (ResourceNotFoundException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.github.montytsai.currencyapi.currency.service.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測 PATCH 部分更新的欄位驗證 ({@link CurrencyPatches#validateAndSetDisplayName} / {@link CurrencyPatches#validateAndSetSymbol})。
+ * <ul>
+ * <li>{@code valid}：兩個欄位都有提供且合法。</li>
+ * <li>{@code absent}：兩個欄位都未提供 (Optional 為 null)，只剩判斷。</li>
+ * <li>{@code blankDisplayName}：驗證失敗，含建立與拋出 IllegalArgumentException 的成本。</li>
+ * </ul>
+ * 驗證後的 DEBUG 日誌會蓋過驗證本身的成本，因此量測時將日誌等級調為 INFO。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CurrencyPatchesBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyPatchesBenchmark {
+
+    private final Optional<String> displayName = Optional.of("美金");
+    private final Optional<String> symbol = Optional.of("$");
+    private final Optional<String> blank = Optional.of("   ");
+
+    private Currency currency;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(CurrencyPatches.class)).setLevel(Level.INFO);
+        currency = new Currency();
+        currency.setCode("USD");
+        currency.setDisplayName("US Dollar");
+    }
+
+    @Benchmark
+    public Currency valid() {
+        CurrencyPatches.validateAndSetDisplayName(currency, displayName);
+        CurrencyPatches.validateAndSetSymbol(currency, symbol);
+        return currency;
+    }
+
+    @Benchmark
+    public Currency absent() {
+        CurrencyPatches.validateAndSetDisplayName(currency, null);
+        CurrencyPatches.validateAndSetSymbol(currency, null);
+        return currency;
+    }
+
+    @Benchmark
+    public Object blankDisplayName() {
+        try {
+            CurrencyPatches.validateAndSetDisplayName(currency, blank);
+            return currency;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package io.github.montytsai.currencyapi.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.mapper.CoinDeskMapper;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 量測 {@link ApiMetrics} 熱路徑指標的額外成本。
+ * <ul>
+ * <li>{@code noop}：沒有任何後端的 {@link CompositeMeterRegistry}，Timer / Counter 不記錄任何資料，作為未加指標的基準。</li>
+ * <li>{@code prometheus}：與正式環境相同的 {@link PrometheusMeterRegistry}，並開啟百分位數直方圖 (application.yml 的 percentiles-histogram)。</li>
+ * </ul>
+ * {@code mapTransformed} 為實際的 CoinDesk 轉換 (coindesk.json，三個幣別)，其餘兩個方法只量測包裝本身 (Supplier 直接回傳常數；
+ * 上游呼叫為已完成的 {@code Mono.just}，含訂閱與 block 的成本)。
+ * 轉換過程的 DEBUG 日誌會蓋過指標的成本，因此量測時將 Mapper 的日誌等級調為 INFO。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ApiMetricsBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiMetricsBenchmark {
+
+    @Param({"noop", "prometheus"})
+    public String registry;
+
+    private ApiMetrics apiMetrics;
+    private CoinDeskMapper mapper;
+    private CurrencyLookupTable lookupTable;
+    private CoinDeskResponse original;
+    private Currency currency;
+
+    @Setup
+    public void setUp() throws IOException {
+        ((Logger) LoggerFactory.getLogger(CoinDeskMapper.class)).setLevel(Level.INFO);
+        apiMetrics = new ApiMetrics(newRegistry(registry));
+        mapper = new CoinDeskMapper(apiMetrics);
+
+        try (InputStream in = ApiMetricsBenchmark.class.getResourceAsStream("/coindesk/coindesk.json")) {
+            original = Jackson2ObjectMapperBuilder.json().build().readValue(in, CoinDeskResponse.class);
+        }
+
+        List<Currency> catalog = new ArrayList<>();
+        for (String[] row : new String[][]{{"USD", "美金"}, {"GBP", "英鎊"}, {"EUR", "歐元"}}) {
+            Currency entry = new Currency();
+            entry.setCode(row[0]);
+            entry.setDisplayName(row[1]);
+            entry.setActive(true);
+            catalog.add(entry);
+        }
+        currency = catalog.get(0);
+        CurrencyRepository repository = (CurrencyRepository) Proxy.newProxyInstance(
+                CurrencyRepository.class.getClassLoader(),
+                new Class<?>[]{CurrencyRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAll".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return catalog;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        lookupTable = new CurrencyLookupTable(repository);
+        lookupTable.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public TransformedCoinDeskResponse mapTransformed() {
+        return mapper.toTransformedResponse(original, lookupTable);
+    }
+
+    /**
+     * 不經過 ApiMetrics 的同一個 Supplier 呼叫，用來扣除包裝以外的成本 (與 registry 參數無關)。
+     */
+    @Benchmark
+    public Currency baseline() {
+        Supplier<Currency> supplier = () -> currency;
+        return supplier.get();
+    }
+
+    @Benchmark
+    public Currency timeCatalogQuery() {
+        return apiMetrics.timeCatalogQuery("findActiveByCode", () -> currency);
+    }
+
+    @Benchmark
+    public Currency timeUpstreamFetch() {
+        return apiMetrics.timeUpstreamFetch(Mono.just(currency));
+    }
+
+    private static MeterRegistry newRegistry(String registry) {
+        if ("noop".equals(registry)) {
+            return new CompositeMeterRegistry();
+        }
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        prometheus.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        return prometheus;
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測頻率限制本身的成本 (每秒可檢查的次數)，預設以所有核心同時執行 ({@code Threads.MAX})。
+ * <ul>
+ * <li>{@code check}：與 RateLimitInterceptor 相同的路徑，計算客戶端位址的指紋後取得 token；
+ * 每個執行緒輪流使用 {@code clients} 個不同的客戶端。</li>
+ * <li>{@code acquire}：只取得 token (指紋預先算好)。</li>
+ * <li>{@code hotClient}：所有執行緒同時對同一個客戶端取得 token，CAS 競爭最激烈的情況。</li>
+ * </ul>
+ * 額度設為足夠大，量測的是接受路徑 (需要寫入)；拒絕路徑只讀取，成本更低。
+ * {@code clients} 超過表的容量 ({@code maxClients}) 時，每次檢查都伴隨一次淘汰。
+ * 執行方式: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="TokenBucketTableBenchmark"}，
+ * 以 {@code -t <n>} 指定執行緒數。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class TokenBucketTableBenchmark {
+
+    private static final long INTERVAL_NANOS = 1;
+    private static final int BURST = Integer.MAX_VALUE / 2;
+
+    @Param({"1000", "100000"})
+    public int clients;
+
+    private TokenBucketTable table;
+    private long hotFingerprint;
+
+    @Setup
+    public void setUp() {
+        table = new TokenBucketTable(65536);
+        hotFingerprint = TokenBucketTable.fingerprint("203.0.113.1", 0);
+    }
+
+    @State(Scope.Thread)
+    public static class ClientKeys {
+
+        String[] addresses;
+        long[] fingerprints;
+        int next;
+
+        @Setup
+        public void setUp(TokenBucketTableBenchmark benchmark) {
+            addresses = new String[benchmark.clients];
+            fingerprints = new long[benchmark.clients];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+                fingerprints[i] = TokenBucketTable.fingerprint(addresses[i], 0);
+            }
+        }
+
+        int nextIndex() {
+            int index = next;
+            next = (index + 1 == addresses.length) ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public long check(ClientKeys keys) {
+        return table.tryAcquire(TokenBucketTable.fingerprint(keys.addresses[keys.nextIndex()], 0), INTERVAL_NANOS, BURST);
+    }
+
+    @Benchmark
+    public long acquire(ClientKeys keys) {
+        return table.tryAcquire(keys.fingerprints[keys.nextIndex()], INTERVAL_NANOS, BURST);
+    }
+
+    @Benchmark
+    public long hotClient() {
+        return table.tryAcquire(hotFingerprint, INTERVAL_NANOS, BURST);
+    }
+
+}
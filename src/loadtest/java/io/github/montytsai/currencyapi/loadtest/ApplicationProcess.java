@@ -0,0 +1,155 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import io.github.montytsai.currencyapi.CurrencyApiDemoApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 在全新的 JVM 子行程中啟動應用程式 (類別路徑與目前的 JVM 相同)，標準輸出與錯誤輸出寫入日誌檔。
+ * <p>
+ * 每次量測都使用新的行程，前一次量測留下的 JIT 編譯結果、堆積與執行緒不會影響下一次量測；
+ * 可指定其他 JDK ({@code javaHome}) 執行，例如在 JDK 21 上量測虛擬執行緒。
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Process process;
+    private final File log;
+    private final int port;
+    private final long startedAt;
+
+    private ApplicationProcess(Process process, File log, int port, long startedAt) {
+        this.process = process;
+        this.log = log;
+        this.port = port;
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * @param javaHome   執行子行程的 JDK
+     * @param jvmArgs    JVM 參數，可為空
+     * @param properties 應用程式屬性，以 {@code --key=value} 傳入 (優先於 application.yml)
+     * @param log        子行程的日誌檔
+     */
+    static ApplicationProcess start(Path javaHome, List<String> jvmArgs, Map<String, Object> properties, File log)
+            throws IOException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(javaHome.resolve("bin").resolve("java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CurrencyApiDemoApplication.class.getName());
+        command.add("--server.port=" + port);
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        return new ApplicationProcess(process, log, port, startedAt);
+    }
+
+    /**
+     * @return 例如 {@code 17.0.9}；取自 JDK 的 release 檔，讀不到時為 null
+     */
+    static String javaVersion(Path javaHome) {
+        Path release = javaHome.resolve("release");
+        if (!Files.exists(release)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(release)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        String version = properties.getProperty("JAVA_VERSION");
+        return (version == null) ? null : version.replace("\"", "");
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    /**
+     * 輪詢直到回應 200。
+     *
+     * @param path 相對於 {@link #baseUrl()} 的路徑
+     * @return 從行程建立開始經過的毫秒數
+     */
+    long awaitOk(String path) throws IOException, InterruptedException {
+        URL url = new URL(this.baseUrl() + path);
+        while (!isOk(url)) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            if (System.nanoTime() - startedAt > STARTUP_TIMEOUT_NANOS) {
+                throw new IllegalStateException("Application did not respond 200 to " + url + " within 2 minutes, see " + log);
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * 等待日誌出現符合 pattern 的內容。
+     *
+     * @return 第一個群組；逾時或行程已結束時為 null
+     */
+    String awaitLog(Pattern pattern, Duration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        do {
+            Matcher matcher = pattern.matcher(new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                return (matcher.groupCount() > 0) ? matcher.group(1) : matcher.group();
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        } while (System.nanoTime() < deadline && process.isAlive());
+        return null;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static boolean isOk(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基準值檔案 (預設 src/loadtest/baseline.json)，以 {@code <scenario>/<variant>} 為 key 記錄每核心吞吐量與各請求的 p99。
+ * <p>
+ * 判定為效能退化的條件：
+ * <ul>
+ * <li>每核心吞吐量低於基準值 × (1 - {@code --tolerance})。</li>
+ * <li>任一請求的 p99 高於基準值 × (1 + {@code --latency-tolerance})；樣本數不足 {@value #MIN_SAMPLES} 的請求不比較 p99。</li>
+ * </ul>
+ * 基準值與機器有關，更換機器或刻意接受效能變化時以 {@code --update-baseline=true} 重新產生。
+ */
+final class Baseline {
+
+    static final int MIN_SAMPLES = 100;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Map<String, Object>> entries;
+
+    private Baseline(Path file, ObjectMapper objectMapper, Map<String, Map<String, Object>> entries) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.entries = entries;
+    }
+
+    static Baseline load(Path file, ObjectMapper objectMapper) throws IOException {
+        Map<String, Map<String, Object>> entries = new TreeMap<>();
+        if (Files.exists(file)) {
+            entries.putAll(objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Map<String, Object>>>() {
+            }));
+        }
+        return new Baseline(file, objectMapper, entries);
+    }
+
+    /**
+     * @return 退化項目的說明；沒有基準值或沒有退化時為空清單
+     */
+    @SuppressWarnings("unchecked")
+    List<String> compare(LoadReport report, LoadTestOptions options) {
+        List<String> regressions = new ArrayList<>();
+        String key = key(report);
+        Map<String, Object> expected = entries.get(key);
+        if (expected == null) {
+            System.out.printf("No baseline for %s, run with --update-baseline=true to record one.%n", key);
+            return regressions;
+        }
+        if (((Number) expected.get("cpus")).intValue() != report.cpus) {
+            System.out.printf("WARNING: baseline for %s was recorded with %s CPUs, this machine has %d.%n",
+                    key, expected.get("cpus"), report.cpus);
+        }
+
+        double throughputPerCore = ((Number) expected.get("throughputPerCore")).doubleValue();
+        double minimum = throughputPerCore * (1 - options.tolerance);
+        if (report.throughputPerCore < minimum) {
+            regressions.add(String.format("%s: throughput per core %.1f req/s is below %.1f (baseline %.1f)",
+                    key, report.throughputPerCore, minimum, throughputPerCore));
+        }
+
+        Map<String, Object> p99 = (Map<String, Object>) expected.get("p99Ms");
+        p99.forEach((operation, value) -> {
+            if (report.samples(operation) < MIN_SAMPLES) {
+                return;
+            }
+            double maximum = ((Number) value).doubleValue() * (1 + options.latencyTolerance);
+            double actual = report.p99Millis(operation);
+            if (actual > maximum) {
+                regressions.add(String.format("%s: %s p99 %.2f ms is above %.2f ms (baseline %s ms)",
+                        key, operation, actual, maximum, value));
+            }
+        });
+        return regressions;
+    }
+
+    void update(LoadReport report) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("cpus", report.cpus);
+        entry.put("throughputPerCore", report.throughputPerCore);
+        Map<String, Object> p99 = new LinkedHashMap<>();
+        report.operations.keySet().forEach(operation -> p99.put(operation, report.p99Millis(operation)));
+        entry.put("p99Ms", p99);
+        entries.put(key(report), entry);
+    }
+
+    void save() throws IOException {
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), entries);
+    }
+
+    private static String key(LoadReport report) {
+        return report.scenario + "/" + report.variant.key;
+    }
+
+}
@@ -0,0 +1,167 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以封閉迴圈 (closed loop) 產生負載：{@code concurrency} 個虛擬使用者各自在收到回應後立即送出下一個請求，
+ * 請求種類依 {@code --mix} 的權重隨機選擇。
+ * 設定 {@code --reject-backoff} 時，收到 503 的使用者先等待該時間再送出下一個請求 (模擬遵守 Retry-After 的客戶端)；
+ * 否則被拒絕的使用者會立即重送，伺服器拒絕請求也無法降低負擔。
+ * <p>
+ * 以 Reactor Netty 非阻塞送出請求，少量執行緒即可維持數千個同時連線。
+ * 封閉迴圈在伺服器變慢時會跟著降低送出速率 (coordinated omission)，因此延遲百分位數適合用於版本間比較，
+ * 不代表固定到達率下使用者感受到的延遲。
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoopResources loopResources;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient client;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong sequence = new AtomicLong();
+
+    LoadGenerator(String baseUrl, int concurrency, Map<Operation, Integer> mix) {
+        this.connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(RESPONSE_TIMEOUT)
+                .build();
+        // 使用獨立的 event loop，不與 reactive 模式下的應用程式共用 Reactor Netty 的預設執行緒
+        this.loopResources = LoopResources.create("loadtest");
+        this.client = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .baseUrl(baseUrl)
+                .responseTimeout(RESPONSE_TIMEOUT)
+                .headers(headers -> headers
+                        .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON));
+
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * 建立寫入請求使用的幣別 ({@link Operation#WRITE_CODES})。
+     */
+    void seedWriteTargets() {
+        for (String code : Operation.WRITE_CODES) {
+            String body = "{\"code\":\"" + code + "\",\"displayName\":\"負載測試\",\"symbol\":\"L\"}";
+            int status = this.send(HttpMethod.POST, "/currencies", body.getBytes(StandardCharsets.UTF_8))
+                    .block(RESPONSE_TIMEOUT);
+            if (status != 201) {
+                throw new IllegalStateException("Failed to create load test currency " + code + ": HTTP " + status);
+            }
+        }
+    }
+
+    /**
+     * 依序送出每種請求各一次 (沒有其他負載)，量測單一請求的延遲。
+     *
+     * @return 各請求的延遲 (毫秒)
+     */
+    Map<String, Double> probe() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            long start = System.nanoTime();
+            this.send(operation, sequence.getAndIncrement()).block(RESPONSE_TIMEOUT);
+            result.put(operation.key, OperationStats.round((System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return result;
+    }
+
+    /**
+     * 持續送出請求 warmUp + duration，只記錄 duration 期間開始的請求。
+     *
+     * @param rejectBackoff 收到 503 後到下一個請求前的等待時間；0 為立即送出
+     */
+    Map<Operation, OperationStats> run(int concurrency, Duration rejectBackoff, Duration warmUp, Duration duration) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+        long measureStart = System.nanoTime() + warmUp.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        Flux.range(0, concurrency)
+                .flatMap(user -> Mono.defer(() -> this.sendRandom(stats, measureStart, rejectBackoff))
+                        .repeat(() -> System.nanoTime() < end), concurrency)
+                .blockLast(warmUp.plus(duration).plus(RESPONSE_TIMEOUT.multipliedBy(2)));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block(RESPONSE_TIMEOUT);
+        loopResources.disposeLater().block(RESPONSE_TIMEOUT);
+    }
+
+    private Mono<Integer> sendRandom(Map<Operation, OperationStats> stats, long measureStart, Duration rejectBackoff) {
+        Operation operation = this.pick();
+        OperationStats operationStats = stats.get(operation);
+        long start = System.nanoTime();
+        return this.send(operation, sequence.getAndIncrement())
+                .doOnNext(status -> {
+                    if (start >= measureStart) {
+                        operationStats.record(status, System.nanoTime() - start);
+                    }
+                })
+                .flatMap(status -> (status == 503 && !rejectBackoff.isZero())
+                        ? Mono.delay(rejectBackoff).thenReturn(status)
+                        : Mono.just(status))
+                .onErrorResume(e -> {
+                    if (start >= measureStart) {
+                        operationStats.recordFailure(System.nanoTime() - start);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private Mono<Integer> send(Operation operation, long sequenceNumber) {
+        return this.send(operation.method, operation.path(sequenceNumber), operation.body(sequenceNumber));
+    }
+
+    private Mono<Integer> send(HttpMethod method, String path, byte[] body) {
+        HttpClient.RequestSender sender = client.request(method).uri(path);
+        HttpClient.ResponseReceiver<?> receiver = (body == null)
+                ? sender
+                : sender.send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body)));
+        return receiver.responseSingle((response, content) -> content.then(Mono.just(response.status().code())));
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 單一執行模式的測試結果，輸出為主控台表格與 JSON 檔 ({@code <result-directory>/<scenario>-<variant>.json})。
+ * <p>
+ * 吞吐量另以可用 CPU 數換算為每核心吞吐量 ({@code throughputPerCore})，作為不同模式與不同次執行之間比較的主要指標。
+ * 應用程式在獨立的 JVM 中執行，但與負載產生器在同一台機器上、共用 CPU，因此數值偏保守，只適合在同一台機器上相互比較。
+ */
+final class LoadReport {
+
+    static final String TOTAL = "total";
+
+    final Variant variant;
+    final String scenario;
+    final boolean virtualThreadsActive;
+    final String java;
+    final int cpus;
+    final double throughputPerCore;
+    final Map<String, Map<String, Object>> operations;
+    private final Map<String, Object> content = new LinkedHashMap<>();
+
+    /**
+     * @param virtualThreadsActive 應用程式是否實際以虛擬執行緒處理請求
+     * @param java                 執行應用程式的 Java 版本
+     * @param startupMillis        從建立子行程到 readiness 回報 UP 的毫秒數
+     */
+    LoadReport(Variant variant, boolean virtualThreadsActive, String java, LoadTestOptions options, long startupMillis,
+               Map<String, Double> coldFirstRequests, Map<String, Double> warmFirstRequests,
+               Map<Operation, OperationStats> stats) {
+        this.variant = variant;
+        this.scenario = options.scenario;
+        this.virtualThreadsActive = virtualThreadsActive;
+        this.java = java;
+        this.cpus = Runtime.getRuntime().availableProcessors();
+
+        double seconds = options.duration.toNanos() / 1e9;
+        this.operations = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        Histogram totalAccepted = new Histogram(3);
+        long errors = 0;
+        long rejected = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            operations.put(entry.getKey().key,
+                    OperationStats.summarize(operation.histogram(), operation.acceptedHistogram(),
+                            operation.errors(), operation.rejected(), seconds));
+            total.add(operation.histogram());
+            totalAccepted.add(operation.acceptedHistogram());
+            errors += operation.errors();
+            rejected += operation.rejected();
+        }
+        Map<String, Object> totalSummary = OperationStats.summarize(total, totalAccepted, errors, rejected, seconds);
+        this.throughputPerCore = OperationStats.round((double) totalSummary.get("throughput") / cpus);
+        totalSummary.put("throughputPerCore", throughputPerCore);
+        operations.put(TOTAL, totalSummary);
+
+        content.put("scenario", scenario);
+        content.put("variant", variant.key);
+        content.put("virtualThreadsActive", virtualThreadsActive);
+        content.put("java", java);
+        content.put("cpus", cpus);
+        content.put("options", options.describe());
+        content.put("startupMs", startupMillis);
+        content.put("coldFirstRequestMs", coldFirstRequests);
+        content.put("warmFirstRequestMs", warmFirstRequests);
+        content.put("operations", operations);
+    }
+
+    long samples(String operation) {
+        Map<String, Object> summary = operations.get(operation);
+        return (summary == null) ? 0 : (long) summary.get("requests");
+    }
+
+    double p99Millis(String operation) {
+        return (double) operations.get(operation).get("p99Ms");
+    }
+
+    Path write(ObjectMapper objectMapper, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(scenario + "-" + variant.key + ".json");
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), content);
+        return file;
+    }
+
+    void print() {
+        System.out.printf("%n== %s / %s (java: %s, virtual threads: %s, cpus: %d, startup: %d ms)%n",
+                scenario, variant.key, java, virtualThreadsActive, cpus, (long) content.get("startupMs"));
+        System.out.printf("%-12s %10s %8s %8s %10s %9s %9s %9s %9s %12s %12s%n",
+                "operation", "requests", "errors", "rejected", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                "accepted/s", "acc. p99 ms");
+        operations.forEach((name, summary) -> System.out.printf(
+                "%-12s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %12.1f %12.2f%n",
+                name, summary.get("requests"), summary.get("errors"), summary.get("rejected"), summary.get("throughput"),
+                summary.get("p50Ms"), summary.get("p99Ms"), summary.get("p999Ms"), summary.get("maxMs"),
+                summary.get("acceptedThroughput"), summary.get("acceptedP99Ms")));
+        System.out.printf("throughput per core: %.1f req/s%n", throughputPerCore);
+        System.out.printf("first request (cold): %s%n", content.get("coldFirstRequestMs"));
+        System.out.printf("first request (warm): %s%n", content.get("warmFirstRequestMs"));
+    }
+
+}
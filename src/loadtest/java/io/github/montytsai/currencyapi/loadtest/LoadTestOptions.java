@@ -0,0 +1,152 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 負載測試的參數，以 {@code --key=value} 傳入 (見 pom.xml 的 loadtest profile)。
+ * <p>
+ * {@code --scenario} 先套用一組預設值，其餘參數再個別覆寫：
+ * <ul>
+ * <li>{@code mixed} (預設)：讀取為主的混合負載，上游延遲 20ms。</li>
+ * <li>{@code slow-upstream}：上游延遲 1s、10,000 個同時連線，用於比較平台執行緒與虛擬執行緒
+ * (搭配 {@code --variants=servlet,servlet-virtual} 與 JDK 21 的 {@code --java-home})。</li>
+ * <li>{@code overload}：與 {@code mixed} 相同的組合、兩倍的同時連線，被拒絕的使用者等待 1s ({@code --reject-backoff}) 再重送，
+ * 用於比較有無自適應併發限制時被接受的請求延遲 (搭配 {@code --variants=servlet,servlet-unlimited})。</li>
+ * </ul>
+ * 應用程式在子行程中執行：{@code --java-home} 指定執行應用程式的 JDK (預設與負載產生器相同，虛擬執行緒需 JDK 21 以上)，
+ * {@code --jvm-args} 為子行程的 JVM 參數 (以空白分隔)。
+ */
+final class LoadTestOptions {
+
+    private static final Map<String, Map<String, String>> SCENARIOS = new HashMap<>();
+
+    static {
+        Map<String, String> mixed = new HashMap<>();
+        mixed.put("concurrency", "32");
+        mixed.put("upstream-latency", "20ms");
+        mixed.put("mix", "currencies:40,currency:15,search:15,write:10,transformed:20");
+        SCENARIOS.put("mixed", mixed);
+
+        Map<String, String> slowUpstream = new HashMap<>();
+        slowUpstream.put("concurrency", "10000");
+        slowUpstream.put("upstream-latency", "1s");
+        slowUpstream.put("mix", "currencies:50,transformed:50");
+        SCENARIOS.put("slow-upstream", slowUpstream);
+
+        Map<String, String> overload = new HashMap<>(mixed);
+        overload.put("concurrency", "64");
+        overload.put("reject-backoff", "1s");
+        SCENARIOS.put("overload", overload);
+    }
+
+    final String scenario;
+    final List<String> variants;
+    final int concurrency;
+    final Duration rejectBackoff;
+    final Duration warmUp;
+    final Duration duration;
+    final Duration upstreamLatency;
+    final double upstreamFailureRate;
+    final boolean connectionWarmUp;
+    final Map<Operation, Integer> mix;
+    final String logLevel;
+    final Path javaHome;
+    final List<String> jvmArgs;
+    final Path resultDirectory;
+    final Path baseline;
+    final double tolerance;
+    final double latencyTolerance;
+    final boolean updateBaseline;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.scenario = values.getOrDefault("scenario", "mixed");
+        Map<String, String> preset = SCENARIOS.get(scenario);
+        if (preset == null) {
+            throw new IllegalArgumentException("Unknown scenario '" + scenario + "'. Use one of " + SCENARIOS.keySet());
+        }
+        Map<String, String> merged = new HashMap<>(preset);
+        merged.putAll(values);
+
+        this.variants = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(merged.getOrDefault("variants", "servlet").split(","))));
+        this.concurrency = Integer.parseInt(merged.get("concurrency"));
+        this.rejectBackoff = DurationStyle.detectAndParse(merged.getOrDefault("reject-backoff", "0s"));
+        this.warmUp = DurationStyle.detectAndParse(merged.getOrDefault("warm-up", "15s"));
+        this.duration = DurationStyle.detectAndParse(merged.getOrDefault("duration", "30s"));
+        this.upstreamLatency = DurationStyle.detectAndParse(merged.get("upstream-latency"));
+        this.upstreamFailureRate = Double.parseDouble(merged.getOrDefault("upstream-failure-rate", "0"));
+        this.connectionWarmUp = Boolean.parseBoolean(merged.getOrDefault("connection-warm-up", "true"));
+        this.mix = parseMix(merged.get("mix"));
+        this.logLevel = merged.getOrDefault("log-level", "WARN");
+        this.javaHome = Paths.get(merged.getOrDefault("java-home", System.getProperty("java.home")));
+        String jvmArgs = merged.getOrDefault("jvm-args", "").trim();
+        this.jvmArgs = jvmArgs.isEmpty() ? Collections.emptyList() : Arrays.asList(jvmArgs.split("\\s+"));
+        this.resultDirectory = Paths.get(merged.getOrDefault("result-directory", "target/loadtest"));
+        this.baseline = Paths.get(merged.getOrDefault("baseline", "src/loadtest/baseline.json"));
+        this.tolerance = Double.parseDouble(merged.getOrDefault("tolerance", "0.25"));
+        this.latencyTolerance = Double.parseDouble(merged.getOrDefault("latency-tolerance", "0.5"));
+        this.updateBaseline = Boolean.parseBoolean(merged.getOrDefault("update-baseline", "false"));
+
+        for (String variant : variants) {
+            Variant.of(variant);
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'.");
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    /**
+     * @return 寫入報告的參數摘要
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenario", scenario);
+        result.put("concurrency", concurrency);
+        result.put("rejectBackoff", rejectBackoff.toString());
+        result.put("warmUp", warmUp.toString());
+        result.put("duration", duration.toString());
+        result.put("upstreamLatency", upstreamLatency.toString());
+        result.put("upstreamFailureRate", upstreamFailureRate);
+        result.put("connectionWarmUp", connectionWarmUp);
+        result.put("jvmArgs", String.join(" ", jvmArgs));
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.key, weight));
+        result.put("mix", weights);
+        return result;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> result = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                result.put(Operation.of(parts[0]), weight);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix must contain at least one operation.");
+        }
+        return result;
+    }
+
+}
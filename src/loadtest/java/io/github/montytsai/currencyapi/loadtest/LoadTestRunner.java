@@ -0,0 +1,119 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 端對端負載測試：以 {@link CoinDeskStubServer} 取代 CoinDesk 上游 (可設定延遲與失敗率)，
+ * 依序啟動每個 {@link Variant}，對真實的 HTTP 端點送出混合負載並輸出吞吐量與延遲百分位數。
+ * <p>
+ * 每個模式都在全新的 JVM 子行程 ({@link ApplicationProcess}) 中執行，先執行的模式留下的 JIT 編譯結果、堆積與執行緒
+ * 不會影響後面的模式；負載產生器與 CoinDesk stub 則在目前的 JVM 中執行。每個模式的流程：
+ * <ol>
+ * <li>啟動應用程式，記錄到 readiness 回報 UP 的時間；子行程的日誌寫入 {@code <result-directory>/<scenario>-<variant>.log}。</li>
+ * <li>建立寫入用的幣別後，量測冷啟動的第一個請求延遲 (每種請求各一次)。</li>
+ * <li>暖機 {@code --warm-up}，再量測 {@code --duration}。</li>
+ * <li>負載結束後再量一次單一請求的延遲，與冷啟動比較。</li>
+ * </ol>
+ * 結果與基準值 ({@link Baseline}) 比較，有退化時以結束碼 1 結束，可直接用於 CI。
+ * 虛擬執行緒模式在不支援的 JDK 上會退回平台執行緒，此時拒絕以 {@code --update-baseline=true} 記錄其基準值。
+ * 執行方式: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--variants=servlet,reactive"}
+ */
+public final class LoadTestRunner {
+
+    private static final String[] LOGGERS = {"root", "io.github.montytsai", "org.springframework.web"};
+    private static final Pattern VIRTUAL_THREADS_ENABLED = Pattern.compile("Virtual thread mode enabled");
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN); // 只有 stub 與負載產生器，沒有 Spring Boot 的日誌設定
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Baseline baseline = Baseline.load(options.baseline, objectMapper);
+        List<LoadReport> reports = new ArrayList<>();
+
+        Files.createDirectories(options.resultDirectory);
+        try (CoinDeskStubServer upstream = new CoinDeskStubServer()
+                .withLatency(options.upstreamLatency)
+                .withFailureRate(options.upstreamFailureRate)) {
+            for (String key : options.variants) {
+                LoadReport report = run(Variant.of(key), options, upstream.url());
+                report.print();
+                System.out.printf("Report written to %s%n", report.write(objectMapper, options.resultDirectory));
+                reports.add(report);
+            }
+        }
+
+        System.out.printf("%n== summary%n%-16s %16s %10s%n", "variant", "req/s per core", "p99 ms");
+        for (LoadReport report : reports) {
+            System.out.printf("%-16s %16.1f %10.2f%n",
+                    report.variant.key, report.throughputPerCore, report.p99Millis(LoadReport.TOTAL));
+        }
+
+        if (options.updateBaseline) {
+            for (LoadReport report : reports) {
+                if (report.variant.virtualThreads && !report.virtualThreadsActive) {
+                    System.out.printf("%nRefusing to record a baseline for %s/%s: virtual threads were not active on Java %s. "
+                            + "Run it with --java-home pointing to JDK 21 or later.%n", report.scenario, report.variant.key, report.java);
+                    System.exit(1);
+                }
+            }
+            reports.forEach(baseline::update);
+            baseline.save();
+            System.out.printf("Baseline updated: %s%n", options.baseline);
+            return;
+        }
+        List<String> regressions = new ArrayList<>();
+        for (LoadReport report : reports) {
+            regressions.addAll(baseline.compare(report, options));
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println("\nPerformance regressions:");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+    }
+
+    private static LoadReport run(Variant variant, LoadTestOptions options, String upstreamUrl) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>(variant.properties());
+        properties.put("coin-desk.api.url", upstreamUrl);
+        properties.put("coin-desk.api.warm-up.enabled", options.connectionWarmUp);
+        for (String logger : LOGGERS) {
+            properties.put("logging.level." + logger, options.logLevel);
+        }
+        // 由日誌判斷虛擬執行緒是否實際啟用 (不支援的 JDK 上會退回平台執行緒)
+        properties.put("logging.level.io.github.montytsai.currencyapi.config.VirtualThreadConfig", "INFO");
+        File log = options.resultDirectory.resolve(options.scenario + "-" + variant.key + ".log").toFile();
+
+        try (ApplicationProcess application = ApplicationProcess.start(options.javaHome, options.jvmArgs, properties, log)) {
+            long startupMillis = application.awaitOk("/actuator/health/readiness");
+            boolean virtualThreadsActive = application.awaitLog(VIRTUAL_THREADS_ENABLED, Duration.ZERO) != null;
+            String java = ApplicationProcess.javaVersion(options.javaHome);
+
+            try (LoadGenerator generator = new LoadGenerator(application.baseUrl(), options.concurrency, options.mix)) {
+                generator.seedWriteTargets();
+                Map<String, Double> cold = generator.probe();
+                Map<Operation, OperationStats> stats = generator.run(options.concurrency, options.rejectBackoff,
+                        options.warmUp, options.duration);
+                Map<String, Double> warm = generator.probe();
+                return new LoadReport(variant, virtualThreadsActive, java, options, startupMillis, cold, warm, stats);
+            }
+        }
+    }
+
+}
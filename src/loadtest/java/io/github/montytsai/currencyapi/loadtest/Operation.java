@@ -0,0 +1,89 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 負載測試中的各種請求，權重由 {@code --mix} 決定。
+ * <p>
+ * 寫入請求輪流 PATCH 測試開始前建立的 {@link #WRITE_CODES}，不修改 data.sql 的初始資料，也不會讓資料量隨測試時間增長。
+ */
+enum Operation {
+
+    /**
+     * 查詢所有啟用的幣別。
+     */
+    CURRENCIES("currencies", HttpMethod.GET),
+
+    /**
+     * 依代碼查詢單一幣別 (USD / GBP / EUR 輪流)。
+     */
+    CURRENCY("currency", HttpMethod.GET),
+
+    /**
+     * 依顯示名稱搜尋 (「元」，符合歐元)。
+     */
+    SEARCH("search", HttpMethod.GET),
+
+    /**
+     * 部分更新幣別的顯示名稱。
+     */
+    WRITE("write", HttpMethod.PATCH),
+
+    /**
+     * 呼叫上游 (stub) 並轉換的 CoinDesk 端點。
+     */
+    TRANSFORMED("transformed", HttpMethod.GET);
+
+    static final String[] WRITE_CODES = {"LT0", "LT1", "LT2", "LT3", "LT4", "LT5", "LT6", "LT7"};
+
+    private static final String[] READ_CODES = {"USD", "GBP", "EUR"};
+
+    final String key;
+    final HttpMethod method;
+
+    Operation(String key, HttpMethod method) {
+        this.key = key;
+        this.method = method;
+    }
+
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "'.");
+    }
+
+    /**
+     * @param sequence 遞增的請求序號，用於輪流選擇幣別代碼
+     * @return 相對於 /api/v1 的路徑
+     */
+    String path(long sequence) {
+        switch (this) {
+            case CURRENCIES:
+                return "/currencies";
+            case CURRENCY:
+                return "/currencies/" + READ_CODES[(int) (sequence % READ_CODES.length)];
+            case SEARCH:
+                return "/currencies/search?name=%E5%85%83";
+            case WRITE:
+                return "/currencies/" + WRITE_CODES[(int) (sequence % WRITE_CODES.length)];
+            default:
+                return "/coindesk/transformed";
+        }
+    }
+
+    /**
+     * @return 請求內容；沒有內容時為 null
+     */
+    byte[] body(long sequence) {
+        if (this != WRITE) {
+            return null;
+        }
+        return ("{\"displayName\":\"負載測試 " + sequence % 1000 + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 單一種請求的延遲分佈與錯誤數。
+ * <p>
+ * 延遲以微秒記錄於 HdrHistogram (3 位有效數字)，可由多個 event loop 執行緒同時寫入。
+ * 所有請求 (含錯誤) 都計入延遲分佈；HTTP 503 (容量已滿) 另外計為 rejected，
+ * 並另以未被拒絕的請求記錄一份延遲分佈 (accepted)，用來觀察過載時被接受的請求是否維持原本的延遲。
+ */
+final class OperationStats {
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Histogram acceptedLatency = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void record(int status, long elapsedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        latency.recordValue(micros);
+        if (status == 503) {
+            rejected.increment();
+            return;
+        }
+        acceptedLatency.recordValue(micros);
+        if (status >= 400) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * 記錄沒有收到回應的請求 (連線失敗或逾時)。
+     */
+    void recordFailure(long elapsedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        latency.recordValue(micros);
+        acceptedLatency.recordValue(micros);
+        errors.increment();
+    }
+
+    long requests() {
+        return latency.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    Histogram histogram() {
+        return latency;
+    }
+
+    Histogram acceptedHistogram() {
+        return acceptedLatency;
+    }
+
+    /**
+     * @param histogram     延遲分佈 (微秒)
+     * @param elapsedSeconds 量測期間的秒數
+     * @return 報告中的統計值：請求數、每秒請求數與 p50 / p99 / p99.9 / max (毫秒)
+     */
+    static Map<String, Object> summarize(Histogram histogram, long errors, long rejected, double elapsedSeconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", histogram.getTotalCount());
+        result.put("errors", errors);
+        result.put("rejected", rejected);
+        result.put("throughput", round(histogram.getTotalCount() / elapsedSeconds));
+        result.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        result.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        result.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        result.put("maxMs", millis(histogram.getMaxValue()));
+        return result;
+    }
+
+    /**
+     * 另加入未被拒絕的請求數、每秒請求數與 p50 / p99 (毫秒)。
+     *
+     * @param accepted 未被拒絕 (非 503) 的請求的延遲分佈 (微秒)
+     */
+    static Map<String, Object> summarize(Histogram histogram, Histogram accepted, long errors, long rejected,
+                                         double elapsedSeconds) {
+        Map<String, Object> result = summarize(histogram, errors, rejected, elapsedSeconds);
+        result.put("accepted", accepted.getTotalCount());
+        result.put("acceptedThroughput", round(accepted.getTotalCount() / elapsedSeconds));
+        result.put("acceptedP50Ms", millis(accepted.getValueAtPercentile(50)));
+        result.put("acceptedP99Ms", millis(accepted.getValueAtPercentile(99)));
+        return result;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+}
@@ -0,0 +1,233 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 量測冷啟動的各項時間：每次都啟動新的 JVM 子行程，從建立行程開始計時，
+ * <ol>
+ * <li>time-to-first-request：持續輪詢 {@code GET /api/v1/currencies} 直到回應 200。</li>
+ * <li>time-to-ready：持續輪詢 {@code GET /api/v1/actuator/health/readiness} 直到回應 200 (就緒前的預熱完成)。</li>
+ * <li>就緒後的前 {@code requests} 個請求 (依序輪流送出 {@link #FIRST_REQUEST_PATHS}) 的延遲分佈，
+ * 也就是負載平衡器開始導入流量後、新節點最初一段時間的延遲。</li>
+ * </ol>
+ * 與 {@link LoadTestRunner} 不同，每次量測都是全新的 JVM，類別載入、JIT 與 CDS 的影響都會反映在結果中。
+ * 參數 (皆為 {@code --key=value})：
+ * <ul>
+ * <li>{@code configurations}：以逗號分隔的設定，每個設定是以 + 連接的 profile，{@code default} 表示不指定，
+ * 可再以 {@code ?key=value&key=value} 附加應用程式屬性，例如 {@code default?readiness.warm-up.enabled=false}；
+ * 預設 {@code default,fast-startup}。</li>
+ * <li>{@code runs}：每個設定的量測次數，預設 5，報告取中位數。</li>
+ * <li>{@code requests}：就緒後量測延遲的請求數，預設 10000；0 表示不量測。</li>
+ * <li>{@code jvm-args}：子行程的 JVM 參數 (以空白分隔)，例如 {@code -XX:TieredStopAtLevel=1}。</li>
+ * </ul>
+ * 結果寫入 {@code target/loadtest/startup.json}，子行程的日誌寫入 {@code target/loadtest/startup-*.log}。
+ * 執行方式: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=StartupBenchmark -Dloadtest.args="--runs=3"}
+ */
+public final class StartupBenchmark {
+
+    private static final Path RESULT_DIRECTORY = Paths.get("target", "loadtest");
+    private static final Pattern READY = Pattern.compile("Application ready in (\\d+) ms");
+    private static final String[] FIRST_REQUEST_PATHS = {"/currencies", "/currencies/USD", "/currencies/XXX", "/coindesk/transformed"};
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN); // 只有 stub，沒有 Spring Boot 的日誌設定
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'.");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        List<String> configurations = Arrays.asList(options.getOrDefault("configurations", "default,fast-startup").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "10000"));
+        String jvmArgs = options.getOrDefault("jvm-args", "").trim();
+        Files.createDirectories(RESULT_DIRECTORY);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("java", System.getProperty("java.version"));
+        report.put("cpus", Runtime.getRuntime().availableProcessors());
+        report.put("jvmArgs", jvmArgs);
+        report.put("requests", requests);
+        Map<String, Object> results = new LinkedHashMap<>();
+        report.put("configurations", results);
+
+        try (CoinDeskStubServer upstream = new CoinDeskStubServer()) {
+            for (String configuration : configurations) {
+                List<Long> firstRequest = new ArrayList<>();
+                List<Long> timeToReady = new ArrayList<>();
+                List<Long> ready = new ArrayList<>();
+                List<Double> p99 = new ArrayList<>();
+                List<Map<String, Object>> latencies = new ArrayList<>();
+                for (int run = 1; run <= runs; run++) {
+                    Measurement measured = measure(configuration, run, jvmArgs, requests, upstream.url());
+                    firstRequest.add(measured.firstRequestMillis);
+                    timeToReady.add(measured.readinessMillis);
+                    ready.add(measured.readyMillis);
+                    latencies.add(measured.latency);
+                    if (requests > 0) {
+                        p99.add((Double) measured.latency.get("p99Ms"));
+                    }
+                    System.out.printf("%-48s run %d: first request %5d ms, readiness UP %5d ms, ready (reported by the application) %5d ms%s%n",
+                            configuration, run, measured.firstRequestMillis, measured.readinessMillis, measured.readyMillis,
+                            (requests > 0) ? ", first " + requests + " requests p99 " + measured.latency.get("p99Ms") + " ms" : "");
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("timeToFirstRequestMs", summarize(firstRequest));
+                result.put("timeToReadyMs", summarize(timeToReady));
+                result.put("readyMs", summarize(ready));
+                if (requests > 0) {
+                    result.put("firstRequestsP99Ms", summarize(p99));
+                    result.put("firstRequests", latencies);
+                }
+                results.put(configuration, result);
+            }
+        }
+
+        Path file = RESULT_DIRECTORY.resolve("startup.json");
+        new ObjectMapper().writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.printf("%n%-48s %22s %20s %18s%n", "configuration", "first request p50 ms", "readiness p50 ms",
+                "first requests p99");
+        results.forEach((configuration, result) -> System.out.printf("%-48s %22s %20s %18s%n", configuration,
+                median(result, "timeToFirstRequestMs"), median(result, "timeToReadyMs"),
+                (requests > 0) ? median(result, "firstRequestsP99Ms") + " ms" : "-"));
+        System.out.printf("Report written to %s%n", file);
+    }
+
+    private static Measurement measure(String configuration, int run, String jvmArgs, int requests, String upstreamUrl)
+            throws IOException, InterruptedException {
+        int separator = configuration.indexOf('?');
+        String profiles = (separator < 0) ? configuration : configuration.substring(0, separator);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("coin-desk.api.url", upstreamUrl);
+        properties.put("rate-limit.enabled", false); // 所有請求來自同一個位址
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.io.github.montytsai", "WARN");
+        properties.put("logging.level.io.github.montytsai.currencyapi.observability.StartupTimingReport", "INFO");
+        if (!"default".equals(profiles)) {
+            properties.put("spring.profiles.active", profiles.replace('+', ','));
+        }
+        if (separator >= 0) {
+            for (String property : configuration.substring(separator + 1).split("&")) {
+                int equals = property.indexOf('=');
+                properties.put(property.substring(0, equals), property.substring(equals + 1));
+            }
+        }
+        String fileName = configuration.replaceAll("[^A-Za-z0-9+.-]", "_");
+        File log = RESULT_DIRECTORY.resolve("startup-" + fileName + "-" + run + ".log").toFile();
+
+        List<String> jvmArguments = jvmArgs.isEmpty() ? Collections.emptyList() : Arrays.asList(jvmArgs.split("\\s+"));
+        try (ApplicationProcess application = ApplicationProcess.start(Paths.get(System.getProperty("java.home")),
+                jvmArguments, properties, log)) {
+            Measurement measurement = new Measurement();
+            measurement.firstRequestMillis = application.awaitOk("/currencies");
+            measurement.readinessMillis = application.awaitOk("/actuator/health/readiness");
+            // 第一個請求可能早於 ApplicationReadyEvent (CoinDesk 連線預熱在此之前執行)，因此短暫等待就緒的日誌
+            String ready = application.awaitLog(READY, Duration.ofSeconds(10));
+            measurement.readyMillis = (ready == null) ? -1 : Long.parseLong(ready);
+            if (requests > 0) {
+                measurement.latency = firstRequests(application.baseUrl(), requests);
+            }
+            return measurement;
+        }
+    }
+
+    /**
+     * 就緒後依序送出 count 個請求 (單一連線、沒有並行)，只量測伺服器本身的冷熱差異，不受排隊影響。
+     */
+    private static Map<String, Object> firstRequests(String baseUrl, int count) throws IOException {
+        Histogram histogram = new Histogram(3);
+        long errors = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            URL url = new URL(baseUrl + FIRST_REQUEST_PATHS[i % FIRST_REQUEST_PATHS.length]);
+            long requestStart = System.nanoTime();
+            int status = get(url);
+            histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStart));
+            if (status < 0 || status >= 500) {
+                errors++;
+            }
+        }
+        return OperationStats.summarize(histogram, errors, 0, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * 讀完回應內容但不關閉連線，讓 JDK 的 keep-alive 快取沿用同一條連線。
+     *
+     * @return HTTP 狀態碼；連線失敗時為 -1
+     */
+    private static int get(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            int status = connection.getResponseCode();
+            InputStream body = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // 讀完回應內容，連線才能歸還 keep-alive 快取
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static <T extends Comparable<T>> Map<String, T> summarize(List<T> values) {
+        List<T> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        Map<String, T> summary = new LinkedHashMap<>();
+        summary.put("min", sorted.get(0));
+        summary.put("p50", sorted.get(sorted.size() / 2));
+        summary.put("max", sorted.get(sorted.size() - 1));
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object median(Object result, String key) {
+        return ((Map<String, Map<String, Object>>) result).get(key).get("p50");
+    }
+
+    /**
+     * 單次量測的結果 (毫秒)；應用程式未回報就緒時間時 readyMillis 為 -1。
+     */
+    private static final class Measurement {
+        long firstRequestMillis;
+        long readinessMillis;
+        long readyMillis;
+        Map<String, Object> latency = Collections.emptyMap();
+    }
+
+}
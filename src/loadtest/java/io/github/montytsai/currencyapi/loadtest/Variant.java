@@ -0,0 +1,67 @@
+package io.github.montytsai.currencyapi.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 受測的執行模式，以 {@code --variants} 指定一或多個，依序在同一台機器上、各自全新的 JVM 中執行以便比較。
+ */
+enum Variant {
+
+    /**
+     * 預設的 servlet 模式 (Tomcat + 平台執行緒 + JPA)。
+     */
+    SERVLET("servlet", null, false),
+
+    /**
+     * servlet 模式但關閉自適應併發限制 (Tomcat 無上限排隊)，作為過載時的對照 (搭配 {@code --scenario=overload})。
+     */
+    SERVLET_UNLIMITED("servlet-unlimited", null, false),
+
+    /**
+     * servlet 模式改用虛擬執行緒 (需 JDK 21 以上，以 {@code --java-home} 指定；較舊的 JDK 上維持平台執行緒，報告中標示為未啟用)。
+     */
+    SERVLET_VIRTUAL("servlet-virtual", null, true),
+
+    /**
+     * Reactive 模式 (Netty + WebFlux 函式式路由 + R2DBC)。
+     */
+    REACTIVE("reactive", "reactive", false);
+
+    final String key;
+    final String profile;
+    final boolean virtualThreads;
+
+    Variant(String key, String profile, boolean virtualThreads) {
+        this.key = key;
+        this.profile = profile;
+        this.virtualThreads = virtualThreads;
+    }
+
+    static Variant of(String key) {
+        for (Variant variant : values()) {
+            if (variant.key.equals(key)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown variant '" + key
+                + "'. Use servlet, servlet-unlimited, servlet-virtual or reactive.");
+    }
+
+    /**
+     * @return 啟動應用程式時覆寫的設定
+     */
+    Map<String, Object> properties() {
+        Map<String, Object> properties = new HashMap<>();
+        if (profile != null) {
+            properties.put("spring.profiles.active", profile);
+        }
+        properties.put("spring.threads.virtual.enabled", virtualThreads);
+        properties.put("concurrency-limit.enabled", this != SERVLET_UNLIMITED);
+        properties.put("rate-limit.enabled", false); // 所有虛擬使用者來自同一個位址
+        properties.put("springdoc.api-docs.enabled", false);
+        properties.put("springdoc.swagger-ui.enabled", false);
+        return properties;
+    }
+
+}
@@ -2,12 +2,25 @@ package io.github.montytsai.currencyapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class CurrencyApiDemoApplication {
 
+	/**
+	 * 以 {@code -Dstartup.recording=true} 啟動時記錄各啟動階段的耗時，
+	 * 可由 {@code /actuator/startup} 取得，就緒時也會以日誌列出最慢的步驟 (見 StartupTimingReport)。
+	 */
+	static final String STARTUP_RECORDING = "startup.recording";
+
+	private static final int STARTUP_RECORDING_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(CurrencyApiDemoApplication.class, args);
+		SpringApplication application = new SpringApplication(CurrencyApiDemoApplication.class);
+		if (Boolean.getBoolean(STARTUP_RECORDING)) {
+			application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_RECORDING_CAPACITY));
+		}
+		application.run(args);
 	}
 
-}
\ No newline at end of file
+}
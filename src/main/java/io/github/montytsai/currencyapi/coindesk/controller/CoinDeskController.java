@@ -3,37 +3,95 @@ package io.github.montytsai.currencyapi.coindesk.controller;
 import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.service.CoinDeskService;
+import io.github.montytsai.currencyapi.config.CoinDeskExecutorConfig;
+import io.github.montytsai.currencyapi.exception.ServiceUnavailableException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * CoinDesk 相關端點。
+ * <p>
+ * 端點以 CompletableFuture 非同步回傳，實際工作在專用的有界執行緒池 (Bulkhead) 中執行，
+ * 上游變慢時不會佔用 Tomcat 的 worker 執行緒；執行緒池已滿時立即回應 503。
+ * <p>
+ * 上游無法使用而改以最後一份有效資料回應時，加上 {@code Warning: 110 - "Response is Stale"} 與
+ * {@code Age} (資料自上游取得後經過的秒數) 標頭，回應內容格式不變。
+ */
 @Tag(name = "CoinDesk API", description = "提供 CoinDesk 資料的串接與轉換功能")
 @RestController
 @RequestMapping("/coindesk")
 public class CoinDeskController {
 
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
     private final CoinDeskService coinDeskService;
+    private final Executor coinDeskExecutor;
+    private final long retryAfterSeconds;
 
-    public CoinDeskController(CoinDeskService coinDeskService) {
+    public CoinDeskController(CoinDeskService coinDeskService,
+                              @Qualifier(CoinDeskExecutorConfig.COIN_DESK_EXECUTOR) Executor coinDeskExecutor,
+                              @Value("${coin-desk.executor.retry-after-seconds:1}") long retryAfterSeconds) {
         this.coinDeskService = coinDeskService;
+        this.coinDeskExecutor = coinDeskExecutor;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     @Operation(summary = "呼叫原始 CoinDesk API", description = "直接回傳 CoinDesk API 的原始 JSON 結構，用於驗證與除錯。")
+    @ApiResponse(responseCode = "503", description = "CoinDesk 請求容量已滿，請依 Retry-After 稍後重試", content = @Content)
     @GetMapping("/original")
-    public ResponseEntity<CoinDeskResponse> getOriginalData() {
-        CoinDeskResponse response = coinDeskService.getOriginalCoinDeskData();
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<CoinDeskResponse>> getOriginalData() {
+        return this.supplyAsync(coinDeskService::getOriginalCoinDeskData)
+                .thenApply(response -> toResponse(response, (response != null) ? response.getSnapshotFetchedAt() : null));
     }
 
     @Operation(summary = "呼叫資料轉換後的新 API", description = "將 CoinDesk API 資料進行轉換，整合本地資料庫的中文幣別名稱後回傳。")
+    @ApiResponse(responseCode = "503", description = "CoinDesk 請求容量已滿，請依 Retry-After 稍後重試", content = @Content)
     @GetMapping("/transformed")
-    public ResponseEntity<TransformedCoinDeskResponse> getTransformedData() {
-        TransformedCoinDeskResponse response = coinDeskService.getTransformedCoinDeskData();
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<TransformedCoinDeskResponse>> getTransformedData() {
+        return this.supplyAsync(coinDeskService::getTransformedCoinDeskData)
+                .thenApply(response -> toResponse(response, response.getSnapshotFetchedAt()));
+    }
+
+    /**
+     * @param snapshotFetchedAt 資料取自最後一份有效資料時的取得時間；直接來自上游時為 null
+     */
+    private static <T> ResponseEntity<T> toResponse(T body, Instant snapshotFetchedAt) {
+        if (snapshotFetchedAt == null) {
+            return ResponseEntity.ok(body);
+        }
+        long ageSeconds = Math.max(0, Duration.between(snapshotFetchedAt, Instant.now()).getSeconds());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .header(HttpHeaders.AGE, Long.toString(ageSeconds))
+                .body(body);
+    }
+
+    /**
+     * 將工作提交到 CoinDesk 專用執行緒池；容量已滿時轉換為 503 例外。
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, coinDeskExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("CoinDesk request capacity exhausted. Please retry later.", retryAfterSeconds);
+        }
     }
 
 }
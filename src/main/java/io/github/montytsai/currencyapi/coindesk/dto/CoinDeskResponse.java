@@ -1,5 +1,6 @@
 package io.github.montytsai.currencyapi.coindesk.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Data;
@@ -7,6 +8,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,6 +33,15 @@ public class CoinDeskResponse {
     @Setter
     private String chartName;
 
+    /**
+     * 資料取自本地保存的最後一份有效資料時，為該資料自上游取得的時間；直接來自上游時為 null。
+     * 只供回應標頭使用，不輸出於 JSON。
+     */
+    @Getter
+    @Setter
+    @JsonIgnore
+    private Instant snapshotFetchedAt;
+
     /**
      * mutable object
      */
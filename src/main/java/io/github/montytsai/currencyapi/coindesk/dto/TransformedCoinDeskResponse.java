@@ -1,9 +1,12 @@
 package io.github.montytsai.currencyapi.coindesk.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -21,6 +24,15 @@ public class TransformedCoinDeskResponse {
     @Setter
     private String updatedTime;
 
+    /**
+     * 轉換來源為本地保存的最後一份有效資料時，為該資料自上游取得的時間；直接來自上游時為 null。
+     * 只供回應標頭使用，不輸出於 JSON。
+     */
+    @Getter
+    @Setter
+    @JsonIgnore
+    private Instant snapshotFetchedAt;
+
     private List<CurrencyInfo> currencyInfo;
 
     /**
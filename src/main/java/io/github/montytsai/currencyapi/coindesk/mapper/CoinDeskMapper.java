@@ -2,7 +2,9 @@ package io.github.montytsai.currencyapi.coindesk.mapper;
 
 import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
-import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
@@ -10,25 +12,46 @@ import org.springframework.stereotype.Component;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 負責 CoinDesk 相關資料模型轉換的元件。
  * <p>
  * 此 Mapper 將從不同來源（如外部 API 回應、資料庫實體）獲取的資料，
  * 組合並轉換成最終 API 所需的回應格式 (DTO)。
+ * 轉換時間記錄於 {@value ApiMetrics#MAPPING}，幣別目錄中找不到的幣別數記錄於 {@value ApiMetrics#UNMAPPED_CURRENCIES}。
  */
 @Slf4j
 @Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "ApiMetrics is a Spring-managed singleton and is intended to be shared.")
 public class CoinDeskMapper {
 
     private static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
 
-    public TransformedCoinDeskResponse toTransformedResponse(CoinDeskResponse originalData, Map<String, Currency> currencyMap) {
+    private final ApiMetrics apiMetrics;
+
+    public CoinDeskMapper(ApiMetrics apiMetrics) {
+        this.apiMetrics = apiMetrics;
+    }
+
+    /**
+     * 將 CoinDesk 原始資料與本地幣別目錄組合為轉換後的回應，並將各幣別的最新匯率記錄到查詢表中。
+     *
+     * @param originalData CoinDesk API 的原始回應
+     * @param lookupTable  本地幣別目錄的記憶體查詢表
+     * @return 轉換後的回應物件
+     */
+    public TransformedCoinDeskResponse toTransformedResponse(CoinDeskResponse originalData, CurrencyLookupTable lookupTable) {
+        int currencies = (originalData.getBpi() != null) ? originalData.getBpi().size() : 0;
+        return apiMetrics.timeMapping(currencies, () -> this.transform(originalData, lookupTable));
+    }
+
+    private TransformedCoinDeskResponse transform(CoinDeskResponse originalData, CurrencyLookupTable lookupTable) {
         log.debug("Starting transformation of CoinDesk response.");
         TransformedCoinDeskResponse transformedResponse = new TransformedCoinDeskResponse();
+        transformedResponse.setSnapshotFetchedAt(originalData.getSnapshotFetchedAt());
 
         // 1. 轉換時間格式
         if (originalData.getTime() != null && originalData.getTime().getUpdatedISO() != null) {
@@ -39,10 +62,12 @@ public class CoinDeskMapper {
         }
 
         // 2. 處理幣別資料轉換
-        if (originalData.getBpi() != null) {
-            List<TransformedCoinDeskResponse.CurrencyInfo> currencyInfos = originalData.getBpi().values().stream()
-                    .map(bpiData -> toCurrencyInfo(bpiData, currencyMap.get(bpiData.getCode())))
-                    .collect(Collectors.toList());
+        Map<String, CoinDeskResponse.BpiData> bpi = originalData.getBpi();
+        if (bpi != null) {
+            List<TransformedCoinDeskResponse.CurrencyInfo> currencyInfos = new ArrayList<>(bpi.size());
+            for (CoinDeskResponse.BpiData bpiData : bpi.values()) {
+                currencyInfos.add(toCurrencyInfo(bpiData, lookupTable));
+            }
             transformedResponse.setCurrencyInfo(currencyInfos);
             log.debug("Transformation complete. Mapped {} currency entries.", currencyInfos.size());
         } else {
@@ -54,22 +79,27 @@ public class CoinDeskMapper {
     }
 
     /**
-     * 將單一 BPI 資料和對應的 Currency 實體，轉換為新的 CurrencyInfo DTO。
+     * 將單一 BPI 資料和查詢表中對應的幣別，轉換為新的 CurrencyInfo DTO。
      *
-     * @param bpiData  單一幣別的原始 BPI 資料
-     * @param currency 從資料庫中找到的對應幣別實體，可能為 null
+     * @param bpiData     單一幣別的原始 BPI 資料
+     * @param lookupTable 本地幣別目錄的記憶體查詢表
      * @return 轉換後的 CurrencyInfo 物件
      */
-    private TransformedCoinDeskResponse.CurrencyInfo toCurrencyInfo(CoinDeskResponse.BpiData bpiData, Currency currency) {
+    private TransformedCoinDeskResponse.CurrencyInfo toCurrencyInfo(CoinDeskResponse.BpiData bpiData, CurrencyLookupTable lookupTable) {
         TransformedCoinDeskResponse.CurrencyInfo info = new TransformedCoinDeskResponse.CurrencyInfo();
         info.setCode(bpiData.getCode());
         info.setRate(bpiData.getRateFloat());
 
-        // 如果在資料庫中找到對應的幣別，則使用其中文名稱，否則給予預設值
-        String chineseName = (currency != null) ? currency.getDisplayName() : "N/A";
-        info.setChineseName(chineseName);
+        // 如果在幣別目錄中找到對應的幣別，則使用其中文名稱，否則給予預設值
+        int id = lookupTable.idOf(bpiData.getCode());
+        String displayName = (id != CurrencyLookupTable.NO_ID) ? lookupTable.displayName(id) : null;
+        info.setChineseName(displayName != null ? displayName : "N/A");
 
-        if (currency == null) {
+        if (id != CurrencyLookupTable.NO_ID) {
+            lookupTable.recordRate(id, bpiData.getRateFloat());
+        }
+        if (displayName == null) {
+            apiMetrics.incrementUnmappedCurrencies();
             log.warn("No currency mapping found in database for code: {}. Using 'N/A' as Chinese name.", bpiData.getCode());
         }
 
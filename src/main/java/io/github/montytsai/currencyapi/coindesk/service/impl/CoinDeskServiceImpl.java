@@ -5,8 +5,11 @@ import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.mapper.CoinDeskMapper;
 import io.github.montytsai.currencyapi.coindesk.service.CoinDeskService;
-import io.github.montytsai.currencyapi.currency.entity.Currency;
-import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import io.github.montytsai.currencyapi.coindesk.snapshot.CoinDeskSnapshotStore;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamHedging;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamRetry;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,33 +17,51 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "WebClient is a Spring-managed singleton bean and is intended to be shared.")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "WebClient, ApiMetrics, CoinDeskSnapshotStore, UpstreamHedging and UpstreamRetry are Spring-managed singleton beans and are intended to be shared.")
 public class CoinDeskServiceImpl implements CoinDeskService {
 
     @Value("${coin-desk.api.url}")
     private String coinDeskApiUrl;
 
     private final WebClient webClient;
-    private final CurrencyRepository currencyRepository;
+    private final CurrencyLookupTable currencyLookupTable;
     private final CoinDeskMapper coinDeskMapper;
+    private final ApiMetrics apiMetrics;
+    private final CoinDeskSnapshotStore snapshotStore;
+    private final UpstreamHedging upstreamHedging;
+    private final UpstreamRetry upstreamRetry;
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 上游呼叫失敗或回應沒有 BPI 資料時，改回傳本地保存的最後一份有效資料 ({@link CoinDeskSnapshotStore})，
+     * 並以 {@link CoinDeskResponse#getSnapshotFetchedAt()} 標示；沒有保存的資料時維持原本的行為 (拋出例外 / 回傳原始回應)。
+     * 暫時性的失敗 (連線錯誤、逾時、5xx) 先依 {@link UpstreamRetry} 重試，重試用盡後才改用保存的資料。
+     * 啟用 {@link UpstreamHedging} 時，上游過慢的呼叫另送出一次避險請求，以先完成的為準。
+     */
     @Override
     public CoinDeskResponse getOriginalCoinDeskData() {
         log.info("Attempting to call CoinDesk API using WebClient. URL: {}", coinDeskApiUrl);
 
-        CoinDeskResponse response = webClient.get()
-                .uri(coinDeskApiUrl)
-                .retrieve()
-                .bodyToMono(CoinDeskResponse.class)
-                .block();
+        CoinDeskResponse response;
+        try {
+            response = apiMetrics.timeUpstreamFetch(upstreamRetry.execute(upstreamHedging.hedge(() -> webClient.get()
+                    .uri(coinDeskApiUrl)
+                    .retrieve()
+                    .bodyToMono(CoinDeskResponse.class))));
+        } catch (RuntimeException e) {
+            return this.lastKnownGood(e.toString()).orElseThrow(() -> e);
+        }
+
+        if (response == null || response.getBpi() == null) {
+            return this.lastKnownGood("response has no BPI data").orElse(response);
+        }
+        snapshotStore.save(response);
 
         log.info("Successfully received response from CoinDesk API.");
         log.debug("Raw CoinDesk API response: {}", response);
@@ -59,24 +80,22 @@ public class CoinDeskServiceImpl implements CoinDeskService {
             return new TransformedCoinDeskResponse();
         }
 
-        // 2. 從資料庫獲取資料並轉為 Map
-        log.debug("Fetching all currency data from database for mapping.");
-        List<Currency> currencies = currencyRepository.findAll();
-        // 處理資料庫中可能重複的 code，讓程式更穩健
-        Map<String, Currency> currencyMap = currencies.stream()
-                .collect(Collectors.toMap(
-                        Currency::getCode,
-                        Function.identity(),
-                        (existing, replacement) -> existing // 若 key 重複，保留舊的
-                ));
-        log.debug("Found {} currency entries in the database.", currencies.size());
-
-        // 3. 執行轉換
+        // 2. 執行轉換：幣別名稱取自記憶體中的幣別目錄查詢表 (由 CurrencyServiceImpl 的寫入路徑維護)，不需每次查詢資料庫
         log.info("Mapping original data to transformed response.");
-        TransformedCoinDeskResponse transformedResponse = coinDeskMapper.toTransformedResponse(originalData, currencyMap);
+        TransformedCoinDeskResponse transformedResponse = coinDeskMapper.toTransformedResponse(originalData, currencyLookupTable);
         log.info("Successfully transformed CoinDesk data.");
 
         return transformedResponse;
     }
 
+    private Optional<CoinDeskResponse> lastKnownGood(String reason) {
+        Optional<CoinDeskResponse> snapshot = snapshotStore.lastKnownGood();
+        snapshot.ifPresent(response -> {
+            apiMetrics.incrementStaleResponses();
+            log.warn("CoinDesk API unavailable ({}); serving the last-known-good snapshot fetched at {}.",
+                    reason, response.getSnapshotFetchedAt());
+        });
+        return snapshot;
+    }
+
 }
\ No newline at end of file
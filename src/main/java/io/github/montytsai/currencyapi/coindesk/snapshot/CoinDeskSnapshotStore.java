@@ -0,0 +1,372 @@
+package io.github.montytsai.currencyapi.coindesk.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * CoinDesk 最後一份有效資料 (last-known-good snapshot) 的保存與載入，讓服務在重新啟動後、上游無法連線時仍有資料可回應。
+ * <p>
+ * 每份被接受的上游回應 (含 BPI 資料) 都在呼叫端執行緒立即成為記憶體中的最後一份有效資料，
+ * 並由單一背景執行緒以 Smile 二進位格式寫入 {@code directory} 下的檔案 (只保留最新一份待寫入的資料，
+ * 寫入較慢時中間的回應直接略過)；CoinDesk 請求不等待編碼與磁碟 I/O：
+ * <ul>
+ * <li>寫入：先寫到暫存檔並 fsync，再以 rename 取代目前的檔案 (write-then-rename)，讀取端永遠不會看到寫到一半的內容；
+ * 被取代的檔案保留為前一份 ({@code .1})。內容與上次寫入相同且未超過 {@code write-interval} 時不重複寫入。
+ * 停止時寫入尚未寫入的最後一份；停止後 (或尚未啟動時) 由呼叫端直接寫入。</li>
+ * <li>載入：啟動時以記憶體對映 (memory-mapped) 讀取，驗證標頭與 CRC32 checksum；
+ * 目前的檔案損毀 (例如寫入途中斷電、磁碟錯誤) 時改用前一份。</li>
+ * </ul>
+ * 檔案格式 (big-endian)：magic (4) | 版本 (4) | CRC32 (4) | 取得時間 epoch 毫秒 (8) | 內容長度 (4) | Smile 內容。
+ * CRC32 涵蓋 checksum 欄位之後的所有位元組。
+ * <p>
+ * 以 {@link #lastKnownGood()} 取得的資料帶有 {@link CoinDeskResponse#getSnapshotFetchedAt()}，供呼叫端標示資料已過時。
+ */
+@Slf4j
+@Component
+public class CoinDeskSnapshotStore implements InitializingBean, SmartLifecycle {
+
+    static final String FILE_NAME = "coindesk-snapshot.bin";
+
+    private static final int MAGIC = 0x43444B53; // "CDKS"
+    private static final int VERSION = 1;
+    private static final int CHECKSUM_OFFSET = 12;
+    private static final int HEADER_BYTES = 24;
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+
+    private final ObjectMapper smileMapper;
+    private final boolean enabled;
+    private final long writeIntervalNanos;
+    private final Path directory;
+    private final Path current;
+    private final Path previous;
+    private final Path temporary;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private byte[] persistedPayload;   // 由 writeLock 保護
+    private long persistedAtNanos;     // 由 writeLock 保護
+    private Instant persistedFetchedAt; // 由 writeLock 保護
+
+    private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+    private volatile Snapshot lastKnownGood;
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public CoinDeskSnapshotStore(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                 @Value("${coin-desk.snapshot.enabled:true}") boolean enabled,
+                                 @Value("${coin-desk.snapshot.directory:${java.io.tmpdir}/currency-api-demo}") String directory,
+                                 @Value("${coin-desk.snapshot.write-interval:1m}") Duration writeInterval) {
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.enabled = enabled;
+        this.writeIntervalNanos = writeInterval.toNanos();
+        this.directory = Paths.get(directory);
+        this.current = this.directory.resolve(FILE_NAME);
+        this.previous = this.directory.resolve(FILE_NAME + ".1");
+        this.temporary = this.directory.resolve(FILE_NAME + ".tmp");
+    }
+
+    /**
+     * 啟動時載入磁碟上的最後一份有效資料；目前的檔案無法使用時改用前一份。
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (Path file : new Path[]{current, previous}) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                Snapshot snapshot = read(file);
+                this.decode(snapshot.payload);
+                this.lastKnownGood = snapshot;
+                writeLock.lock();
+                try {
+                    this.persistedPayload = snapshot.payload;
+                    this.persistedFetchedAt = snapshot.fetchedAt;
+                    this.persistedAtNanos = start - Duration.between(snapshot.fetchedAt, Instant.now()).toNanos();
+                } finally {
+                    writeLock.unlock();
+                }
+                log.info("Loaded CoinDesk snapshot fetched at {} from {} in {} ms.",
+                        snapshot.fetchedAt, file, Duration.ofNanos(System.nanoTime() - start).toMillis());
+                return;
+            } catch (IOException e) {
+                log.warn("Ignoring unusable CoinDesk snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        log.info("No usable CoinDesk snapshot in {}.", directory);
+    }
+
+    /**
+     * 保存一份被接受的上游回應：立即成為記憶體中的最後一份有效資料，並交給背景執行緒寫入磁碟。
+     * 呼叫後不可再修改 response (背景執行緒稍後才編碼)。
+     *
+     * @param response 含 BPI 資料的上游回應
+     */
+    public void save(CoinDeskResponse response) {
+        if (!enabled) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(Instant.now(), response);
+        this.lastKnownGood = snapshot;
+        pending.set(snapshot);
+        if (running) {
+            LockSupport.unpark(writer);
+        }
+        // 與 stop() 的檢查順序相反：stop() 先清除 running 再取出，此處先放入再讀取 running，至少一方會寫入這一份
+        if (!running) {
+            this.persistPending();
+        }
+    }
+
+    private void persistPending() {
+        Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot != null) {
+            this.persist(snapshot);
+        }
+    }
+
+    /**
+     * 寫入一份資料；寫入失敗只記錄警告，由之後的回應再寫入。停止期間背景執行緒與呼叫端可能同時寫入，
+     * 以 writeLock 互斥，並略過比已寫入的資料還舊的一份。
+     */
+    private void persist(Snapshot snapshot) {
+        byte[] payload;
+        try {
+            payload = snapshot.encode(smileMapper);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode CoinDesk snapshot: {}", e.getMessage());
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (persistedFetchedAt != null && snapshot.fetchedAt.isBefore(persistedFetchedAt)) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (persistedPayload != null && Arrays.equals(persistedPayload, payload)
+                    && now - persistedAtNanos < writeIntervalNanos) {
+                return;
+            }
+            this.write(snapshot.fetchedAt, payload);
+            this.persistedPayload = payload;
+            this.persistedFetchedAt = snapshot.fetchedAt;
+            this.persistedAtNanos = now;
+        } catch (IOException e) {
+            log.warn("Failed to persist CoinDesk snapshot to {}: {}", current, e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return 最後一份有效資料的新複本 (帶有取得時間)；沒有資料或功能停用時為 empty
+     */
+    public Optional<CoinDeskResponse> lastKnownGood() {
+        Snapshot snapshot = this.lastKnownGood;
+        if (!enabled || snapshot == null) {
+            return Optional.empty();
+        }
+        try {
+            CoinDeskResponse response = this.decode(snapshot.encode(smileMapper));
+            response.setSnapshotFetchedAt(snapshot.fetchedAt);
+            return Optional.of(response);
+        } catch (IOException e) {
+            log.warn("Failed to decode the in-memory CoinDesk snapshot: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void write(Instant fetchedAt, byte[] payload) throws IOException {
+        Files.createDirectories(directory);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(0) // checksum，計算後回填
+                .putLong(fetchedAt.toEpochMilli())
+                .putInt(payload.length);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), CHECKSUM_OFFSET, HEADER_BYTES - CHECKSUM_OFFSET);
+        crc.update(payload);
+        header.putInt(8, (int) crc.getValue());
+        header.flip();
+
+        ByteBuffer[] buffers = {header, ByteBuffer.wrap(payload)};
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffers[1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        if (Files.exists(current)) {
+            move(current, previous);
+        }
+        move(temporary, current);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Snapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > MAX_FILE_BYTES) {
+                throw new IOException("Unexpected file size " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a CoinDesk snapshot file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int checksum = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+            long fetchedAt = buffer.getLong();
+            int length = buffer.getInt();
+            if (length != size - HEADER_BYTES) {
+                throw new IOException("Payload length " + length + " does not match the file size " + size);
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            return new Snapshot(Instant.ofEpochMilli(fetchedAt), payload);
+        }
+    }
+
+    private CoinDeskResponse decode(byte[] payload) throws IOException {
+        CoinDeskResponse response = smileMapper.readValue(payload, CoinDeskResponse.class);
+        if (response == null || response.getBpi() == null) {
+            throw new IOException("Snapshot contains no BPI data");
+        }
+        return response;
+    }
+
+    // =================================================================
+    // == Writer
+    // =================================================================
+
+    private void runWriter() {
+        while (running) {
+            Snapshot snapshot = pending.getAndSet(null);
+            if (snapshot == null) {
+                LockSupport.park(this);
+            } else {
+                this.persist(snapshot);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "coindesk-snapshot-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    /**
+     * 停止背景執行緒，並寫入尚未寫入的最後一份資料。
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        this.persistPending();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 一份最後有效資料：取得時間與上游回應 (保存後不再修改)；Smile 編碼的內容在第一次需要時才產生。
+     * 從磁碟載入的資料只有編碼後的內容。
+     */
+    private static final class Snapshot {
+
+        private final Instant fetchedAt;
+        private final CoinDeskResponse response;
+        private volatile byte[] payload;
+
+        private Snapshot(Instant fetchedAt, CoinDeskResponse response) {
+            this.fetchedAt = fetchedAt;
+            this.response = response;
+        }
+
+        private Snapshot(Instant fetchedAt, byte[] payload) {
+            this.fetchedAt = fetchedAt;
+            this.response = null;
+            this.payload = payload;
+        }
+
+        /**
+         * @return Smile 編碼的內容 (同時編碼時結果相同，不需互斥)
+         */
+        byte[] encode(ObjectMapper smileMapper) throws JsonProcessingException {
+            byte[] encoded = payload;
+            if (encoded == null) {
+                encoded = smileMapper.writeValueAsBytes(response);
+                payload = encoded;
+            }
+            return encoded;
+        }
+
+    }
+
+}
@@ -0,0 +1,215 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CoinDesk 回應的串流解碼器，限制位元組數、BPI 幣別數與巢狀深度，超過任一限制時立即中止。
+ * <p>
+ * 預設的 Jackson 解碼器 ({@code bodyToMono}) 先把整個回應合併 (join) 成一個 buffer 再解析。
+ * 這裡改為邊接收邊解析：Reactor Netty 從 pooled allocator 取得的每個 buffer 立即交給 Jackson 的非阻塞 parser，
+ * 讀完即釋放，不保留也不合併；解析出的 token 存入 {@link TokenBuffer}，收到結尾後才對應為 {@link CoinDeskResponse}。
+ * Jackson 2.13 的非阻塞 parser 只接受 byte[]，direct buffer 以固定大小的暫存陣列分段餵入。
+ * <ul>
+ * <li>超過 {@code maxBytes}：{@link DataBufferLimitException}，不再讀取剩餘內容 (取消訂閱，連線隨之關閉)。</li>
+ * <li>BPI 幣別數超過 {@code maxBpiEntries} 或巢狀深度超過 {@code maxDepth}：{@link DecodingException}。</li>
+ * </ul>
+ * 因此記憶體用量不超過 {@code maxBytes} 對應的 token 加上一個網路 buffer，與上游回應的實際大小無關。
+ * 以 WebClient 的自訂 codec 註冊 (排在預設 codec 之前)，只處理 {@link CoinDeskResponse}。
+ */
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+        justification = "ObjectMapper is a Spring-managed singleton and is intended to be shared; the MIME type list is unmodifiable.")
+public final class BoundedCoinDeskDecoder implements Decoder<CoinDeskResponse> {
+
+    private static final int FEED_CHUNK_BYTES = 8 * 1024;
+    private static final List<MimeType> MIME_TYPES = Collections.unmodifiableList(Arrays.asList(
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int maxBpiEntries;
+    private final int maxDepth;
+
+    public BoundedCoinDeskDecoder(ObjectMapper objectMapper, long maxBytes, int maxBpiEntries, int maxDepth) {
+        if (maxBytes < 1 || maxBpiEntries < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException("CoinDesk decoding limits must be positive but got max-bytes " + maxBytes
+                    + ", max-bpi-entries " + maxBpiEntries + " and max-depth " + maxDepth);
+        }
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.maxBpiEntries = maxBpiEntries;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        if (elementType.toClass() != CoinDeskResponse.class) {
+            return false;
+        }
+        if (mimeType == null) {
+            return true;
+        }
+        for (MimeType supported : MIME_TYPES) {
+            if (supported.isCompatibleWith(mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public Flux<CoinDeskResponse> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                         MimeType mimeType, Map<String, Object> hints) {
+        return this.decodeToMono(input, elementType, mimeType, hints).flux();
+    }
+
+    @Override
+    public Mono<CoinDeskResponse> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
+                                               MimeType mimeType, Map<String, Object> hints) {
+        return Mono.defer(() -> {
+            StreamingReader reader = new StreamingReader();
+            return Flux.from(input)
+                    .<DataBuffer>handle((buffer, sink) -> {
+                        try {
+                            reader.feed(buffer);
+                        } catch (IOException e) {
+                            sink.error(new DecodingException("JSON decoding error: " + e.getMessage(), e));
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .then(Mono.fromCallable(reader::finish))
+                    .onErrorMap(IOException.class, e -> new DecodingException("JSON decoding error: " + e.getMessage(), e));
+        });
+    }
+
+    /**
+     * 單次解碼的狀態；同一個回應的 buffer 依序送達 (不會同時呼叫)。
+     */
+    private final class StreamingReader {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final TokenBuffer tokens;
+        private byte[] chunk;
+        private long bytes;
+        private int depth;
+        private int bpiEntries;
+        private boolean inBpi;
+        private boolean complete;
+
+        StreamingReader() {
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new DecodingException("Failed to create a non-blocking JSON parser", e);
+            }
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.tokens = new TokenBuffer(parser);
+            this.tokens.forceUseOfBigDecimal(objectMapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS));
+        }
+
+        void feed(DataBuffer buffer) throws IOException {
+            int readable = buffer.readableByteCount();
+            bytes += readable;
+            if (bytes > maxBytes) {
+                throw new DataBufferLimitException("CoinDesk response exceeded the limit of " + maxBytes + " bytes");
+            }
+            ByteBuffer source = buffer.asByteBuffer();
+            if (source.hasArray()) {
+                int offset = source.arrayOffset() + source.position();
+                feeder.feedInput(source.array(), offset, offset + readable);
+                this.drain();
+                return;
+            }
+            if (chunk == null) {
+                chunk = new byte[Math.min(FEED_CHUNK_BYTES, (int) Math.min(maxBytes, Integer.MAX_VALUE))];
+            }
+            while (source.hasRemaining()) {
+                int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                feeder.feedInput(chunk, 0, length);
+                this.drain();
+            }
+        }
+
+        CoinDeskResponse finish() throws IOException {
+            feeder.endOfInput();
+            this.drain();
+            if (!complete) {
+                throw new DecodingException("Incomplete CoinDesk response: the JSON document ended after " + bytes + " bytes");
+            }
+            try (JsonParser buffered = tokens.asParser(objectMapper)) {
+                return objectMapper.readValue(buffered, CoinDeskResponse.class);
+            }
+        }
+
+        /**
+         * 讀出目前已可解析的所有 token (parser 需要更多輸入時停止)，同時檢查各項限制。
+         */
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (complete) {
+                    throw new DecodingException("Unexpected content after the CoinDesk JSON document");
+                }
+                switch (token) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        if (++depth > maxDepth) {
+                            throw new DecodingException("CoinDesk response is nested deeper than " + maxDepth + " levels");
+                        }
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        complete = (--depth == 0);
+                        break;
+                    case FIELD_NAME:
+                        if (depth == 1) {
+                            inBpi = "bpi".equals(parser.getCurrentName());
+                        } else if (depth == 2 && inBpi && ++bpiEntries > maxBpiEntries) {
+                            throw new DecodingException("CoinDesk response has more than " + maxBpiEntries + " BPI entries");
+                        }
+                        break;
+                    default:
+                        complete = (depth == 0); // 最外層為純量值時，交由對應階段回報錯誤
+                        break;
+                }
+                tokens.copyCurrentEvent(parser);
+            }
+        }
+
+    }
+
+}
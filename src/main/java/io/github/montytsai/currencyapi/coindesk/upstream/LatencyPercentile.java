@@ -0,0 +1,60 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import java.util.Arrays;
+
+/**
+ * 最近 {@code window} 筆延遲樣本的百分位數 (滑動視窗)。
+ * <p>
+ * 樣本存放在環狀陣列中，每記錄 {@code window / 16} 筆重新排序計算一次；讀取只讀一個 volatile 欄位，不加鎖。
+ * 樣本數未達 {@code minSamples} 前回傳 -1 (尚無可信的估計)。
+ */
+final class LatencyPercentile {
+
+    private static final int RECOMPUTE_DIVISOR = 16;
+
+    private final double quantile;
+    private final int minSamples;
+    private final long[] samples; // 由 this 保護
+    private final int recomputeEvery;
+    private int count;            // 由 this 保護
+    private int next;             // 由 this 保護
+    private int sinceRecompute;   // 由 this 保護
+
+    private volatile long value = -1;
+
+    LatencyPercentile(double quantile, int minSamples, int window) {
+        if (quantile <= 0 || quantile >= 1 || window < 1 || minSamples < 1 || minSamples > window) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1 exclusive and 1 <= min-samples <= window but got "
+                    + quantile + ", " + minSamples + " and " + window);
+        }
+        this.quantile = quantile;
+        this.minSamples = minSamples;
+        this.samples = new long[window];
+        this.recomputeEvery = Math.max(1, window / RECOMPUTE_DIVISOR);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1 == samples.length) ? 0 : next + 1;
+        if (count < samples.length) {
+            count++;
+        }
+        if (count < minSamples) {
+            return;
+        }
+        if (++sinceRecompute >= recomputeEvery || value < 0) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            value = sorted[Math.max(0, (int) Math.ceil(quantile * count) - 1)];
+        }
+    }
+
+    /**
+     * @return 百分位數 (奈秒)；樣本不足時為 -1
+     */
+    long nanos() {
+        return value;
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 上游的延遲避險請求 (hedged requests)：第一次嘗試超過觀察到的延遲百分位數 (預設 p95) 仍未完成時，
+ * 再送出第二次相同的請求，以先完成的回應為準，另一個以取消訂閱的方式中止 (Reactor Netty 關閉該連線)。
+ * <p>
+ * 只用於冪等的讀取。延遲樣本只來自成功完成的嘗試 (被取消的一方沒有完整的延遲)；
+ * 啟用後慢的嘗試多半被取消，觀察到的百分位數會下降、避險請求隨之增加，因此每次避險都須取得
+ * {@link UpstreamRetryBudget} 的額度 (額度由 {@link UpstreamRetry} 在每個呼叫存入)，放大倍數不超過設定的百分比。
+ * <ul>
+ * <li>第一次嘗試失敗時立即傳遞錯誤 (同時取消避險請求)；錯誤的重試不屬於避險的範圍。</li>
+ * <li>避險請求失敗時忽略，結果仍由第一次嘗試決定。</li>
+ * </ul>
+ * 指標：{@code coindesk.upstream.hedges} (result 標籤：sent / won / denied) 與目前的避險延遲
+ * {@code coindesk.upstream.hedge.delay}。
+ */
+@Slf4j
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "UpstreamRetryBudget and MeterRegistry are Spring-managed singletons and are intended to be shared.")
+public class UpstreamHedging {
+
+    public static final String HEDGES = "coindesk.upstream.hedges";
+    public static final String DELAY = "coindesk.upstream.hedge.delay";
+
+    private final boolean enabled;
+    private final long minDelayNanos;
+    private final LatencyPercentile latency;
+    private final UpstreamRetryBudget budget;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter denied;
+
+    public UpstreamHedging(@Value("${coin-desk.hedging.enabled:false}") boolean enabled,
+                           @Value("${coin-desk.hedging.percentile:0.95}") double percentile,
+                           @Value("${coin-desk.hedging.min-delay:10ms}") Duration minDelay,
+                           @Value("${coin-desk.hedging.min-samples:20}") int minSamples,
+                           @Value("${coin-desk.hedging.window:1000}") int window,
+                           UpstreamRetryBudget budget,
+                           MeterRegistry registry) {
+        this.enabled = enabled;
+        this.minDelayNanos = minDelay.toNanos();
+        this.latency = new LatencyPercentile(percentile, minSamples, window);
+        this.budget = budget;
+        this.sent = counter(registry, "sent");
+        this.won = counter(registry, "won");
+        this.denied = counter(registry, "denied");
+        if (enabled) {
+            TimeGauge.builder(DELAY, this, TimeUnit.NANOSECONDS, UpstreamHedging::currentDelayNanos)
+                    .description("Current delay before a hedged CoinDesk request is sent (the observed latency percentile)")
+                    .register(registry);
+        }
+        if (enabled) {
+            log.info("Hedged CoinDesk requests enabled at p{} of the last {} upstream latencies (min delay {}).",
+                    Math.round(percentile * 100), window, minDelay);
+        }
+    }
+
+    /**
+     * 以避險請求執行一次上游呼叫。
+     *
+     * @param attempt 每次呼叫產生一次嘗試 (尚未訂閱的 Mono)；最多呼叫兩次
+     * @return 先完成的嘗試的結果
+     */
+    public <T> Mono<T> hedge(Supplier<Mono<T>> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        return Mono.defer(() -> {
+            Mono<T> primary = this.timed(attempt.get());
+            long delay = latency.nanos();
+            if (delay < 0) {
+                return primary; // 樣本不足，尚無延遲百分位數
+            }
+            Mono<T> hedged = Mono.delay(Duration.ofNanos(Math.max(delay, minDelayNanos)))
+                    .flatMap(tick -> {
+                        if (!budget.tryAcquire()) {
+                            denied.increment();
+                            return Mono.<T>never();
+                        }
+                        sent.increment();
+                        return this.timed(attempt.get()).doOnNext(result -> won.increment());
+                    })
+                    .onErrorResume(e -> Mono.never());
+            return Mono.firstWithSignal(primary, hedged);
+        });
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnSuccess(result -> latency.record(System.nanoTime() - start));
+        });
+    }
+
+    private long currentDelayNanos() {
+        long delay = latency.nanos();
+        return (delay < 0) ? 0 : Math.max(delay, minDelayNanos);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder(HEDGES)
+                .description("Hedged CoinDesk requests: sent, won (answered before the first attempt) and denied by the retry budget")
+                .tag("result", result)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,131 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+import io.github.montytsai.currencyapi.observability.ApiMetrics.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冪等上游讀取 (CoinDesk GET) 的重試：指數退避加上完全隨機抖動 (full jitter)、共用的重試預算與整體期限。
+ * <p>
+ * <ul>
+ * <li>只重試暫時性的失敗：連線錯誤、逾時與 5xx (分類與 {@link ApiMetrics} 的 outcome 相同)；
+ * 4xx 與回應解析錯誤不重試。</li>
+ * <li>第 n 次重試前等待 {@code [0, min(max-backoff, initial-backoff × 2^(n-1))]} 之間的隨機時間，
+ * 避免大量客戶端在上游恢復時同時重送。</li>
+ * <li>每次重試須取得 {@link UpstreamRetryBudget} 的額度 (與避險請求共用)，上游故障時額外嘗試不超過設定的比例。
+ * 每個呼叫在此存入一次額度。</li>
+ * <li>所有嘗試 (含退避) 共用 {@code deadline}：等待後已來不及時不再重試，超過期限時取消進行中的嘗試並以
+ * {@link java.util.concurrent.TimeoutException} 結束。</li>
+ * </ul>
+ * 重試用盡時拋出最後一次嘗試的原始例外。
+ * 指標：{@code coindesk.upstream.retries} (outcome 標籤：被重試的失敗類型) 與
+ * {@code coindesk.upstream.retries.denied} (reason 標籤：budget / deadline)。
+ */
+@Slf4j
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "UpstreamRetryBudget and MeterRegistry are Spring-managed singletons and are intended to be shared.")
+public class UpstreamRetry {
+
+    public static final String RETRIES = "coindesk.upstream.retries";
+    public static final String DENIED = "coindesk.upstream.retries.denied";
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Duration deadline;
+    private final UpstreamRetryBudget budget;
+    private final Map<Outcome, Counter> retriesByOutcome = new EnumMap<>(Outcome.class); // 建構後唯讀
+    private final Counter deniedByBudget;
+    private final Counter deniedByDeadline;
+
+    public UpstreamRetry(@Value("${coin-desk.retry.max-attempts:3}") int maxAttempts,
+                         @Value("${coin-desk.retry.initial-backoff:100ms}") Duration initialBackoff,
+                         @Value("${coin-desk.retry.max-backoff:1s}") Duration maxBackoff,
+                         @Value("${coin-desk.retry.deadline:10s}") Duration deadline,
+                         UpstreamRetryBudget budget,
+                         MeterRegistry registry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoff.toNanos());
+        this.deadline = deadline;
+        this.budget = budget;
+        for (Outcome outcome : new Outcome[]{Outcome.SERVER_ERROR, Outcome.TIMEOUT, Outcome.CONNECTION_ERROR}) {
+            retriesByOutcome.put(outcome, Counter.builder(RETRIES)
+                    .description("CoinDesk API calls retried after a transient failure")
+                    .tag("outcome", outcome.name())
+                    .register(registry));
+        }
+        this.deniedByBudget = denied(registry, "budget");
+        this.deniedByDeadline = denied(registry, "deadline");
+    }
+
+    /**
+     * 以重試執行一次上游呼叫。
+     *
+     * @param call 可重複訂閱的呼叫 (每次訂閱送出一次請求)
+     * @return 第一個成功的結果；失敗時為最後一次嘗試的例外
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            budget.onRequest();
+            long deadlineAt = System.nanoTime() + deadline.toNanos();
+            Mono<T> attempts = (maxAttempts == 1) ? call : call.retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable failure = signal.failure();
+                Counter retries = retriesByOutcome.get(ApiMetrics.outcomeOf(failure));
+                long attempt = signal.totalRetries() + 1;
+                if (retries == null || attempt >= maxAttempts) {
+                    return Mono.error(failure);
+                }
+                long backoff = this.backoffNanos(attempt);
+                if (System.nanoTime() + backoff >= deadlineAt) {
+                    deniedByDeadline.increment();
+                    return Mono.error(failure);
+                }
+                if (!budget.tryAcquire()) {
+                    deniedByBudget.increment();
+                    return Mono.error(failure);
+                }
+                retries.increment();
+                log.debug("CoinDesk API call failed ({}); retrying in {} ms (attempt {} of {}).",
+                        failure.toString(), TimeUnit.NANOSECONDS.toMillis(backoff), attempt + 1, maxAttempts);
+                return Mono.delay(Duration.ofNanos(backoff));
+            })));
+            return attempts.timeout(deadline);
+        });
+    }
+
+    /**
+     * @param retry 第幾次重試 (從 1 開始)
+     * @return 完全隨機抖動的退避時間
+     */
+    long backoffNanos(long retry) {
+        long cap = initialBackoffNanos;
+        for (long i = 1; i < retry && cap < maxBackoffNanos; i++) {
+            cap <<= 1;
+        }
+        return ThreadLocalRandom.current().nextLong(Math.min(cap, maxBackoffNanos) + 1);
+    }
+
+    private static Counter denied(MeterRegistry registry, String reason) {
+        return Counter.builder(DENIED)
+                .description("Retryable CoinDesk API failures not retried because of the retry budget or the deadline")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+}
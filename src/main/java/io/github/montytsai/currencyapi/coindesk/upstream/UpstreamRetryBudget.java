@@ -0,0 +1,82 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上游呼叫的額外嘗試預算 (hedge 與重試共用)，限制對上游的放大倍數。
+ * <p>
+ * 每個原始請求存入 {@code percent}% 次嘗試的額度，每次額外嘗試取出一次；
+ * 額度累積上限為 {@code min-reserve} 次，讓流量很低時仍可偶爾額外嘗試，但上游故障時不會因累積的額度一次放大。
+ * 長期而言額外嘗試數不超過原始請求數的 {@code percent}% 加上 {@code min-reserve}。
+ * 額度以 1/100 次嘗試為單位存放在單一 {@link AtomicLong}，不需加鎖。
+ */
+@Component
+public final class UpstreamRetryBudget {
+
+    public static final String BALANCE = "coindesk.upstream.retry.budget";
+
+    private static final long UNITS_PER_ATTEMPT = 100;
+
+    private final long depositUnits;
+    private final long maxUnits;
+    private final AtomicLong balance;
+
+    public UpstreamRetryBudget(@Value("${coin-desk.retry-budget.percent:10}") int percent,
+                               @Value("${coin-desk.retry-budget.min-reserve:5}") int minReserve,
+                               MeterRegistry registry) {
+        if (percent < 0 || percent > 100 || minReserve < 0) {
+            throw new IllegalArgumentException("retry-budget percent must be between 0 and 100 and min-reserve must not be negative but got "
+                    + percent + " and " + minReserve);
+        }
+        this.depositUnits = percent;
+        this.maxUnits = Math.max(minReserve, 1) * UNITS_PER_ATTEMPT;
+        this.balance = new AtomicLong(minReserve * UNITS_PER_ATTEMPT);
+        Gauge.builder(BALANCE, this, UpstreamRetryBudget::available)
+                .description("Extra upstream attempts (hedges and retries) currently allowed by the budget")
+                .register(registry);
+    }
+
+    /**
+     * 記錄一個原始請求，存入額外嘗試的額度。
+     */
+    public void onRequest() {
+        if (depositUnits == 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxUnits) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(current + depositUnits, maxUnits)));
+    }
+
+    /**
+     * @return 額度足夠並已取出一次額外嘗試時為 true
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNITS_PER_ATTEMPT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNITS_PER_ATTEMPT));
+        return true;
+    }
+
+    /**
+     * @return 目前可額外嘗試的次數
+     */
+    public double available() {
+        return (double) balance.get() / UNITS_PER_ATTEMPT;
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 自適應併發限制與過載時的快速拒絕 (load shedding)。
+ * <p>
+ * Tomcat 在過載時會無上限地排隊，所有請求 (包括最便宜的 {@code GET /currencies/{code}}) 的延遲一起崩潰。
+ * 這裡依路由群組 ({@link RouteGroup}) 各自以 {@link VegasLimit} 從觀察到的延遲學習可承受的同時處理數，
+ * 超過的請求立即回應 503 與 Retry-After，被接受的請求則維持接近無負載時的延遲。
+ * <p>
+ * 僅涵蓋 servlet 模式；reactive 模式不經過 Spring MVC 的 HandlerInterceptor。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public WebMvcConfigurer concurrencyLimitConfigurer(
+            @Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${concurrency-limit.window-size:20}") int windowSize,
+            @Value("${concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Map<RouteGroup, ConcurrencyLimiter> limiters = new EnumMap<>(RouteGroup.class);
+        for (RouteGroup group : RouteGroup.values()) {
+            limiters.put(group, new ConcurrencyLimiter(group,
+                    new VegasLimit(initialLimit, minLimit, maxLimit, windowSize), registry));
+        }
+        log.info("Adaptive concurrency limit enabled for {}: initial {}, min {}, max {}.",
+                limiters.keySet(), initialLimit, minLimit, maxLimit);
+
+        ConcurrencyLimitInterceptor interceptor =
+                new ConcurrencyLimitInterceptor(Collections.unmodifiableMap(limiters), retryAfterSeconds);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptorRegistry) {
+                interceptorRegistry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import io.github.montytsai.currencyapi.exception.ServiceUnavailableException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * 在進入 Controller 前取得所屬路由群組的名額，已達上限時拋出 {@link ServiceUnavailableException}，
+ * 由 GlobalExceptionHandler 回應 503 與 Retry-After。
+ * <p>
+ * 名額存放在請求屬性中，請求完成 ({@code afterCompletion}) 時歸還並回報處理時間。
+ * CoinDesk 端點為非同步請求：第一次 dispatch 結束時 (只呼叫 {@code afterConcurrentHandlingStarted}) 保留名額，
+ * 於非同步 dispatch 完成時才歸還，因此上游等待的時間也計入延遲。
+ * <p>
+ * 回應 503 (下游容量已滿、非同步逾時) 或有未處理的例外時視為丟棄，使上限立即調降。
+ */
+final class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final Map<RouteGroup, ConcurrencyLimiter> limiters;
+    private final long retryAfterSeconds;
+
+    /**
+     * @param limiters 建構後唯讀；沒有對應限制器的群組不受限制
+     */
+    ConcurrencyLimitInterceptor(Map<RouteGroup, ConcurrencyLimiter> limiters, long retryAfterSeconds) {
+        this.limiters = limiters;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        RouteGroup group = RouteGroup.of((HandlerMethod) handler, request.getMethod());
+        ConcurrencyLimiter limiter = (group != null) ? limiters.get(group) : null;
+        if (limiter == null) {
+            return true;
+        }
+        int inflight = limiter.tryAcquire();
+        if (inflight == 0) {
+            throw new ServiceUnavailableException("Too many concurrent " + group.getTag()
+                    + " requests (limit " + limiter.getLimit() + "). Please retry later.", retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, inflight));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        boolean dropped = (ex != null) || response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        permit.limiter.release(System.nanoTime() - permit.startNanos, permit.inflight, dropped);
+    }
+
+    private static final class Permit {
+
+        final ConcurrencyLimiter limiter;
+        final int inflight;
+        final long startNanos = System.nanoTime();
+
+        Permit(ConcurrencyLimiter limiter, int inflight) {
+            this.limiter = limiter;
+            this.inflight = inflight;
+        }
+    }
+
+}
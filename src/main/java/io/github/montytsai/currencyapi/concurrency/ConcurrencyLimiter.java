@@ -0,0 +1,88 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 單一路由群組的併發限制：同時處理數達到 {@link VegasLimit} 估計的上限時立即拒絕，不排隊。
+ * <p>
+ * 指標 (標籤 group)：{@code http.server.concurrency.limit} 目前上限、{@code http.server.concurrency.inflight}
+ * 同時處理數、{@code http.server.concurrency.rejected} 被拒絕的請求數。
+ */
+final class ConcurrencyLimiter {
+
+    static final String LIMIT = "http.server.concurrency.limit";
+    static final String INFLIGHT = "http.server.concurrency.inflight";
+    static final String REJECTED = "http.server.concurrency.rejected";
+
+    private final RouteGroup group;
+    private final VegasLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter rejected;
+
+    /**
+     * @param registry 指標登錄；null 時不記錄指標
+     */
+    ConcurrencyLimiter(RouteGroup group, VegasLimit limit, MeterRegistry registry) {
+        this.group = group;
+        this.limit = limit;
+        if (registry == null) {
+            this.rejected = null;
+            return;
+        }
+        Gauge.builder(LIMIT, limit, VegasLimit::getLimit)
+                .description("Adaptive concurrency limit of the route group")
+                .tag("group", group.getTag())
+                .register(registry);
+        Gauge.builder(INFLIGHT, inflight, AtomicInteger::get)
+                .description("Requests of the route group currently being processed")
+                .tag("group", group.getTag())
+                .register(registry);
+        this.rejected = Counter.builder(REJECTED)
+                .description("Requests of the route group rejected because the concurrency limit was reached")
+                .tag("group", group.getTag())
+                .register(registry);
+    }
+
+    RouteGroup getGroup() {
+        return group;
+    }
+
+    int getLimit() {
+        return limit.getLimit();
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @return 取得時的同時處理數 (含自己)；已達上限時為 0
+     */
+    int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                return 0;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * 歸還 {@link #tryAcquire()} 取得的名額，並以這個請求的處理時間更新上限。
+     */
+    void release(long rttNanos, int inflightAtStart, boolean dropped) {
+        inflight.decrementAndGet();
+        limit.onSample(rttNanos, inflightAtStart, dropped);
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import io.github.montytsai.currencyapi.coindesk.controller.CoinDeskController;
+import io.github.montytsai.currencyapi.currency.controller.CurrencyController;
+
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * 併發限制的路由群組，每個群組各自學習可承受的同時處理數 (metrics 的 group 標籤)。
+ * <p>
+ * 成本差異大的請求分開限制：CoinDesk 端點等待上游，寫入需要交易與鎖，都不應該拖累便宜的目錄讀取。
+ */
+public enum RouteGroup {
+
+    CATALOG_READS("catalog-reads"),
+    CATALOG_WRITES("catalog-writes"),
+    COINDESK("coindesk");
+
+    private final String tag;
+
+    RouteGroup(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @param httpMethod 請求的 HTTP 方法
+     * @return 請求所屬的群組；不屬於本專案 API 的處理器 (如 springdoc) 為 null，不受限制
+     */
+    static RouteGroup of(HandlerMethod handler, String httpMethod) {
+        Class<?> beanType = handler.getBeanType();
+        if (CoinDeskController.class.isAssignableFrom(beanType)) {
+            return COINDESK;
+        }
+        if (CurrencyController.class.isAssignableFrom(beanType)) {
+            return ("GET".equals(httpMethod) || "HEAD".equals(httpMethod)) ? CATALOG_READS : CATALOG_WRITES;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,117 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+/**
+ * 仿 TCP Vegas 的併發上限估計：以無負載時的延遲 ({@code rttNoLoad}) 與目前延遲的比值估計排隊中的請求數，
+ * <pre>
+ *   queue = limit × (1 − rttNoLoad / rtt)
+ * </pre>
+ * 排隊數少於 alpha 時調高上限、多於 beta 時調低，使上限停在「剛好用滿、幾乎不排隊」的位置。
+ * alpha / beta 隨上限以 log10 成長 (3 × log10(limit) / 6 × log10(limit))，上限越大每次調整的幅度越大。
+ * <ul>
+ * <li>樣本先以 {@code windowSize} 筆為一個視窗取平均延遲，降低單一請求 (GC、JIT) 的雜訊。</li>
+ * <li>視窗內有請求被丟棄 (逾時、下游容量已滿) 時，直接乘以 {@value #DROP_BACKOFF} 降低上限。</li>
+ * <li>同時處理數不到上限的一半時不調高 (應用程式本身沒有用滿上限，延遲無法說明容量)。</li>
+ * <li>每經過約 {@value #PROBE_MULTIPLIER} × limit 筆樣本重新量測 rttNoLoad，以適應資料量或硬體的變化。</li>
+ * </ul>
+ * 執行緒安全：{@link #getLimit()} 無鎖，{@link #onSample} 以物件鎖保護 (每個視窗才真正計算一次)。
+ */
+final class VegasLimit {
+
+    static final double DROP_BACKOFF = 0.9;
+    static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+
+    private volatile int limit;
+
+    // 以下欄位由 this 保護
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private long samplesSinceProbe;
+    private long windowRttSumNanos;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+
+    VegasLimit(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= min-limit <= initial-limit <= max-limit but got "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("window-size must be at least 1 but got " + windowSize);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 記錄一個已完成的請求。
+     *
+     * @param rttNanos 請求的處理時間
+     * @param inflight 請求開始時的同時處理數 (含自己)
+     * @param dropped  請求是否因逾時或下游容量不足而失敗
+     */
+    synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        windowRttSumNanos += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        windowDropped |= dropped;
+        if (windowSamples < windowSize) {
+            return;
+        }
+        long rtt = windowRttSumNanos / windowSamples;
+        int maxInflight = windowMaxInflight;
+        boolean anyDropped = windowDropped;
+        samplesSinceProbe += windowSamples;
+        windowRttSumNanos = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        windowDropped = false;
+        this.update(Math.max(1, rtt), maxInflight, anyDropped);
+    }
+
+    private void update(long rtt, int inflight, boolean dropped) {
+        if (samplesSinceProbe >= (long) PROBE_MULTIPLIER * limit) {
+            samplesSinceProbe = 0;
+            rttNoLoadNanos = rtt;
+            return;
+        }
+        if (rttNoLoadNanos == 0 || rtt < rttNoLoadNanos) {
+            rttNoLoadNanos = rtt;
+            return;
+        }
+
+        double current = estimatedLimit;
+        double next;
+        if (dropped) {
+            next = current * DROP_BACKOFF;
+        } else if (inflight * 2 < current) {
+            return;
+        } else {
+            double log = Math.max(1, Math.log10(current));
+            double queue = Math.ceil(current * (1 - (double) rttNoLoadNanos / rtt));
+            if (queue <= log) {
+                next = current + 6 * log;
+            } else if (queue < 3 * log) {
+                next = current + log;
+            } else if (queue > 6 * log) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+}
@@ -1,38 +1,131 @@
 package io.github.montytsai.currencyapi.config;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.coindesk.upstream.BoundedCoinDeskDecoder;
+import io.github.montytsai.currencyapi.observability.UpstreamResponseSizeFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class AppConfig {
 
     /**
-     * 建立一個組態好超時的 WebClient Bean。（取代傳統 RestTemplate 的現代化作法。）
+     * CoinDesk 連線池的名稱，也是連線池指標 (reactor.netty.connection.provider.*) 的 name 標籤。
+     */
+    public static final String COIN_DESK_POOL_NAME = "coindesk";
+
+    /**
+     * 建立呼叫 CoinDesk API 專用的連線池。
+     * <p>
+     * 明確限制連線數與等待取得連線的佇列長度，上游變慢時快速失敗而不是無限排隊；
+     * 閒置與存活時間上限讓連線定期汰換，避免沿用已被上游或中間的負載平衡器關閉的連線。
+     * 連線池指標 (reactor.netty.connection.provider.* 的 total / active / idle / pending 連線數) 發佈至 Micrometer，
+     * 可由 /actuator/metrics 查詢；取得連線的時間另見 {@link #coinDeskHttpClient}。
      *
-     * @param connectTimeoutMs 連線超時毫秒數
-     * @param readTimeoutMs    讀取超時毫秒數
-     * @param webClientBuilder Spring 提供的建構器
-     * @return 已設定超時的 WebClient 實例
+     * @param maxConnections         最大連線數
+     * @param pendingAcquireMaxCount 等待取得連線的最大請求數，超過時立即失敗
+     * @param pendingAcquireTimeout  等待取得連線的逾時時間
+     * @param maxIdleTime            連線最長閒置時間
+     * @param maxLifeTime            連線最長存活時間
+     * @param evictInterval          背景清除過期連線的間隔
+     * @return CoinDesk 專用的連線池
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider coinDeskConnectionProvider(
+            @Value("${coin-desk.api.pool.max-connections:50}") int maxConnections,
+            @Value("${coin-desk.api.pool.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+            @Value("${coin-desk.api.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${coin-desk.api.pool.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${coin-desk.api.pool.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${coin-desk.api.pool.evict-interval:30s}") Duration evictInterval) {
+
+        return ConnectionProvider.builder(COIN_DESK_POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * 建立使用 CoinDesk 連線池、組態好超時與 keep-alive 的 HttpClient。
+     * <p>
+     * 每次從連線池取得連線的時間記錄於 {@code coindesk.connection.acquire}：沿用閒置連線時接近 0，
+     * 需要新建連線時則包含 DNS 查詢、TCP 連線與 TLS 交握。
+     *
+     * @param connectionProvider CoinDesk 專用的連線池
+     * @param connectTimeoutMs   連線超時毫秒數
+     * @param readTimeoutMs      讀取超時毫秒數
+     * @param meterRegistry      Micrometer 註冊表 (不存在時不記錄取得連線的時間)
+     * @return HttpClient 實例，同時供 WebClient 與啟動時的連線預熱 ({@link CoinDeskConnectionWarmUp}) 使用
      */
     @Bean
-    public WebClient webClient(
+    public HttpClient coinDeskHttpClient(
+            ConnectionProvider connectionProvider,
             @Value("${coin-desk.api.timeout.connect}") int connectTimeoutMs,
             @Value("${coin-desk.api.timeout.read}") int readTimeoutMs,
-            WebClient.Builder webClientBuilder) {
+            ObjectProvider<MeterRegistry> meterRegistry) {
 
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = HttpClient.create(connectionProvider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
                 .responseTimeout(Duration.ofMillis(readTimeoutMs));
 
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return httpClient;
+        }
+        Timer acquireTimer = Timer.builder("coindesk.connection.acquire")
+                .description("Time to obtain a pooled connection to the CoinDesk API, including connect and TLS handshake for new connections")
+                .register(registry);
+        return httpClient.mapConnect(connect -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            return connect.doOnNext(connection -> acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        }));
+    }
+
+    /**
+     * 建立一個組態好超時的 WebClient Bean。（取代傳統 RestTemplate 的現代化作法。）
+     * <p>
+     * 錄製 JFR 事件時，由 {@link UpstreamResponseSizeFilter} 計算回應的位元組數。
+     * CoinDesk 回應以 {@link BoundedCoinDeskDecoder} 邊接收邊解析，超過大小或 BPI 幣別數上限時立即中止。
+     *
+     * @param httpClient       使用 CoinDesk 連線池的 HttpClient
+     * @param webClientBuilder Spring 提供的建構器
+     * @param objectMapper     Spring Boot 設定的 JSON ObjectMapper
+     * @param maxBytes         CoinDesk 回應的位元組數上限
+     * @param maxBpiEntries    CoinDesk 回應的 BPI 幣別數上限
+     * @param maxDepth         CoinDesk 回應的 JSON 巢狀深度上限
+     * @return 已設定超時的 WebClient 實例
+     */
+    @Bean
+    public WebClient webClient(HttpClient httpClient, WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
+                               @Value("${coin-desk.api.limits.max-bytes:64KB}") DataSize maxBytes,
+                               @Value("${coin-desk.api.limits.max-bpi-entries:200}") int maxBpiEntries,
+                               @Value("${coin-desk.api.limits.max-depth:16}") int maxDepth) {
+        BoundedCoinDeskDecoder decoder = new BoundedCoinDeskDecoder(objectMapper, maxBytes.toBytes(), maxBpiEntries, maxDepth);
         return webClientBuilder
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.customCodecs().register(decoder))
+                .filter(new UpstreamResponseSizeFilter())
                 .build();
     }
 
-}
\ No newline at end of file
+}
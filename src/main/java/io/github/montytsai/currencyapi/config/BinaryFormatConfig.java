@@ -0,0 +1,138 @@
+package io.github.montytsai.currencyapi.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二進位內容協商：依 Accept 標頭以 CBOR 或 Smile 回應，未指定時仍為 JSON。
+ * <p>
+ * 高頻輪詢的內部呼叫端可改用二進位格式，省去 JSON 文字解析的成本。
+ * 兩種格式的 ObjectMapper 皆由 Spring Boot 的 {@link Jackson2ObjectMapperBuilder} 建立，
+ * 因此 spring.jackson.* 設定與 JavaTimeModule 等模組與 JSON 完全一致。
+ * <p>
+ * 轉換器 / 編碼器皆排在 JSON 之後，未帶 Accept 或接受任意類型的請求維持回應 JSON。
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    /**
+     * Jackson Smile 的媒體類型 (Spring 未提供常數)。
+     */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * API 可回應的媒體類型，依偏好排序 (第一個為預設)。
+     */
+    public static final List<MediaType> SUPPORTED_MEDIA_TYPES = Collections.unmodifiableList(
+            Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE));
+
+    private static ObjectMapper mapper(ObjectProvider<Jackson2ObjectMapperBuilder> builder, JsonFactory factory) {
+        return builder.getObject().factory(factory).build();
+    }
+
+    /**
+     * Servlet 模式：Spring MVC 的 HttpMessageConverter。
+     * <p>
+     * 與預設轉換器同型別，Spring Boot 會以此取代預設 (未套用 spring.jackson.* 設定) 的版本，位置仍在 JSON 之後。
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletBinaryFormatConfig {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            return new MappingJackson2CborHttpMessageConverter(mapper(builder, new CBORFactory()));
+        }
+
+        @Bean
+        public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            return new MappingJackson2SmileHttpMessageConverter(mapper(builder, new SmileFactory()));
+        }
+
+    }
+
+    /**
+     * Reactive 模式：WebFlux 的編碼器 / 解碼器。
+     * <p>
+     * Smile 為 WebFlux 預設 codec，此處僅替換其 ObjectMapper；CBOR 不在預設清單中，只能以自訂 codec 註冊，
+     * 而自訂 codec 會排在所有預設 codec 之前。為了讓 JSON 仍是預設格式，自訂清單中先放入一個與預設相同的 JSON 編碼器。
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveBinaryFormatConfig {
+
+        @Bean
+        public CodecCustomizer binaryFormatCodecCustomizer(ObjectMapper objectMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+            ObjectMapper cborMapper = mapper(builder, new CBORFactory());
+            ObjectMapper smileMapper = mapper(builder, new SmileFactory());
+            return configurer -> {
+                // 須明確指定媒體類型：只傳 ObjectMapper 時會套用 JSON 的預設媒體類型
+                configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+                configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+                configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+                configurer.customCodecs().register(new NonStreamingCborEncoder(cborMapper));
+                configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            };
+        }
+
+    }
+
+    /**
+     * Spring 5.3 的 {@link Jackson2CborEncoder} 對任何 Publisher 一律拋出 UnsupportedOperationException (不支援串流)，
+     * 而 WebFlux 寫出單一值時同樣經由 encode()。此處改為：單一值直接編碼，多個值收集為 List 後編碼為 CBOR 陣列，
+     * 與 JSON 編碼器對非串流媒體類型的處理方式相同。
+     */
+    static class NonStreamingCborEncoder extends Jackson2CborEncoder {
+
+        NonStreamingCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(list -> encodeValue(list, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+
+    }
+
+}
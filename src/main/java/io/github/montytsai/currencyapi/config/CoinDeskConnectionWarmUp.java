@@ -0,0 +1,108 @@
+package io.github.montytsai.currencyapi.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * 啟動時預先建立到 CoinDesk API 的連線。
+ * <p>
+ * 先以 {@link HttpClient#warmup()} 初始化事件迴圈、DNS 解析器與 TLS 相關類別，
+ * 再同時送出數個 HEAD 請求，讓 DNS 查詢、TCP 連線與 TLS 交握在啟動階段完成，連線歸還後留在連線池中供第一個使用者請求沿用。
+ * <p>
+ * 預熱失敗 (上游無法連線、逾時) 只記錄警告，不影響啟動；第一個請求會照常自行建立連線。
+ * <p>
+ * 預設在啟動流程中等待預熱完成 (最多 timeout)；{@code coin-desk.api.warm-up.deferred=true} 時改在背景進行，
+ * 不延後啟動完成的時間 (fast-startup profile)，代價是啟動後最初的請求可能仍需自行建立連線。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coin-desk.api.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "HttpClient is a Spring-managed singleton bean and is intended to be shared.")
+public class CoinDeskConnectionWarmUp implements ApplicationRunner {
+
+    private final HttpClient httpClient;
+    private final String url;
+    private final int connections;
+    private final Duration timeout;
+    private final boolean deferred;
+
+    public CoinDeskConnectionWarmUp(HttpClient httpClient,
+                                    @Value("${coin-desk.api.url}") String url,
+                                    @Value("${coin-desk.api.warm-up.connections:2}") int connections,
+                                    @Value("${coin-desk.api.warm-up.timeout:5s}") Duration timeout,
+                                    @Value("${coin-desk.api.warm-up.deferred:false}") boolean deferred) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.connections = connections;
+        this.timeout = timeout;
+        this.deferred = deferred;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (deferred) {
+            this.connect().subscribe();
+        } else {
+            this.warmUp();
+        }
+    }
+
+    /**
+     * 建立連線並等待完成 (最多 timeout)。
+     *
+     * @return 成功完成的預熱請求數
+     */
+    public int warmUp() {
+        Integer established = this.connect().block();
+        return (established == null) ? 0 : established;
+    }
+
+    /**
+     * @return 完成時發出成功的預熱請求數；逾時或失敗時記錄警告並發出 0，不會以錯誤結束
+     */
+    private Mono<Integer> connect() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return httpClient.warmup()
+                    .thenMany(Flux.range(0, connections)
+                            .flatMap(i -> this.headRequest(), connections))
+                    .filter(Boolean::booleanValue)
+                    .count()
+                    .timeout(timeout)
+                    .map(succeeded -> {
+                        log.info("CoinDesk connection warm-up finished: {}/{} connections in {} ms.",
+                                succeeded, connections, Duration.ofNanos(System.nanoTime() - start).toMillis());
+                        return succeeded.intValue();
+                    });
+        }).onErrorResume(e -> {
+            log.warn("CoinDesk connection warm-up did not complete within {}: {}", timeout, e.getMessage());
+            return Mono.just(0);
+        });
+    }
+
+    /**
+     * 任何 HTTP 回應 (包含 4xx/5xx) 都代表連線已建立；只有連線層的錯誤視為失敗。
+     */
+    private Mono<Boolean> headRequest() {
+        return httpClient.head()
+                .uri(url)
+                .responseSingle((response, body) -> body.then(Mono.just(Boolean.TRUE)))
+                .onErrorResume(e -> {
+                    log.debug("CoinDesk warm-up request failed: {}", e.toString());
+                    return Mono.just(Boolean.FALSE);
+                });
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.montytsai.currencyapi.config;
+
+import io.github.montytsai.currencyapi.observability.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * CoinDesk 端點專用的執行緒池 (Bulkhead)。
+ * <p>
+ * 上游 API 變慢時，只會佔滿這個有界的執行緒池與佇列，不會耗盡 Tomcat 的 worker 執行緒，
+ * 因此不影響 /currencies 等其他 API。容量用盡時直接拒絕 (AbortPolicy)，由 Controller 轉為 503。
+ * 執行緒池指標 (executor.*) 由 Spring Boot Actuator 自動綁定，另外記錄被拒絕的次數。
+ * <p>
+ * 虛擬執行緒模式 ({@link VirtualThreadConfig}) 下改用虛擬執行緒，但仍保留相同的容量上限，
+ * 避免上游變慢時無限制地累積請求。
+ * <p>
+ * 定義了任何 {@code Executor} Bean 之後，Spring Boot 就不再建立預設的 {@code applicationTaskExecutor}，
+ * Spring MVC 的非同步處理會退回每個工作建立一條新執行緒的 {@code SimpleAsyncTaskExecutor}。
+ * 因此平台執行緒模式下由 {@link ApplicationTaskExecutorConfig} 明確建立 (設定同 {@code spring.task.execution.*})；
+ * 虛擬執行緒模式則由 {@link VirtualThreadConfig} 提供。
+ */
+@Configuration
+public class CoinDeskExecutorConfig {
+
+    public static final String COIN_DESK_EXECUTOR = "coinDeskExecutor";
+
+    private static final ThreadPoolExecutor.AbortPolicy ABORT_POLICY = new ThreadPoolExecutor.AbortPolicy();
+
+    @Bean(name = COIN_DESK_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor coinDeskExecutor(
+            @Value("${coin-desk.executor.core-size:8}") int coreSize,
+            @Value("${coin-desk.executor.max-size:8}") int maxSize,
+            @Value("${coin-desk.executor.queue-capacity:32}") int queueCapacity,
+            @Value("${" + VirtualThreadConfig.ENABLED_PROPERTY + ":false}") boolean virtualThreads,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Counter rejected = (registry == null) ? null : Counter.builder("coindesk.executor.rejected")
+                .description("Number of CoinDesk requests rejected because the executor was saturated")
+                .register(registry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("coindesk-");
+        executor.setTaskDecorator(ServerTiming::wrap); // 工作執行緒沿用提交請求的 Server-Timing
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            executor.setThreadFactory(VirtualThreads.threadFactory("coindesk-vt-"));
+        }
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            ABORT_POLICY.rejectedExecution(task, pool);
+        });
+        return executor;
+    }
+
+    /**
+     * 平台執行緒模式下的 {@code applicationTaskExecutor} (Spring MVC 非同步處理等使用)，與 Spring Boot 預設建立的相同。
+     */
+    @Configuration
+    @Conditional(OnPlatformThreads.class)
+    static class ApplicationTaskExecutorConfig {
+
+        @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+        public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+            return builder.build();
+        }
+    }
+
+    /**
+     * {@link VirtualThreadConfig} 不會套用時 (未開啟或 JDK 不支援虛擬執行緒) 成立。
+     */
+    static class OnPlatformThreads extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            boolean enabled = context.getEnvironment().getProperty(VirtualThreadConfig.ENABLED_PROPERTY, Boolean.class, false);
+            if (enabled && VirtualThreads.isSupported()) {
+                return ConditionOutcome.noMatch("Virtual threads provide the application task executor");
+            }
+            return ConditionOutcome.match("Platform threads");
+        }
+    }
+
+}
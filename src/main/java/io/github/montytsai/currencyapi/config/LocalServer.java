@@ -0,0 +1,56 @@
+package io.github.montytsai.currencyapi.config;
+
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * 對本機內嵌伺服器送出請求的共用方法 ({@link TrainingRun}、{@link ReadinessWarmUp})，
+ * 請求經過完整的 HTTP 處理流程 (篩選器、路由、序列化)，servlet 與 reactive 模式皆適用。
+ */
+final class LocalServer {
+
+    private LocalServer() {
+    }
+
+    /**
+     * @return 本機伺服器含 base path 的網址，例如 {@code http://localhost:8080/api/v1}
+     */
+    static String baseUrl(ApplicationContext context) {
+        Environment environment = context.getEnvironment();
+        String basePath = (context instanceof ReactiveWebServerApplicationContext)
+                ? environment.getProperty("spring.webflux.base-path", "")
+                : environment.getProperty("server.servlet.context-path", "");
+        return "http://localhost:" + environment.getProperty("local.server.port") + basePath;
+    }
+
+    /**
+     * 送出 GET 請求並讀完回應內容。不主動關閉連線，讓 JDK 的 keep-alive 快取沿用同一條連線。
+     *
+     * @return HTTP 狀態碼
+     */
+    static int get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        int status = connection.getResponseCode();
+        InputStream body = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            drain(body);
+        }
+        return status;
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        try (InputStream in = body) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // 讀完回應內容，連線才能歸還 keep-alive 快取
+            }
+        }
+    }
+
+}
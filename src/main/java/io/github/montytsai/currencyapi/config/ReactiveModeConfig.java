@@ -0,0 +1,85 @@
+package io.github.montytsai.currencyapi.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import javax.sql.DataSource;
+
+/**
+ * Reactive 模式 (profile: reactive) 的基礎設施：Netty 伺服器與 R2DBC 連線。
+ * <p>
+ * <ul>
+ * <li>classpath 上同時有 Tomcat 與 Netty，Spring Boot 預設會選 Tomcat，因此明確指定 Netty。</li>
+ * <li>R2DBC 的自動組態已在 application.yml 中排除 (避免在 servlet 模式下多出第二個 TransactionManager，
+ *     使 @Transactional 無法判斷要用哪一個)；此處自行建立連線池，交易以 {@link TransactionalOperator} 明確界定。</li>
+ * <li>R2DBC 與 JDBC 連到同一個 H2 記憶體資料庫；啟動時的目錄載入 ({@code CurrencyLookupTable}) 仍走 JDBC，
+ *     請求路徑則完全不經過 JPA。存在 ConnectionFactory 時 Spring Boot 不會自動建立 DataSource，因此在此明確建立。</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveModeConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<ReactorResourceFactory> resourceFactory) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        resourceFactory.ifAvailable(factory::setResourceFactory);
+        return factory;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(
+            @Value("${spring.r2dbc.url}") String url,
+            @Value("${spring.r2dbc.username:${spring.datasource.username:}}") String username,
+            @Value("${spring.r2dbc.password:${spring.datasource.password:}}") String password,
+            @Value("${spring.r2dbc.pool.max-size:10}") int maxSize) {
+        // H2 記憶體資料庫以第一個連線的帳號建立，因此必須與 JDBC 使用相同的帳號密碼
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(2, maxSize))
+                .maxSize(maxSize)
+                .build();
+        return new ConnectionPool(configuration);
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator currencyTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+}
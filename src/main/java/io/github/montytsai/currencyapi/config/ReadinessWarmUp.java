@@ -0,0 +1,194 @@
+package io.github.montytsai.currencyapi.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
+import io.github.montytsai.currencyapi.coindesk.mapper.CoinDeskMapper;
+import io.github.montytsai.currencyapi.coindesk.service.CoinDeskService;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 就緒前的預熱：在 readiness 健康群組 ({@code /actuator/health/readiness}) 回報 UP 之前，
+ * 先載入資料、建立連線並讓熱門路徑經過 JIT 編譯，新節點收到的第一批流量不必承擔冷啟動的延遲。
+ * <ol>
+ * <li>幣別目錄 ({@link CurrencyLookupTable}) 在注入此元件時即已載入記憶體 (啟動後只由 {@code CatalogVersion} 重新載入)。</li>
+ * <li>向 CoinDesk 取得第一份資料並完成轉換 (同時建立上游連線)。</li>
+ * <li>重複最多 {@code iterations} 次、最長 {@code timeout}：對本機送出 {@code paths} 中的請求 (CurrencyController 的讀取路徑，經過完整的 HTTP 處理流程)，
+ * 並以第 2 步的資料執行 CoinDeskController 的轉換與序列化 (不重複呼叫上游)。</li>
+ * </ol>
+ * Spring Boot 在所有 {@link ApplicationRunner} 完成後才發佈 {@code ReadinessState.ACCEPTING_TRAFFIC}，
+ * 因此預熱期間 readiness 維持 OUT_OF_SERVICE (503)，負載平衡器不會把流量導入；liveness 則不受影響。
+ * 伺服器在預熱期間已可處理請求，直接送達的請求照常回應。
+ * <p>
+ * 任何一步失敗 (例如上游無法連線) 只記錄警告並略過該步驟。預設只預熱數秒：重複次數越多 C2 編譯得越完整，
+ * 但就緒時間也隨之延後，{@code timeout} 讓預熱時間不隨機器速度變化。
+ * 預熱請求與一般請求一樣計入 http.server.requests 等指標。
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE) // 在 CoinDeskConnectionWarmUp 等其他 ApplicationRunner 之後執行
+@ConditionalOnProperty(name = "readiness.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The application context and the injected services are Spring-managed singletons and are intended to be shared.")
+public class ReadinessWarmUp implements ApplicationRunner {
+
+    private final ApplicationContext context;
+    private final CurrencyLookupTable lookupTable;
+    private final CoinDeskService coinDeskService;
+    private final CoinDeskMapper coinDeskMapper;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final Duration timeout;
+    private final List<String> paths;
+
+    private volatile Result lastResult;
+
+    public ReadinessWarmUp(ApplicationContext context,
+                           CurrencyLookupTable lookupTable,
+                           CoinDeskService coinDeskService,
+                           CoinDeskMapper coinDeskMapper,
+                           ObjectMapper objectMapper,
+                           @Value("${readiness.warm-up.iterations:300}") int iterations,
+                           @Value("${readiness.warm-up.timeout:3s}") Duration timeout,
+                           @Value("${readiness.warm-up.paths:/currencies,/currencies/USD,/currencies/XXX,/currencies/search?name=%E7%BE%8E}") List<String> paths) {
+        this.context = context;
+        this.lookupTable = lookupTable;
+        this.coinDeskService = coinDeskService;
+        this.coinDeskMapper = coinDeskMapper;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.timeout = timeout;
+        this.paths = new ArrayList<>(paths);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        this.lastResult = this.warmUp();
+    }
+
+    /**
+     * 執行完整的預熱流程。
+     *
+     * @return 預熱結果
+     */
+    public Result warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        CoinDeskResponse snapshot = this.fetchSnapshot();
+
+        String baseUrl = LocalServer.baseUrl(context);
+        int completed = 0;
+        int requests = 0;
+        int failures = 0;
+        while (completed < iterations && System.nanoTime() < deadline) {
+            for (String path : paths) {
+                requests++;
+                if (!this.request(baseUrl + path)) {
+                    failures++;
+                }
+            }
+            if (snapshot != null) {
+                this.transform(snapshot);
+            }
+            completed++;
+        }
+
+        Result result = new Result(completed, requests, failures, snapshot != null,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        if (completed < iterations) {
+            log.info("Readiness warm-up stopped after {}/{} iterations: time budget {} used up.", completed, iterations, timeout);
+        }
+        log.info("Readiness warm-up finished in {} ms: {} iterations, {} requests ({} failed), CoinDesk snapshot {}.",
+                result.getElapsedMillis(), completed, requests, failures, result.isCoinDeskPrimed() ? "primed" : "unavailable");
+        return result;
+    }
+
+    /**
+     * @return 最近一次預熱的結果；尚未執行時為 null
+     */
+    public Result getLastResult() {
+        return lastResult;
+    }
+
+    private CoinDeskResponse fetchSnapshot() {
+        try {
+            CoinDeskResponse snapshot = coinDeskService.getOriginalCoinDeskData();
+            if (snapshot == null || snapshot.getBpi() == null) {
+                log.warn("Readiness warm-up skipped the CoinDesk transformation: the upstream returned no BPI data.");
+                return null;
+            }
+            this.transform(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            log.warn("Readiness warm-up could not fetch the first CoinDesk snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void transform(CoinDeskResponse snapshot) {
+        TransformedCoinDeskResponse transformed = coinDeskMapper.toTransformedResponse(snapshot, lookupTable);
+        try {
+            objectMapper.writeValueAsBytes(transformed);
+        } catch (JsonProcessingException e) {
+            log.warn("Readiness warm-up could not serialize the transformed CoinDesk response: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 任何 HTTP 回應 (包含預期中的 404) 都代表路徑已被執行；只有連線層的錯誤與 5xx 視為失敗。
+     */
+    private boolean request(String url) {
+        try {
+            return LocalServer.get(url) < 500;
+        } catch (IOException e) {
+            log.debug("Readiness warm-up request to {} failed: {}", url, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * 預熱的結果摘要。
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Result {
+
+        private final int iterations;
+
+        private final int requests;
+
+        /**
+         * 連線失敗或 5xx 的請求數。
+         */
+        private final int failures;
+
+        /**
+         * 是否已取得並轉換 CoinDesk 的第一份資料。
+         */
+        private final boolean coinDeskPrimed;
+
+        private final long elapsedMillis;
+
+    }
+
+}
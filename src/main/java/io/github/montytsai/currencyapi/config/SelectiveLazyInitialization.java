@@ -0,0 +1,79 @@
+package io.github.montytsai.currencyapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 只將非必要的 Bean (預設為 springdoc / Swagger) 改為延遲初始化，第一次使用時才建立。
+ * <p>
+ * 不使用 {@code spring.main.lazy-initialization} 全域延遲：資料庫、幣別目錄與 CoinDesk 用戶端延後建立，
+ * 只是把成本轉嫁到第一個使用者請求；文件相關的 Bean 則只有開啟 Swagger UI 時才會用到。
+ * <p>
+ * 依 Bean 的類別，或宣告該 Bean 的設定類別 (@Bean 方法) 所在的套件判斷，套件由
+ * {@code startup.lazy-initialization.packages} 設定。基礎設施 Bean 與 BeanPostProcessor 本來就會提前建立，不受影響。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "startup.lazy-initialization.enabled", havingValue = "true")
+public class SelectiveLazyInitialization implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private List<String> packages = Collections.emptyList();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.packages = Binder.get(environment)
+                .bind("startup.lazy-initialization.packages", Bindable.listOf(String.class))
+                .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int count = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.getRole() == BeanDefinition.ROLE_APPLICATION && this.matches(definition)) {
+                definition.setLazyInit(true);
+                count++;
+            }
+        }
+        log.debug("Marked {} bean definitions in {} for lazy initialization.", count, packages);
+    }
+
+    private boolean matches(BeanDefinition definition) {
+        if (this.inPackages(definition.getBeanClassName())) {
+            return true;
+        }
+        if (definition instanceof AnnotatedBeanDefinition) {
+            MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            return factoryMethod != null && this.inPackages(factoryMethod.getDeclaringClassName());
+        }
+        return false;
+    }
+
+    private boolean inPackages(String className) {
+        if (className == null) {
+            return false;
+        }
+        for (String prefix : packages) {
+            if (className.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.github.montytsai.currencyapi.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 建立 CDS 封存檔的訓練執行 ({@code startup.training-run.enabled=true})：啟動完成後對本機送出數個請求，
+ * 讓處理請求時才載入的類別 (Jackson 序列化、JPA 查詢、例外處理等) 也被記錄，再結束 JVM。
+ * <p>
+ * 搭配 {@code -XX:ArchiveClassesAtExit} 使用 (見 Dockerfile)；JVM 結束時將載入過的類別寫入封存檔，
+ * 之後以 {@code -XX:SharedArchiveFile} 啟動即可直接對映，省去解析與驗證類別的時間。
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE) // 在其他就緒事件的處理 (例如 StartupTimingReport) 之後才結束
+@ConditionalOnProperty(name = "startup.training-run.enabled", havingValue = "true")
+@SuppressFBWarnings(value = "DM_EXIT", justification = "A training run exists only to load classes and must terminate the JVM so the CDS archive is written.")
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final List<String> paths;
+
+    public TrainingRun(@Value("${startup.training-run.paths:/currencies,/currencies/USD,/currencies/XXX}") List<String> paths) {
+        this.paths = new ArrayList<>(paths);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        String baseUrl = LocalServer.baseUrl(context);
+        for (String path : paths) {
+            log.info("Training run request {} -> HTTP {}", path, request(baseUrl + path));
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private static int request(String url) {
+        try {
+            return LocalServer.get(url);
+        } catch (IOException e) {
+            log.warn("Training run request to {} failed: {}", url, e.getMessage());
+            return -1;
+        }
+    }
+
+}
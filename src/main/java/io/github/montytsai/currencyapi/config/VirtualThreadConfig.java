@@ -0,0 +1,108 @@
+package io.github.montytsai.currencyapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虛擬執行緒模式 (需 JDK 21 以上，預設關閉)。
+ * <p>
+ * 以 {@code spring.threads.virtual.enabled=true} 開啟 (與 Spring Boot 3.2 的屬性名稱相同，升級後可直接沿用)：
+ * <ul>
+ * <li>Tomcat 的請求處理改為每個請求一條虛擬執行緒。</li>
+ * <li>Spring MVC 非同步處理與排程 (@Scheduled) 使用虛擬執行緒。</li>
+ * <li>CoinDesk Bulkhead 改用虛擬執行緒，但仍保留原本的容量上限 (見 {@link CoinDeskExecutorConfig})。</li>
+ * <li>以 {@link VirtualThreadPinningMonitor} 回報虛擬執行緒被釘住的熱點。</li>
+ * </ul>
+ * 在不支援虛擬執行緒的 JDK 上開啟時，只記錄警告並維持平台執行緒。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadConfig.ENABLED_PROPERTY, havingValue = "true")
+@Conditional(VirtualThreadConfig.OnVirtualThreadsSupported.class)
+public class VirtualThreadConfig {
+
+    public static final String ENABLED_PROPERTY = "spring.threads.virtual.enabled";
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadRequestExecutor() {
+        log.info("Virtual thread mode enabled: Tomcat requests run on virtual threads.");
+        return VirtualThreads.newThreadPerTaskExecutor("tomcat-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadRequestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadRequestExecutor);
+    }
+
+    /**
+     * 取代 Spring Boot 預設的 applicationTaskExecutor (因專案已有 CoinDesk 執行緒池，預設的不會被建立；平台執行緒模式下由 {@link CoinDeskExecutorConfig} 建立)。
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-vt-"));
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupportConfigurer(AsyncTaskExecutor applicationTaskExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(applicationTaskExecutor);
+            }
+        };
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadTaskSchedulerCustomizer() {
+        return scheduler -> scheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-vt-"));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${spring.threads.virtual.pinning-monitor.threshold:20ms}") Duration threshold,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * 目前的 JDK 支援虛擬執行緒時才套用；否則記錄警告。
+     */
+    static class OnVirtualThreadsSupported extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (VirtualThreads.isSupported()) {
+                return ConditionOutcome.match("Virtual threads are supported");
+            }
+            log.warn("{} is set but virtual threads are not supported on Java {}; falling back to platform threads.",
+                    ENABLED_PROPERTY, System.getProperty("java.version"));
+            return ConditionOutcome.noMatch("Virtual threads are not supported on Java "
+                    + System.getProperty("java.version"));
+        }
+    }
+
+}
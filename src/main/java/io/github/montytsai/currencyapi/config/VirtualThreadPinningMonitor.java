@@ -0,0 +1,197 @@
+package io.github.montytsai.currencyapi.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.SmartLifecycle;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 以 JFR 串流 ({@code jdk.VirtualThreadPinned} 事件) 偵測虛擬執行緒被釘住 (pinned) 的位置。
+ * <p>
+ * 虛擬執行緒在 synchronized 區塊或原生方法中阻塞時無法卸載 (unmount)，會佔住底層的載體執行緒；
+ * JDBC 驅動、連線池與 Hibernate 中的 synchronized 是常見來源。
+ * 每個事件以「第一個非 JDK 的堆疊框架」作為熱點位置：
+ * <ul>
+ * <li>計數器 {@code jvm.threads.virtual.pinned} (tag: site) 可從 /actuator/metrics 查詢。</li>
+ * <li>每個位置第一次出現時記錄完整事件 (含堆疊)；停止時輸出各位置的累計次數。</li>
+ * </ul>
+ * 專案以 Java 8 編譯，JFR 串流 API (JDK 14+) 以反射呼叫；無法使用時只記錄警告，不影響啟動。
+ */
+@Slf4j
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MeterRegistry is a Spring-managed singleton and is intended to be shared.")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * 熱點位置數量上限，避免計數器的 tag 無限增長。
+     */
+    private static final int MAX_SITES = 64;
+    private static final String OTHER_SITE = "other";
+
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LongAdder> pinnedCountBySite = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counterBySite = new ConcurrentHashMap<>();
+
+    private volatile AutoCloseable recordingStream;
+
+    /**
+     * @param threshold     只記錄釘住時間超過此門檻的事件
+     * @param meterRegistry 可為 null，此時只記錄 log
+     */
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Class<?> streamType = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsType = Class.forName("jdk.jfr.EventSettings");
+            AutoCloseable stream = (AutoCloseable) streamType.getConstructor().newInstance();
+
+            Object settings = streamType.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            settings = settingsType.getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+            settingsType.getMethod("withStackTrace").invoke(settings);
+
+            Consumer<Object> handler = this::onPinned;
+            streamType.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, handler);
+            streamType.getMethod("startAsync").invoke(stream);
+            recordingStream = stream;
+            log.info("Virtual thread pinning monitor started (threshold {} ms).", threshold.toMillis());
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            log.warn("Virtual thread pinning monitor is unavailable on this JVM: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void stop() {
+        AutoCloseable stream = recordingStream;
+        recordingStream = null;
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (Exception e) {
+            log.debug("Failed to close the JFR recording stream.", e);
+        }
+        pinnedCountBySite.forEach((site, count) ->
+                log.info("Virtual threads pinned {} times at {}", count.sum(), site));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    /**
+     * 處理一筆 JFR 事件 (型別為 {@code jdk.jfr.consumer.RecordedEvent})。
+     */
+    void onPinned(Object event) {
+        String site = RecordedEvents.pinnedSite(event);
+        if (!pinnedCountBySite.containsKey(site) && pinnedCountBySite.size() >= MAX_SITES) {
+            site = OTHER_SITE;
+        }
+        LongAdder count = pinnedCountBySite.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned at {} for {} ms:\n{}", site, RecordedEvents.durationMillis(event), event);
+        }
+        if (meterRegistry != null) {
+            counterBySite.computeIfAbsent(site, key -> Counter.builder("jvm.threads.virtual.pinned")
+                    .description("Number of times a virtual thread was pinned to its carrier thread")
+                    .tag("site", key)
+                    .register(meterRegistry))
+                    .increment();
+        }
+    }
+
+    /**
+     * 以反射讀取 {@code jdk.jfr.consumer} 的事件欄位。
+     */
+    private static final class RecordedEvents {
+
+        private static final String UNKNOWN_SITE = "unknown";
+
+        private static Method getDuration;
+        private static Method getStackTrace;
+        private static Method getFrames;
+        private static Method getMethod;
+        private static Method getLineNumber;
+        private static Method getType;
+        private static Method getMethodName;
+        private static Method getClassName;
+
+        private RecordedEvents() {
+        }
+
+        static long durationMillis(Object event) {
+            try {
+                resolve();
+                return ((Duration) getDuration.invoke(event)).toMillis();
+            } catch (ReflectiveOperationException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * @return 第一個不屬於 JDK 的堆疊框架，例如 {@code org.h2.engine.SessionLocal.lock:123}
+         */
+        static String pinnedSite(Object event) {
+            try {
+                resolve();
+                Object stackTrace = getStackTrace.invoke(event);
+                if (stackTrace == null) {
+                    return UNKNOWN_SITE;
+                }
+                for (Object frame : (List<?>) getFrames.invoke(stackTrace)) {
+                    Object method = getMethod.invoke(frame);
+                    String className = (String) getClassName.invoke(getType.invoke(method));
+                    if (!isJdkClass(className)) {
+                        return className + "." + getMethodName.invoke(method) + ":" + getLineNumber.invoke(frame);
+                    }
+                }
+                return UNKNOWN_SITE;
+            } catch (ReflectiveOperationException e) {
+                return UNKNOWN_SITE;
+            }
+        }
+
+        private static boolean isJdkClass(String className) {
+            return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.");
+        }
+
+        private static synchronized void resolve() throws ReflectiveOperationException {
+            if (getDuration != null) {
+                return;
+            }
+            Class<?> event = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            Class<?> stackTrace = Class.forName("jdk.jfr.consumer.RecordedStackTrace");
+            Class<?> frame = Class.forName("jdk.jfr.consumer.RecordedFrame");
+            Class<?> method = Class.forName("jdk.jfr.consumer.RecordedMethod");
+            Class<?> type = Class.forName("jdk.jfr.consumer.RecordedClass");
+            getStackTrace = event.getMethod("getStackTrace");
+            getFrames = stackTrace.getMethod("getFrames");
+            getMethod = frame.getMethod("getMethod");
+            getLineNumber = frame.getMethod("getLineNumber");
+            getType = method.getMethod("getType");
+            getMethodName = method.getMethod("getName");
+            getClassName = type.getMethod("getName");
+            getDuration = event.getMethod("getDuration");
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.github.montytsai.currencyapi.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 以反射存取 JDK 21 的虛擬執行緒 (Virtual Threads) API。
+ * <p>
+ * 專案仍以 Java 8 編譯，無法直接引用 {@code Thread.ofVirtual()}；
+ * 在不支援的 JDK 上 {@link #isSupported()} 回傳 false，呼叫端應退回平台執行緒。
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            // 方法必須從公開介面 Thread.Builder 取得，實作類別不是 public，無法直接 invoke
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderType.getMethod("name", String.class, long.class);
+            factory = builderType.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // JDK 19/20 需開啟 preview 才能使用，否則會拋出 UnsupportedOperationException
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return 目前的 JDK 是否可以建立虛擬執行緒
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 建立虛擬執行緒的 ThreadFactory，執行緒名稱為 {@code prefix} 加上遞增序號。
+     *
+     * @param prefix 執行緒名稱前綴
+     * @return ThreadFactory
+     * @throws IllegalStateException 目前的 JDK 不支援虛擬執行緒
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or later, running on "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * 建立「每個任務一條虛擬執行緒」的 ExecutorService。
+     *
+     * @param prefix 執行緒名稱前綴
+     * @return ExecutorService
+     * @throws IllegalStateException 目前的 JDK 不支援虛擬執行緒
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create a virtual thread executor", e);
+        }
+    }
+
+}
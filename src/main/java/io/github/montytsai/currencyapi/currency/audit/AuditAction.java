@@ -0,0 +1,19 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+/**
+ * 稽核紀錄的異動類型 (CURRENCY_AUDIT.action)。
+ */
+public enum AuditAction {
+
+    /** 建立新幣別，或以建立請求重新啟用並覆寫已停用的幣別 */
+    CREATE,
+    /** 完整替換 (PUT) */
+    REPLACE,
+    /** 部分更新 (PATCH) */
+    PARTIAL_UPDATE,
+    /** 軟刪除 */
+    SOFT_DELETE,
+    /** 重新啟用 */
+    REACTIVATE
+
+}
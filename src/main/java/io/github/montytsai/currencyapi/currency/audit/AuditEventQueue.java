@@ -0,0 +1,97 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 固定容量、無鎖的多生產者 / 單一消費者佇列 (Dmitry Vyukov 的有界佇列)。
+ * <p>
+ * 每個槽有一個序號：等於寫入位置時可寫入，等於寫入位置 + 1 時可讀取。
+ * 生產者以一次 CAS 取得寫入位置，不配置節點也不阻塞；佇列已滿時 {@link #offer} 立即回傳 false，
+ * 由呼叫端決定溢出策略。只有一個執行緒 (寫入執行緒) 可以呼叫 {@link #drainTo}。
+ */
+final class AuditEventQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // 下一個寫入位置
+    private final AtomicLong head = new AtomicLong(); // 下一個讀取位置 (只由消費者更新)
+
+    /**
+     * @param capacity 容量，向上取整為 2 的次方 (至少 2：只有一個槽時，「已讀取」與「可寫入」的序號相同)
+     */
+    AuditEventQueue(int capacity) {
+        if (capacity < 1 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (1 << 24) + " but got " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity * 2 - 1));
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return 已放入佇列時為 true；佇列已滿時為 false
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1); // 發佈：消費者看到序號時一定看得到元素
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // 此槽仍保存一圈之前的元素
+            } else {
+                position = tail.get(); // 其他生產者已取得此位置
+            }
+        }
+    }
+
+    /**
+     * 取出最多 maxElements 個元素加入 sink (只能由單一消費者呼叫)。
+     *
+     * @return 取出的元素數
+     */
+    int drainTo(List<? super E> sink, int maxElements) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break; // 尚未寫入 (或已取得位置的生產者還沒發佈)
+            }
+            sink.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1); // 釋放給下一圈的生產者
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+
+    /**
+     * @return 目前的元素數 (近似值，包含已取得位置但尚未發佈的元素)
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+}
@@ -0,0 +1,51 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+/**
+ * 發出異動的請求來源，不可變。
+ * <p>
+ * 來源 IP 由伺服器取得，一律記錄；操作者標頭由客戶端自行填寫、未經驗證，只記錄為「聲稱的」操作者，
+ * 不可單獨作為追查依據。
+ */
+final class AuditRequester {
+
+    static final int MAX_LENGTH = 100;
+
+    /** 非請求執行緒 (啟動、排程) 的異動 */
+    static final AuditRequester SYSTEM = new AuditRequester(CurrencyAuditLog.SYSTEM_ACTOR, null);
+
+    private final String remoteAddress;
+    private final String claimedActor;
+
+    private AuditRequester(String remoteAddress, String claimedActor) {
+        this.remoteAddress = remoteAddress;
+        this.claimedActor = claimedActor;
+    }
+
+    /**
+     * @param remoteAddress 來源位址；null 時視為 {@link #SYSTEM}
+     * @param header        操作者標頭的值，可為 null
+     * @return 請求來源，兩個值超過 {@value #MAX_LENGTH} 個字元時截斷
+     */
+    static AuditRequester of(String remoteAddress, String header) {
+        if (remoteAddress == null) {
+            return SYSTEM;
+        }
+        return new AuditRequester(truncate(remoteAddress), (header == null || header.isEmpty()) ? null : truncate(header));
+    }
+
+    private static String truncate(String value) {
+        return (value.length() > MAX_LENGTH) ? value.substring(0, MAX_LENGTH) : value;
+    }
+
+    String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * @return 操作者標頭的值 (未經驗證)；沒有標頭時為 null
+     */
+    String getClaimedActor() {
+        return claimedActor;
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import java.time.Instant;
+
+/**
+ * 一筆已提交的目錄異動 (CURRENCY_AUDIT 的一列)，不可變。
+ */
+final class CurrencyAuditEvent {
+
+    private final Instant occurredAt;
+    private final AuditRequester requester;
+    private final AuditAction action;
+    private final String code;
+    private final CurrencyState before;
+    private final CurrencyState after;
+
+    /**
+     * @param before 異動前的狀態，新建立的幣別為 null
+     * @param after  異動後的狀態
+     */
+    CurrencyAuditEvent(Instant occurredAt, AuditRequester requester, AuditAction action, String code,
+                       CurrencyState before, CurrencyState after) {
+        this.occurredAt = occurredAt;
+        this.requester = requester;
+        this.action = action;
+        this.code = code;
+        this.before = before;
+        this.after = after;
+    }
+
+    Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    AuditRequester getRequester() {
+        return requester;
+    }
+
+    AuditAction getAction() {
+        return action;
+    }
+
+    String getCode() {
+        return code;
+    }
+
+    CurrencyState getBefore() {
+        return before;
+    }
+
+    CurrencyState getAfter() {
+        return after;
+    }
+
+}
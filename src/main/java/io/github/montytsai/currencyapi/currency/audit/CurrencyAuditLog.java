@@ -0,0 +1,398 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 幣別目錄異動的非同步稽核紀錄 (CURRENCY_AUDIT)。
+ * <p>
+ * <ul>
+ * <li>寫入路徑只複製異動前後的欄位並放入無鎖的有界佇列 ({@link AuditEventQueue})，不多執行任何 SQL；
+ * 事件在交易提交後 ({@code afterCommit}) 才放入佇列，回滾的異動不會留下紀錄。</li>
+ * <li>背景的寫入執行緒每次取出最多 {@code batch-size} 筆，以一次 JDBC batch 在獨立交易中寫入；
+ * 佇列為空時等待 {@code flush-interval}。寫入失敗時保留該批並在等待後重試。</li>
+ * <li>佇列已滿時依 {@link OverflowPolicy} 處理：由呼叫端直接寫入 (預設，不遺失)、等待空位或捨棄。</li>
+ * <li>關閉時 (生命週期階段早於資料來源關閉、晚於 web 伺服器停止接受請求) 寫完佇列中所有事件；
+ * 停止後才提交的異動改由呼叫端直接寫入；與停止同時放入佇列的事件由放入的呼叫端補寫，不會留在佇列中。</li>
+ * </ul>
+ * 每筆都記錄來源 IP (非請求執行緒，例如啟動、排程，為 {@value #SYSTEM_ACTOR})；請求標頭 {@code actor-header}
+ * 由客戶端自行填寫，只另外記錄為聲稱的操作者 (claimed_actor)。
+ * reactive 模式的 R2DBC 寫入經由 {@link ReactiveCurrencyAuditLog} 放入同一個佇列。
+ * <p>
+ * 指標：{@code currency.audit.events} (result 標籤：written / caller_runs / dropped / lost) 與
+ * {@code currency.audit.queue.size}。
+ */
+@Slf4j
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "JdbcTemplate, PlatformTransactionManager and ObjectMapper are Spring-managed singletons and are intended to be shared.")
+public final class CurrencyAuditLog implements SmartLifecycle {
+
+    public static final String EVENTS = "currency.audit.events";
+    public static final String QUEUE_SIZE = "currency.audit.queue.size";
+
+    static final String SYSTEM_ACTOR = "system";
+
+    private static final String INSERT_SQL = "INSERT INTO CURRENCY_AUDIT "
+            + "(occurred_at, remote_address, claimed_actor, action, currency_code, before_value, after_value) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 晚於 web 伺服器 (含 graceful shutdown) 停止，進行中的請求提交的事件都會寫入；早於資料來源關閉。
+     */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+
+    /**
+     * 佇列已滿時的處理方式。
+     */
+    public enum OverflowPolicy {
+        /** 由提交異動的執行緒直接寫入該筆事件 (不遺失，寫入路徑暫時承擔一次 INSERT) */
+        CALLER_RUNS,
+        /** 等待佇列出現空位，超過 {@code block-timeout} 仍無空位時捨棄 */
+        BLOCK,
+        /** 立即捨棄 (寫入路徑延遲優先) */
+        DROP;
+
+        static OverflowPolicy parse(String value) {
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown audit overflow policy '" + value
+                        + "', expected one of caller-runs, block, drop.", e);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final String actorHeader;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditEventQueue<CurrencyAuditEvent> queue;
+    private final Counter written;
+    private final Counter callerRuns;
+    private final Counter dropped;
+    private final Counter lost;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile Thread writer;
+
+    public CurrencyAuditLog(@Value("${currency.audit.enabled:true}") boolean enabled,
+                            @Value("${currency.audit.capacity:8192}") int capacity,
+                            @Value("${currency.audit.batch-size:256}") int batchSize,
+                            @Value("${currency.audit.flush-interval:100ms}") Duration flushInterval,
+                            @Value("${currency.audit.overflow-policy:caller-runs}") String overflowPolicy,
+                            @Value("${currency.audit.block-timeout:1s}") Duration blockTimeout,
+                            @Value("${currency.audit.actor-header:X-Actor}") String actorHeader,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry registry) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("currency.audit.batch-size must be positive but got " + batchSize);
+        }
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), flushInterval.toNanos());
+        this.overflowPolicy = OverflowPolicy.parse(overflowPolicy);
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.actorHeader = actorHeader;
+        this.jdbcTemplate = jdbcTemplate;
+        // afterCommit 時原交易的資源仍綁定在執行緒上，必須開啟新的交易才會真正提交
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.queue = new AuditEventQueue<>(capacity);
+        this.written = events(registry, "written");
+        this.callerRuns = events(registry, "caller_runs");
+        this.dropped = events(registry, "dropped");
+        this.lost = events(registry, "lost");
+        Gauge.builder(QUEUE_SIZE, queue, AuditEventQueue::size)
+                .description("Currency audit events waiting to be written")
+                .register(registry);
+    }
+
+    private static Counter events(MeterRegistry registry, String result) {
+        return Counter.builder(EVENTS)
+                .description("Currency catalog audit events by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * 記錄一筆異動；在交易中呼叫時於提交後才放入佇列，交易回滾則不記錄。
+     *
+     * @param action 異動類型
+     * @param code   幣別代碼
+     * @param before 異動前的狀態 (須在修改實體之前取得)，新建立的幣別為 null
+     * @param after  異動後的狀態
+     */
+    public void record(AuditAction action, String code, CurrencyState before, CurrencyState after) {
+        if (!enabled) {
+            return;
+        }
+        CurrencyAuditEvent event = new CurrencyAuditEvent(Instant.now(), this.resolveRequester(), action, code, before, after);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            this.enqueue(event);
+        }
+    }
+
+    void enqueue(CurrencyAuditEvent event) {
+        if (stopped) {
+            this.writeOnCaller(event); // 寫入執行緒已停止 (關閉中)
+            return;
+        }
+        if (queue.offer(event)) {
+            this.drainIfStopped();
+            return;
+        }
+        switch (overflowPolicy) {
+            case CALLER_RUNS:
+                this.writeOnCaller(event);
+                break;
+            case BLOCK:
+                if (this.offerWithin(event, blockTimeoutNanos)) {
+                    this.drainIfStopped();
+                } else {
+                    dropped.increment();
+                }
+                break;
+            default:
+                dropped.increment();
+        }
+    }
+
+    /**
+     * 放入佇列後再檢查一次：若 {@link #stop()} 在上面的檢查之後才開始，它取出剩餘事件時可能還看不到這一筆，
+     * 由呼叫端補寫。stopped 先於 stop() 的最後一次取出設定，而此處的讀取在放入之後，兩者至少有一方會看到這筆事件。
+     */
+    private void drainIfStopped() {
+        if (stopped) {
+            this.drainAfterStop();
+        }
+    }
+
+    /**
+     * 與 {@link #stop()} 互斥 (同一個監視器)：取得時 stop() 已結束、寫入執行緒已停止，呼叫端成為唯一的消費者。
+     */
+    private synchronized void drainAfterStop() {
+        if (stopped) { // 其間重新 start() 時交給新的寫入執行緒
+            this.drainRemaining();
+        }
+    }
+
+    private boolean offerWithin(CurrencyAuditEvent event, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+            if (queue.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeOnCaller(CurrencyAuditEvent event) {
+        try {
+            this.write(Collections.singletonList(event));
+            callerRuns.increment();
+        } catch (RuntimeException e) {
+            lost.increment();
+            log.error("Failed to write currency audit event for {} {}.", event.getAction(), event.getCode(), e);
+        }
+    }
+
+    private AuditRequester resolveRequester() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return AuditRequester.SYSTEM;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return AuditRequester.of(request.getRemoteAddr(), request.getHeader(actorHeader));
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    String getActorHeader() {
+        return actorHeader;
+    }
+
+    // =================================================================
+    // == Writer
+    // =================================================================
+
+    private void runWriter() {
+        List<CurrencyAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else if (!this.flush(batch)) {
+                LockSupport.parkNanos(this, flushIntervalNanos); // 保留此批，等待後重試
+            }
+        }
+        // 停止前已取出但尚未寫入的事件
+        if (!batch.isEmpty() && !this.flush(batch)) {
+            lost.increment(batch.size());
+            log.error("Discarding {} currency audit events that could not be written before shutdown.", batch.size());
+        }
+    }
+
+    /**
+     * @return 已寫入 (batch 已清空) 時為 true；失敗時保留 batch 並回傳 false
+     */
+    private boolean flush(List<CurrencyAuditEvent> batch) {
+        try {
+            this.write(batch);
+            written.increment(batch.size());
+            batch.clear();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} currency audit events, will retry: {}", batch.size(), e.toString());
+            return false;
+        }
+    }
+
+    private void write(List<CurrencyAuditEvent> events) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), this::bind));
+    }
+
+    private void bind(PreparedStatement statement, CurrencyAuditEvent event) throws SQLException {
+        statement.setTimestamp(1, Timestamp.from(event.getOccurredAt()));
+        statement.setString(2, event.getRequester().getRemoteAddress());
+        statement.setString(3, event.getRequester().getClaimedActor());
+        statement.setString(4, event.getAction().name());
+        statement.setString(5, event.getCode());
+        statement.setString(6, this.toJson(event.getBefore()));
+        statement.setString(7, this.toJson(event.getAfter()));
+    }
+
+    private String toJson(CurrencyState state) throws SQLException {
+        if (state == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize currency audit state.", e);
+        }
+    }
+
+    // =================================================================
+    // == Lifecycle
+    // =================================================================
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        stopped = false;
+        Thread thread = new Thread(this::runWriter, "currency-audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("Currency audit log started: capacity {}, batch size {}, overflow policy {}.",
+                queue.capacity(), batchSize, overflowPolicy);
+    }
+
+    /**
+     * 停止寫入執行緒，並在呼叫端寫完佇列中剩餘的事件。
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        stopped = true;
+        running = false;
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+
+        this.drainRemaining();
+        log.info("Currency audit log stopped.");
+    }
+
+    /**
+     * 寫完佇列中剩餘的事件；只能在寫入執行緒停止後、持有監視器時呼叫 (佇列只允許一個消費者)。
+     */
+    private void drainRemaining() {
+        List<CurrencyAuditEvent> batch = new ArrayList<>(batchSize);
+        int remaining = 0;
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!this.flush(batch)) {
+                remaining += batch.size();
+                lost.increment(batch.size());
+                batch.clear();
+            }
+        }
+        if (remaining > 0) {
+            log.error("Discarding {} currency audit events that could not be written before shutdown.", remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+}
@@ -0,0 +1,42 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+
+/**
+ * 幣別在某個時間點的可異動欄位 (稽核紀錄的 before / after)，不可變。
+ * <p>
+ * 在請求執行緒上只複製欄位；序列化為 JSON 由背景的寫入執行緒處理。
+ */
+public final class CurrencyState {
+
+    private final String displayName;
+    private final String symbol;
+    private final boolean active;
+
+    private CurrencyState(String displayName, String symbol, boolean active) {
+        this.displayName = displayName;
+        this.symbol = symbol;
+        this.active = active;
+    }
+
+    /**
+     * @param currency 幣別實體 (異動前須在修改欄位之前呼叫)
+     * @return 目前欄位的快照
+     */
+    public static CurrencyState of(Currency currency) {
+        return new CurrencyState(currency.getDisplayName(), currency.getSymbol(), currency.isActive());
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+
+/**
+ * Reactive 模式 (R2DBC) 的目錄異動稽核紀錄，寫入與 servlet 模式相同的 {@link CurrencyAuditLog} 佇列。
+ * <p>
+ * <ul>
+ * <li>作為 {@link WebFilter}，把請求來源 (來源 IP 與標頭 {@code actor-header} 聲稱的操作者) 放入 Reactor context；
+ * 事件迴圈上沒有 servlet 的請求屬性可用。</li>
+ * <li>{@link #record} 在 {@code TransactionalOperator} 的交易中登記提交後的回呼，提交後才放入佇列，回滾的異動不記錄。</li>
+ * </ul>
+ * 放入佇列本身不阻塞；佇列已滿或已停止時依 {@link CurrencyAuditLog.OverflowPolicy} 處理，可能在事件迴圈上執行一次 JDBC 寫入。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CurrencyAuditLog is a Spring-managed singleton and is intended to be shared.")
+public final class ReactiveCurrencyAuditLog implements WebFilter {
+
+    static final String REQUESTER = ReactiveCurrencyAuditLog.class.getName() + ".requester";
+
+    private final CurrencyAuditLog auditLog;
+
+    public ReactiveCurrencyAuditLog(CurrencyAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        AuditRequester requester = AuditRequester.of(remoteAddress(request),
+                request.getHeaders().getFirst(auditLog.getActorHeader()));
+        return chain.filter(exchange).contextWrite(Context.of(REQUESTER, requester));
+    }
+
+    /**
+     * 記錄一筆異動；在 reactive 交易中時於提交後才放入佇列，交易回滾則不記錄。
+     *
+     * @param action 異動類型
+     * @param code   幣別代碼
+     * @param before 異動前的狀態 (須在修改實體之前取得)，新建立的幣別為 null
+     * @param after  異動後的狀態
+     * @return 登記完成 (或已放入佇列) 時完成
+     */
+    public Mono<Void> record(AuditAction action, String code, CurrencyState before, CurrencyState after) {
+        if (!auditLog.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.deferContextual(context -> {
+            CurrencyAuditEvent event = new CurrencyAuditEvent(Instant.now(),
+                    context.getOrDefault(REQUESTER, AuditRequester.SYSTEM), action, code, before, after);
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .flatMap(synchronization -> {
+                        if (!synchronization.isSynchronizationActive()) {
+                            return this.enqueue(event);
+                        }
+                        synchronization.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return enqueue(event);
+                            }
+                        });
+                        return Mono.<Void>empty();
+                    })
+                    .onErrorResume(NoTransactionException.class, e -> this.enqueue(event));
+        });
+    }
+
+    private Mono<Void> enqueue(CurrencyAuditEvent event) {
+        return Mono.fromRunnable(() -> auditLog.enqueue(event));
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return (address.getAddress() != null) ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+}
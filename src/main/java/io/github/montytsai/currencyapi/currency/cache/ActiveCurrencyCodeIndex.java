@@ -0,0 +1,58 @@
+package io.github.montytsai.currencyapi.currency.cache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 「啟用」幣別代碼的記憶體索引，作為查詢前的負向快取 (Negative-lookup Cache)。
+ * <p>
+ * 幣別目錄很小，因此直接使用 {@link CurrencyLookupTable} 中完整的啟用旗標 (精確集合，而非 Bloom filter)，不會有誤判：
+ * <ul>
+ * <li>代碼不在索引內：可確定該幣別不存在或非啟用，呼叫端可直接回應 404，不必查詢資料庫。</li>
+ * <li>代碼在索引內：仍需查詢資料庫取得完整資料。</li>
+ * </ul>
+ * 索引由寫入路徑維護。為了保證「不在索引內」的判斷永遠正確，
+ * 新增/啟用會<b>立即</b>加入索引 (交易若回滾只會造成多一次資料庫查詢)，
+ * 而停用則由 {@link CurrencyLookupTable#putAfterCommit} 延後到交易<b>提交後</b>才移除。
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CurrencyLookupTable is a Spring-managed singleton and is intended to be shared.")
+public class ActiveCurrencyCodeIndex {
+
+    private final CurrencyLookupTable lookupTable;
+    private final boolean enabled;
+
+    public ActiveCurrencyCodeIndex(CurrencyLookupTable lookupTable,
+                                   @Value("${currency.negative-cache.enabled:true}") boolean enabled) {
+        this.lookupTable = lookupTable;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 判斷指定代碼是否「可能」為啟用中的幣別。
+     * 索引停用或尚未載入時一律回傳 true，交由資料庫判斷。
+     *
+     * @param code 幣別代碼
+     * @return false 代表可確定不是啟用中的幣別
+     */
+    public boolean mightBeActive(String code) {
+        if (!enabled || !lookupTable.isLoaded()) {
+            return true;
+        }
+        int id = lookupTable.idOf(code);
+        return id != CurrencyLookupTable.NO_ID && lookupTable.isActive(id);
+    }
+
+    /**
+     * 將代碼標記為啟用，立即生效。
+     *
+     * @param code 幣別代碼
+     */
+    public void markActive(String code) {
+        lookupTable.setActive(code, true);
+    }
+
+}
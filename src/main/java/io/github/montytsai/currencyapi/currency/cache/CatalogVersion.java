@@ -0,0 +1,204 @@
+package io.github.montytsai.currencyapi.currency.cache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 多個節點共用同一個資料庫時，讓各節點記憶體中的幣別目錄 ({@link CurrencyLookupTable}) 保持一致，不需要額外的服務。
+ * <p>
+ * <ul>
+ * <li>每次目錄異動在同一個交易中把 CURRENCY_CATALOG_VERSION 的版本號加 1 ({@link #bump()})，
+ * 與異動一起提交或回滾。該列的鎖持有到交易結束，因此版本號的順序即提交順序。</li>
+ * <li>每個節點的背景執行緒每隔 {@code poll-interval} 以主鍵讀取一次版本號 (單列、不經過 Hibernate)；
+ * 與上次看到的版本不同時重新載入整個目錄。目錄很小，整體重新載入比追蹤個別異動簡單，也不會漏掉交錯提交的異動。</li>
+ * <li>執行異動的節點已在提交後直接更新查詢表，提交時若版本號恰好只前進了自己這一次，便直接記為已看到，不重新載入。</li>
+ * </ul>
+ * 以「不同」而非「較大」判斷，資料庫被重建 (版本號歸零) 時同樣會重新載入。
+ * 啟動 (查詢表初始化) 之後，這裡是唯一會重新載入查詢表的元件。
+ * reactive 模式的 R2DBC 寫入經由 {@link ReactiveCatalogVersion} 在其交易中遞增同一個版本號。
+ * <p>
+ * 指標：{@code currency.catalog.reloads} (其他節點的異動造成的重新載入次數)、
+ * {@code currency.catalog.version} (最後看到的版本號) 與 {@code currency.catalog.version.poll.failures}。
+ */
+@Slf4j
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CurrencyLookupTable and JdbcTemplate are Spring-managed singletons and are intended to be shared.")
+public final class CatalogVersion implements SmartLifecycle {
+
+    public static final String RELOADS = "currency.catalog.reloads";
+    public static final String VERSION = "currency.catalog.version";
+    public static final String POLL_FAILURES = "currency.catalog.version.poll.failures";
+
+    static final String BUMP_SQL = "UPDATE CURRENCY_CATALOG_VERSION SET version = version + 1 WHERE id = 1";
+    static final String SELECT_SQL = "SELECT version FROM CURRENCY_CATALOG_VERSION WHERE id = 1";
+
+    private final boolean enabled;
+    private final long pollIntervalNanos;
+    private final CurrencyLookupTable lookupTable;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter reloads;
+    private final Counter pollFailures;
+
+    /**
+     * 本節點的查詢表已反映到的版本號；-1 表示尚未讀取過，第一次 poll 一律重新載入
+     * (查詢表在啟動時載入，與讀取版本號之間可能有其他節點的異動)。
+     */
+    private final AtomicLong seenVersion = new AtomicLong(-1);
+
+    private volatile boolean running;
+    private volatile Thread poller;
+    private boolean failing;
+
+    public CatalogVersion(@Value("${currency.coherence.enabled:true}") boolean enabled,
+                          @Value("${currency.coherence.poll-interval:200ms}") Duration pollInterval,
+                          CurrencyLookupTable lookupTable,
+                          JdbcTemplate jdbcTemplate,
+                          MeterRegistry registry) {
+        this.enabled = enabled;
+        this.pollIntervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), pollInterval.toNanos());
+        this.lookupTable = lookupTable;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reloads = Counter.builder(RELOADS)
+                .description("Currency lookup table reloads caused by catalog changes on other nodes")
+                .register(registry);
+        this.pollFailures = Counter.builder(POLL_FAILURES)
+                .description("Failed reads of the shared currency catalog version")
+                .register(registry);
+        Gauge.builder(VERSION, seenVersion, AtomicLong::get)
+                .description("Currency catalog version reflected in this node's lookup table")
+                .register(registry);
+    }
+
+    /**
+     * 遞增目錄的版本號；須在異動的交易中呼叫，與異動一起提交。
+     *
+     * @throws IllegalStateException 找不到版本列 (schema 未初始化)
+     */
+    public void bump() {
+        if (!enabled) {
+            return;
+        }
+        if (jdbcTemplate.update(BUMP_SQL) != 1) {
+            throw new IllegalStateException("CURRENCY_CATALOG_VERSION has no row with id 1.");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long version = jdbcTemplate.queryForObject(SELECT_SQL, Long.class);
+        if (version == null) {
+            return;
+        }
+        long bumped = version;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed(bumped);
+            }
+        });
+    }
+
+    /**
+     * 本節點遞增的版本號已提交。查詢表已由提交後的更新反映這次異動；中間夾有其他節點的異動時交給 poll 重新載入。
+     */
+    void committed(long bumped) {
+        seenVersion.compareAndSet(bumped - 1, bumped);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 讀取一次版本號，與本節點已反映的版本不同時重新載入查詢表。
+     */
+    void poll() {
+        Long version = jdbcTemplate.queryForObject(SELECT_SQL, Long.class);
+        if (version == null || version == seenVersion.get()) {
+            return;
+        }
+        // 先讀版本號再載入：載入的資料至少與此版本一樣新
+        lookupTable.reload();
+        if (seenVersion.get() >= 0) { // 啟動後第一次載入不計入
+            reloads.increment();
+        }
+        seenVersion.set(version);
+    }
+
+    long seenVersion() {
+        return seenVersion.get();
+    }
+
+    private void runPoller() {
+        while (running) {
+            try {
+                this.poll();
+                if (failing) {
+                    failing = false;
+                    log.info("Currency catalog version polling recovered.");
+                }
+            } catch (RuntimeException e) {
+                pollFailures.increment();
+                if (!failing) { // 只在開始失敗時記錄一次，避免資料庫無法連線時每次 poll 都輸出
+                    failing = true;
+                    log.warn("Failed to poll the currency catalog version, this node may serve stale data: {}", e.toString());
+                }
+            }
+            LockSupport.parkNanos(this, pollIntervalNanos);
+        }
+    }
+
+    // =================================================================
+    // == Lifecycle
+    // =================================================================
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runPoller, "currency-catalog-poller");
+        thread.setDaemon(true);
+        poller = thread;
+        thread.start();
+        log.info("Currency catalog version polling started, every {} ms.", TimeUnit.NANOSECONDS.toMillis(pollIntervalNanos));
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = poller;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        poller = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.montytsai.currencyapi.currency.cache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive 模式 (R2DBC) 的目錄版本號遞增，語義與 {@link CatalogVersion#bump()} 相同：
+ * 在 {@code TransactionalOperator} 的交易中以同一條 UPDATE 遞增，與異動一起提交或回滾；
+ * 提交時版本號恰好只前進了這一次，便記為本節點已看到，不重新載入。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CatalogVersion and DatabaseClient are Spring-managed singletons and are intended to be shared.")
+public final class ReactiveCatalogVersion {
+
+    private final CatalogVersion catalogVersion;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogVersion(CatalogVersion catalogVersion, DatabaseClient databaseClient) {
+        this.catalogVersion = catalogVersion;
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * 遞增目錄的版本號；須在異動的 reactive 交易中訂閱，與異動一起提交。
+     *
+     * @return 完成時已遞增；找不到版本列 (schema 未初始化) 時發出 {@link IllegalStateException}
+     */
+    public Mono<Void> bump() {
+        if (!catalogVersion.isEnabled()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(CatalogVersion.BUMP_SQL).fetch().rowsUpdated()
+                .flatMap(updated -> (updated == 1) ? this.currentVersion()
+                        : Mono.error(new IllegalStateException("CURRENCY_CATALOG_VERSION has no row with id 1.")))
+                .flatMap(this::afterCommit);
+    }
+
+    private Mono<Long> currentVersion() {
+        return databaseClient.sql(CatalogVersion.SELECT_SQL)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    private Mono<Void> afterCommit(long bumped) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronization -> {
+                    if (synchronization.isSynchronizationActive()) {
+                        synchronization.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(() -> catalogVersion.committed(bumped));
+                            }
+                        });
+                    }
+                })
+                .then()
+                .onErrorResume(NoTransactionException.class, e -> Mono.empty());
+    }
+
+}
@@ -8,6 +8,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -17,6 +18,7 @@ import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyResponse;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.idempotency.IdempotentRequests;
 import io.github.montytsai.currencyapi.currency.service.CurrencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,11 +30,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Currency Management", description = "提供幣別資料的新增、查詢、修改、刪除功能")
 @RestController
 @RequestMapping("/currencies")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // Reactive 模式改由 CurrencyRouter 提供
 public class CurrencyController {
 
     @Autowired
     private CurrencyService currencyService;
 
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
     @Operation(summary = "查詢所有「啟用」的幣別資料")
     @GetMapping
     public ResponseEntity<List<CurrencyResponse>> getAllCurrencies() {
@@ -64,14 +70,21 @@ public class CurrencyController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "新增一筆幣別資料", description = "建立一筆新的幣別資料。代碼不可重複。")
+    @Operation(summary = "新增一筆幣別資料", description = "建立一筆新的幣別資料。代碼不可重複。<br>" +
+            "帶有 `Idempotency-Key` 標頭時，相同 key 的重送直接回傳第一次的回應 (標頭 `Idempotent-Replayed: true`)，不會因代碼已存在而回應 409。")
     @ApiResponse(responseCode = "201", description = "成功建立")
     @ApiResponse(responseCode = "400", description = "請求內容格式錯誤或驗證失敗", content = @Content)
-    @ApiResponse(responseCode = "409", description = "該幣別代碼已存在，發生衝突", content = @Content)
+    @ApiResponse(responseCode = "409", description = "該幣別代碼已存在，發生衝突；或相同 Idempotency-Key 的請求仍在處理中", content = @Content)
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key 已用於不同的請求內容", content = @Content)
     @PostMapping
-    public ResponseEntity<CurrencyResponse> createCurrency(@Valid @RequestBody CurrencyCreateRequest request) {
-        CurrencyResponse response = CurrencyResponse.fromEntity(currencyService.create(request));
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<CurrencyResponse> createCurrency(
+            @Parameter(description = "用戶端產生的唯一值 (如 UUID)，重送時帶相同的值")
+            @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CurrencyCreateRequest request) {
+        return idempotentRequests.execute(idempotencyKey, "POST /currencies", request, CurrencyResponse.class, () -> {
+            CurrencyResponse response = CurrencyResponse.fromEntity(currencyService.create(request));
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        });
     }
 
     @Operation(
@@ -117,14 +130,17 @@ public class CurrencyController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "重新啟用指定幣別", description = "將一個已被軟刪除的幣別狀態重新設為啟用 (is_active = true)。")
+    @Operation(summary = "重新啟用指定幣別", description = "將一個已被軟刪除的幣別狀態重新設為啟用 (is_active = true)。<br>" +
+            "支援 `Idempotency-Key` 標頭，規則與新增相同。")
     @ApiResponse(responseCode = "200", description = "成功重新啟用")
     @PostMapping("/{code}/reactivate")
     public ResponseEntity<CurrencyResponse> reactivateCurrency(
+            @Parameter(description = "用戶端產生的唯一值 (如 UUID)，重送時帶相同的值")
+            @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "要重新啟用的指定幣別", required = true, example = "CAD")
             @NotBlank @Size(min = 3, max = 10) @PathVariable String code) {
-        CurrencyResponse response = CurrencyResponse.fromEntity(currencyService.reactivateByCode(code));
-        return ResponseEntity.ok(response);
+        return idempotentRequests.execute(idempotencyKey, "POST /currencies/{code}/reactivate", code, CurrencyResponse.class,
+                () -> ResponseEntity.ok(CurrencyResponse.fromEntity(currencyService.reactivateByCode(code))));
     }
 
 }
\ No newline at end of file
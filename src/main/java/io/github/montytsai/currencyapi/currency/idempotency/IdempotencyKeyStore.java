@@ -0,0 +1,216 @@
+package io.github.montytsai.currencyapi.currency.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency-Key 的兩層儲存：記憶體中的熱資料 (含處理中的請求) 與資料庫 (IDEMPOTENCY_KEY，重新啟動後仍有效)。
+ * <p>
+ * <ul>
+ * <li>記憶體層為 {@link ConcurrentHashMap}，以 {@code putIfAbsent} 取得 key，同一個 key 只有一個請求執行，
+ * 其他請求等待它的 {@link Entry#result}。</li>
+ * <li>所有 key 的存活時間 (TTL) 相同，因此加入順序就是到期順序：以 FIFO 佇列記錄加入順序，
+ * 每次加入時從佇列前端移除已到期的 key，超過 {@code maxEntries} 時移除最舊的已完成 key，不需要背景執行緒。</li>
+ * <li>完成的結果在請求本身的交易中寫入資料庫 ({@link #insert})，與異動一起提交或回滾；
+ * 提交後才在記憶體中完成 ({@link #complete})。啟動時載入未到期的資料並刪除已到期的資料。
+ * 記憶體中找不到的 key 一律以主鍵查詢資料庫後才執行：重送可能落在另一個節點，而該節點的記憶體中沒有這個 key。</li>
+ * </ul>
+ * 不同節點同時處理同一個 key 時不互相等待 (各自執行)；後寫入的一方因主鍵衝突回滾整個交易，改回傳先完成者保存的結果 ({@link #adopt})。
+ */
+@Slf4j
+final class IdempotencyKeyStore {
+
+    private static final String INSERT_SQL = "INSERT INTO IDEMPOTENCY_KEY "
+            + "(idempotency_key, request_hash, status, response_body, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS = "SELECT idempotency_key, request_hash, status, response_body, expires_at "
+            + "FROM IDEMPOTENCY_KEY ";
+
+    /**
+     * 一個 key 的狀態；{@link #result} 完成前表示請求處理中。
+     */
+    static final class Entry {
+
+        final String key;
+        final String requestHash;
+        final long expiresAtMillis;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(String key, String requestHash, long expiresAtMillis) {
+            this.key = key;
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    IdempotencyKeyStore(JdbcTemplate jdbcTemplate, long ttlMillis, int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    Entry newEntry(String key, String requestHash) {
+        return new Entry(key, requestHash, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * 嘗試以 candidate 取得 key；記憶體中沒有時先查詢資料庫 (其他節點或移出記憶體的 key)。
+     *
+     * @return 取得時為 null (呼叫端負責執行並 {@link #complete} 或 {@link #abandon})；
+     * 否則為已存在的 key (處理中或已完成)
+     */
+    Entry claim(Entry candidate) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Entry existing = entries.putIfAbsent(candidate.key, candidate);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired(now)) {
+                return existing;
+            }
+            if (entries.replace(candidate.key, existing, candidate)) {
+                break;
+            }
+        }
+        insertionOrder.add(candidate);
+        this.evict(now);
+
+        Entry stored = this.find(candidate.key, now);
+        if (stored != null && entries.replace(candidate.key, candidate, stored)) {
+            insertionOrder.add(stored);
+            candidate.result.complete(null); // 已在等待 candidate 的請求會重新取得，得到 stored
+            return stored;
+        }
+        return null;
+    }
+
+    /**
+     * 將結果寫入資料庫；須在請求本身的交易中呼叫，key 與異動一起提交。
+     *
+     * @return 已寫入時為 true；其他節點已以相同 key 完成時為 false (呼叫端須回滾交易)
+     */
+    boolean insert(Entry entry, StoredResponse response) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, entry.key, entry.requestHash, response.getStatus(), response.getBodyJson(),
+                    new Timestamp(entry.expiresAtMillis - ttlMillis), new Timestamp(entry.expiresAtMillis));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.warn("Idempotency-Key {} was completed concurrently by another node.", entry.key);
+            return false;
+        }
+    }
+
+    /**
+     * 交易提交後保存結果並喚醒等待中的請求。
+     */
+    void complete(Entry entry, StoredResponse response) {
+        entry.result.complete(response);
+    }
+
+    /**
+     * 以資料庫中其他節點保存的結果取代 entry ({@link #insert} 回傳 false 之後)；等待中的請求會重新取得，得到保存的結果。
+     * 找不到時 (已到期) 與 {@link #abandon} 相同。
+     */
+    void adopt(Entry entry) {
+        Entry stored = this.find(entry.key, System.currentTimeMillis());
+        if (stored != null && entries.replace(entry.key, entry, stored)) {
+            insertionOrder.add(stored);
+            entry.result.complete(null);
+        } else {
+            this.abandon(entry);
+        }
+    }
+
+    /**
+     * 放棄 key (請求失敗)，等待中的請求會重新嘗試取得。
+     */
+    void abandon(Entry entry) {
+        entries.remove(entry.key, entry);
+        entry.result.complete(null);
+    }
+
+    /**
+     * 刪除資料庫中已到期的 key，並將未到期的 key (最新的 maxEntries 筆) 載入記憶體。
+     *
+     * @return 載入的 key 數
+     */
+    int load() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int deleted = jdbcTemplate.update("DELETE FROM IDEMPOTENCY_KEY WHERE expires_at <= ?", now);
+        List<Entry> loaded = jdbcTemplate.query(SELECT_COLUMNS + "WHERE expires_at > ? ORDER BY expires_at DESC LIMIT ?",
+                (rs, rowNum) -> completed(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getString(4), rs.getTimestamp(5)),
+                now, maxEntries);
+        for (int i = loaded.size() - 1; i >= 0; i--) { // 依到期順序加入
+            Entry entry = loaded.get(i);
+            if (entries.putIfAbsent(entry.key, entry) == null) {
+                insertionOrder.add(entry);
+            }
+        }
+        log.info("Loaded {} idempotency keys, deleted {} expired.", loaded.size(), deleted);
+        return loaded.size();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry find(String key, long nowMillis) {
+        List<Entry> rows = jdbcTemplate.query(SELECT_COLUMNS + "WHERE idempotency_key = ? AND expires_at > ?",
+                (rs, rowNum) -> completed(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getString(4), rs.getTimestamp(5)),
+                key, new Timestamp(nowMillis));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static Entry completed(String key, String requestHash, int status, String bodyJson, Timestamp expiresAt) {
+        Entry entry = new Entry(key, requestHash, expiresAt.getTime());
+        entry.result.complete(new StoredResponse(status, bodyJson, null));
+        return entry;
+    }
+
+    /**
+     * 從加入順序的前端移除已到期的 key，以及超過容量時最舊的已完成 key；其他執行緒正在移除時略過。
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Entry head;
+            while ((head = insertionOrder.peek()) != null) {
+                if (entries.get(head.key) != head) {
+                    insertionOrder.poll(); // 已放棄或已被取代
+                    continue;
+                }
+                boolean expired = head.isExpired(now);
+                if (!expired && (entries.size() <= maxEntries || !head.result.isDone())) {
+                    return; // 處理中的 key 不因容量移除，否則重複的請求會再執行一次
+                }
+                insertionOrder.poll();
+                entries.remove(head.key, head);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,307 @@
+package io.github.montytsai.currencyapi.currency.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.currency.idempotency.IdempotencyKeyStore.Entry;
+import io.github.montytsai.currencyapi.exception.IdempotencyKeyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 以 {@code Idempotency-Key} 標頭讓非冪等的 POST 可以安全重送 (draft-ietf-httpapi-idempotency-key-header)。
+ * <p>
+ * <ul>
+ * <li>第一個帶有某個 key 的請求照常執行，成功 (2xx) 的回應與請求內容的雜湊一起保存 ({@link IdempotencyKeyStore})。
+ * 處理在此開啟的交易中執行 (服務層的 {@code @Transactional} 加入此交易)，key 與異動一起提交，
+ * 不會出現異動已提交、key 卻未保存而使重送得到 409 的情況。</li>
+ * <li>之後相同 key 與相同請求直接回傳保存的狀態碼與內容，並加上 {@value #REPLAYED_HEADER} 標頭，不再執行。</li>
+ * <li>相同 key 的請求仍在處理中時，等待其結果 (最多 {@code wait-timeout}，逾時回應 409)。</li>
+ * <li>相同 key 用於不同的端點或請求內容時回應 422。</li>
+ * <li>失敗的請求 (例外或非 2xx) 不保存，重送時會重新執行；例外時交易回滾。</li>
+ * <li>key 依客戶端區分 (來源 IP；設定 {@code client-key-header} 時為該標頭)：保存的是客戶端與 key 一起計算的雜湊，
+ * 其他客戶端無法以猜到的 key 取得保存的回應，也無法預先佔用 key 讓它得到 422。</li>
+ * </ul>
+ * 未帶標頭的請求不經過任何檢查。僅涵蓋 servlet 模式的 {@code CurrencyController}。
+ * 指標：{@code currency.idempotency.requests} (result 標籤：executed / replayed / rejected) 與
+ * {@code currency.idempotency.keys} (記憶體中的 key 數)。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP2", "CT_CONSTRUCTOR_THROW"},
+        justification = "ObjectMapper and PlatformTransactionManager are Spring-managed singletons; invalid settings abort context startup, so a partially constructed instance is never used.")
+public class IdempotentRequests implements InitializingBean {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String REQUESTS = "currency.idempotency.requests";
+    public static final String KEYS = "currency.idempotency.keys";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final boolean enabled;
+    private final long waitTimeoutNanos;
+    private final String clientKeyHeader;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyKeyStore store;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotentRequests(@Value("${currency.idempotency.enabled:true}") boolean enabled,
+                              @Value("${currency.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${currency.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${currency.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${currency.idempotency.client-key-header:}") String clientKeyHeader,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry registry) {
+        if (ttl.isNegative() || ttl.isZero() || maxEntries < 1) {
+            throw new IllegalArgumentException("currency.idempotency.ttl and max-entries must be positive but got "
+                    + ttl + " and " + maxEntries);
+        }
+        this.enabled = enabled;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.clientKeyHeader = StringUtils.hasText(clientKeyHeader) ? clientKeyHeader : null;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.store = new IdempotencyKeyStore(jdbcTemplate, ttl.toMillis(), maxEntries);
+        this.executed = requests(registry, "executed");
+        this.replayed = requests(registry, "replayed");
+        this.rejected = requests(registry, "rejected");
+        Gauge.builder(KEYS, store, IdempotencyKeyStore::size)
+                .description("Idempotency keys held in memory")
+                .register(registry);
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder(REQUESTS)
+                .description("Requests carrying an Idempotency-Key by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            store.load();
+        }
+    }
+
+    /**
+     * 以 Idempotency-Key 執行一個請求。
+     *
+     * @param key       {@value #HEADER} 標頭，null 時直接執行
+     * @param operation 端點 (例如 {@code POST /currencies})，與請求內容一起比對
+     * @param request   請求內容 (以 JSON 計算雜湊)
+     * @param bodyType  回應內容的型別 (由資料庫載入的結果以此還原)
+     * @param action    實際的處理
+     * @return 本次執行或保存的回應
+     * @throws IdempotencyKeyException  相同 key 仍在處理中 (409) 或已用於不同的請求 (422)
+     * @throws IllegalArgumentException key 為空白或超過 {@value #MAX_KEY_LENGTH} 字元
+     */
+    public <T> ResponseEntity<T> execute(String key, String operation, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || !enabled) {
+            return action.get();
+        }
+        if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+        String requestHash = this.hash(operation, request);
+        String scopedKey = scope(this.client(), key);
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        while (true) {
+            Entry candidate = store.newEntry(scopedKey, requestHash);
+            Entry existing = store.claim(candidate);
+            if (existing == null) {
+                ResponseEntity<T> response = this.executeAndStore(candidate, action);
+                if (response != null) {
+                    return response;
+                }
+                continue; // 其他節點已以相同 key 完成，重新取得時得到它保存的結果
+            }
+            if (!existing.requestHash.equals(requestHash)) {
+                rejected.increment();
+                throw IdempotencyKeyException.reused(key);
+            }
+            StoredResponse stored = this.await(existing, key, deadline);
+            if (stored != null) {
+                replayed.increment();
+                return this.replay(stored, bodyType);
+            }
+            // 先前的請求失敗 (未保存結果)，重新嘗試取得 key
+        }
+    }
+
+    /**
+     * 在同一個交易中執行處理並寫入 key，提交後才在記憶體中完成 key。
+     *
+     * @return 本次執行的回應；其他節點已以相同 key 完成 (本次的異動已回滾) 時為 null
+     */
+    private <T> ResponseEntity<T> executeAndStore(Entry entry, Supplier<ResponseEntity<T>> action) {
+        Execution<T> execution;
+        try {
+            execution = transactionTemplate.execute(status -> {
+                ResponseEntity<T> response = action.get();
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    return new Execution<>(response, null);
+                }
+                StoredResponse stored = new StoredResponse(response.getStatusCodeValue(),
+                        this.toJson(response.getBody()), response.getBody());
+                if (!store.insert(entry, stored)) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return new Execution<>(response, stored);
+            });
+        } catch (RuntimeException | Error e) {
+            store.abandon(entry);
+            throw e;
+        }
+        executed.increment();
+        if (execution == null) {
+            store.adopt(entry);
+            return null;
+        }
+        if (execution.stored == null) {
+            store.abandon(entry);
+        } else {
+            store.complete(entry, execution.stored);
+        }
+        return execution.response;
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StoredResponse await(Entry entry, String key, long deadline) {
+        try {
+            return entry.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            rejected.increment();
+            throw IdempotencyKeyException.inProgress(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw IdempotencyKeyException.inProgress(key);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Idempotency result is never completed exceptionally.", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, Class<T> bodyType) {
+        T body;
+        if (bodyType.isInstance(stored.getBody())) {
+            body = bodyType.cast(stored.getBody());
+        } else {
+            try {
+                body = objectMapper.readValue(stored.getBodyJson(), bodyType);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return ResponseEntity.status(stored.getStatus()).header(REPLAYED_HEADER, "true").body(body);
+    }
+
+    /**
+     * 交易中的執行結果；{@link #stored} 為 null 表示不保存 (非 2xx)。
+     */
+    private static final class Execution<T> {
+
+        final ResponseEntity<T> response;
+        final StoredResponse stored;
+
+        Execution(ResponseEntity<T> response, StoredResponse stored) {
+            this.response = response;
+            this.stored = stored;
+        }
+    }
+
+    /**
+     * @return 目前請求的客戶端 (設定的標頭，沒有時為來源 IP)；不在請求執行緒中時為空字串
+     */
+    private String client() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "";
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        if (clientKeyHeader != null) {
+            String clientKey = request.getHeader(clientKeyHeader);
+            if (StringUtils.hasText(clientKey)) {
+                return clientKey;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * @return 客戶端與 key 的 SHA-256 (Base64，44 字元)，即 IDEMPOTENCY_KEY 的主鍵
+     */
+    static String scope(String client, String key) {
+        MessageDigest digest = sha256();
+        digest.update(client.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(key.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /**
+     * @return 端點與請求內容 (JSON) 的 SHA-256 (Base64，44 字元)
+     */
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = sha256();
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform.", e);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.github.montytsai.currencyapi.currency.idempotency;
+
+/**
+ * 已完成的請求結果 (狀態碼與回應內容)，重複的 key 直接以此回應。不可變。
+ */
+final class StoredResponse {
+
+    private final int status;
+    private final String bodyJson;
+    private final Object body;
+
+    /**
+     * @param body 回應物件；由資料庫載入時為 null，重送時再由 bodyJson 還原
+     */
+    StoredResponse(int status, String bodyJson, Object body) {
+        this.status = status;
+        this.bodyJson = bodyJson;
+        this.body = body;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getBodyJson() {
+        return bodyJson;
+    }
+
+    Object getBody() {
+        return body;
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.montytsai.currencyapi.currency.lookup;
+
+/**
+ * ISO 4217 幣別代碼的壓縮編碼工具。
+ * <p>
+ * 標準代碼為 3 個 A–Z 大寫字母，每個字母以 5 bits 表示即可放入一個 15-bit 整數，
+ * 因此可直接作為長度 {@link #PACKED_CODE_SPACE} 的陣列索引，查詢時不需計算字串雜湊。
+ */
+public final class CurrencyCodes {
+
+    /**
+     * 壓縮後代碼的值域大小 (2^15)。
+     */
+    public static final int PACKED_CODE_SPACE = 1 << 15;
+
+    /**
+     * 代表代碼無法壓縮 (非 3 個 A–Z 字母)。
+     */
+    public static final int NOT_PACKABLE = -1;
+
+    private CurrencyCodes() {
+    }
+
+    /**
+     * 將 3 個 A–Z 字母組成的代碼壓縮為 0 ~ 32767 的整數。
+     *
+     * @param code 幣別代碼，可為 null
+     * @return 壓縮後的整數，若代碼不符合格式則回傳 {@link #NOT_PACKABLE}
+     */
+    public static int pack(String code) {
+        if (code == null || code.length() != 3) {
+            return NOT_PACKABLE;
+        }
+        int c0 = code.charAt(0) - 'A';
+        int c1 = code.charAt(1) - 'A';
+        int c2 = code.charAt(2) - 'A';
+        // 任一字元不在 A–Z 範圍時，(c | (25 - c)) 會是負數
+        if ((c0 | (25 - c0) | c1 | (25 - c1) | c2 | (25 - c2)) < 0) {
+            return NOT_PACKABLE;
+        }
+        return (c0 << 10) | (c1 << 5) | c2;
+    }
+
+}
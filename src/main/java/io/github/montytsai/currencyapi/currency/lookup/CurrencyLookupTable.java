@@ -0,0 +1,338 @@
+package io.github.montytsai.currencyapi.currency.lookup;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 幣別目錄的記憶體查詢表，以密集 (dense) 的整數 id 為索引，各欄位存放於原生型別陣列中。
+ * <p>
+ * 代碼到 id 的對應 (interning)：
+ * <ul>
+ * <li>3 個 A–Z 字母的 ISO 4217 代碼：以 {@link CurrencyCodes#pack(String)} 壓縮後直接索引 {@code int[]}，不需雜湊。</li>
+ * <li>其他代碼 (資料庫欄位允許至 10 字元)：退回一般的 {@code Map}。</li>
+ * </ul>
+ * id 一經分配就不會回收或變更，因此呼叫端可安全地持有 id。
+ * <p>
+ * 執行緒安全 (copy-on-write)：已發布的 {@link Columns} 不再修改大小與列資料。所有寫入都在鎖內複製出新的實例、
+ * 寫好整列後才以 volatile write 發布，讀取端只做一次 volatile read 即可看到一致的資料，不需加鎖：
+ * 不會讀到只更新一半的列，也不會讀到已分配 id 但尚未填入資料的列。目錄很小，每次寫入複製整份陣列的成本可忽略。
+ * 唯一的例外是高頻的 {@link #recordRate} (每個 CoinDesk 請求的每個幣別一次)：匯率以 float 的位元存放在
+ * 固定大小的 {@link AtomicIntegerArray} 區塊中，各複本共用同一批區塊 (擴充時只加入新的區塊)，不加鎖直接寫入，
+ * 也不會因為寫入落在被取代的複本而遺失。
+ */
+@Slf4j
+@Component
+public class CurrencyLookupTable implements InitializingBean {
+
+    /**
+     * 代表找不到對應的 id。
+     */
+    public static final int NO_ID = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CurrencyRepository currencyRepository;
+
+    /**
+     * 壓縮代碼 -> (id + 1)，0 代表尚未分配，因此不需要預先填滿 -1。
+     */
+    private final int[] idByPackedCode = new int[CurrencyCodes.PACKED_CODE_SPACE];
+    private final Map<String, Integer> idByLongCode = new ConcurrentHashMap<>();
+
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile boolean loaded;
+
+    /**
+     * 重新載入期間被啟用的代碼；避免資料庫查詢結果較舊時，把剛啟用的幣別又覆寫為非啟用。
+     */
+    private Set<String> activatedDuringReload;
+
+    /**
+     * 讓重新載入整個依序執行：{@link #activatedDuringReload} 由開始載入的呼叫端建立、由同一個呼叫端清除。
+     * 與寫入用的鎖分開，資料庫查詢期間不阻擋 {@link #put} / {@link #setActive}。
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public CurrencyLookupTable(CurrencyRepository currencyRepository) {
+        this.currencyRepository = currencyRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    /**
+     * 從資料庫重新載入完整的幣別目錄 (含非啟用的幣別)。
+     * 已分配的 id 保持不變；資料庫中已不存在的代碼會被標記為非啟用。
+     * 同時只會有一個重新載入在執行，其他呼叫端等待前一個完成後再載入一次。
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            this.reloadExclusively();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadExclusively() {
+        synchronized (this) {
+            activatedDuringReload = new HashSet<>();
+        }
+        List<Currency> currencies = currencyRepository.findAll();
+
+        synchronized (this) {
+            Columns c = columns.copy();
+            boolean[] seen = new boolean[c.size];
+            for (Currency currency : currencies) {
+                int id = intern(c, currency.getCode());
+                if (id < seen.length) {
+                    seen[id] = true;
+                }
+                c.displayName[id] = currency.getDisplayName();
+                c.symbol[id] = currency.getSymbol();
+                c.active[id] = currency.isActive() || activatedDuringReload.contains(currency.getCode());
+            }
+            for (int id = 0; id < seen.length; id++) {
+                if (!seen[id] && !activatedDuringReload.contains(c.code[id])) {
+                    c.active[id] = false;
+                }
+            }
+            activatedDuringReload = null;
+            loaded = true;
+            columns = c;
+        }
+        log.info("Currency lookup table loaded with {} entries.", currencies.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 查詢代碼對應的 id。
+     *
+     * @param code 幣別代碼
+     * @return id，若該代碼不在表中則回傳 {@link #NO_ID}
+     */
+    public int idOf(String code) {
+        Columns c = columns;
+        int packed = CurrencyCodes.pack(code);
+        int id;
+        if (packed != CurrencyCodes.NOT_PACKABLE) {
+            id = idByPackedCode[packed] - 1;
+        } else if (code != null) {
+            Integer boxed = idByLongCode.get(code);
+            id = (boxed == null) ? NO_ID : boxed;
+        } else {
+            id = NO_ID;
+        }
+        // 寫入端尚未發布完成的 id 視為不存在
+        return (id < c.size) ? id : NO_ID;
+    }
+
+    public String code(int id) {
+        return columns.code[id];
+    }
+
+    public String displayName(int id) {
+        return columns.displayName[id];
+    }
+
+    public String symbol(int id) {
+        return columns.symbol[id];
+    }
+
+    public boolean isActive(int id) {
+        return columns.active[id];
+    }
+
+    /**
+     * @param id 幣別 id
+     * @return 最近一次記錄的匯率，若從未記錄則回傳 {@link Float#NaN}
+     */
+    public float latestRate(int id) {
+        return Float.intBitsToFloat(columns.rateChunk(id).get(id & Columns.RATE_CHUNK_MASK));
+    }
+
+    /**
+     * 記錄最新匯率，不加鎖 (讀取端可能短暫讀到前一個值)。
+     *
+     * @param id   幣別 id
+     * @param rate 匯率
+     */
+    public void recordRate(int id, float rate) {
+        columns.rateChunk(id).set(id & Columns.RATE_CHUNK_MASK, Float.floatToRawIntBits(rate));
+    }
+
+    /**
+     * 立即設定代碼的啟用狀態；代碼不存在時會先分配 id。
+     *
+     * @param code   幣別代碼
+     * @param active 是否啟用
+     */
+    public synchronized void setActive(String code, boolean active) {
+        Columns c = columns.copy();
+        int id = intern(c, code);
+        c.active[id] = active;
+        if (active && activatedDuringReload != null) {
+            activatedDuringReload.add(code);
+        }
+        columns = c;
+    }
+
+    /**
+     * 以實體的目前狀態覆寫查詢表中的對應資料。
+     *
+     * @param currency 幣別實體
+     */
+    public synchronized void put(Currency currency) {
+        Columns c = columns.copy();
+        int id = intern(c, currency.getCode());
+        c.displayName[id] = currency.getDisplayName();
+        c.symbol[id] = currency.getSymbol();
+        c.active[id] = currency.isActive();
+        columns = c;
+    }
+
+    /**
+     * 與 {@link #put(Currency)} 相同，但若目前在交易中，會延後到交易提交後才套用，
+     * 避免其他請求讀到尚未提交 (可能回滾) 的資料。
+     *
+     * @param currency 幣別實體
+     */
+    public void putAfterCommit(Currency currency) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(currency);
+                }
+            });
+        } else {
+            put(currency);
+        }
+    }
+
+    /**
+     * 取得代碼的 id，若尚未分配則在尚未發布的 {@code c} 中分配新的 id (必須在鎖內呼叫)。
+     * 新的 id 在 {@code c} 發布之前 (id 不小於已發布的 size)，讀取端一律視為不存在。
+     */
+    private int intern(Columns c, String code) {
+        int packed = CurrencyCodes.pack(code);
+        if (packed != CurrencyCodes.NOT_PACKABLE) {
+            int existing = idByPackedCode[packed] - 1;
+            if (existing != NO_ID) {
+                return existing;
+            }
+        } else {
+            Integer existing = idByLongCode.get(code);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        int id = c.add(code);
+        if (packed != CurrencyCodes.NOT_PACKABLE) {
+            idByPackedCode[packed] = id + 1;
+        } else {
+            idByLongCode.put(code, id);
+        }
+        return id;
+    }
+
+    /**
+     * 以 id 為索引的欄位陣列。只在發布前 (鎖內、由 {@link #copy()} 取得的複本) 修改；
+     * 匯率區塊例外，由所有複本共用並隨時寫入。
+     */
+    private static final class Columns {
+        private static final int RATE_CHUNK_SHIFT = 6;
+        private static final int RATE_CHUNK_MASK = (1 << RATE_CHUNK_SHIFT) - 1;
+        private static final int NO_RATE = Float.floatToRawIntBits(Float.NaN);
+
+        private String[] code;
+        private String[] displayName;
+        private String[] symbol;
+        private boolean[] active;
+        private AtomicIntegerArray[] latestRate;
+        private int size;
+
+        Columns(int capacity) {
+            this.code = new String[capacity];
+            this.displayName = new String[capacity];
+            this.symbol = new String[capacity];
+            this.active = new boolean[capacity];
+            this.latestRate = new AtomicIntegerArray[0];
+            ensureRateChunks(capacity);
+        }
+
+        private Columns(Columns source) {
+            this.code = source.code.clone();
+            this.displayName = source.displayName.clone();
+            this.symbol = source.symbol.clone();
+            this.active = source.active.clone();
+            this.latestRate = source.latestRate; // 共用同一批區塊：複製期間記錄的匯率不會遺失
+            this.size = source.size;
+        }
+
+        Columns copy() {
+            return new Columns(this);
+        }
+
+        AtomicIntegerArray rateChunk(int id) {
+            return latestRate[id >>> RATE_CHUNK_SHIFT];
+        }
+
+        /**
+         * 加入新的區塊 (初始為 NaN，從未記錄) 直到涵蓋 capacity 個 id；既有的區塊保持不變。
+         */
+        private void ensureRateChunks(int capacity) {
+            int chunks = (capacity + RATE_CHUNK_MASK) >>> RATE_CHUNK_SHIFT;
+            if (chunks <= latestRate.length) {
+                return;
+            }
+            AtomicIntegerArray[] grown = Arrays.copyOf(latestRate, chunks);
+            for (int i = latestRate.length; i < chunks; i++) {
+                grown[i] = new AtomicIntegerArray(1 << RATE_CHUNK_SHIFT);
+                for (int j = 0; j < grown[i].length(); j++) {
+                    grown[i].set(j, NO_RATE);
+                }
+            }
+            latestRate = grown;
+        }
+
+        /**
+         * 在尾端加入一列 (容量不足時擴充為兩倍)。
+         *
+         * @return 新的 id
+         */
+        int add(String value) {
+            if (size == code.length) {
+                int capacity = code.length * 2;
+                code = Arrays.copyOf(code, capacity);
+                displayName = Arrays.copyOf(displayName, capacity);
+                symbol = Arrays.copyOf(symbol, capacity);
+                active = Arrays.copyOf(active, capacity);
+                ensureRateChunks(capacity);
+            }
+            code[size] = value;
+            return size++;
+        }
+    }
+
+}
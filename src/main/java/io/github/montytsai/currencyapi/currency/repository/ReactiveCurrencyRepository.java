@@ -0,0 +1,149 @@
+package io.github.montytsai.currencyapi.currency.repository;
+
+import java.time.LocalDateTime;
+import java.util.function.BiFunction;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive 模式下的幣別資料存取 (R2DBC)，以明確的 SQL 提供與 {@link CurrencyRepository} 相同語義的查詢。
+ * <p>
+ * JPA 的 @PrePersist / @PreUpdate 在此不會觸發，建立與更新時間由本類別設定。
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCurrencyRepository {
+
+    private static final String SELECT_CURRENCY =
+            "SELECT code, display_name, symbol, is_active, created_at, updated_at FROM CURRENCY";
+
+    private static final BiFunction<Row, RowMetadata, Currency> CURRENCY_MAPPER = (row, metadata) -> {
+        Currency currency = new Currency();
+        currency.setCode(row.get("code", String.class));
+        currency.setDisplayName(row.get("display_name", String.class));
+        currency.setSymbol(row.get("symbol", String.class));
+        currency.setActive(Boolean.TRUE.equals(row.get("is_active", Boolean.class)));
+        currency.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        currency.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return currency;
+    };
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCurrencyRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * 查詢所有狀態為「啟用 (active)」的幣別。
+     *
+     * @return 符合條件的幣別
+     */
+    public Flux<Currency> findAllByIsActiveTrue() {
+        return databaseClient.sql(SELECT_CURRENCY + " WHERE is_active = TRUE")
+                .map(CURRENCY_MAPPER)
+                .all();
+    }
+
+    /**
+     * 根據幣別代碼，查詢狀態為「啟用 (active)」的單一幣別。
+     *
+     * @param code 幣別代碼
+     * @return 幣別，若找不到或幣別非啟用狀態則為空
+     */
+    public Mono<Currency> findByCodeAndIsActiveTrue(String code) {
+        return databaseClient.sql(SELECT_CURRENCY + " WHERE code = :code AND is_active = TRUE")
+                .bind("code", code)
+                .map(CURRENCY_MAPPER)
+                .one();
+    }
+
+    /**
+     * 根據顯示名稱進行模糊搜尋，並只回傳狀態為「啟用 (active)」的幣別。
+     * 與 Spring Data 的 Containing 相同，關鍵字中的萬用字元會被跳脫。
+     *
+     * @param displayName 搜尋的關鍵字
+     * @return 符合條件的幣別
+     */
+    public Flux<Currency> findByDisplayNameContainingAndIsActiveTrue(String displayName) {
+        return databaseClient.sql(SELECT_CURRENCY + " WHERE display_name LIKE :pattern ESCAPE '\\' AND is_active = TRUE")
+                .bind("pattern", "%" + escapeLike(displayName) + "%")
+                .map(CURRENCY_MAPPER)
+                .all();
+    }
+
+    /**
+     * 根據幣別代碼查詢，不論是否啟用。
+     *
+     * @param code 幣別代碼
+     * @return 幣別，若找不到則為空
+     */
+    public Mono<Currency> findById(String code) {
+        return databaseClient.sql(SELECT_CURRENCY + " WHERE code = :code")
+                .bind("code", code)
+                .map(CURRENCY_MAPPER)
+                .one();
+    }
+
+    /**
+     * 新增一筆幣別資料，並設定建立與更新時間。
+     *
+     * @param currency 要新增的幣別
+     * @return 新增後的幣別
+     */
+    public Mono<Currency> insert(Currency currency) {
+        LocalDateTime now = LocalDateTime.now();
+        currency.setCreatedAt(now);
+        currency.setUpdatedAt(now);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO CURRENCY (code, display_name, symbol, is_active, created_at, updated_at) "
+                                + "VALUES (:code, :displayName, :symbol, :active, :createdAt, :updatedAt)")
+                .bind("code", currency.getCode())
+                .bind("displayName", currency.getDisplayName())
+                .bind("active", currency.isActive())
+                .bind("createdAt", currency.getCreatedAt())
+                .bind("updatedAt", currency.getUpdatedAt());
+        return bindSymbol(spec, currency.getSymbol())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(currency);
+    }
+
+    /**
+     * 更新幣別的可修改欄位與啟用狀態，並設定更新時間。
+     *
+     * @param currency 要更新的幣別
+     * @return 更新後的幣別
+     */
+    public Mono<Currency> update(Currency currency) {
+        currency.setUpdatedAt(LocalDateTime.now());
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "UPDATE CURRENCY SET display_name = :displayName, symbol = :symbol, is_active = :active, "
+                                + "updated_at = :updatedAt WHERE code = :code")
+                .bind("code", currency.getCode())
+                .bind("displayName", currency.getDisplayName())
+                .bind("active", currency.isActive())
+                .bind("updatedAt", currency.getUpdatedAt());
+        return bindSymbol(spec, currency.getSymbol())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(currency);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindSymbol(DatabaseClient.GenericExecuteSpec spec, String symbol) {
+        return (symbol == null) ? spec.bindNull("symbol", String.class) : spec.bind("symbol", symbol);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
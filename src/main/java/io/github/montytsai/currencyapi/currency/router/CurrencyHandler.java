@@ -0,0 +1,166 @@
+package io.github.montytsai.currencyapi.currency.router;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.Validator;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.NotAcceptableStatusException;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.config.BinaryFormatConfig;
+import io.github.montytsai.currencyapi.currency.controller.CurrencyController;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyResponse;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.service.ReactiveCurrencyService;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive 模式下幣別 API 的處理函式，REST 合約與 {@link CurrencyController} 相同。
+ * <p>
+ * 函式式端點沒有 @Valid / @Validated，因此請求本文與路徑參數在此明確驗證，
+ * 驗證失敗時發出與 servlet 模式相同型別的例外 ({@link BindException}、{@link IllegalArgumentException})。
+ * <p>
+ * 函式式端點也不會依 Accept 標頭挑選編碼器，因此回應的媒體類型在此自行協商 (JSON / CBOR / Smile，見 {@link BinaryFormatConfig})。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Validator is a Spring-managed singleton and is intended to be shared.")
+public class CurrencyHandler {
+
+    private final ReactiveCurrencyService currencyService;
+    private final Validator validator;
+
+    public CurrencyHandler(ReactiveCurrencyService currencyService, Validator validator) {
+        this.currencyService = currencyService;
+        this.validator = validator;
+    }
+
+    public Mono<ServerResponse> getAllCurrencies(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(responseType(request))
+                .body(currencyService.findAllActive().map(CurrencyResponse::fromEntity), CurrencyResponse.class);
+    }
+
+    public Mono<ServerResponse> getCurrencyByCode(ServerRequest request) {
+        return validCode(request)
+                .flatMap(currencyService::findActiveByCode)
+                .map(CurrencyResponse::fromEntity)
+                .flatMap(response -> respond(HttpStatus.OK, request, response));
+    }
+
+    public Mono<ServerResponse> searchCurrencies(ServerRequest request) {
+        String name = request.queryParam("name").orElse("");
+        if (name.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("'name': must not be blank"));
+        }
+        return ServerResponse.ok()
+                .contentType(responseType(request))
+                .body(currencyService.searchActiveByDisplayName(name).map(CurrencyResponse::fromEntity), CurrencyResponse.class);
+    }
+
+    public Mono<ServerResponse> createCurrency(ServerRequest request) {
+        return requiredBody(request, CurrencyCreateRequest.class)
+                .flatMap(this::validated)
+                .flatMap(currencyService::create)
+                .map(CurrencyResponse::fromEntity)
+                .flatMap(response -> respond(HttpStatus.CREATED, request, response));
+    }
+
+    public Mono<ServerResponse> replaceCurrency(ServerRequest request) {
+        return validCode(request)
+                .flatMap(code -> requiredBody(request, CurrencyReplaceRequest.class)
+                        .flatMap(this::validated)
+                        .flatMap(body -> currencyService.replace(code, body)))
+                .map(CurrencyResponse::fromEntity)
+                .flatMap(response -> respond(HttpStatus.OK, request, response));
+    }
+
+    public Mono<ServerResponse> partialUpdateCurrency(ServerRequest request) {
+        // 與 servlet 模式相同，PATCH 的欄位驗證在 Service 層進行
+        return validCode(request)
+                .flatMap(code -> requiredBody(request, CurrencyUpdateRequest.class)
+                        .flatMap(body -> currencyService.partialUpdate(code, body)))
+                .map(CurrencyResponse::fromEntity)
+                .flatMap(response -> respond(HttpStatus.OK, request, response));
+    }
+
+    public Mono<ServerResponse> deleteCurrency(ServerRequest request) {
+        return validCode(request)
+                .flatMap(currencyService::softDeleteByCode)
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> reactivateCurrency(ServerRequest request) {
+        return validCode(request)
+                .flatMap(currencyService::reactivateByCode)
+                .map(CurrencyResponse::fromEntity)
+                .flatMap(response -> respond(HttpStatus.OK, request, response));
+    }
+
+    /**
+     * 取得並驗證路徑中的幣別代碼，規則同 {@link CurrencyController} 的 {@code @NotBlank @Size(min = 3, max = 10)}。
+     */
+    private static Mono<String> validCode(ServerRequest request) {
+        String code = request.pathVariable("code");
+        if (code.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("'code': must not be blank"));
+        }
+        if (code.length() < 3 || code.length() > 10) {
+            return Mono.error(new IllegalArgumentException("'code': size must be between 3 and 10"));
+        }
+        return Mono.just(code);
+    }
+
+    /**
+     * 以協商出的媒體類型寫出單一物件的回應。
+     */
+    private static Mono<ServerResponse> respond(HttpStatus status, ServerRequest request, Object body) {
+        return ServerResponse.status(status)
+                .contentType(responseType(request))
+                .bodyValue(body);
+    }
+
+    /**
+     * 依 Accept 標頭 (具體程度與 q 值排序) 選出第一個支援的媒體類型；未帶 Accept 時為 JSON，皆不支援時回應 406。
+     */
+    private static MediaType responseType(ServerRequest request) {
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            return BinaryFormatConfig.SUPPORTED_MEDIA_TYPES.get(0);
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptable : accepted) {
+            for (MediaType supported : BinaryFormatConfig.SUPPORTED_MEDIA_TYPES) {
+                if (acceptable.isCompatibleWith(supported)) {
+                    return supported;
+                }
+            }
+        }
+        throw new NotAcceptableStatusException(BinaryFormatConfig.SUPPORTED_MEDIA_TYPES);
+    }
+
+    private static <T> Mono<T> requiredBody(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Required request body is missing.")));
+    }
+
+    /**
+     * 以 Bean Validation 驗證請求本文，對應 servlet 模式的 {@code @Valid @RequestBody}。
+     */
+    private <T> Mono<T> validated(T body) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(body, "request");
+        validator.validate(body, errors);
+        return errors.hasErrors() ? Mono.error(new BindException(errors)) : Mono.just(body);
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.montytsai.currencyapi.currency.router;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Reactive 模式下幣別 API 的函式式路由 (WebFlux Functional Endpoints)，路徑與 servlet 模式相同。
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CurrencyRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> currencyRoutes(CurrencyHandler handler) {
+        return RouterFunctions.route()
+                .path("/currencies", builder -> builder
+                        .GET("", handler::getAllCurrencies)
+                        .GET("/search", handler::searchCurrencies)
+                        .GET("/{code}", handler::getCurrencyByCode)
+                        .POST("", handler::createCurrency)
+                        .POST("/{code}/reactivate", handler::reactivateCurrency)
+                        .PUT("/{code}", handler::replaceCurrency)
+                        .PATCH("/{code}", handler::partialUpdateCurrency)
+                        .DELETE("/{code}", handler::deleteCurrency))
+                .build();
+    }
+
+}
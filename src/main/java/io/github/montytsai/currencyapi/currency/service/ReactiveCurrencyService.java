@@ -0,0 +1,58 @@
+package io.github.montytsai.currencyapi.currency.service;
+
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link CurrencyService} 的反應式 (Reactive) 版本，商業規則與例外完全相同，
+ * 差別在於結果與例外皆以 Mono / Flux 的訊號傳遞。
+ *
+ * @see CurrencyService
+ */
+public interface ReactiveCurrencyService {
+
+    /**
+     * @see CurrencyService#findAllActive()
+     */
+    Flux<Currency> findAllActive();
+
+    /**
+     * @see CurrencyService#findActiveByCode(String)
+     */
+    Mono<Currency> findActiveByCode(String code);
+
+    /**
+     * @see CurrencyService#searchActiveByDisplayName(String)
+     */
+    Flux<Currency> searchActiveByDisplayName(String name);
+
+    /**
+     * @see CurrencyService#create(CurrencyCreateRequest)
+     */
+    Mono<Currency> create(CurrencyCreateRequest currencyRequest);
+
+    /**
+     * @see CurrencyService#replace(String, CurrencyReplaceRequest)
+     */
+    Mono<Currency> replace(String code, CurrencyReplaceRequest currencyRequest);
+
+    /**
+     * @see CurrencyService#partialUpdate(String, CurrencyUpdateRequest)
+     */
+    Mono<Currency> partialUpdate(String code, CurrencyUpdateRequest currencyRequest);
+
+    /**
+     * @see CurrencyService#softDeleteByCode(String)
+     */
+    Mono<Void> softDeleteByCode(String code);
+
+    /**
+     * @see CurrencyService#reactivateByCode(String)
+     */
+    Mono<Currency> reactivateByCode(String code);
+
+}
@@ -0,0 +1,84 @@
+package io.github.montytsai.currencyapi.currency.service.impl;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PATCH 部分更新的欄位驗證與套用邏輯，供 {@link CurrencyServiceImpl} 與 {@link ReactiveCurrencyServiceImpl} 共用。
+ */
+@Slf4j
+final class CurrencyPatches {
+
+    private CurrencyPatches() {
+    }
+
+    /**
+     * 根據請求內容，驗證並設定幣別的顯示名稱 (displayName)。
+     * <p>
+     * 此方法專門處理 PATCH 的部分更新邏輯：
+     * <ul>
+     * <li>如果 `displayNameOpt` 為 `null`，代表客戶端請求中未包含此欄位，不執行任何操作。</li>
+     * <li>如果 `displayNameOpt` 不為 `null`，則取出其中的值進行驗證並更新。</li>
+     * </ul>
+     *
+     * @param currency 要更新的 Currency 實體
+     * @param displayNameOpt 從 DTO 傳入的 Optional<String>，可能為 null
+     * @throws IllegalArgumentException 如果提供的 displayName 為空或格式不符
+     */
+    @SuppressWarnings("OptionalAssignedToNull") // 這是針對 Jackson 反序列化行為的特定模式，因此抑制 IDE 警告。
+    static void validateAndSetDisplayName(Currency currency, Optional<String> displayNameOpt) {
+        // 檢查 Optional 物件本身是否為 null，以確定 JSON key 是否存在。
+        if (displayNameOpt == null) {
+            return;
+        }
+
+        String displayName = displayNameOpt.orElseThrow(() ->
+                new IllegalArgumentException("Display name cannot be null when provided.")
+        );
+        if (displayName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Display name cannot be blank.");
+        }
+        if (displayName.length() > 50) {
+            throw new IllegalArgumentException("Display name cannot exceed 50 characters.");
+        }
+
+        // 都驗證完成才進行修改
+        log.debug("Applying partial update. Setting displayName to: '{}'", displayName);
+        currency.setDisplayName(displayName);
+    }
+
+    /**
+     * 根據請求內容，驗證並設定幣別的符號 (symbol)。
+     * <p>
+     * 此方法專門處理 PATCH 的部分更新邏輯：
+     * <ul>
+     * <li>如果 `symbolOpt` 為 `null`，代表客戶端請求中未包含此欄位，不執行任何操作。</li>
+     * <li>如果 `symbolOpt` 不為 `null`，則取出其中的值（允許為 null）進行驗證並更新。</li>
+     * </ul>
+     *
+     * @param currency 要更新的 Currency 實體
+     * @param symbolOpt 從 DTO 傳入的 Optional<String>，可能為 null
+     * @throws IllegalArgumentException 如果提供的 symbol 格式不符
+     */
+    @SuppressWarnings("OptionalAssignedToNull")  // 這是針對 Jackson 反序列化行為的特定模式，因此抑制 IDE 警告。
+    static void validateAndSetSymbol(Currency currency, Optional<String> symbolOpt) {
+        // 檢查 Optional 物件本身是否為 null，以確定 JSON key 是否存在。
+        if (symbolOpt == null) {
+            return;
+        }
+
+        // orElse(null) 允許客戶端透過傳入 {"symbol": null} 來清空 symbol
+        String symbol = symbolOpt.orElse(null);
+
+        if (symbol != null && symbol.length() > 10) {
+            throw new IllegalArgumentException("Symbol cannot exceed 10 characters.");
+        }
+
+        log.debug("Applying partial update. Setting symbol to: '{}'", symbol);
+        currency.setSymbol(symbol);
+    }
+
+}
@@ -1,16 +1,23 @@
 package io.github.montytsai.currencyapi.currency.service.impl;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.currency.audit.AuditAction;
+import io.github.montytsai.currencyapi.currency.audit.CurrencyAuditLog;
+import io.github.montytsai.currencyapi.currency.audit.CurrencyState;
+import io.github.montytsai.currencyapi.currency.cache.ActiveCurrencyCodeIndex;
+import io.github.montytsai.currencyapi.currency.cache.CatalogVersion;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
 import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
 import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
 import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
 import io.github.montytsai.currencyapi.currency.service.CurrencyService;
 import io.github.montytsai.currencyapi.exception.ResourceAlreadyExistsException;
 import io.github.montytsai.currencyapi.exception.ResourceNotFoundException;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
 
 import java.util.List;
-import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,18 +26,34 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CurrencyLookupTable, CatalogVersion, CurrencyAuditLog and ApiMetrics are Spring-managed singletons and are intended to be shared.")
 public class CurrencyServiceImpl implements CurrencyService {
 
     private final CurrencyRepository currencyRepository;
-
-    public CurrencyServiceImpl(CurrencyRepository currencyRepository) {
+    private final ActiveCurrencyCodeIndex activeCodeIndex;
+    private final CurrencyLookupTable lookupTable;
+    private final CatalogVersion catalogVersion;
+    private final CurrencyAuditLog auditLog;
+    private final ApiMetrics apiMetrics;
+
+    public CurrencyServiceImpl(CurrencyRepository currencyRepository,
+                               ActiveCurrencyCodeIndex activeCodeIndex,
+                               CurrencyLookupTable lookupTable,
+                               CatalogVersion catalogVersion,
+                               CurrencyAuditLog auditLog,
+                               ApiMetrics apiMetrics) {
         this.currencyRepository = currencyRepository;
+        this.activeCodeIndex = activeCodeIndex;
+        this.lookupTable = lookupTable;
+        this.catalogVersion = catalogVersion;
+        this.auditLog = auditLog;
+        this.apiMetrics = apiMetrics;
     }
 
     @Override
     public List<Currency> findAllActive() {
         log.info("Fetching all active currencies.");
-        return currencyRepository.findAllByIsActiveTrue();
+        return apiMetrics.timeCatalogQuery("findAllActive", currencyRepository::findAllByIsActiveTrue);
     }
 
     @Override
@@ -42,7 +65,7 @@ public class CurrencyServiceImpl implements CurrencyService {
     @Override
     public List<Currency> searchActiveByDisplayName(String name) {
         log.info("Searching for active currencies with display name containing: '{}'", name);
-        return currencyRepository.findByDisplayNameContainingAndIsActiveTrue(name);
+        return apiMetrics.timeCatalogQuery("searchActiveByDisplayName", () -> currencyRepository.findByDisplayNameContainingAndIsActiveTrue(name));
     }
 
     /**
@@ -56,7 +79,7 @@ public class CurrencyServiceImpl implements CurrencyService {
         String code = request.getCode();
         log.info("Attempting to create or reactivate currency with code: {}", code);
 
-        return currencyRepository.findById(code)
+        return apiMetrics.timeCatalogQuery("findById", code, () -> currencyRepository.findById(code))
                 .map(existingCurrency -> this.handleExistingCurrencyOnCreate(existingCurrency, request))
                 .orElseGet(() -> this.createNewCurrency(request));
     }
@@ -72,12 +95,13 @@ public class CurrencyServiceImpl implements CurrencyService {
         }
 
         Currency existingCurrency = this.getActiveCurrencyOrThrow(code);
+        CurrencyState before = CurrencyState.of(existingCurrency);
 
         // 完整替換：無論 request DTO 的欄位是否為 null，都直接設定
         existingCurrency.setDisplayName(currencyRequest.getDisplayName());
         existingCurrency.setSymbol(currencyRequest.getSymbol());
 
-        return currencyRepository.save(existingCurrency);
+        return this.saveAndPublish(existingCurrency, AuditAction.REPLACE, before);
     }
 
     @Override
@@ -85,11 +109,12 @@ public class CurrencyServiceImpl implements CurrencyService {
     public Currency partialUpdate(String code, CurrencyUpdateRequest currencyRequest) {
         log.info("Performing partial update for currency with code: {}", code);
         Currency existingCurrency = this.getActiveCurrencyOrThrow(code);
+        CurrencyState before = CurrencyState.of(existingCurrency);
 
-        this.validateAndSetDisplayName(existingCurrency, currencyRequest.getDisplayName());
-        this.validateAndSetSymbol(existingCurrency, currencyRequest.getSymbol());
+        CurrencyPatches.validateAndSetDisplayName(existingCurrency, currencyRequest.getDisplayName());
+        CurrencyPatches.validateAndSetSymbol(existingCurrency, currencyRequest.getSymbol());
 
-        return currencyRepository.save(existingCurrency);
+        return this.saveAndPublish(existingCurrency, AuditAction.PARTIAL_UPDATE, before);
     }
 
     @Override
@@ -98,9 +123,10 @@ public class CurrencyServiceImpl implements CurrencyService {
         log.info("Performing soft delete for currency with code: {}", code);
 
         Currency currency = this.getActiveCurrencyOrThrow(code); // 只允許刪除啟用的幣別
+        CurrencyState before = CurrencyState.of(currency);
         currency.setActive(false);
 
-        currencyRepository.save(currency);
+        this.saveAndPublish(currency, AuditAction.SOFT_DELETE, before); // 提交後才會從啟用代碼索引中移除
 
         log.info("Successfully soft-deleted currency with code: {}", code);
     }
@@ -109,7 +135,7 @@ public class CurrencyServiceImpl implements CurrencyService {
     @Transactional
     public Currency reactivateByCode(String code) {
         log.info("Attempting to reactivate currency with code: {}", code);
-        Currency currency = currencyRepository.findById(code)
+        Currency currency = apiMetrics.timeCatalogQuery("findById", code, () -> currencyRepository.findById(code))
                 .orElseThrow(() -> new ResourceNotFoundException("Cannot reactivate. Currency not found with code: " + code));
 
         if (currency.isActive()) {
@@ -117,8 +143,10 @@ public class CurrencyServiceImpl implements CurrencyService {
             return currency; // 直接回傳，保持冪等性
         }
 
+        CurrencyState before = CurrencyState.of(currency);
         currency.setActive(true);
-        Currency reactivatedCurrency = currencyRepository.save(currency);
+        Currency reactivatedCurrency = this.saveAndPublish(currency, AuditAction.REACTIVATE, before);
+        activeCodeIndex.markActive(code);
         log.info("Successfully reactivated currency with code: {}", code);
         return reactivatedCurrency;
     }
@@ -129,19 +157,47 @@ public class CurrencyServiceImpl implements CurrencyService {
 
     /**
      * 根據代碼獲取一個「啟用」的幣別實體，若找不到或非啟用則拋出例外。
+     * <p>
+     * 先檢查 {@link ActiveCurrencyCodeIndex}，可確定不存在的代碼會直接拋出例外而不查詢資料庫。
+     * 未命中屬於高頻的預期情況 (由 GlobalExceptionHandler 以限流方式記錄)，因此此處僅記錄 DEBUG。
      *
      * @param code 幣別代碼
      * @return 啟用狀態的幣別實體
      * @throws ResourceNotFoundException 如果找不到或幣別非啟用
      */
     private Currency getActiveCurrencyOrThrow(String code) {
-        return currencyRepository.findByCodeAndIsActiveTrue(code)
+        if (!activeCodeIndex.mightBeActive(code)) {
+            log.debug("Active currency code index rejected code: {}", code);
+            throw activeCurrencyNotFound(code);
+        }
+        return apiMetrics.timeCatalogQuery("findActiveByCode", code, () -> currencyRepository.findByCodeAndIsActiveTrue(code))
                 .orElseThrow(() -> {
-                    log.warn("Active currency not found with code: {}", code);
-                    return new ResourceNotFoundException("Active currency not found with code: " + code);
+                    log.debug("Active currency not found with code: {}", code);
+                    return activeCurrencyNotFound(code);
                 });
     }
 
+    /**
+     * 儲存幣別實體，並在交易提交後將最新狀態同步到記憶體中的 {@link CurrencyLookupTable}、寫入稽核紀錄 ({@link CurrencyAuditLog})。
+     * 同一個交易中遞增目錄的版本號 ({@link CatalogVersion})，其他節點據此重新載入查詢表。
+     *
+     * @param currency 要儲存的幣別實體
+     * @param action   稽核紀錄的異動類型
+     * @param before   修改前的狀態，新建立的幣別為 null
+     * @return 儲存後的幣別實體
+     */
+    private Currency saveAndPublish(Currency currency, AuditAction action, CurrencyState before) {
+        Currency saved = currencyRepository.save(currency);
+        lookupTable.putAfterCommit(saved);
+        catalogVersion.bump();
+        auditLog.record(action, saved.getCode(), before, CurrencyState.of(saved));
+        return saved;
+    }
+
+    private static ResourceNotFoundException activeCurrencyNotFound(String code) {
+        return new ResourceNotFoundException("Active currency not found with code: " + code);
+    }
+
     /**
      * 處理在 create 操作中遇到已存在幣別的邏輯。
      *
@@ -157,10 +213,13 @@ public class CurrencyServiceImpl implements CurrencyService {
         }
 
         log.info("Currency with code {} exists but is inactive. Reactivating and updating.", existingCurrency.getCode());
+        CurrencyState before = CurrencyState.of(existingCurrency);
         existingCurrency.setActive(true);
         existingCurrency.setDisplayName(request.getDisplayName());
         existingCurrency.setSymbol(request.getSymbol());
-        return currencyRepository.save(existingCurrency);
+        Currency reactivatedCurrency = this.saveAndPublish(existingCurrency, AuditAction.CREATE, before);
+        activeCodeIndex.markActive(reactivatedCurrency.getCode());
+        return reactivatedCurrency;
     }
 
     /**
@@ -175,73 +234,9 @@ public class CurrencyServiceImpl implements CurrencyService {
         currency.setCode(request.getCode());
         currency.setDisplayName(request.getDisplayName());
         currency.setSymbol(request.getSymbol());
-        return currencyRepository.save(currency);
-    }
-
-    /**
-     * 根據請求內容，驗證並設定幣別的顯示名稱 (displayName)。
-     * <p>
-     * 此方法專門處理 PATCH 的部分更新邏輯：
-     * <ul>
-     * <li>如果 `displayNameOpt` 為 `null`，代表客戶端請求中未包含此欄位，不執行任何操作。</li>
-     * <li>如果 `displayNameOpt` 不為 `null`，則取出其中的值進行驗證並更新。</li>
-     * </ul>
-     *
-     * @param currency 要更新的 Currency 實體
-     * @param displayNameOpt 從 DTO 傳入的 Optional<String>，可能為 null
-     * @throws IllegalArgumentException 如果提供的 displayName 為空或格式不符
-     */
-    @SuppressWarnings("OptionalAssignedToNull") // 這是針對 Jackson 反序列化行為的特定模式，因此抑制 IDE 警告。
-    private void validateAndSetDisplayName(Currency currency, Optional<String> displayNameOpt) {
-        // 檢查 Optional 物件本身是否為 null，以確定 JSON key 是否存在。
-        if (displayNameOpt == null) {
-            return;
-        }
-
-        String displayName = displayNameOpt.orElseThrow(() ->
-                new IllegalArgumentException("Display name cannot be null when provided.")
-        );
-        if (displayName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Display name cannot be blank.");
-        }
-        if (displayName.length() > 50) {
-            throw new IllegalArgumentException("Display name cannot exceed 50 characters.");
-        }
-
-        // 都驗證完成才進行修改
-        log.debug("Applying partial update. Setting displayName to: '{}'", displayName);
-        currency.setDisplayName(displayName);
-    }
-
-    /**
-     * 根據請求內容，驗證並設定幣別的符號 (symbol)。
-     * <p>
-     * 此方法專門處理 PATCH 的部分更新邏輯：
-     * <ul>
-     * <li>如果 `symbolOpt` 為 `null`，代表客戶端請求中未包含此欄位，不執行任何操作。</li>
-     * <li>如果 `symbolOpt` 不為 `null`，則取出其中的值（允許為 null）進行驗證並更新。</li>
-     * </ul>
-     *
-     * @param currency 要更新的 Currency 實體
-     * @param symbolOpt 從 DTO 傳入的 Optional<String>，可能為 null
-     * @throws IllegalArgumentException 如果提供的 symbol 格式不符
-     */
-    @SuppressWarnings("OptionalAssignedToNull")  // 這是針對 Jackson 反序列化行為的特定模式，因此抑制 IDE 警告。
-    private void validateAndSetSymbol(Currency currency, Optional<String> symbolOpt) {
-        // 檢查 Optional 物件本身是否為 null，以確定 JSON key 是否存在。
-        if (symbolOpt == null) {
-            return;
-        }
-
-        // orElse(null) 允許客戶端透過傳入 {"symbol": null} 來清空 symbol
-        String symbol = symbolOpt.orElse(null);
-
-        if (symbol != null && symbol.length() > 10) {
-            throw new IllegalArgumentException("Symbol cannot exceed 10 characters.");
-        }
-
-        log.debug("Applying partial update. Setting symbol to: '{}'", symbol);
-        currency.setSymbol(symbol);
+        Currency createdCurrency = this.saveAndPublish(currency, AuditAction.CREATE, null);
+        activeCodeIndex.markActive(createdCurrency.getCode());
+        return createdCurrency;
     }
 
-}
\ No newline at end of file
+}
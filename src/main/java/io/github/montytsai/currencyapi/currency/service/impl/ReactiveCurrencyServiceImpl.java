@@ -0,0 +1,256 @@
+package io.github.montytsai.currencyapi.currency.service.impl;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.montytsai.currencyapi.currency.audit.AuditAction;
+import io.github.montytsai.currencyapi.currency.audit.CurrencyState;
+import io.github.montytsai.currencyapi.currency.audit.ReactiveCurrencyAuditLog;
+import io.github.montytsai.currencyapi.currency.cache.ActiveCurrencyCodeIndex;
+import io.github.montytsai.currencyapi.currency.cache.ReactiveCatalogVersion;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.repository.ReactiveCurrencyRepository;
+import io.github.montytsai.currencyapi.currency.service.ReactiveCurrencyService;
+import io.github.montytsai.currencyapi.exception.ResourceAlreadyExistsException;
+import io.github.montytsai.currencyapi.exception.ResourceNotFoundException;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveCurrencyService} 的實作，商業規則與 {@link CurrencyServiceImpl} 相同。
+ * <p>
+ * 交易以 {@link TransactionalOperator} 界定；{@link CurrencyLookupTable} 在交易<b>完成後</b>才更新
+ * (對應 servlet 模式的 putAfterCommit)，新增/啟用則與 servlet 模式一樣在提交前就加入啟用代碼索引。
+ * 每次異動在同一個交易中遞增目錄的版本號 ({@link ReactiveCatalogVersion})，稽核紀錄經由 {@link ReactiveCurrencyAuditLog} 在交易提交後寫入。
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "CurrencyLookupTable, ReactiveCatalogVersion, ReactiveCurrencyAuditLog and ApiMetrics are Spring-managed singletons and are intended to be shared.")
+public class ReactiveCurrencyServiceImpl implements ReactiveCurrencyService {
+
+    private final ReactiveCurrencyRepository currencyRepository;
+    private final ActiveCurrencyCodeIndex activeCodeIndex;
+    private final CurrencyLookupTable lookupTable;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveCatalogVersion catalogVersion;
+    private final ReactiveCurrencyAuditLog auditLog;
+    private final ApiMetrics apiMetrics;
+
+    public ReactiveCurrencyServiceImpl(ReactiveCurrencyRepository currencyRepository,
+                                       ActiveCurrencyCodeIndex activeCodeIndex,
+                                       CurrencyLookupTable lookupTable,
+                                       TransactionalOperator transactionalOperator,
+                                       ReactiveCatalogVersion catalogVersion,
+                                       ReactiveCurrencyAuditLog auditLog,
+                                       ApiMetrics apiMetrics) {
+        this.currencyRepository = currencyRepository;
+        this.activeCodeIndex = activeCodeIndex;
+        this.lookupTable = lookupTable;
+        this.catalogVersion = catalogVersion;
+        this.auditLog = auditLog;
+        this.apiMetrics = apiMetrics;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Flux<Currency> findAllActive() {
+        log.info("Fetching all active currencies.");
+        return apiMetrics.timeCatalogQuery("findAllActive", currencyRepository.findAllByIsActiveTrue());
+    }
+
+    @Override
+    public Mono<Currency> findActiveByCode(String code) {
+        log.info("Fetching active currency with code: {}", code);
+        return this.getActiveCurrencyOrError(code);
+    }
+
+    @Override
+    public Flux<Currency> searchActiveByDisplayName(String name) {
+        log.info("Searching for active currencies with display name containing: '{}'", name);
+        return apiMetrics.timeCatalogQuery("searchActiveByDisplayName", currencyRepository.findByDisplayNameContainingAndIsActiveTrue(name));
+    }
+
+    @Override
+    public Mono<Currency> create(CurrencyCreateRequest request) {
+        String code = request.getCode();
+        log.info("Attempting to create or reactivate currency with code: {}", code);
+
+        Mono<Currency> created = currencyRepository.findById(code)
+                .flatMap(existingCurrency -> this.handleExistingCurrencyOnCreate(existingCurrency, request))
+                .switchIfEmpty(Mono.defer(() -> this.createNewCurrency(request)));
+        return this.inTransactionThenPublish(created);
+    }
+
+    @Override
+    public Mono<Currency> replace(String code, CurrencyReplaceRequest currencyRequest) {
+        log.info("Performing full update for currency with code: {}", code);
+
+        // 比對 url 與 dto 的幣別是否相同
+        if (!code.equals(currencyRequest.getCode())) {
+            return Mono.error(new IllegalArgumentException("Path variable code '" + code + "' does not match request body code '" + currencyRequest.getCode() + "'."));
+        }
+
+        Mono<Currency> replaced = this.getActiveCurrencyOrError(code)
+                .flatMap(existingCurrency -> {
+                    CurrencyState before = CurrencyState.of(existingCurrency);
+                    // 完整替換：無論 request DTO 的欄位是否為 null，都直接設定
+                    existingCurrency.setDisplayName(currencyRequest.getDisplayName());
+                    existingCurrency.setSymbol(currencyRequest.getSymbol());
+                    return this.recordWrite(AuditAction.REPLACE, before, currencyRepository.update(existingCurrency));
+                });
+        return this.inTransactionThenPublish(replaced);
+    }
+
+    @Override
+    public Mono<Currency> partialUpdate(String code, CurrencyUpdateRequest currencyRequest) {
+        log.info("Performing partial update for currency with code: {}", code);
+
+        Mono<Currency> updated = this.getActiveCurrencyOrError(code)
+                .flatMap(existingCurrency -> {
+                    CurrencyState before = CurrencyState.of(existingCurrency);
+                    CurrencyPatches.validateAndSetDisplayName(existingCurrency, currencyRequest.getDisplayName());
+                    CurrencyPatches.validateAndSetSymbol(existingCurrency, currencyRequest.getSymbol());
+                    return this.recordWrite(AuditAction.PARTIAL_UPDATE, before, currencyRepository.update(existingCurrency));
+                });
+        return this.inTransactionThenPublish(updated);
+    }
+
+    @Override
+    public Mono<Void> softDeleteByCode(String code) {
+        log.info("Performing soft delete for currency with code: {}", code);
+
+        Mono<Currency> deleted = this.getActiveCurrencyOrError(code) // 只允許刪除啟用的幣別
+                .flatMap(currency -> {
+                    CurrencyState before = CurrencyState.of(currency);
+                    currency.setActive(false);
+                    return this.recordWrite(AuditAction.SOFT_DELETE, before, currencyRepository.update(currency));
+                });
+        return this.inTransactionThenPublish(deleted) // 提交後才會從啟用代碼索引中移除
+                .doOnNext(currency -> log.info("Successfully soft-deleted currency with code: {}", code))
+                .then();
+    }
+
+    @Override
+    public Mono<Currency> reactivateByCode(String code) {
+        log.info("Attempting to reactivate currency with code: {}", code);
+
+        Mono<Currency> reactivated = currencyRepository.findById(code)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cannot reactivate. Currency not found with code: " + code)))
+                .flatMap(currency -> {
+                    if (currency.isActive()) {
+                        log.warn("Attempted to reactivate an already active currency: {}. No action taken.", code);
+                        return Mono.just(currency); // 直接回傳，保持冪等性
+                    }
+                    CurrencyState before = CurrencyState.of(currency);
+                    currency.setActive(true);
+                    return this.recordWrite(AuditAction.REACTIVATE, before, currencyRepository.update(currency))
+                            .doOnNext(saved -> {
+                                activeCodeIndex.markActive(code);
+                                log.info("Successfully reactivated currency with code: {}", code);
+                            });
+                });
+        return this.inTransactionThenPublish(reactivated);
+    }
+
+    // =================================================================
+    // == Private Helper Methods
+    // =================================================================
+
+    /**
+     * 根據代碼獲取一個「啟用」的幣別實體，若找不到或非啟用則發出錯誤訊號。
+     *
+     * @param code 幣別代碼
+     * @return 啟用狀態的幣別實體
+     * @see CurrencyServiceImpl 中的 getActiveCurrencyOrThrow
+     */
+    private Mono<Currency> getActiveCurrencyOrError(String code) {
+        if (!activeCodeIndex.mightBeActive(code)) {
+            log.debug("Active currency code index rejected code: {}", code);
+            return Mono.error(activeCurrencyNotFound(code));
+        }
+        return apiMetrics.timeCatalogQuery("findActiveByCode", currencyRepository.findByCodeAndIsActiveTrue(code))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.debug("Active currency not found with code: {}", code);
+                    return activeCurrencyNotFound(code);
+                }));
+    }
+
+    /**
+     * 在交易中執行寫入，並在交易提交後將最新狀態同步到記憶體中的 {@link CurrencyLookupTable}。
+     *
+     * @param write 寫入流程
+     * @return 寫入後的幣別實體
+     */
+    private Mono<Currency> inTransactionThenPublish(Mono<Currency> write) {
+        return write.as(transactionalOperator::transactional)
+                .doOnNext(lookupTable::put);
+    }
+
+    /**
+     * 寫入後在同一個交易中遞增目錄的版本號並登記稽核紀錄 (提交後才寫入)，對應 servlet 模式的 saveAndPublish。
+     *
+     * @param action 稽核紀錄的異動類型
+     * @param before 修改前的狀態，新建立的幣別為 null
+     * @param write  寫入流程
+     * @return 寫入後的幣別實體
+     */
+    private Mono<Currency> recordWrite(AuditAction action, CurrencyState before, Mono<Currency> write) {
+        return write.flatMap(saved -> catalogVersion.bump()
+                .then(auditLog.record(action, saved.getCode(), before, CurrencyState.of(saved)))
+                .thenReturn(saved));
+    }
+
+    private static ResourceNotFoundException activeCurrencyNotFound(String code) {
+        return new ResourceNotFoundException("Active currency not found with code: " + code);
+    }
+
+    /**
+     * 處理在 create 操作中遇到已存在幣別的邏輯。
+     *
+     * @param existingCurrency 已存在的幣別實體
+     * @param request          傳入的請求 DTO
+     * @return 更新並重新啟用後的幣別實體；若幣別已存在且處於啟用狀態則發出 {@link ResourceAlreadyExistsException}
+     */
+    private Mono<Currency> handleExistingCurrencyOnCreate(Currency existingCurrency, CurrencyCreateRequest request) {
+        if (existingCurrency.isActive()) {
+            log.warn("Failed to create currency. Code already exists and is active: {}", existingCurrency.getCode());
+            return Mono.error(new ResourceAlreadyExistsException("Currency with code '" + existingCurrency.getCode() + "' already exists."));
+        }
+
+        log.info("Currency with code {} exists but is inactive. Reactivating and updating.", existingCurrency.getCode());
+        CurrencyState before = CurrencyState.of(existingCurrency);
+        existingCurrency.setActive(true);
+        existingCurrency.setDisplayName(request.getDisplayName());
+        existingCurrency.setSymbol(request.getSymbol());
+        return this.recordWrite(AuditAction.CREATE, before, currencyRepository.update(existingCurrency))
+                .doOnNext(reactivatedCurrency -> activeCodeIndex.markActive(reactivatedCurrency.getCode()));
+    }
+
+    /**
+     * 處理建立一筆全新幣別的邏輯。
+     *
+     * @param request 傳入的請求 DTO
+     * @return 新建立的幣別實體
+     */
+    private Mono<Currency> createNewCurrency(CurrencyCreateRequest request) {
+        log.info("Currency with code {} does not exist. Creating new one.", request.getCode());
+        Currency currency = new Currency();
+        currency.setCode(request.getCode());
+        currency.setDisplayName(request.getDisplayName());
+        currency.setSymbol(request.getSymbol());
+        return this.recordWrite(AuditAction.CREATE, null, currencyRepository.insert(currency))
+                .doOnNext(createdCurrency -> activeCodeIndex.markActive(createdCurrency.getCode()));
+    }
+
+}
@@ -7,6 +7,9 @@ import lombok.Getter;
 /**
  * 所有自訂業務例外的抽象基底類別。
  * 封裝了與業務錯誤相關的 HTTP 狀態碼。
+ * <p>
+ * 業務例外屬於預期中的流程控制 (如 404、409)，{@link GlobalExceptionHandler} 只會記錄其訊息，
+ * 因此預設不擷取堆疊 (stackless)，避免每次拋出都走訪整個呼叫堆疊並配置 StackTraceElement 陣列。
  */
 @Getter
 public abstract class BusinessException extends RuntimeException {
@@ -14,7 +17,16 @@ public abstract class BusinessException extends RuntimeException {
     private final HttpStatus httpStatus;
 
     public BusinessException(String message, HttpStatus httpStatus) {
-        super(message);
+        this(message, httpStatus, false);
+    }
+
+    /**
+     * @param message            錯誤訊息
+     * @param httpStatus         對應的 HTTP 狀態碼
+     * @param writableStackTrace 是否擷取堆疊資訊；僅在需要追查呼叫來源的例外才應設為 true
+     */
+    protected BusinessException(String message, HttpStatus httpStatus, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
         this.httpStatus = httpStatus;
     }
 
@@ -1,24 +1,39 @@
 package io.github.montytsai.currencyapi.exception;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 /**
  * 全域例外處理器。
+ * <p>
+ * Reactive 模式下由 {@link ReactiveExceptionHandler} 以相同的對應規則處理。
  */
 @Slf4j
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    /**
+     * 業務例外的 log 每秒最多輸出 10 行，避免大量不存在的幣別查詢洗版。
+     */
+    private final RateLimitedLogger businessExceptionLog = new RateLimitedLogger(log, 10, 1, TimeUnit.SECONDS);
+
     /**
      * 統一處理所有繼承自 BusinessException 的自訂業務例外。
      *
@@ -28,11 +43,61 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ErrorResponse> handleBusinessException(BusinessException ex, WebRequest request) {
-        log.warn("Business exception occurred: {}", ex.getMessage());
+        businessExceptionLog.warn("Business exception occurred: {}", ex.getMessage());
         ErrorResponse errorResponse = new ErrorResponse(ex.getHttpStatus(), ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(errorResponse, ex.getHttpStatus());
     }
 
+    /**
+     * 503: 處理服務暫時無法處理請求的例外，並附上 Retry-After 標頭告知客戶端何時可重試。
+     *
+     * @param ex      捕獲到的例外
+     * @param request 當前的網頁請求
+     * @return 包含錯誤訊息與 Retry-After 標頭的 ResponseEntity
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        businessExceptionLog.warn("Service unavailable: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(ex.getHttpStatus(), ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(ex.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * 429: 處理超過請求頻率限制的例外，並附上 RateLimit-* 與 Retry-After 標頭告知客戶端額度與何時可重試。
+     *
+     * @param ex      捕獲到的例外
+     * @param request 當前的網頁請求
+     * @return 包含錯誤訊息與頻率限制標頭的 ResponseEntity
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        businessExceptionLog.warn("Rate limit exceeded: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(ex.getHttpStatus(), ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(ex.getHttpStatus())
+                .header(TooManyRequestsException.LIMIT_HEADER, String.valueOf(ex.getLimit()))
+                .header(TooManyRequestsException.REMAINING_HEADER, "0")
+                .header(TooManyRequestsException.RESET_HEADER, String.valueOf(ex.getResetSeconds()))
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * 503: 處理非同步請求 (如 CoinDesk 端點) 逾時的例外。
+     *
+     * @param ex      捕獲到的逾時例外
+     * @param request 當前的網頁請求
+     * @return 包含錯誤訊息的 ResponseEntity，狀態碼為 503 Service Unavailable
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleAsyncRequestTimeoutException(AsyncRequestTimeoutException ex, WebRequest request) {
+        log.warn("Asynchronous request timed out for URI: {}", request.getDescription(false));
+        String message = "The request timed out. Please retry later.";
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, message, request.getDescription(false));
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * 400: 處理 Bean Validation 失敗的例外。
      *
@@ -42,10 +107,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex, WebRequest request) {
-        // 將所有欄位的驗證錯誤訊息收集起來，組合成一個字串
-        String message = ex.getBindingResult().getFieldErrors().stream()
-                .map(error -> String.format("'%s': %s", error.getField(), error.getDefaultMessage()))
-                .collect(Collectors.joining(", "));
+        String message = formatFieldErrors(ex.getBindingResult().getFieldErrors());
 
         log.warn("Validation failed for request: {}", message);
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST, message, request.getDescription(false));
@@ -75,9 +137,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
-        String message = ex.getConstraintViolations().stream()
-                .map(cv -> String.format("'%s': %s", cv.getPropertyPath(), cv.getMessage()))
-                .collect(Collectors.joining(", "));
+        String message = formatConstraintViolations(ex);
 
         log.warn("Constraint violation for request parameters: {}", message);
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST, message, request.getDescription(false));
@@ -101,4 +161,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-}
\ No newline at end of file
+    /**
+     * 將所有欄位的驗證錯誤訊息收集起來，組合成一個字串。
+     */
+    static String formatFieldErrors(List<FieldError> fieldErrors) {
+        return fieldErrors.stream()
+                .map(error -> String.format("'%s': %s", error.getField(), error.getDefaultMessage()))
+                .collect(Collectors.joining(", "));
+    }
+
+    static String formatConstraintViolations(ConstraintViolationException ex) {
+        return ex.getConstraintViolations().stream()
+                .map(GlobalExceptionHandler::formatConstraintViolation)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String formatConstraintViolation(ConstraintViolation<?> cv) {
+        return String.format("'%s': %s", cv.getPropertyPath(), cv.getMessage());
+    }
+
+}
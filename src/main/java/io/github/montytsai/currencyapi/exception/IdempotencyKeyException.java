@@ -0,0 +1,28 @@
+package io.github.montytsai.currencyapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 409 / 422: Idempotency-Key 無法套用到這個請求。
+ * <ul>
+ * <li>409：相同 key 的請求仍在處理中，等待逾時。</li>
+ * <li>422：相同 key 已用於不同的請求 (端點或請求內容不同)。</li>
+ * </ul>
+ */
+public class IdempotencyKeyException extends BusinessException {
+
+    private IdempotencyKeyException(String message, HttpStatus httpStatus) {
+        super(message, httpStatus);
+    }
+
+    public static IdempotencyKeyException inProgress(String key) {
+        return new IdempotencyKeyException("A request with Idempotency-Key '" + key + "' is still in progress.",
+                HttpStatus.CONFLICT);
+    }
+
+    public static IdempotencyKeyException reused(String key) {
+        return new IdempotencyKeyException("Idempotency-Key '" + key + "' was already used for a different request.",
+                HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.github.montytsai.currencyapi.exception;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+/**
+ * 以固定時間窗限制輸出頻率的 Logger 包裝。
+ * <p>
+ * 用於大量且重複的預期錯誤 (如掃描不存在幣別代碼的請求)，避免每次都產生一行 WARN log。
+ * 每個時間窗最多輸出 {@code maxPerWindow} 行，被略過的筆數會附在下一個時間窗的第一行訊息中。
+ * 實作僅使用 CAS 操作，不持有鎖。
+ */
+class RateLimitedLogger {
+
+    private final Logger delegate;
+    private final int maxPerWindow;
+    private final long windowNanos;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong emittedInWindow = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    RateLimitedLogger(Logger delegate, int maxPerWindow, long window, TimeUnit unit) {
+        this.delegate = delegate;
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * 在頻率限制內以 WARN 等級輸出訊息，否則僅累計被略過的筆數。
+     *
+     * @param format SLF4J 格式字串，需包含一個 {} 佔位符
+     * @param arg    訊息參數
+     */
+    void warn(String format, Object arg) {
+        if (!delegate.isWarnEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            emittedInWindow.set(0);
+        }
+        if (emittedInWindow.incrementAndGet() > maxPerWindow) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long skipped = suppressed.getAndSet(0);
+        if (skipped > 0) {
+            delegate.warn(format + " ({} similar messages suppressed)", arg, skipped);
+        } else {
+            delegate.warn(format, arg);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.github.montytsai.currencyapi.exception;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolationException;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive 模式的全域例外處理器，對應規則與 {@link GlobalExceptionHandler} 相同，
+ * 同時涵蓋函式式路由與 @RestController (如 CoinDesk 端點)。
+ * <p>
+ * 另外處理 WebFlux 自身的 {@link ResponseStatusException} (如找不到路由、請求本文格式錯誤)，保留其狀態碼。
+ * 順序排在 Spring Boot 預設的 ErrorWebExceptionHandler (-1) 之前。
+ */
+@Slf4j
+@Component
+@Order(-2)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+
+    private final RateLimitedLogger businessExceptionLog = new RateLimitedLogger(log, 10, 1, TimeUnit.SECONDS);
+
+    private final ServerResponse.Context responseContext;
+
+    public ReactiveExceptionHandler(ServerCodecConfigurer codecConfigurer) {
+        List<HttpMessageWriter<?>> messageWriters = codecConfigurer.getWriters();
+        this.responseContext = new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return messageWriters;
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+        String path = "uri=" + exchange.getRequest().getPath().value();
+        return this.toResponse(ex, path)
+                .flatMap(response -> response.writeTo(exchange, responseContext));
+    }
+
+    private Mono<ServerResponse> toResponse(Throwable ex, String path) {
+        if (ex instanceof ServiceUnavailableException) {
+            ServiceUnavailableException unavailable = (ServiceUnavailableException) ex;
+            businessExceptionLog.warn("Service unavailable: {}", ex.getMessage());
+            return ServerResponse.status(unavailable.getHttpStatus())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(unavailable.getRetryAfterSeconds()))
+                    .bodyValue(new ErrorResponse(unavailable.getHttpStatus(), ex.getMessage(), path));
+        }
+        if (ex instanceof TooManyRequestsException) {
+            TooManyRequestsException tooMany = (TooManyRequestsException) ex;
+            businessExceptionLog.warn("Rate limit exceeded: {}", ex.getMessage());
+            return ServerResponse.status(tooMany.getHttpStatus())
+                    .header(TooManyRequestsException.LIMIT_HEADER, String.valueOf(tooMany.getLimit()))
+                    .header(TooManyRequestsException.REMAINING_HEADER, "0")
+                    .header(TooManyRequestsException.RESET_HEADER, String.valueOf(tooMany.getResetSeconds()))
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .bodyValue(new ErrorResponse(tooMany.getHttpStatus(), ex.getMessage(), path));
+        }
+        if (ex instanceof BusinessException) {
+            HttpStatus status = ((BusinessException) ex).getHttpStatus();
+            businessExceptionLog.warn("Business exception occurred: {}", ex.getMessage());
+            return errorResponse(status, ex.getMessage(), path);
+        }
+        if (ex instanceof BindingResult) { // BindException、WebExchangeBindException
+            return this.validationFailed((BindingResult) ex, path);
+        }
+        if (ex instanceof IllegalArgumentException) {
+            log.warn("Invalid argument provided: {}", ex.getMessage());
+            return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), path);
+        }
+        if (ex instanceof ConstraintViolationException) {
+            String message = GlobalExceptionHandler.formatConstraintViolations((ConstraintViolationException) ex);
+            log.warn("Constraint violation for request parameters: {}", message);
+            return errorResponse(HttpStatus.BAD_REQUEST, message, path);
+        }
+        if (ex instanceof ResponseStatusException) {
+            ResponseStatusException statusException = (ResponseStatusException) ex;
+            log.warn("Request could not be processed: {}", ex.getMessage());
+            return errorResponse(statusException.getStatus(), statusException.getReason(), path);
+        }
+
+        log.error("An unexpected internal server error occurred for URI: {}", path, ex);
+        String message = "An unexpected internal server error occurred. Please contact support.";
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, message, path);
+    }
+
+    private Mono<ServerResponse> validationFailed(BindingResult bindingResult, String path) {
+        String message = GlobalExceptionHandler.formatFieldErrors(bindingResult.getFieldErrors());
+        log.warn("Validation failed for request: {}", message);
+        return errorResponse(HttpStatus.BAD_REQUEST, message, path);
+    }
+
+    private static Mono<ServerResponse> errorResponse(HttpStatus status, String message, String path) {
+        return ServerResponse.status(status).bodyValue(new ErrorResponse(status, message, path));
+    }
+
+}
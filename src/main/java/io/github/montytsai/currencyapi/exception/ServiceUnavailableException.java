@@ -0,0 +1,23 @@
+package io.github.montytsai.currencyapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * 503: 用於表示服務暫時無法處理請求 (如容量已滿) 的例外，客戶端可於稍後重試。
+ */
+@Getter
+public class ServiceUnavailableException extends BusinessException {
+
+    /**
+     * 建議客戶端重試前等待的秒數，對應 HTTP Retry-After 標頭。
+     */
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.github.montytsai.currencyapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * 429: 用於表示客戶端超過請求頻率限制的例外。
+ * <p>
+ * 回應附上 IETF RateLimit 標頭 (draft-ietf-httpapi-ratelimit-headers) 與 Retry-After。
+ */
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    /**
+     * 頻率限制的額度 (可連續送出的請求數)，對應 RateLimit-Limit 標頭。
+     */
+    private final long limit;
+
+    /**
+     * 額度完全恢復前的秒數，對應 RateLimit-Reset 標頭。
+     */
+    private final long resetSeconds;
+
+    /**
+     * 下一個請求可被接受前的秒數，對應 Retry-After 標頭。
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long limit, long resetSeconds, long retryAfterSeconds) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+        this.limit = limit;
+        this.resetSeconds = resetSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,262 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.TimeoutException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 熱路徑的 Micrometer 指標：上游呼叫、幣別目錄查詢、CoinDesk 資料轉換，用來區分延遲來自上游、資料庫或轉換。
+ * <p>
+ * 各端點的整體延遲 (含序列化) 由 Spring Boot 內建的 {@code http.server.requests} 記錄，此處不重複。
+ * 百分位數直方圖不寫死在程式中，而是依 {@code management.metrics.distribution.*} 設定 (以指標名稱前綴比對)。
+ * <p>
+ * Timer / Counter 皆在建構時或第一次使用時建立並快取，記錄時只有兩次 {@link System#nanoTime()} 與一次 record，
+ * 額外成本見 ApiMetricsBenchmark。同步 (servlet 模式) 的耗時同時累加到目前請求的 {@link ServerTiming}。
+ * <p>
+ * 同步的呼叫另外發出 JFR 事件 ({@link UpstreamFetchEvent}、{@link CatalogQueryEvent}、{@link MappingEvent})，
+ * 帶有幣別代碼、資料筆數與回應大小，可用 {@link FlightRecorderEndpoint} 在正式環境錄製。
+ * 沒有錄製進行中時事件未啟用，只多一次 {@code shouldCommit()} 判斷，不計算任何欄位。
+ * JFR 事件 API 需要 JDK 11 (或 8u262) 以上。
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MeterRegistry is a Spring-managed singleton and is intended to be shared.")
+public class ApiMetrics {
+
+    public static final String UPSTREAM_FETCH = "coindesk.upstream.fetch";
+    public static final String CATALOG_QUERY = "currency.catalog.query";
+    public static final String MAPPING = "coindesk.mapping";
+    public static final String UNMAPPED_CURRENCIES = "coindesk.mapping.unmapped.currencies";
+    public static final String STALE_RESPONSES = "coindesk.stale.responses";
+
+    /**
+     * 上游呼叫的結果分類 (outcome 標籤)。
+     */
+    public enum Outcome {
+        SUCCESS, CLIENT_ERROR, SERVER_ERROR, TIMEOUT, CONNECTION_ERROR, UNKNOWN
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Outcome, Timer> upstreamFetchByOutcome = new EnumMap<>(Outcome.class); // 建構後唯讀
+    private final Map<String, Timer> catalogQueryByName = new ConcurrentHashMap<>();
+    private final Timer mapping;
+    private final Counter unmappedCurrencies;
+    private final Counter staleResponses;
+
+    public ApiMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Outcome outcome : Outcome.values()) {
+            upstreamFetchByOutcome.put(outcome, Timer.builder(UPSTREAM_FETCH)
+                    .description("Latency of fetching and decoding the CoinDesk API response")
+                    .tag("outcome", outcome.name())
+                    .register(registry));
+        }
+        this.mapping = Timer.builder(MAPPING)
+                .description("Time to map a CoinDesk response to the transformed response")
+                .register(registry);
+        this.unmappedCurrencies = Counter.builder(UNMAPPED_CURRENCIES)
+                .description("CoinDesk currencies without an entry in the local currency catalog")
+                .register(registry);
+        this.staleResponses = Counter.builder(STALE_RESPONSES)
+                .description("CoinDesk requests answered from the last-known-good snapshot because the upstream was unavailable")
+                .register(registry);
+    }
+
+    /**
+     * 訂閱並等待一次上游呼叫，記錄其耗時；例外依類型歸類為 outcome 後照常拋出。
+     * <p>
+     * JFR 事件開啟時，另以 {@link UpstreamResponseSizeFilter} 計算回應的位元組數。
+     */
+    public <T> T timeUpstreamFetch(Mono<T> fetch) {
+        UpstreamFetchEvent event = new UpstreamFetchEvent();
+        AtomicLong responseBytes = null;
+        Mono<T> subscribed = fetch;
+        if (event.isEnabled()) {
+            responseBytes = new AtomicLong();
+            subscribed = fetch.contextWrite(Context.of(UpstreamResponseSizeFilter.RESPONSE_BYTES, responseBytes));
+        }
+        event.begin();
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNKNOWN;
+        int status = 0;
+        try {
+            T result = subscribed.block();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            if (e instanceof WebClientResponseException) {
+                status = ((WebClientResponseException) e).getRawStatusCode();
+            }
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            upstreamFetchByOutcome.get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.recordUpstream(elapsed, outcome, status);
+            event.end();
+            if (event.shouldCommit()) {
+                event.outcome = outcome.name();
+                event.status = status;
+                event.responseBytes = (responseBytes != null) ? responseBytes.get() : 0;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * 執行並記錄一次幣別目錄 (資料庫) 查詢。
+     *
+     * @param query 查詢名稱 (query 標籤)，須為固定的少量值
+     */
+    public <T> T timeCatalogQuery(String query, Supplier<T> supplier) {
+        return this.timeCatalogQuery(query, null, supplier);
+    }
+
+    /**
+     * 執行並記錄一次幣別目錄 (資料庫) 查詢。
+     *
+     * @param query        查詢名稱 (query 標籤)，須為固定的少量值
+     * @param currencyCode 查詢的幣別代碼，只記錄於 JFR 事件 (不作為指標標籤)；與單一幣別無關時為 null
+     */
+    public <T> T timeCatalogQuery(String query, String currencyCode, Supplier<T> supplier) {
+        CatalogQueryEvent event = new CatalogQueryEvent();
+        event.begin();
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = supplier.get();
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            catalogQueryTimer(query).record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(ServerTiming.Phase.DB, elapsed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = query;
+                event.currencyCode = currencyCode;
+                event.rows = rowsOf(result);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Reactive 版本：從訂閱到完成 (含錯誤與取消) 的時間。
+     */
+    public <T> Flux<T> timeCatalogQuery(String query, Flux<T> flux) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> catalogQueryTimer(query).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Reactive 版本：從訂閱到完成 (含錯誤與取消) 的時間。
+     */
+    public <T> Mono<T> timeCatalogQuery(String query, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> catalogQueryTimer(query).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * 執行並記錄一次 CoinDesk 資料轉換。
+     *
+     * @param currencies 轉換的幣別數，只記錄於 JFR 事件
+     */
+    public <T> T timeMapping(int currencies, Supplier<T> supplier) {
+        MappingEvent event = new MappingEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            mapping.record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(ServerTiming.Phase.MAPPING, elapsed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.currencies = currencies;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * 記錄一個在本地幣別目錄中找不到的 CoinDesk 幣別。
+     */
+    public void incrementUnmappedCurrencies() {
+        unmappedCurrencies.increment();
+    }
+
+    /**
+     * 記錄一次以最後一份有效資料取代上游回應。
+     */
+    public void incrementStaleResponses() {
+        staleResponses.increment();
+    }
+
+    private Timer catalogQueryTimer(String query) {
+        return catalogQueryByName.computeIfAbsent(query, name -> Timer.builder(CATALOG_QUERY)
+                .description("Latency of currency catalog queries against the database")
+                .tag("query", name)
+                .register(registry));
+    }
+
+    /**
+     * @return 查詢結果的資料筆數：集合的大小、Optional 有值時為 1、null 為 0
+     */
+    private static int rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+
+    /**
+     * @return 上游呼叫失敗的分類；也用於判斷失敗是否為暫時性、可重試 (見 UpstreamRetry)
+     */
+    public static Outcome outcomeOf(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) e).getRawStatusCode();
+            return (status >= 500) ? Outcome.SERVER_ERROR : Outcome.CLIENT_ERROR;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof ConnectTimeoutException
+                    || cause instanceof java.util.concurrent.TimeoutException) {
+                return Outcome.TIMEOUT;
+            }
+        }
+        if (e instanceof WebClientRequestException) {
+            return Outcome.CONNECTION_ERROR;
+        }
+        return Outcome.UNKNOWN;
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR 事件：一次幣別目錄 (資料庫) 查詢，由 {@link ApiMetrics#timeCatalogQuery} 發出。
+ */
+@Name(CatalogQueryEvent.NAME)
+@Label("Currency Catalog Query")
+@Category({"Currency API", "Database"})
+@Description("A currency catalog query against the database")
+@StackTrace(false)
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "Event fields are read by the JFR runtime when the event is committed.")
+class CatalogQueryEvent extends jdk.jfr.Event {
+
+    static final String NAME = "io.github.montytsai.currencyapi.CatalogQuery";
+
+    @Label("Query")
+    String query;
+
+    @Label("Currency Code")
+    String currencyCode;
+
+    @Label("Rows")
+    int rows;
+
+}
@@ -0,0 +1,39 @@
+package io.github.montytsai.currencyapi.observability;
+
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 會改變執行期間狀態的 actuator 寫入操作共用的 token 檢查 ({@code observability.flight-recorder.token})。
+ * 未設定 token 時一律拒絕。
+ */
+final class EndpointToken {
+
+    private final byte[] token;
+
+    EndpointToken(String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 以固定時間比較 token，避免由回應時間推測內容。
+     */
+    boolean isAuthorized(String candidate) {
+        return token.length > 0 && candidate != null
+                && MessageDigest.isEqual(token, candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static WebEndpointResponse<Map<String, Object>> error(HttpStatus status, String message) {
+        return new WebEndpointResponse<>(Collections.singletonMap("error", message), status.value());
+    }
+
+    static WebEndpointResponse<Map<String, Object>> forbidden() {
+        return error(HttpStatus.FORBIDDEN, "Missing or invalid token.");
+    }
+
+}
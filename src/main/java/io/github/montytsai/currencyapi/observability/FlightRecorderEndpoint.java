@@ -0,0 +1,84 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 在正式環境的節點上錄製 JFR 的 actuator 端點 ({@code /actuator/flightrecorder})，取代另外掛上外部 profiler。
+ * <ul>
+ * <li>{@code GET}：查詢錄製狀態與上限設定。</li>
+ * <li>{@code POST /start {"token": "...", "duration": "5m"}}：開始錄製 (duration 可省略，不得超過上限)。</li>
+ * <li>{@code POST /stop {"token": "..."}}：停止錄製。</li>
+ * <li>{@code POST /dump {"token": "..."}}：將錄製內容寫入伺服器上的傾印目錄，回傳檔案路徑。</li>
+ * </ul>
+ * 錄製內容包含系統屬性、環境變數與堆疊，因此所有寫入操作都需要 {@code observability.flight-recorder.token}；
+ * 未設定 token 時一律拒絕 (403)。
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecorder")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "FlightRecordings is a Spring-managed singleton and is intended to be shared.")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings recordings;
+    private final EndpointToken token;
+
+    public FlightRecorderEndpoint(FlightRecordings recordings,
+                                  @Value("${observability.flight-recorder.token:}") String token) {
+        this.recordings = recordings;
+        this.token = new EndpointToken(token);
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return recordings.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> control(@Selector String action,
+                                                            @Nullable String token,
+                                                            @Nullable Duration duration) {
+        if (!"start".equals(action) && !"stop".equals(action) && !"dump".equals(action)) {
+            return error(HttpStatus.BAD_REQUEST, "Unknown action. Use start, stop or dump.");
+        }
+        if (!this.token.isAuthorized(token)) {
+            log.warn("Rejected flight recorder {} request: missing or invalid token.", action);
+            return EndpointToken.forbidden();
+        }
+        try {
+            switch (action) {
+                case "start":
+                    return new WebEndpointResponse<>(recordings.start(duration));
+                case "stop":
+                    return new WebEndpointResponse<>(recordings.stop());
+                default:
+                    return new WebEndpointResponse<>(recordings.dump());
+            }
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IOException | ParseException e) {
+            log.error("Flight recorder {} failed.", action, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Flight recorder " + action + " failed: " + e.getMessage());
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(HttpStatus status, String message) {
+        return EndpointToken.error(status, message);
+    }
+
+}
@@ -0,0 +1,158 @@
+package io.github.montytsai.currencyapi.observability;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 管理一個有上限的 JFR 錄製：同一時間最多一個，由 {@link FlightRecorderEndpoint} 開始、停止與傾印。
+ * <p>
+ * 錄製使用 JDK 內建的設定檔 (預設 {@code default}，額外負擔約 1%)，並包含本專案的事件
+ * ({@link UpstreamFetchEvent}、{@link CatalogQueryEvent}、{@link MappingEvent})。
+ * 錄製時間、保留時間與大小都有上限，忘記停止也不會無限佔用磁碟；逾時後自動停止，資料保留到下一次開始錄製。
+ * 傾印檔寫入伺服器上的 {@code observability.flight-recorder.dump-directory}，以 JDK Mission Control 或 {@code jfr print} 分析。
+ */
+@Slf4j
+@Component
+public class FlightRecordings implements DisposableBean {
+
+    static final String RECORDING_NAME = "currency-api";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final String settings;
+    private final Duration maxDuration;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Path dumpDirectory;
+
+    private Recording recording; // guarded by this
+    private Path lastDump;       // guarded by this
+
+    public FlightRecordings(@Value("${observability.flight-recorder.settings:default}") String settings,
+                            @Value("${observability.flight-recorder.max-duration:10m}") Duration maxDuration,
+                            @Value("${observability.flight-recorder.max-age:10m}") Duration maxAge,
+                            @Value("${observability.flight-recorder.max-size:100MB}") DataSize maxSize,
+                            @Value("${observability.flight-recorder.dump-directory:${java.io.tmpdir}}") String dumpDirectory) {
+        this.settings = settings;
+        this.maxDuration = maxDuration;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.dumpDirectory = Paths.get(dumpDirectory);
+    }
+
+    /**
+     * 開始錄製；先前已停止的錄製會被關閉並捨棄。
+     *
+     * @param duration 錄製時間，null 或超過上限時使用 {@code observability.flight-recorder.max-duration}
+     * @throws IllegalStateException 已有錄製進行中
+     */
+    public synchronized Map<String, Object> start(Duration duration) throws IOException, ParseException {
+        if (this.isRecording()) {
+            throw new IllegalStateException("A flight recording is already running.");
+        }
+        this.closeRecording();
+
+        Duration effectiveDuration = (duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(maxDuration) > 0) ? maxDuration : duration;
+        Recording newRecording = new Recording(Configuration.getConfiguration(settings));
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setDuration(effectiveDuration);
+        newRecording.setMaxAge(maxAge);
+        newRecording.setMaxSize(maxSize.toBytes());
+        newRecording.enable(UpstreamFetchEvent.NAME);
+        newRecording.enable(CatalogQueryEvent.NAME);
+        newRecording.enable(MappingEvent.NAME);
+        newRecording.start();
+        recording = newRecording;
+        log.info("Flight recording started (settings '{}', duration {}, max size {}).", settings, effectiveDuration, maxSize);
+        return this.status();
+    }
+
+    /**
+     * 停止錄製；資料保留到下一次開始錄製，仍可傾印。沒有錄製進行中時不做任何事。
+     */
+    public synchronized Map<String, Object> stop() {
+        if (this.isRecording()) {
+            recording.stop();
+            log.info("Flight recording stopped.");
+        }
+        return this.status();
+    }
+
+    /**
+     * 將目前錄製 (進行中或已停止) 的資料寫入傾印目錄。
+     *
+     * @return 傾印檔的路徑與大小
+     * @throws IllegalStateException 沒有可傾印的錄製
+     */
+    public synchronized Map<String, Object> dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("No flight recording to dump.");
+        }
+        Files.createDirectories(dumpDirectory);
+        Path file = dumpDirectory.resolve(RECORDING_NAME + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        lastDump = file;
+        log.info("Flight recording dumped to {}.", file);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.toString());
+        result.put("size", Files.size(file));
+        return result;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", (recording != null) ? recording.getState().name() : "NONE");
+        if (recording != null && recording.getState() != RecordingState.CLOSED) {
+            result.put("settings", settings);
+            result.put("startTime", String.valueOf(recording.getStartTime()));
+            result.put("duration", String.valueOf(recording.getDuration()));
+            result.put("size", recording.getSize());
+        }
+        result.put("maxDuration", maxDuration.toString());
+        result.put("maxAge", maxAge.toString());
+        result.put("maxSize", maxSize.toString());
+        result.put("lastDump", (lastDump != null) ? lastDump.toString() : null);
+        return result;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        this.closeRecording();
+    }
+
+    private boolean isRecording() {
+        return recording != null && (recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED);
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+}
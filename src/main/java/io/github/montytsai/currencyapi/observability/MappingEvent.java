@@ -0,0 +1,26 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR 事件：一次 CoinDesk 資料轉換，由 {@link ApiMetrics#timeMapping} 發出。
+ */
+@Name(MappingEvent.NAME)
+@Label("CoinDesk Mapping")
+@Category({"Currency API", "Mapping"})
+@Description("Mapping a CoinDesk response to the transformed response")
+@StackTrace(false)
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "Event fields are read by the JFR runtime when the event is committed.")
+class MappingEvent extends jdk.jfr.Event {
+
+    static final String NAME = "io.github.montytsai.currencyapi.Mapping";
+
+    @Label("Currencies")
+    int currencies;
+
+}
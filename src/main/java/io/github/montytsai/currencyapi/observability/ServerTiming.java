@@ -0,0 +1,249 @@
+package io.github.montytsai.currencyapi.observability;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 單一請求的各階段耗時、SQL 敘述數與上游呼叫結果，由 {@link ServerTimingFilter} 建立，
+ * 輸出為 {@code Server-Timing} 回應標頭，或在超過門檻時交給 {@link SlowRequestRecorder} 保存。
+ * <p>
+ * 每個階段只有一個累加的奈秒數與次數 (固定大小的陣列)，記錄時不配置物件；
+ * 物件本身以每條執行緒一個的方式重複使用 ({@link #acquire()} / {@link #release(ServerTiming)})，一般請求不需配置新物件。
+ * 目前的請求以 ThreadLocal 綁定，{@link #record} 只多一次 ThreadLocal 查詢。
+ * CoinDesk 端點在專用執行緒池中執行，提交工作時以 {@link #wrap(Runnable)} 將綁定帶到工作執行緒。
+ * <p>
+ * 同一個請求的各階段依序發生 (非同步請求在工作執行緒完成後才 dispatch 回 Servlet 容器)，因此不需額外同步。
+ */
+public final class ServerTiming {
+
+    /**
+     * 請求階段，名稱即 Server-Timing 標頭中的 metric 名稱。
+     */
+    public enum Phase {
+        UPSTREAM("upstream", "CoinDesk API"),
+        DB("db", "Currency catalog query"),
+        MAPPING("mapping", "CoinDesk mapping"),
+        SERIALIZATION("serialization", "Response body");
+
+        private final String metricName;
+        private final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<ServerTiming> RECYCLED = new ThreadLocal<>();
+
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+    private long startNanos;
+    private long totalNanos;
+    private long serializationStartNanos;
+    private int sqlStatements;
+    private ApiMetrics.Outcome upstreamOutcome;
+    private int upstreamStatus;
+    private boolean headerEnabled;
+
+    private ServerTiming() {
+        this.reset();
+    }
+
+    /**
+     * 取得一個開始計時的物件：優先沿用目前執行緒先前釋放的物件。
+     */
+    static ServerTiming acquire() {
+        ServerTiming timing = RECYCLED.get();
+        if (timing == null) {
+            return new ServerTiming();
+        }
+        RECYCLED.set(null);
+        timing.reset();
+        return timing;
+    }
+
+    /**
+     * 請求完成後釋放，供目前執行緒的下一個請求沿用 (每條執行緒最多保留一個)。
+     */
+    static void release(ServerTiming timing) {
+        if (RECYCLED.get() == null) {
+            RECYCLED.set(timing);
+        }
+    }
+
+    /**
+     * @return 目前執行緒綁定的請求，不在請求中 (或 Server-Timing 與慢請求記錄皆關閉) 時為 null
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 將請求綁定到目前執行緒。
+     *
+     * @param timing 要綁定的請求，null 表示解除綁定
+     * @return 原本綁定的請求 (供還原)
+     */
+    static ServerTiming bind(ServerTiming timing) {
+        ServerTiming previous = CURRENT.get();
+        CURRENT.set(timing); // 以 set(null) 解除綁定而不是 remove()，避免每個請求重新建立 ThreadLocalMap 的項目
+        return previous;
+    }
+
+    /**
+     * 累加目前請求某個階段的耗時；目前執行緒沒有綁定請求時不做任何事。
+     */
+    public static void record(Phase phase, long elapsedNanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(phase, elapsedNanos);
+        }
+    }
+
+    /**
+     * 累加上游呼叫的耗時並記錄其結果。
+     *
+     * @param status 上游回應的 HTTP 狀態碼，未取得回應 (連線錯誤、逾時) 或成功時為 0
+     */
+    public static void recordUpstream(long elapsedNanos, ApiMetrics.Outcome outcome, int status) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(Phase.UPSTREAM, elapsedNanos);
+            timing.upstreamOutcome = outcome;
+            timing.upstreamStatus = status;
+        }
+    }
+
+    /**
+     * 目前請求執行了一個 SQL 敘述 (由 {@link SqlStatementCounter} 呼叫)。
+     */
+    public static void countSqlStatement() {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.sqlStatements++;
+        }
+    }
+
+    /**
+     * 讓工作在另一條執行緒中執行時，仍記錄到提交當下的請求 (用於 TaskDecorator)。
+     */
+    public static Runnable wrap(Runnable task) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            ServerTiming previous = bind(timing);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    private void reset() {
+        Arrays.fill(nanos, 0L);
+        Arrays.fill(counts, 0);
+        startNanos = System.nanoTime();
+        totalNanos = 0;
+        serializationStartNanos = 0;
+        sqlStatements = 0;
+        upstreamOutcome = null;
+        upstreamStatus = 0;
+        headerEnabled = false;
+    }
+
+    void add(Phase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    /**
+     * 標記開始寫出回應內容 (由 {@link ServerTimingResponseBodyAdvice} 在訊息轉換器寫出之前呼叫)。
+     */
+    void markSerializationStart() {
+        serializationStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 結束計時：結算序列化階段與整個請求的耗時。
+     *
+     * @return 整個請求的耗時 (奈秒)
+     */
+    long finish() {
+        long now = System.nanoTime();
+        if (serializationStartNanos != 0) {
+            add(Phase.SERIALIZATION, now - serializationStartNanos);
+            serializationStartNanos = 0;
+        }
+        totalNanos = now - startNanos;
+        return totalNanos;
+    }
+
+    /**
+     * 產生標頭值 (須先呼叫 {@link #finish()})：只列出有發生的階段，最後附上整個請求的 total。
+     *
+     * @return Server-Timing 標頭值，例如 {@code upstream;dur=85.120;desc="CoinDesk API", mapping;dur=0.041;desc="CoinDesk mapping", total;dur=86.002}
+     */
+    String headerValue() {
+        StringBuilder header = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            header.append(phase.metricName).append(";dur=").append(millis(nanos[phase.ordinal()]))
+                    .append(";desc=\"").append(phase.description);
+            if (count > 1) {
+                header.append(" x").append(count);
+            }
+            header.append("\", ");
+        }
+        return header.append("total;dur=").append(millis(totalNanos)).toString();
+    }
+
+    boolean isHeaderEnabled() {
+        return headerEnabled;
+    }
+
+    void setHeaderEnabled(boolean headerEnabled) {
+        this.headerEnabled = headerEnabled;
+    }
+
+    long phaseNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    int phaseCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    long totalNanos() {
+        return totalNanos;
+    }
+
+    int sqlStatements() {
+        return sqlStatements;
+    }
+
+    ApiMetrics.Outcome upstreamOutcome() {
+        return upstreamOutcome;
+    }
+
+    int upstreamStatus() {
+        return upstreamStatus;
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+}
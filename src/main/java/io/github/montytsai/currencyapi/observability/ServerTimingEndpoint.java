@@ -0,0 +1,59 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 在執行期間開關 Server-Timing 回應標頭的 actuator 端點 ({@code /actuator/servertiming})。
+ * <ul>
+ * <li>{@code GET}：查詢目前狀態。</li>
+ * <li>{@code POST {"token": "...", "enabled": true}}：開啟或關閉，立即套用到之後的請求。</li>
+ * </ul>
+ * 開啟後每個回應都會帶出各階段的耗時，因此切換與飛行記錄器相同，需要 {@code observability.flight-recorder.token}；
+ * 未設定 token 時一律拒絕 (403)。
+ * 狀態只存在記憶體中，重新啟動後回到 {@code observability.server-timing.enabled} 的設定值。
+ */
+@Slf4j
+@Component
+@Endpoint(id = "servertiming")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "ServerTimingFilter is a Spring-managed singleton and is intended to be shared.")
+public class ServerTimingEndpoint {
+
+    private final ServerTimingFilter filter;
+    private final EndpointToken token;
+
+    public ServerTimingEndpoint(ServerTimingFilter filter,
+                                @Value("${observability.flight-recorder.token:}") String token) {
+        this.filter = filter;
+        this.token = new EndpointToken(token);
+    }
+
+    @ReadOperation
+    public Map<String, Boolean> status() {
+        return Collections.singletonMap("enabled", filter.isEnabled());
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> configure(boolean enabled, @Nullable String token) {
+        if (!this.token.isAuthorized(token)) {
+            log.warn("Rejected Server-Timing toggle: missing or invalid token.");
+            return EndpointToken.forbidden();
+        }
+        filter.setEnabled(enabled);
+        return new WebEndpointResponse<>(Collections.singletonMap("enabled", filter.isEnabled()));
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 為每個請求建立 {@link ServerTiming}，請求完成時：
+ * <ul>
+ * <li>開啟 Server-Timing 時，在回應中加入 {@code Server-Timing} 標頭，拆解上游、資料庫、轉換與序列化各階段的耗時。</li>
+ * <li>耗時超過門檻時，交給 {@link SlowRequestRecorder} 保存。</li>
+ * <li>以 {@link SqlStatementMetrics} 記錄這個請求執行的 SQL 敘述數。</li>
+ * </ul>
+ * Server-Timing 預設關閉，可在執行期間以 actuator 端點切換 ({@link ServerTimingEndpoint})，不需重新部署。
+ * 開啟時回應內容會先寫入記憶體緩衝：標頭必須在內容之前送出，而序列化的耗時要等內容寫完才知道。
+ * 三者皆關閉時只多三次布林判斷。
+ * <p>
+ * CoinDesk 端點為非同步請求：第一次 dispatch 建立的 {@link ServerTiming} 存放在請求屬性中，
+ * 於非同步 dispatch (實際寫出回應) 時取回並結算。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP2", "CT_CONSTRUCTOR_THROW"},
+        justification = "SlowRequestRecorder and SqlStatementMetrics are Spring-managed singletons; a failed ObjectProvider lookup aborts context startup, so a partially constructed filter is never used.")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String TIMING_ATTRIBUTE = ServerTimingFilter.class.getName() + ".TIMING";
+
+    private final SlowRequestRecorder slowRequestRecorder;
+    private final SqlStatementMetrics sqlStatementMetrics;
+    private volatile boolean enabled;
+
+    /**
+     * @param slowRequestRecorder 慢請求記錄器；不存在時 (例如 @WebMvcTest 切片測試) 不記錄慢請求
+     * @param sqlStatementMetrics SQL 敘述數指標；不存在時不記錄
+     */
+    public ServerTimingFilter(@Value("${observability.server-timing.enabled:false}") boolean enabled,
+                              ObjectProvider<SlowRequestRecorder> slowRequestRecorder,
+                              ObjectProvider<SqlStatementMetrics> sqlStatementMetrics) {
+        this.enabled = enabled;
+        this.slowRequestRecorder = slowRequestRecorder.getIfAvailable(SlowRequestRecorder::disabled);
+        this.sqlStatementMetrics = sqlStatementMetrics.getIfAvailable(SqlStatementMetrics::disabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        log.info("Server-Timing response header {}.", enabled ? "enabled" : "disabled");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        ServerTiming timing = (ServerTiming) request.getAttribute(TIMING_ATTRIBUTE);
+        if (timing == null) {
+            if ((!enabled && !slowRequestRecorder.isEnabled() && !sqlStatementMetrics.isEnabled()) || isAsyncDispatch(request)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            timing = ServerTiming.acquire();
+            timing.setHeaderEnabled(enabled);
+            request.setAttribute(TIMING_ATTRIBUTE, timing);
+        }
+
+        HttpServletResponse responseToUse = response;
+        ContentCachingResponseWrapper wrapper = null;
+        if (timing.isHeaderEnabled()) {
+            wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (wrapper == null) {
+                wrapper = new ContentCachingResponseWrapper(response);
+            }
+            responseToUse = wrapper;
+        }
+
+        ServerTiming previous = ServerTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            ServerTiming.bind(previous);
+            if (!isAsyncStarted(request)) {
+                this.complete(request, response, timing, wrapper);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response,
+                          ServerTiming timing, ContentCachingResponseWrapper wrapper) throws IOException {
+        request.removeAttribute(TIMING_ATTRIBUTE);
+        long durationNanos = timing.finish();
+        if (wrapper != null) {
+            wrapper.setHeader(HEADER, timing.headerValue());
+            wrapper.copyBodyToResponse();
+        }
+        if (slowRequestRecorder.isSlow(durationNanos)) {
+            slowRequestRecorder.record(new SlowRequest(endpoint(request), pathVariables(request), response.getStatus(), timing));
+        }
+        sqlStatementMetrics.record(request.getMethod(), pattern(request), timing.sqlStatements());
+        ServerTiming.release(timing);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        String pattern = pattern(request);
+        return request.getMethod() + " " + ((pattern != null) ? pattern : request.getRequestURI());
+    }
+
+    private static String pattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return (pattern != null) ? pattern.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> pathVariables(HttpServletRequest request) {
+        return (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.montytsai.currencyapi.observability;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link SlowRequestRecorder} 保存的一筆慢請求 (不可變，以 JSON 輸出於 /actuator/slowrequests)。
+ */
+@Getter
+public class SlowRequest {
+
+    /**
+     * 完成時間 (ISO-8601)。
+     */
+    private final String timestamp;
+
+    /**
+     * HTTP 方法與對應的路由樣式，例如 {@code GET /currencies/{code}}；找不到路由時為實際路徑。
+     */
+    private final String endpoint;
+
+    /**
+     * 路徑變數，例如 {@code {"code": "USD"}}。
+     */
+    private final Map<String, String> pathVariables;
+
+    private final int status;
+
+    private final String durationMs;
+
+    /**
+     * 各階段耗時 (毫秒)，只列出有發生的階段。
+     */
+    private final Map<String, String> phasesMs;
+
+    private final int sqlStatements;
+
+    /**
+     * 上游呼叫結果，例如 {@code SUCCESS}、{@code SERVER_ERROR 503}；沒有呼叫上游時為 null。
+     */
+    private final String upstream;
+
+    /**
+     * 整個請求的耗時 (奈秒)，用於排序，不輸出。
+     */
+    @Getter(AccessLevel.NONE)
+    private final long durationNanos;
+
+    SlowRequest(String endpoint, Map<String, String> pathVariables, int status, ServerTiming timing) {
+        this.timestamp = Instant.now().toString();
+        this.endpoint = endpoint;
+        Map<String, String> variables = new LinkedHashMap<>();
+        if (pathVariables != null) {
+            variables.putAll(pathVariables);
+        }
+        this.pathVariables = Collections.unmodifiableMap(variables);
+        this.status = status;
+        this.durationNanos = timing.totalNanos();
+        this.durationMs = ServerTiming.millis(durationNanos);
+
+        Map<String, String> phases = new LinkedHashMap<>();
+        for (ServerTiming.Phase phase : ServerTiming.Phase.values()) {
+            if (timing.phaseCount(phase) > 0) {
+                phases.put(phase.metricName(), ServerTiming.millis(timing.phaseNanos(phase)));
+            }
+        }
+        this.phasesMs = Collections.unmodifiableMap(phases);
+        this.sqlStatements = timing.sqlStatements();
+
+        ApiMetrics.Outcome outcome = timing.upstreamOutcome();
+        if (outcome == null) {
+            this.upstream = null;
+        } else {
+            this.upstream = (timing.upstreamStatus() == 0) ? outcome.name() : outcome.name() + " " + timing.upstreamStatus();
+        }
+    }
+
+    long durationNanos() {
+        return durationNanos;
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 查詢慢請求飛行記錄器的 actuator 端點 ({@code /actuator/slowrequests})。
+ * <ul>
+ * <li>{@code GET}：門檻、累計筆數、最慢 N 筆 (由慢到快) 與最近 N 筆 (由新到舊)。</li>
+ * <li>{@code DELETE ?token=...}：清除目前的記錄，例如在調整完設定後重新觀察。</li>
+ * </ul>
+ * 清除會抹掉排查中的證據，因此與飛行記錄器相同，需要 {@code observability.flight-recorder.token}；
+ * 未設定 token 時一律拒絕 (403)。
+ */
+@Slf4j
+@Component
+@Endpoint(id = "slowrequests")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "SlowRequestRecorder is a Spring-managed singleton and is intended to be shared.")
+public class SlowRequestEndpoint {
+
+    private final SlowRequestRecorder recorder;
+    private final EndpointToken token;
+
+    public SlowRequestEndpoint(SlowRequestRecorder recorder,
+                               @Value("${observability.flight-recorder.token:}") String token) {
+        this.recorder = recorder;
+        this.token = new EndpointToken(token);
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowRequests() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", recorder.isEnabled());
+        result.put("threshold", recorder.getThreshold().toString());
+        result.put("recorded", recorder.getRecordedCount());
+        result.put("slowest", recorder.slowest());
+        result.put("recent", recorder.recent());
+        return result;
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> clear(@Nullable String token) {
+        if (!this.token.isAuthorized(token)) {
+            log.warn("Rejected slow request clear: missing or invalid token.");
+            return EndpointToken.forbidden();
+        }
+        recorder.clear();
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+}
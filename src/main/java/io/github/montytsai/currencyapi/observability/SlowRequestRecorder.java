@@ -0,0 +1,146 @@
+package io.github.montytsai.currencyapi.observability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢請求的飛行記錄器：以固定大小、無鎖的陣列保存最近 N 筆與最慢 N 筆超過門檻的請求。
+ * <p>
+ * 取代在正式環境開啟 show-sql 與 BasicBinder TRACE 排查延遲的做法：每筆記錄已包含端點、路徑變數、
+ * 各階段耗時 (見 {@link ServerTiming})、SQL 敘述數與上游呼叫結果。
+ * <p>
+ * 呼叫端先以 {@link #isSlow(long)} 判斷 (只比較一個 long)，未超過門檻的請求不建立任何物件；
+ * 超過門檻時才建立 {@link SlowRequest} 並以 CAS 放入陣列。
+ * <ul>
+ * <li>最近 N 筆：環狀緩衝區，以遞增序號決定位置，覆寫最舊的一筆。</li>
+ * <li>最慢 N 筆：找出目前最快的一筆，若新記錄較慢則以 CAS 取代；CAS 失敗代表同時有其他寫入，重新比較。</li>
+ * </ul>
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowRequest> recent;
+    private final AtomicReferenceArray<SlowRequest> slowest;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowRequestRecorder(@Value("${observability.slow-requests.enabled:true}") boolean enabled,
+                               @Value("${observability.slow-requests.threshold:500ms}") Duration threshold,
+                               @Value("${observability.slow-requests.capacity:50}") int capacity) {
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.recent = new AtomicReferenceArray<>(capacity);
+        this.slowest = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return 不記錄任何請求的記錄器
+     */
+    static SlowRequestRecorder disabled() {
+        return new SlowRequestRecorder(false, Duration.ZERO, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * @return 是否應記錄這個請求 (耗時達到門檻)
+     */
+    public boolean isSlow(long durationNanos) {
+        return enabled && durationNanos >= thresholdNanos;
+    }
+
+    public void record(SlowRequest request) {
+        int index = (int) (sequence.getAndIncrement() % recent.length());
+        recent.set(index, request);
+        this.offerSlowest(request);
+    }
+
+    /**
+     * @return 記錄過的慢請求總數 (含已被覆寫的)
+     */
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+
+    /**
+     * @return 最近的慢請求，由新到舊
+     */
+    public List<SlowRequest> recent() {
+        long end = sequence.get();
+        int length = recent.length();
+        List<SlowRequest> result = new ArrayList<>(length);
+        for (long i = end - 1; i >= 0 && i >= end - length; i--) {
+            SlowRequest request = recent.get((int) (i % length));
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 最慢的請求，由慢到快
+     */
+    public List<SlowRequest> slowest() {
+        List<SlowRequest> result = new ArrayList<>(slowest.length());
+        for (int i = 0; i < slowest.length(); i++) {
+            SlowRequest request = slowest.get(i);
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        result.sort(Comparator.comparingLong(SlowRequest::durationNanos).reversed());
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < recent.length(); i++) {
+            recent.set(i, null);
+            slowest.set(i, null);
+        }
+    }
+
+    private void offerSlowest(SlowRequest request) {
+        while (true) {
+            int fastestIndex = -1;
+            SlowRequest fastest = null;
+            for (int i = 0; i < slowest.length(); i++) {
+                SlowRequest current = slowest.get(i);
+                if (current == null) {
+                    if (slowest.compareAndSet(i, null, request)) {
+                        return;
+                    }
+                    current = slowest.get(i);
+                    if (current == null) {
+                        continue;
+                    }
+                }
+                if (fastest == null || current.durationNanos() < fastest.durationNanos()) {
+                    fastest = current;
+                    fastestIndex = i;
+                }
+            }
+            if (fastest == null || request.durationNanos() <= fastest.durationNanos()) {
+                return;
+            }
+            if (slowest.compareAndSet(fastestIndex, fastest, request)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.montytsai.currencyapi.observability;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 計算每個請求執行的 SQL 敘述數 (記錄於 {@link ServerTiming})。
+ * <p>
+ * 以 Hibernate 的 {@link StatementInspector} 在每個敘述準備執行前計數，SQL 字串原樣回傳；
+ * 不需開啟 show-sql 或 SQL 日誌即可在慢請求記錄中看到 N+1 等問題。
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    @Override
+    public String inspect(String sql) {
+        ServerTiming.countSqlStatement();
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各端點每個請求執行的 SQL 敘述數 ({@code http.server.sql.statements}，標籤 method / uri)。
+ * <p>
+ * 數值來自 {@link SqlStatementCounter} 累加到 {@link ServerTiming} 的計數，由 {@link ServerTimingFilter} 在請求完成時記錄，
+ * 可用來觀察某個端點的查詢數是否隨版本或資料量增加 (例如 N+1)。
+ * uri 標籤沿用 {@code http.server.requests} 的路徑樣式 (例如 {@code /currencies/{code}})，沒有對應的路徑樣式時為 UNKNOWN，
+ * 避免以實際路徑作為標籤而讓時間序列無限增長。
+ * <p>
+ * 僅涵蓋 servlet 模式 (JPA / Hibernate)；reactive 模式的 R2DBC 不經過 Hibernate。
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MeterRegistry is a Spring-managed singleton and is intended to be shared.")
+public class SqlStatementMetrics {
+
+    public static final String SQL_STATEMENTS = "http.server.sql.statements";
+
+    static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final boolean enabled;
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public SqlStatementMetrics(@Value("${observability.sql-statements.enabled:true}") boolean enabled,
+                               MeterRegistry registry) {
+        this.enabled = enabled;
+        this.registry = registry;
+    }
+
+    /**
+     * @return 不記錄任何請求的實例
+     */
+    static SqlStatementMetrics disabled() {
+        return new SqlStatementMetrics(false, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param uri 路徑樣式，null 表示沒有對應的路徑樣式
+     */
+    void record(String method, String uri, int statements) {
+        if (!enabled) {
+            return;
+        }
+        String uriTag = (uri != null) ? uri : UNKNOWN_URI;
+        summaries.computeIfAbsent(method + ' ' + uriTag, key -> DistributionSummary.builder(SQL_STATEMENTS)
+                        .description("SQL statements executed per HTTP request")
+                        .baseUnit("statements")
+                        .tag("method", method)
+                        .tag("uri", uriTag)
+                        .register(registry))
+                .record(statements);
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.github.montytsai.currencyapi.observability;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 應用程式就緒時記錄啟動耗時；以 {@code -Dstartup.recording=true} 啟動時另列出最耗時的啟動步驟。
+ * <p>
+ * 步驟來自 Spring 的 {@link ApplicationStartup} (Bean 建立、設定類別處理、context refresh 等)，
+ * 耗時包含其中巢狀的步驟，例如建立 EntityManagerFactory 的步驟包含其依賴的 DataSource。
+ * 完整的時間軸可由 {@code GET /actuator/startup} 取得。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final int top;
+
+    public StartupTimingReport(@Value("${startup.report.top:10}") int top) {
+        this.top = top;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Application ready in {} ms.", (event.getTimeTaken() != null) ? event.getTimeTaken().toMillis() : -1);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup) || top <= 0) {
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> slowest = ((BufferingApplicationStartup) startup).getBufferedTimeline().getEvents()
+                .stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+        log.info("Slowest startup steps:{}", slowest.stream()
+                .map(StartupTimingReport::describe)
+                .collect(Collectors.joining("")));
+    }
+
+    private static String describe(StartupTimeline.TimelineEvent event) {
+        StringBuilder line = new StringBuilder(System.lineSeparator())
+                .append(String.format("%8d ms  ", event.getDuration().toMillis()))
+                .append(event.getStartupStep().getName());
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            line.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+        }
+        return line.toString();
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.github.montytsai.currencyapi.observability;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR 事件：一次 CoinDesk 上游呼叫 (含回應解碼)，由 {@link ApiMetrics#timeUpstreamFetch} 發出。
+ */
+@Name(UpstreamFetchEvent.NAME)
+@Label("CoinDesk Upstream Fetch")
+@Category({"Currency API", "Upstream"})
+@Description("Fetching and decoding the CoinDesk API response")
+@StackTrace(false)
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "Event fields are read by the JFR runtime when the event is committed.")
+class UpstreamFetchEvent extends jdk.jfr.Event {
+
+    static final String NAME = "io.github.montytsai.currencyapi.UpstreamFetch";
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("HTTP Status")
+    @Description("Response status of a failed call, 0 when the call succeeded or no response was received")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+}
@@ -0,0 +1,35 @@
+package io.github.montytsai.currencyapi.observability;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 計算上游回應內容的實際位元組數 (不依賴 Content-Length，chunked 回應也適用)。
+ * <p>
+ * 只在訂閱端的 Reactor Context 帶有 {@link #RESPONSE_BYTES} 計數器時計算，
+ * 由 {@link ApiMetrics#timeUpstreamFetch} 在 JFR 事件開啟時放入；其餘情況原樣回傳回應。
+ */
+public class UpstreamResponseSizeFilter implements ExchangeFilterFunction {
+
+    static final String RESPONSE_BYTES = UpstreamResponseSizeFilter.class.getName() + ".RESPONSE_BYTES";
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            AtomicLong responseBytes = context.getOrDefault(RESPONSE_BYTES, null);
+            if (responseBytes == null) {
+                return next.exchange(request);
+            }
+            return next.exchange(request).map(response -> response.mutate()
+                    .body(body -> body.doOnNext(buffer -> responseBytes.addAndGet(buffer.readableByteCount())))
+                    .build());
+        });
+    }
+
+}
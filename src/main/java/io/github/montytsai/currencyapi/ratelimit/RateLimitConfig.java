@@ -0,0 +1,75 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 每個客戶端 (API key 或 IP) 的請求頻率限制，針對少數客戶端即可佔去大部分負載的路由
+ * (預設 {@code /coindesk/transformed} 與 {@code /currencies/search})。
+ * <p>
+ * 路由與額度在 {@code rate-limit.routes} 中逐一設定，bucket 存放在固定容量的 {@link TokenBucketTable}
+ * ({@code rate-limit.max-clients})，記憶體不隨客戶端數量成長。
+ * 在併發限制 (ConcurrencyLimitConfig) 之前檢查，被拒絕的請求不佔用併發名額。
+ * <p>
+ * 僅涵蓋 servlet 模式；reactive 模式不經過 Spring MVC 的 HandlerInterceptor。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(
+            Environment environment,
+            @Value("${rate-limit.max-clients:65536}") int maxClients,
+            @Value("${rate-limit.client-key-header:}") String clientKeyHeader,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        List<RateLimitRoute> routes = Binder.get(environment)
+                .bind("rate-limit.routes", Bindable.listOf(RateLimitRoute.class))
+                .orElse(Collections.emptyList());
+        TokenBucketTable buckets = new TokenBucketTable(maxClients);
+        log.info("Rate limiting {} route(s) for up to {} clients.", routes.size(), buckets.capacity());
+        return new RateLimitInterceptor(buckets, routes, clientKeyHeader, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+
+    /**
+     * 就緒後才開始限制：ReadinessWarmUp 在就緒前由本機送出大量請求。
+     */
+    @Bean
+    public ApplicationListener<AvailabilityChangeEvent<ReadinessState>> rateLimitReadinessListener(
+            RateLimitInterceptor rateLimitInterceptor) {
+        return event -> rateLimitInterceptor.setEnforcing(event.getState() == ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+}
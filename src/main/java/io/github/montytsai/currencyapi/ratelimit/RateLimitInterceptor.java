@@ -0,0 +1,130 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import io.github.montytsai.currencyapi.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依路由與客戶端 (來源 IP；設定 client-key-header 時改用該標頭，沒有時仍為來源 IP) 限制請求頻率。
+ * 標頭由客戶端自行填寫，只在前端閘道已驗證時才設定，否則換 key 即可繞過限制。
+ * <p>
+ * 接受的請求在回應中加上 {@code RateLimit-Limit} / {@code RateLimit-Remaining} / {@code RateLimit-Reset}；
+ * 超過時拋出 {@link TooManyRequestsException}，由 GlobalExceptionHandler 回應 429 與相同的標頭及 Retry-After。
+ * <p>
+ * 非同步請求 (CoinDesk 端點) 的非同步 dispatch 不再計算一次。
+ * 就緒 (readiness) 之前不限制，讓 ReadinessWarmUp 等本機預熱請求不受影響。
+ */
+final class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String REJECTED = "http.server.rate-limit.rejected";
+
+    private final TokenBucketTable buckets;
+    private final Map<String, CompiledRoute> routes = new HashMap<>(); // 建構後唯讀
+    private final String clientKeyHeader;
+    private volatile boolean enforcing;
+
+    /**
+     * @param clientKeyHeader 識別客戶端的標頭名稱；空白時一律以來源 IP 識別
+     * @param registry        指標登錄；null 時不記錄指標
+     */
+    RateLimitInterceptor(TokenBucketTable buckets, List<RateLimitRoute> routes, String clientKeyHeader,
+                         MeterRegistry registry) {
+        this.buckets = buckets;
+        this.clientKeyHeader = StringUtils.hasText(clientKeyHeader) ? clientKeyHeader : null;
+        for (RateLimitRoute route : routes) {
+            if (route.getPermitsPerSecond() <= 0 || route.getBurst() < 1) {
+                throw new IllegalArgumentException("Rate limit for " + route.getPattern()
+                        + " needs permits-per-second > 0 and burst >= 1.");
+            }
+            Counter rejected = (registry == null) ? null : Counter.builder(REJECTED)
+                    .description("Requests rejected because the client exceeded the route's rate limit")
+                    .tag("uri", route.getPattern())
+                    .register(registry);
+            this.routes.put(route.getPattern(), new CompiledRoute(this.routes.size(), route, rejected));
+        }
+    }
+
+    void setEnforcing(boolean enforcing) {
+        this.enforcing = enforcing;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enforcing || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        CompiledRoute route = (pattern != null) ? routes.get(pattern.toString()) : null;
+        if (route == null) {
+            return true;
+        }
+
+        long result = buckets.tryAcquire(TokenBucketTable.fingerprint(this.clientKey(request), route.index),
+                route.intervalNanos, route.burst);
+        if (result < 0) {
+            if (route.rejected != null) {
+                route.rejected.increment();
+            }
+            long resetNanos = -result + route.intervalNanos * (route.burst - 1);
+            throw new TooManyRequestsException(route.rejectionMessage, route.burst, seconds(resetNanos), seconds(-result));
+        }
+        long remaining = (route.intervalNanos * route.burst - result) / route.intervalNanos;
+        response.setHeader(TooManyRequestsException.LIMIT_HEADER, route.burstHeader);
+        response.setHeader(TooManyRequestsException.REMAINING_HEADER, Long.toString(remaining));
+        response.setHeader(TooManyRequestsException.RESET_HEADER, Long.toString(seconds(result)));
+        return true;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (clientKeyHeader != null) {
+            String key = request.getHeader(clientKeyHeader);
+            if (StringUtils.hasText(key)) {
+                return key;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * @return 無條件進位的秒數 (至少 1)
+     */
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static final class CompiledRoute {
+
+        final int index;
+        final long intervalNanos;
+        final int burst;
+        final String burstHeader;
+        final String rejectionMessage;
+        final Counter rejected;
+
+        CompiledRoute(int index, RateLimitRoute route, Counter rejected) {
+            this.index = index;
+            this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / route.getPermitsPerSecond()));
+            this.burst = route.getBurst();
+            this.burstHeader = Integer.toString(burst);
+            this.rejectionMessage = String.format(Locale.ROOT,
+                    "Rate limit exceeded for %s (%s requests per second, burst %d). Please retry later.",
+                    route.getPattern(), BigDecimal.valueOf(route.getPermitsPerSecond()).stripTrailingZeros().toPlainString(), burst);
+            this.rejected = rejected;
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 單一路由的頻率限制設定 ({@code rate-limit.routes[*]})。
+ */
+@Getter
+@Setter
+public class RateLimitRoute {
+
+    /**
+     * 路徑樣式，與 Controller 宣告的樣式相同 (不含 context-path)，例如 {@code /currencies/{code}}。
+     */
+    private String pattern;
+
+    /**
+     * 每個客戶端每秒補充的請求數。
+     */
+    private double permitsPerSecond;
+
+    /**
+     * 每個客戶端可連續送出的請求數 (bucket 容量)。
+     */
+    private int burst;
+
+}
@@ -0,0 +1,129 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定容量、無鎖的 token bucket 表，以客戶端 (與路由) 的 64 位元指紋為 key。
+ * <p>
+ * 每個 bucket 以 GCRA (Generic Cell Rate Algorithm) 表示：只保存一個「理論到達時間」(TAT)，
+ * 與 token bucket 等價 (額度 burst、每 interval 補充一個 token)，但狀態只有一個 long，可以單次 CAS 更新：
+ * <pre>
+ *   newTat = max(tat, now) + interval
+ *   newTat − now ≤ interval × burst 時接受並寫回 newTat，否則拒絕 (狀態不變)
+ * </pre>
+ * 儲存結構為組關聯 (set-associative) 的陣列：指紋決定所屬的組 (stripe)，每組 {@value #WAYS} 個槽，
+ * 指紋與 TAT 相鄰存放 (同一組共 2 條 cache line)，不同客戶端多半落在不同的組，多核心下互不競爭。
+ * <ul>
+ * <li>記憶體固定：容量在建構時決定 (每個客戶端 16 bytes)，不隨客戶端數量成長。</li>
+ * <li>閒置淘汰：新客戶端所在的組已滿時，取代 TAT 最早 (最久沒有請求、額度最滿) 的槽；
+ * TAT 已經過去的客戶端額度本來就是滿的，被淘汰後重新建立不影響限制結果。</li>
+ * <li>同一組同時淘汰與更新時，可能有一次請求計入另一個客戶端的額度；以此換取完全不阻塞。</li>
+ * </ul>
+ */
+final class TokenBucketTable {
+
+    static final int WAYS = 8;
+
+    private static final long EMPTY = 0L;
+
+    private final AtomicLongArray slots; // [指紋, TAT] × 槽數
+    private final int setMask;
+    private final long origin = System.nanoTime();
+
+    /**
+     * @param maxClients 可同時追蹤的客戶端數上限，向上取整為 2 的次方 (至少一組)
+     */
+    TokenBucketTable(int maxClients) {
+        if (maxClients < 1 || maxClients > (1 << 26)) {
+            throw new IllegalArgumentException("max-clients must be between 1 and " + (1 << 26) + " but got " + maxClients);
+        }
+        int sets = Integer.highestOneBit(((maxClients + WAYS - 1) / WAYS) * 2 - 1);
+        this.slots = new AtomicLongArray(sets * WAYS * 2);
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * @return 可同時追蹤的客戶端數
+     */
+    int capacity() {
+        return slots.length() / 2;
+    }
+
+    /**
+     * 嘗試取得一個 token。
+     *
+     * @param fingerprint    客戶端指紋 (見 {@link #fingerprint})
+     * @param intervalNanos  補充一個 token 的間隔
+     * @param burst          額度 (可連續取得的 token 數)
+     * @return 大於 0：已接受，值為額度完全恢復前的奈秒數；小於 0：已拒絕，絕對值為下一個 token 可取得前的奈秒數
+     */
+    long tryAcquire(long fingerprint, long intervalNanos, int burst) {
+        long tolerance = intervalNanos * burst;
+        int base = (int) (fingerprint & setMask) * WAYS * 2;
+        int tatIndex = this.find(base, fingerprint);
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long tat = slots.get(tatIndex);
+            long newTat = Math.max(tat, now) + intervalNanos;
+            long debt = newTat - now;
+            if (debt > tolerance) {
+                return -(debt - tolerance);
+            }
+            if (slots.compareAndSet(tatIndex, tat, newTat)) {
+                return debt;
+            }
+        }
+    }
+
+    /**
+     * @return 指紋所在槽的 TAT 索引；不存在時佔用空槽或淘汰最閒置的槽
+     */
+    private int find(int base, long fingerprint) {
+        int victim = base;
+        long victimTat = Long.MAX_VALUE;
+        for (int i = base; i < base + WAYS * 2; i += 2) {
+            long key = slots.get(i);
+            if (key == fingerprint) {
+                return i + 1;
+            }
+            long tat = (key == EMPTY) ? Long.MIN_VALUE : slots.get(i + 1);
+            if (tat < victimTat) {
+                victim = i;
+                victimTat = tat;
+            }
+        }
+        long victimKey = slots.get(victim);
+        if (slots.compareAndSet(victim, victimKey, fingerprint)) {
+            slots.set(victim + 1, 0L); // 新客戶端：TAT 為起點，額度全滿
+        }
+        // 佔用失敗表示另一個執行緒剛取代了同一個槽，仍使用該槽 (可能與另一個客戶端共用一次額度)
+        return victim + 1;
+    }
+
+    /**
+     * 字串的 64 位元指紋 (FNV-1a 再以 MurmurHash3 的 fmix64 打散)，不配置物件。
+     *
+     * @param salt 區分同一客戶端在不同路由的 bucket
+     * @return 非 0 的指紋
+     */
+    static long fingerprint(CharSequence key, long salt) {
+        long hash = 0xcbf29ce484222325L ^ (salt * 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = mix(hash);
+        return (hash == EMPTY) ? 1L : hash;
+    }
+
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -1,6 +1,10 @@
--- 插入初始幣別測試資料
-INSERT INTO CURRENCY (code, display_name, symbol, is_active, created_at, updated_at) VALUES
-('USD', '美金', '$', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('GBP', '英鎊', '£', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('EUR', '歐元', '€', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('CAD', '加幣', 'C$', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
\ No newline at end of file
+-- 插入初始幣別測試資料；只補上不存在的幣別，不覆寫已異動 (或已停用) 的資料
+MERGE INTO CURRENCY target
+USING (VALUES
+    ('USD', '美金', '$', TRUE),
+    ('GBP', '英鎊', '£', TRUE),
+    ('EUR', '歐元', '€', TRUE),
+    ('CAD', '加幣', 'C$', FALSE)
+) AS initial (code, display_name, symbol, is_active) ON target.code = initial.code
+WHEN NOT MATCHED THEN INSERT (code, display_name, symbol, is_active, created_at, updated_at)
+    VALUES (initial.code, initial.display_name, initial.symbol, initial.is_active, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
@@ -1,10 +1,43 @@
-DROP TABLE IF EXISTS CURRENCY;
-
-CREATE TABLE CURRENCY (
+-- 每個節點啟動時都會執行 (spring.sql.init.mode: always)，多個節點共用同一個資料庫，因此只建立不存在的表格、不刪除既有資料
+CREATE TABLE IF NOT EXISTS CURRENCY (
     code VARCHAR(10) PRIMARY KEY,
     display_name VARCHAR(50) NOT NULL,
     symbol VARCHAR(10),
     is_active BOOLEAN NOT NULL DEFAULT TRUE,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL
-);
\ No newline at end of file
+);
+
+-- 幣別目錄的異動紀錄，由 CurrencyAuditLog 於交易提交後非同步批次寫入；重新啟動時保留既有的紀錄
+CREATE TABLE IF NOT EXISTS CURRENCY_AUDIT (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    occurred_at TIMESTAMP NOT NULL,
+    remote_address VARCHAR(100) NOT NULL,  -- 來源 IP (伺服器取得)；啟動、排程等非請求的異動為 'system'
+    claimed_actor VARCHAR(100),            -- 操作者標頭 (X-Actor) 的值，由客戶端自行填寫、未經驗證；沒有標頭時為 NULL
+    action VARCHAR(20) NOT NULL,
+    currency_code VARCHAR(10) NOT NULL,
+    before_value VARCHAR(255),  -- 異動前的欄位 (JSON)，新建立的幣別為 NULL
+    after_value VARCHAR(255)    -- 異動後的欄位 (JSON)
+);
+
+-- 帶有 Idempotency-Key 的請求結果，重新啟動後相同 key 的請求仍直接回傳保存的回應 (見 IdempotentRequests)；
+-- 重新啟動時保留，已到期的資料由啟動時的載入刪除
+CREATE TABLE IF NOT EXISTS IDEMPOTENCY_KEY (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,  -- 端點與請求內容的 SHA-256，相同 key 用於不同請求時拒絕
+    status INT NOT NULL,
+    response_body VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- 幣別目錄的版本號 (單列)，每次異動在同一個交易中加 1；各節點定期讀取，版本不同時重新載入記憶體中的目錄 (見 CatalogVersion)
+CREATE TABLE IF NOT EXISTS CURRENCY_CATALOG_VERSION (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+-- 只在版本列不存在時建立，後啟動的節點不會把版本號歸零
+MERGE INTO CURRENCY_CATALOG_VERSION target
+USING (VALUES (1, 0)) AS initial (id, version) ON target.id = initial.id
+WHEN NOT MATCHED THEN INSERT (id, version) VALUES (initial.id, initial.version);
@@ -0,0 +1,98 @@
+package io.github.montytsai.currencyapi.coindesk.controller;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 驗證 CoinDesk Bulkhead 的隔離效果：上游變慢時，CoinDesk 請求不會佔用 Tomcat 的 worker 執行緒，
+ * 因此 /currencies 的延遲不受影響。
+ * <p>
+ * Tomcat 只保留 4 條 worker 執行緒，並同時送出 8 個會卡住 1.5 秒的 CoinDesk 請求；
+ * 若 CoinDesk 端點仍為同步處理，CRUD 請求必須等待上游回應才能被處理。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=4",
+        "coin-desk.executor.core-size=4",
+        "coin-desk.executor.max-size=4",
+        "coin-desk.executor.queue-capacity=4"
+})
+@ActiveProfiles("test")
+class CoinDeskBulkheadIntegrationTest {
+
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(1500);
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer().withLatency(UPSTREAM_LATENCY);
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    @DisplayName("上游變慢時，CRUD API 延遲應維持平穩，超出容量的 CoinDesk 請求應快速回應 503")
+    void slowUpstream_shouldNotStarveCrudApi() {
+        WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+
+        // 1. 送出 10 個 CoinDesk 請求：4 個執行中 + 4 個排隊，其餘 2 個應被拒絕。
+        Mono<List<HttpStatus>> coinDeskStatuses = Flux.range(0, 10)
+                .flatMap(i -> client.get().uri("/coindesk/transformed")
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())))
+                .collectList()
+                .cache();
+        coinDeskStatuses.subscribe();
+        sleep(300); // 等待 CoinDesk 請求都已送達伺服器
+
+        // 2. 此時 CRUD 請求應能立即被處理。
+        long start = System.nanoTime();
+        HttpStatus crudStatus = client.get().uri("/currencies")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .block(Duration.ofSeconds(5));
+        long crudMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(HttpStatus.OK, crudStatus);
+        assertTrue(crudMillis < UPSTREAM_LATENCY.toMillis() / 2,
+                "CRUD request took " + crudMillis + " ms while the upstream was slow");
+
+        // 3. CoinDesk 請求：超出容量的部分應回應 503，其餘在上游回應後成功。
+        List<HttpStatus> statuses = coinDeskStatuses.block(Duration.ofSeconds(10));
+        assertEquals(8, statuses.stream().filter(HttpStatus.OK::equals).count());
+        assertEquals(2, statuses.stream().filter(HttpStatus.SERVICE_UNAVAILABLE::equals).count());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package io.github.montytsai.currencyapi.coindesk.controller;
 
 import io.github.montytsai.currencyapi.coindesk.service.CoinDeskService;
 import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
+import io.github.montytsai.currencyapi.config.CoinDeskExecutorConfig;
 import io.github.montytsai.currencyapi.exception.GlobalExceptionHandler;
 
 import org.junit.jupiter.api.DisplayName;
@@ -10,14 +11,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -32,9 +43,17 @@ import static org.hamcrest.Matchers.notNullValue;
  * @Import(GlobalExceptionHandler.class) - 作用：在測試環境中明確地匯入我們自訂的全域例外處理器。
  * 這樣，當 Controller 或 Mock Service 拋出例外時，這個處理器才會生效，
  * 我們才能驗證它產生的錯誤回應是否符合預期。
+ * @Import(CoinDeskExecutorConfig.class) - 作用：匯入 CoinDesk 專用執行緒池。端點為非同步回傳，
+ * 因此需先確認 asyncStarted，再以 asyncDispatch 取得最終回應。此處將執行緒池縮小為 1 條執行緒與 1 個佇列位置，以便驗證滿載時的 503。
  */
 @WebMvcTest(CoinDeskController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, CoinDeskExecutorConfig.class})
+@TestPropertySource(properties = {
+        "coin-desk.executor.core-size=1",
+        "coin-desk.executor.max-size=1",
+        "coin-desk.executor.queue-capacity=1",
+        "coin-desk.executor.retry-after-seconds=2"
+})
 class CoinDeskControllerTest {
 
     @Autowired
@@ -61,8 +80,8 @@ class CoinDeskControllerTest {
         when(coinDeskService.getTransformedCoinDeskData()).thenReturn(mockResponse);
 
         // --- Act & Assert ---
-        // 3. 透過 mockMvc 模擬發送 GET 請求，並驗證回應。
-        mockMvc.perform(get("/coindesk/transformed"))
+        // 3. 透過 mockMvc 模擬發送 GET 請求，等待非同步處理完成後驗證回應。
+        mockMvc.perform(asyncDispatch(startAsync("/coindesk/transformed")))
                 .andExpect(status().isOk()) // 驗證 HTTP 狀態碼為 200 (OK)
                 .andExpect(jsonPath("$.updatedTime", is("2024/09/02 10:20:30"))) // 使用 JsonPath 驗證回應內容
                 .andExpect(jsonPath("$.currencyInfo[0].code", is("TWD")))
@@ -70,6 +89,22 @@ class CoinDeskControllerTest {
                 .andExpect(jsonPath("$.currencyInfo[0].rate", is(30.5)));
     }
 
+    @Test
+    @DisplayName("回應來自最後一份有效資料時，應加上 Warning 與 Age 標頭，且不輸出取得時間欄位")
+    void whenServedFromSnapshot_thenShouldMarkResponseStale() throws Exception {
+        TransformedCoinDeskResponse staleResponse = new TransformedCoinDeskResponse();
+        staleResponse.setUpdatedTime("2024/09/02 10:20:30");
+        staleResponse.setSnapshotFetchedAt(Instant.now().minusSeconds(90));
+        when(coinDeskService.getTransformedCoinDeskData()).thenReturn(staleResponse);
+
+        mockMvc.perform(asyncDispatch(startAsync("/coindesk/transformed")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, CoinDeskController.STALE_WARNING))
+                .andExpect(header().string(HttpHeaders.AGE, anyOf(is("90"), is("91"))))
+                .andExpect(jsonPath("$.updatedTime", is("2024/09/02 10:20:30")))
+                .andExpect(jsonPath("$.snapshotFetchedAt").doesNotExist());
+    }
+
     @Test
     @DisplayName("[P0.2] 全域例外處理測試：當 Service 層拋出例外時，應回傳符合 ErrorResponse 格式的 HTTP 500 錯誤")
     void whenServiceThrowsException_thenControllerShouldReturn500() throws Exception {
@@ -80,7 +115,7 @@ class CoinDeskControllerTest {
 
         // --- Act & Assert ---
         // 2. 驗證 API 是否回傳 500，並檢查 JSON body 是否符合我們在 GlobalExceptionHandler 中定義的 ErrorResponse 格式。
-        mockMvc.perform(get("/coindesk/transformed"))
+        mockMvc.perform(asyncDispatch(startAsync("/coindesk/transformed")))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.status", is(500)))
                 .andExpect(jsonPath("$.error", is("Internal Server Error")))
@@ -89,4 +124,49 @@ class CoinDeskControllerTest {
                 .andExpect(jsonPath("$.timestamp", notNullValue())); // 驗證 timestamp 欄位存在且不為 null
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Bulkhead 測試：CoinDesk 執行緒池已滿時，應立即回傳 503 與 Retry-After 標頭")
+    void whenExecutorSaturated_thenShouldReturn503WithRetryAfter() throws Exception {
+        // --- Arrange ---
+        // 1. 讓請求卡在 Service 層：第一個佔住唯一的執行緒，第二個佔住唯一的佇列位置。
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(coinDeskService.getTransformedCoinDeskData()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new TransformedCoinDeskResponse();
+        });
+
+        try {
+            MvcResult running = startAsync("/coindesk/transformed");
+            started.await(5, TimeUnit.SECONDS);
+            MvcResult queued = startAsync("/coindesk/transformed");
+
+            // --- Act & Assert ---
+            // 2. 第三個請求應被拒絕，而不是無限排隊等待。
+            mockMvc.perform(get("/coindesk/original"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.status", is(503)));
+
+            // 3. 釋放後，原本的請求應正常完成。
+            release.countDown();
+            mockMvc.perform(asyncDispatch(running))
+                    .andExpect(status().isOk());
+            mockMvc.perform(asyncDispatch(queued))
+                    .andExpect(status().isOk());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * 送出請求並確認已進入非同步處理。
+     */
+    private MvcResult startAsync(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+}
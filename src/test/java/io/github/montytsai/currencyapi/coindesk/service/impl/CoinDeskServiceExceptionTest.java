@@ -2,7 +2,13 @@ package io.github.montytsai.currencyapi.coindesk.service.impl;
 
 import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.mapper.CoinDeskMapper;
-import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import io.github.montytsai.currencyapi.coindesk.snapshot.CoinDeskSnapshotStore;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamHedging;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamRetry;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamRetryBudget;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.ResourceAccessException;
@@ -18,8 +25,19 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -33,9 +51,22 @@ class CoinDeskServiceExceptionTest {
     @Mock
     private WebClient webClient;
     @Mock
-    private CurrencyRepository currencyRepository;
+    private CurrencyLookupTable currencyLookupTable;
     @Mock
     private CoinDeskMapper coinDeskMapper;
+    @Mock
+    private CoinDeskSnapshotStore snapshotStore;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private ApiMetrics apiMetrics = new ApiMetrics(meterRegistry);
+    private final UpstreamRetryBudget retryBudget = new UpstreamRetryBudget(10, 5, meterRegistry);
+    @Spy
+    private UpstreamHedging upstreamHedging = new UpstreamHedging(false, 0.95, Duration.ofMillis(10), 20, 1000,
+            retryBudget, meterRegistry);
+    @Spy
+    private UpstreamRetry upstreamRetry = new UpstreamRetry(3, Duration.ofMillis(1), Duration.ofMillis(5),
+            Duration.ofSeconds(5), retryBudget, meterRegistry);
 
     // WebClient 呼叫鏈所需的 Mocks
     @Mock
@@ -82,6 +113,7 @@ class CoinDeskServiceExceptionTest {
         // Act & Assert
         // 驗證 service 會將 WebClient 的標準 HTTP 錯誤例外向上拋出。
         assertThrows(WebClientResponseException.class, () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(1, upstreamFetchCount("CLIENT_ERROR"));
     }
 
     @Test
@@ -94,6 +126,7 @@ class CoinDeskServiceExceptionTest {
 
         // Act & Assert
         assertThrows(WebClientResponseException.class, () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(1, upstreamFetchCount("SERVER_ERROR"));
     }
 
     @Test
@@ -108,4 +141,128 @@ class CoinDeskServiceExceptionTest {
         assertThrows(RuntimeException.class, () -> coinDeskService.getOriginalCoinDeskData());
     }
 
+    @Test
+    @DisplayName("當 API 連線失敗但有最後一份有效資料時，應回傳標示取得時間的過時資料")
+    void whenApiConnectionFailsWithSnapshot_thenShouldReturnStaleSnapshot() {
+        // Arrange
+        when(responseSpec.bodyToMono(CoinDeskResponse.class))
+                .thenReturn(Mono.error(new ResourceAccessException("Connection timed out")));
+        CoinDeskResponse snapshot = new CoinDeskResponse();
+        snapshot.setBpi(Collections.emptyMap());
+        snapshot.setSnapshotFetchedAt(Instant.parse("2024-09-02T07:07:20Z"));
+        when(snapshotStore.lastKnownGood()).thenReturn(Optional.of(snapshot));
+
+        // Act
+        CoinDeskResponse result = coinDeskService.getOriginalCoinDeskData();
+
+        // Assert
+        assertSame(snapshot, result);
+        assertEquals(Instant.parse("2024-09-02T07:07:20Z"), result.getSnapshotFetchedAt());
+        assertEquals(1, upstreamFetchCount("UNKNOWN"));
+        assertEquals(1.0, meterRegistry.get(ApiMetrics.STALE_RESPONSES).counter().count());
+        verify(snapshotStore, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("暫時性的 5xx 失敗應重試，重試成功時回傳上游資料")
+    void whenApiFailsTransiently_thenShouldRetryAndSucceed() {
+        // Arrange：第一次嘗試回應 503，第二次成功。
+        CoinDeskResponse upstream = new CoinDeskResponse();
+        upstream.setBpi(Collections.emptyMap());
+        AtomicInteger attempts = new AtomicInteger();
+        when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null))
+                : Mono.just(upstream)));
+
+        // Act
+        CoinDeskResponse result = coinDeskService.getOriginalCoinDeskData();
+
+        // Assert
+        assertSame(upstream, result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, retries("SERVER_ERROR"));
+        assertEquals(1, upstreamFetchCount("SUCCESS"));
+        verify(snapshotStore).save(upstream);
+    }
+
+    @Test
+    @DisplayName("4xx 與回應解析錯誤不重試")
+    void whenApiFailsPermanently_thenShouldNotRetry() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null));
+        }));
+
+        // Act & Assert
+        assertThrows(WebClientResponseException.class, () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, retries("SERVER_ERROR"));
+    }
+
+    @Test
+    @DisplayName("持續的 5xx 失敗重試到次數上限後，拋出最後一次嘗試的原始例外")
+    void whenApiKeepsFailing_thenShouldStopAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(502, "Bad Gateway", null, null, null));
+        }));
+
+        // Act & Assert
+        WebClientResponseException thrown = assertThrows(WebClientResponseException.class,
+                () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(502, thrown.getRawStatusCode());
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, retries("SERVER_ERROR"));
+    }
+
+    @Test
+    @DisplayName("重試預算用盡時不再重試，上游故障時不會放大請求數")
+    void whenRetryBudgetIsExhausted_thenShouldNotRetry() {
+        // Arrange：預算為 0% 且沒有保留額度。
+        UpstreamRetryBudget emptyBudget = new UpstreamRetryBudget(0, 0, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(coinDeskService, "upstreamRetry", new UpstreamRetry(3, Duration.ofMillis(1),
+                Duration.ofMillis(5), Duration.ofSeconds(5), emptyBudget, meterRegistry));
+        AtomicInteger attempts = new AtomicInteger();
+        when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+        }));
+
+        // Act & Assert
+        assertThrows(WebClientResponseException.class, () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, meterRegistry.get(UpstreamRetry.DENIED).tag("reason", "budget").counter().count());
+    }
+
+    @Test
+    @DisplayName("所有嘗試共用整體期限，超過時取消進行中的嘗試並以逾時結束")
+    void whenDeadlineExpires_thenShouldTimeOut() {
+        // Arrange：每次嘗試 100ms 後回應 503，期限 150ms，第二次嘗試進行中即到期。
+        ReflectionTestUtils.setField(coinDeskService, "upstreamRetry", new UpstreamRetry(3, Duration.ofMillis(1),
+                Duration.ofMillis(5), Duration.ofMillis(150), retryBudget, meterRegistry));
+        AtomicInteger attempts = new AtomicInteger();
+        when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100))
+                    .then(Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)));
+        }));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> coinDeskService.getOriginalCoinDeskData());
+        assertEquals(2, attempts.get());
+        assertEquals(1, upstreamFetchCount("TIMEOUT"));
+    }
+
+    private double retries(String outcome) {
+        return meterRegistry.get(UpstreamRetry.RETRIES).tag("outcome", outcome).counter().count();
+    }
+
+    private long upstreamFetchCount(String outcome) {
+        return meterRegistry.get(ApiMetrics.UPSTREAM_FETCH).tag("outcome", outcome).timer().count();
+    }
+
 }
\ No newline at end of file
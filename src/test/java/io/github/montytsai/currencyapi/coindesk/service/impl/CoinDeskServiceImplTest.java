@@ -3,8 +3,15 @@ package io.github.montytsai.currencyapi.coindesk.service.impl;
 import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.dto.TransformedCoinDeskResponse;
 import io.github.montytsai.currencyapi.coindesk.mapper.CoinDeskMapper;
+import io.github.montytsai.currencyapi.coindesk.snapshot.CoinDeskSnapshotStore;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamHedging;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamRetry;
+import io.github.montytsai.currencyapi.coindesk.upstream.UpstreamRetryBudget;
 import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
 import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+import io.github.montytsai.currencyapi.observability.ApiMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,12 +25,15 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -35,22 +45,39 @@ class CoinDeskServiceImplTest {
     // --- Mock Dependencies ---
     @Mock private WebClient webClient;
     @Mock private CurrencyRepository currencyRepository;
+    @Mock private CoinDeskSnapshotStore snapshotStore;
 
     // WebClient 呼叫鏈所需的 Mocks
     @Mock private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
     @Mock private WebClient.RequestHeadersSpec requestHeadersSpec;
     @Mock private WebClient.ResponseSpec responseSpec;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     // --- 受測物件 (System Under Test) ---
     private CoinDeskServiceImpl coinDeskService;
 
     @BeforeEach
     void setUp() {
+        // 準備資料庫的假回應，並以此載入真實的幣別目錄查詢表。
+        Currency usdCurrency = new Currency();
+        usdCurrency.setCode("USD");
+        usdCurrency.setDisplayName("美金");
+        when(currencyRepository.findAll()).thenReturn(Collections.singletonList(usdCurrency));
+        CurrencyLookupTable currencyLookupTable = new CurrencyLookupTable(currencyRepository);
+        currencyLookupTable.afterPropertiesSet();
+
         // 手動建立受測物件，並將依賴注入。
+        ApiMetrics apiMetrics = new ApiMetrics(meterRegistry);
+        UpstreamRetryBudget retryBudget = new UpstreamRetryBudget(10, 5, meterRegistry);
         coinDeskService = new CoinDeskServiceImpl(
                 webClient,
-                currencyRepository,
-                new CoinDeskMapper() // <-- 直接傳入真實的 Mapper 實例
+                currencyLookupTable,
+                new CoinDeskMapper(apiMetrics), // <-- 直接傳入真實的 Mapper 實例
+                apiMetrics,
+                snapshotStore,
+                new UpstreamHedging(false, 0.95, Duration.ofMillis(10), 20, 1000, retryBudget, meterRegistry),
+                new UpstreamRetry(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), retryBudget, meterRegistry)
         );
 
         // 在測試環境中，手動為 @Value 欄位賦值。
@@ -58,7 +85,7 @@ class CoinDeskServiceImplTest {
     }
 
     @Test
-    @DisplayName("[P0.1] 測試核心轉換邏輯：應能正確呼叫 API、資料庫，並透過 Mapper 轉換資料")
+    @DisplayName("[P0.1] 測試核心轉換邏輯：應能正確呼叫 API、幣別目錄，並透過 Mapper 轉換資料")
     void testGetTransformedCoinDeskData_SuccessPath() {
         // --- Arrange ---
 
@@ -71,12 +98,6 @@ class CoinDeskServiceImplTest {
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.bodyToMono(CoinDeskResponse.class)).thenReturn(Mono.just(fakeApiResponse));
 
-        // 準備資料庫的假回應。
-        Currency usdCurrency = new Currency();
-        usdCurrency.setCode("USD");
-        usdCurrency.setDisplayName("美金");
-        when(currencyRepository.findAll()).thenReturn(Collections.singletonList(usdCurrency));
-
         // --- Act ---
         TransformedCoinDeskResponse result = coinDeskService.getTransformedCoinDeskData();
 
@@ -95,6 +116,15 @@ class CoinDeskServiceImplTest {
         TransformedCoinDeskResponse.CurrencyInfo gbpInfo = result.getCurrencyInfo().stream()
                 .filter(c -> "GBP".equals(c.getCode())).findFirst().orElseThrow(AssertionError::new);
         assertEquals("N/A", gbpInfo.getChineseName()); // 驗證找不到時的預設值
+
+        // 驗證熱路徑指標：上游呼叫成功一次、轉換一次、GBP 計入找不到的幣別
+        assertEquals(1, meterRegistry.get(ApiMetrics.UPSTREAM_FETCH).tag("outcome", "SUCCESS").timer().count());
+        assertEquals(1, meterRegistry.get(ApiMetrics.MAPPING).timer().count());
+        assertEquals(1.0, meterRegistry.get(ApiMetrics.UNMAPPED_CURRENCIES).counter().count());
+
+        // 被接受的上游回應應保存為最後一份有效資料，且不是過時的資料
+        verify(snapshotStore).save(fakeApiResponse);
+        assertNull(result.getSnapshotFetchedAt());
     }
 
     private CoinDeskResponse createFakeCoinDeskResponse() {
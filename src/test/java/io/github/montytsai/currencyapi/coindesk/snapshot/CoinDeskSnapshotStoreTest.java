@@ -0,0 +1,124 @@
+package io.github.montytsai.currencyapi.coindesk.snapshot;
+
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證最後一份有效資料的保存與載入：背景寫入、write-then-rename、重新啟動後載入、checksum 驗證與退回前一份。
+ */
+class CoinDeskSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("保存後重新啟動應載入同一份資料，並標示取得時間")
+    void save_thenRestart_shouldLoadSnapshot() {
+        CoinDeskSnapshotStore store = this.newStore();
+        store.save(response("USD", 57756.2984f));
+        store.stop();
+
+        CoinDeskSnapshotStore restarted = this.newStore();
+        Optional<CoinDeskResponse> loaded = restarted.lastKnownGood();
+
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getBpi().get("USD").getRateFloat()).isEqualTo(57756.2984f);
+        assertThat(loaded.get().getSnapshotFetchedAt()).isNotNull();
+        assertThat(directory.resolve(CoinDeskSnapshotStore.FILE_NAME + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("目前的檔案 checksum 不符時應退回前一份資料")
+    void corruptedSnapshot_shouldFallBackToPrevious() throws IOException {
+        CoinDeskSnapshotStore store = this.newStore();
+        store.save(response("USD", 1.0f));
+        store.stop(); // 寫入第一份後再啟動，第二份才會把它保留為前一份
+        store.start();
+        store.save(response("USD", 2.0f));
+        store.stop();
+        corruptLastByte(directory.resolve(CoinDeskSnapshotStore.FILE_NAME));
+
+        Optional<CoinDeskResponse> loaded = this.newStore().lastKnownGood();
+
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getBpi().get("USD").getRateFloat()).isEqualTo(1.0f);
+    }
+
+    @Test
+    @DisplayName("記憶體中的資料在呼叫端立即更新，背景執行緒只寫入最新一份，停止時寫完")
+    void save_shouldUpdateMemoryAtOnceAndPersistLatest() {
+        CoinDeskSnapshotStore store = this.newStore();
+        for (int i = 1; i <= 100; i++) {
+            store.save(response("USD", i));
+            assertThat(store.lastKnownGood().get().getBpi().get("USD").getRateFloat()).isEqualTo((float) i);
+        }
+        store.stop();
+
+        Optional<CoinDeskResponse> loaded = this.newStore().lastKnownGood();
+
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getBpi().get("USD").getRateFloat()).isEqualTo(100.0f);
+    }
+
+    @Test
+    @DisplayName("所有檔案都無法使用時應沒有資料，而不是啟動失敗")
+    void noUsableSnapshot_shouldBeEmpty() throws IOException {
+        Files.write(directory.resolve(CoinDeskSnapshotStore.FILE_NAME), new byte[]{1, 2, 3});
+
+        assertThat(this.newStore().lastKnownGood()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("停用時不保存也不回傳資料")
+    void disabled_shouldNeitherSaveNorServe() {
+        CoinDeskSnapshotStore store = new CoinDeskSnapshotStore(new Jackson2ObjectMapperBuilder(), false,
+                directory.toString(), Duration.ofMinutes(1));
+        store.afterPropertiesSet();
+        store.save(response("USD", 1.0f));
+
+        assertThat(store.lastKnownGood()).isEmpty();
+        assertThat(directory.resolve(CoinDeskSnapshotStore.FILE_NAME)).doesNotExist();
+    }
+
+    private CoinDeskSnapshotStore newStore() {
+        CoinDeskSnapshotStore store = new CoinDeskSnapshotStore(new Jackson2ObjectMapperBuilder(), true,
+                directory.toString(), Duration.ZERO);
+        store.afterPropertiesSet();
+        store.start();
+        return store;
+    }
+
+    private static CoinDeskResponse response(String code, float rate) {
+        CoinDeskResponse.BpiData bpiData = new CoinDeskResponse.BpiData();
+        bpiData.setCode(code);
+        bpiData.setRateFloat(rate);
+        CoinDeskResponse response = new CoinDeskResponse();
+        response.setChartName("Bitcoin");
+        response.setBpi(Collections.singletonMap(code, bpiData));
+        return response;
+    }
+
+    private static void corruptLastByte(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 驗證 CoinDesk 回應的串流解碼：一般回應正常解析；數 MB 的回應、過多的 BPI 幣別、過深的巢狀與不完整的 JSON
+ * 在超過限制時立即中止，只讀取限制附近的位元組數，配置的記憶體與回應大小無關。
+ */
+class BoundedCoinDeskDecoderTest {
+
+    private static final int MAX_BYTES = 64 * 1024;
+    private static final int MAX_BPI_ENTRIES = 200;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int NETTY_READ_BYTES = 64 * 1024; // Reactor Netty 單次讀取的 buffer 上限
+
+    private final CoinDeskStubServer stub = new CoinDeskStubServer();
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("一般大小的回應照常解析")
+    void decodesRegularResponse() {
+        CoinDeskResponse response = this.fetch(MAX_BYTES);
+
+        assertThat(response.getBpi()).containsKeys("USD", "GBP", "EUR");
+        assertThat(response.getChartName()).isEqualTo("Bitcoin");
+    }
+
+    @Test
+    @DisplayName("數 MB 的回應超過位元組上限時立即中止，只讀取上限附近的內容，配置的記憶體遠小於回應大小")
+    void abortsOversizedResponseEarly() {
+        byte[] body = ("{\"disclaimer\":\"" + repeat('x', 16 * 1024 * 1024) + "\",\"bpi\":{}}").getBytes(StandardCharsets.US_ASCII);
+        stub.withBody(body);
+        WebClient webClient = this.webClient(MAX_BYTES);
+        // 第一次先完成類別載入與 JIT 編譯，避免計入配置量
+        assertThatThrownBy(() -> fetch(webClient)).hasRootCauseInstanceOf(DataBufferLimitException.class);
+
+        long allocatedBefore = allocatedBytes();
+        assertThatThrownBy(() -> fetch(webClient)).hasRootCauseInstanceOf(DataBufferLimitException.class);
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        assertThat(receivedBytes.get()).isLessThanOrEqualTo(2L * (MAX_BYTES + NETTY_READ_BYTES));
+        assertThat(allocated).isLessThan(body.length / 8);
+    }
+
+    @Test
+    @DisplayName("BPI 幣別數超過上限時立即中止，即使位元組數在上限內")
+    void abortsTooManyBpiEntries() {
+        StringBuilder json = new StringBuilder("{\"chartName\":\"Bitcoin\",\"bpi\":{");
+        for (int i = 0; i < 100_000; i++) {
+            json.append(i == 0 ? "" : ",").append("\"C").append(i).append("\":{\"code\":\"C").append(i).append("\",\"rate_float\":1.5}");
+        }
+        byte[] body = json.append("}}").toString().getBytes(StandardCharsets.US_ASCII);
+        stub.withBody(body);
+
+        assertThatThrownBy(() -> this.fetch(body.length)).isInstanceOf(DecodingException.class)
+                .hasMessageContaining("more than " + MAX_BPI_ENTRIES + " BPI entries");
+        assertThat(receivedBytes.get()).isLessThan(body.length / 4);
+    }
+
+    @Test
+    @DisplayName("過深的巢狀、不完整的 JSON 與多餘的內容以 DecodingException 中止")
+    void rejectsAdversarialStructure() {
+        stub.withBody(("{\"bpi\":" + repeat('[', 100_000)).getBytes(StandardCharsets.US_ASCII));
+        assertThatThrownBy(() -> this.fetch(MAX_BYTES * 4)).isInstanceOf(DecodingException.class)
+                .hasMessageContaining("nested deeper than");
+
+        stub.withBody("{\"bpi\":{\"USD\":{\"code\":\"USD\"".getBytes(StandardCharsets.US_ASCII));
+        assertThatThrownBy(() -> this.fetch(MAX_BYTES)).isInstanceOf(DecodingException.class)
+                .hasMessageContaining("end-of-input");
+
+        stub.withBody("{\"bpi\":{}} {\"bpi\":{}}".getBytes(StandardCharsets.US_ASCII));
+        assertThatThrownBy(() -> this.fetch(MAX_BYTES)).isInstanceOf(DecodingException.class)
+                .hasMessageContaining("after the CoinDesk JSON document");
+    }
+
+    private CoinDeskResponse fetch(long maxBytes) {
+        return this.fetch(this.webClient(maxBytes));
+    }
+
+    private CoinDeskResponse fetch(WebClient webClient) {
+        receivedBytes.set(0);
+        return webClient.get().uri(stub.url()).retrieve().bodyToMono(CoinDeskResponse.class).block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * @return 註冊解碼器、並計算實際收到的回應位元組數的 WebClient
+     */
+    private WebClient webClient(long maxBytes) {
+        BoundedCoinDeskDecoder decoder = new BoundedCoinDeskDecoder(OBJECT_MAPPER, maxBytes, MAX_BPI_ENTRIES, 16);
+        return WebClient.builder()
+                .codecs(configurer -> configurer.customCodecs().register(decoder))
+                .filter((request, next) -> next.exchange(request).map(response -> response.mutate()
+                        .body(body -> body.doOnNext(buffer -> receivedBytes.addAndGet(buffer.readableByteCount())))
+                        .build()))
+                .build();
+    }
+
+    /**
+     * @return JVM 中所有執行緒累計配置的 heap 位元組數
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+}
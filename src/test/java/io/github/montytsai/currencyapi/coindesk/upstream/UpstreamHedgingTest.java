@@ -0,0 +1,89 @@
+package io.github.montytsai.currencyapi.coindesk.upstream;
+
+import io.github.montytsai.currencyapi.coindesk.dto.CoinDeskResponse;
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證避險請求：對長尾延遲的上游 (每 25 個請求有一個延遲 1 秒)，超過觀察到的 p95 仍未完成的呼叫改由避險請求回應，
+ * 輸的一方被取消；額外嘗試的次數受 {@link UpstreamRetryBudget} 限制。
+ */
+class UpstreamHedgingTest {
+
+    private static final Duration TAIL_LATENCY = Duration.ofSeconds(1);
+    private static final int CALLS = 100;
+    private static final int MIN_SAMPLES = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger stubRequests = new AtomicInteger();
+    private final CoinDeskStubServer stub = new CoinDeskStubServer().withLatency(() ->
+            (stubRequests.getAndIncrement() % 25 == 24) ? TAIL_LATENCY : Duration.ofMillis(2));
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("超過延遲 p95 的呼叫由避險請求先回應，輸的一方被取消，額外嘗試不超過預算")
+    void hedgesSlowAttemptsAndCancelsTheLoser() {
+        UpstreamRetryBudget budget = new UpstreamRetryBudget(20, 5, meterRegistry);
+        UpstreamHedging hedging = new UpstreamHedging(true, 0.95, Duration.ofMillis(10), MIN_SAMPLES, 200, budget, meterRegistry);
+        WebClient webClient = WebClient.create(stub.url());
+        AtomicInteger cancelled = new AtomicInteger();
+
+        long slowest = 0;
+        for (int i = 0; i < CALLS; i++) {
+            budget.onRequest(); // 正式環境由 UpstreamRetry 在每個呼叫存入額度
+            long start = System.nanoTime();
+            CoinDeskResponse response = hedging.hedge(() -> webClient.get()
+                            .retrieve()
+                            .bodyToMono(CoinDeskResponse.class)
+                            .doOnCancel(cancelled::incrementAndGet))
+                    .block(Duration.ofSeconds(5));
+            if (i >= MIN_SAMPLES) { // 前幾次包含連線建立與 JIT 編譯，且樣本不足時不避險
+                slowest = Math.max(slowest, System.nanoTime() - start);
+            }
+            assertThat(response).isNotNull();
+            assertThat(response.getBpi()).isNotEmpty();
+        }
+
+        double sent = hedges("sent");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(slowest)).isLessThan(TAIL_LATENCY.toMillis() / 2);
+        assertThat(hedges("won")).isGreaterThanOrEqualTo(1);
+        assertThat(sent).isLessThanOrEqualTo(CALLS * 0.2 + 5);
+        assertThat(cancelled.get()).isEqualTo((int) sent);
+    }
+
+    @Test
+    @DisplayName("預算：額外嘗試數不超過原始請求數的百分比加上保留額度")
+    void budgetCapsAmplification() {
+        UpstreamRetryBudget budget = new UpstreamRetryBudget(10, 5, meterRegistry);
+        int granted = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                granted++;
+            }
+        }
+
+        assertThat(granted).isBetween(100, 105);
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get(UpstreamHedging.HEDGES).tag("result", result).counter().count();
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證併發限制：同一群組超過上限的請求立即回應 503 與 Retry-After，其他群組不受影響，非同步請求完成後歸還名額。
+ * 上限固定為 1 (initial = min = max)，以延遲 500ms 的上游讓第一個 CoinDesk 請求佔住名額。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"concurrency-limit.initial-limit=1", "concurrency-limit.min-limit=1",
+                "concurrency-limit.max-limit=1", "concurrency-limit.retry-after-seconds=3"})
+@ActiveProfiles("test")
+class ConcurrencyLimitIntegrationTest {
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer().withLatency(Duration.ofMillis(500));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    @DisplayName("超過上限的 CoinDesk 請求回應 503 與 Retry-After，目錄讀取不受影響，完成後歸還名額")
+    void rejectsExcessRequestsOfTheSameGroup() {
+        WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+
+        Mono<Integer> first = status(client, "/coindesk/transformed");
+        Mono<String> second = client.get().uri("/coindesk/transformed")
+                .exchangeToMono(response -> response.releaseBody().then(Mono.just(response.rawStatusCode() + " "
+                        + response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER))))
+                .delaySubscription(Duration.ofMillis(150));
+        Mono<Integer> catalogRead = status(client, "/currencies/USD").delaySubscription(Duration.ofMillis(150));
+        Tuple3<Integer, String, Integer> statuses = Mono.zip(first, second, catalogRead).block(Duration.ofSeconds(10));
+
+        assertThat(statuses).isNotNull();
+        assertThat(statuses.getT1()).isEqualTo(200);
+        assertThat(statuses.getT2()).isEqualTo("503 3");
+        assertThat(statuses.getT3()).isEqualTo(200);
+        assertThat(meterRegistry.get(ConcurrencyLimiter.REJECTED).tag("group", "coindesk").counter().count())
+                .isEqualTo(1);
+
+        assertThat(status(client, "/coindesk/transformed").block(Duration.ofSeconds(10))).isEqualTo(200);
+        assertThat(meterRegistry.get(ConcurrencyLimiter.INFLIGHT).tag("group", "coindesk").gauge().value()).isZero();
+    }
+
+    private static Mono<Integer> status(WebClient client, String path) {
+        return client.get().uri(path).exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()));
+    }
+
+}
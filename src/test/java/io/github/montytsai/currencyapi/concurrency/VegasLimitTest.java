@@ -0,0 +1,84 @@
+package io.github.montytsai.currencyapi.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 驗證 Vegas 上限估計：延遲維持在無負載水準時調高、延遲隨排隊上升時調低、有請求被丟棄時立即調降。
+ */
+class VegasLimitTest {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int WINDOW = 10;
+
+    @Test
+    @DisplayName("延遲維持在無負載水準且上限已用滿時，調高上限")
+    void increasesWhileLatencyStaysAtBaseline() {
+        VegasLimit limit = new VegasLimit(10, 1, 100, WINDOW);
+        sampleWindows(limit, 5, BASE_RTT, false);
+
+        assertThat(limit.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("延遲隨同時處理數上升時，調低上限")
+    void decreasesWhenLatencyRises() {
+        VegasLimit limit = new VegasLimit(50, 5, 100, WINDOW);
+        sampleWindows(limit, 1, BASE_RTT, false);
+        sampleWindows(limit, 20, BASE_RTT * 10, false);
+
+        assertThat(limit.getLimit()).isLessThan(50).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("視窗內有請求被丟棄時，上限乘以退避比例，但不低於下限")
+    void backsOffOnDrop() {
+        VegasLimit limit = new VegasLimit(50, 5, 100, WINDOW);
+        sampleWindows(limit, 1, BASE_RTT, false);
+        sampleWindows(limit, 1, BASE_RTT, true);
+
+        assertThat(limit.getLimit()).isEqualTo((int) (50 * VegasLimit.DROP_BACKOFF));
+
+        sampleWindows(limit, 50, BASE_RTT, true);
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("同時處理數遠低於上限時 (應用程式未用滿)，不調高上限")
+    void doesNotGrowWhenApplicationLimited() {
+        VegasLimit limit = new VegasLimit(40, 1, 100, WINDOW);
+        for (int i = 0; i < WINDOW * 5; i++) {
+            limit.onSample(BASE_RTT, 2, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("上限不超過最大值；不合法的設定在建構時拒絕")
+    void respectsBoundsAndValidatesSettings() {
+        VegasLimit limit = new VegasLimit(10, 1, 12, WINDOW);
+        sampleWindows(limit, 20, BASE_RTT, false);
+        assertThat(limit.getLimit()).isEqualTo(12);
+
+        assertThatThrownBy(() -> new VegasLimit(10, 20, 100, WINDOW)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new VegasLimit(10, 1, 100, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 送出 windows 個視窗的樣本，每個樣本的同時處理數等於目前的上限 (上限已用滿)。
+     */
+    private static void sampleWindows(VegasLimit limit, int windows, long rttNanos, boolean dropped) {
+        for (int w = 0; w < windows; w++) {
+            for (int i = 0; i < WINDOW; i++) {
+                limit.onSample(rttNanos, limit.getLimit(), dropped);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.github.montytsai.currencyapi.config;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 驗證 CoinDesk 連線池的啟動預熱與連線池指標：以本機 HTTPS 替身 (自簽憑證) 確認連線與 TLS 交握在預熱階段完成，
+ * 第一個請求直接沿用連線池中的連線，並記錄有無預熱時第一個請求的延遲。
+ * <p>
+ * Reactor Netty 的連線池指標發佈到 Micrometer 的全域註冊表，因此測試期間將 SimpleMeterRegistry 加入全域註冊表。
+ */
+@Slf4j
+class CoinDeskConnectionWarmUpTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String IDLE_CONNECTIONS = "reactor.netty.connection.provider.idle.connections";
+
+    private final AppConfig appConfig = new AppConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<ConnectionProvider> providers = new ArrayList<>();
+
+    private CoinDeskStubServer stub;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+        stub = CoinDeskStubServer.tls();
+    }
+
+    @AfterEach
+    void tearDown() {
+        disposeProviders();
+        stub.close();
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("預熱後第一個請求應沿用已建立的連線，不再進行連線與 TLS 交握")
+    void warmUp_shouldPreEstablishConnectionsForFirstRequest() throws InterruptedException {
+        // JVM 層級的預熱 (類別載入、JIT)，避免影響下面兩個用戶端的比較
+        firstRequestMillis(newHttpClient());
+
+        // --- 沒有預熱：第一個請求自行建立連線 ---
+        HttpClient cold = newHttpClient();
+        int before = stub.connectionCount();
+        long coldMillis = firstRequestMillis(cold);
+        assertEquals(before + 1, stub.connectionCount());
+        disposeProviders();
+
+        // --- 預熱 2 條連線後，第一個請求不應再建立新連線 ---
+        HttpClient warmed = newHttpClient();
+        before = stub.connectionCount();
+        int established = new CoinDeskConnectionWarmUp(warmed, stub.url(), 2, TIMEOUT, false).warmUp();
+        assertEquals(2, established);
+        assertEquals(before + 2, stub.connectionCount());
+        awaitIdleConnections(2);
+
+        long warmedMillis = firstRequestMillis(warmed);
+        assertEquals(before + 2, stub.connectionCount());
+
+        Timer acquire = registry.get("coindesk.connection.acquire").timer();
+        log.info("First CoinDesk request over TLS: cold={} ms, after warm-up={} ms (connection acquire max={} ms)",
+                coldMillis, warmedMillis, acquire.max(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("上游無法連線時預熱應回報 0 條連線，而不是拋出例外")
+    void warmUp_whenUpstreamUnavailable_shouldNotThrow() {
+        String url = stub.url();
+        stub.close();
+
+        int established = new CoinDeskConnectionWarmUp(newHttpClient(), url, 2, TIMEOUT, false).warmUp();
+
+        assertEquals(0, established);
+    }
+
+    /**
+     * 以應用程式相同的組態建立連線池與 HttpClient，額外信任替身的自簽憑證。
+     */
+    private HttpClient newHttpClient() {
+        ConnectionProvider provider = appConfig.coinDeskConnectionProvider(
+                50, 100, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30));
+        providers.add(provider);
+        ObjectProvider<MeterRegistry> meterRegistry = new StaticListableBeanFactory(
+                Collections.singletonMap("meterRegistry", registry)).getBeanProvider(MeterRegistry.class);
+        return appConfig.coinDeskHttpClient(provider, 3000, 5000, meterRegistry)
+                .secure(spec -> spec.sslContext(CoinDeskStubServer.clientSslContext()));
+    }
+
+    private void disposeProviders() {
+        providers.forEach(ConnectionProvider::dispose);
+        providers.clear();
+    }
+
+    private long firstRequestMillis(HttpClient httpClient) {
+        long start = System.nanoTime();
+        httpClient.get()
+                .uri(stub.url())
+                .responseSingle((response, body) -> body.asByteArray())
+                .block(TIMEOUT);
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    /**
+     * 回應完成後連線才會非同步地歸還連線池，以連線池指標確認連線已回到閒置狀態。
+     */
+    private void awaitIdleConnections(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        double idle = 0;
+        while (System.nanoTime() < deadline) {
+            idle = registry.find(IDLE_CONNECTIONS).tag("name", AppConfig.COIN_DESK_POOL_NAME).gauges().stream()
+                    .mapToDouble(Gauge::value)
+                    .sum();
+            if (idle == expected) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(expected, idle, "idle connections in the CoinDesk pool");
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.montytsai.currencyapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證 fast-startup profile：springdoc 的 Bean 延遲到第一次使用才建立，處理請求所需的 Bean 仍在啟動時建立，
+ * 且延遲建立的 API 文件端點照常運作。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "fast-startup"})
+class FastStartupProfileTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("springdoc 的 Bean 應延遲初始化，幣別服務與 CoinDesk 用戶端則否")
+    void springdocBeans_shouldBeLazy() {
+        List<String> springdocBeans = new ArrayList<>();
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            String className = definition.getBeanClassName();
+            if (className == null && definition instanceof AnnotatedBeanDefinition
+                    && ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata() != null) {
+                className = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata().getDeclaringClassName();
+            }
+            if (className != null && className.startsWith("org.springdoc.")
+                    && definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+                springdocBeans.add(name);
+                assertThat(definition.isLazyInit()).as(name).isTrue();
+            }
+        }
+
+        assertThat(springdocBeans).hasSizeGreaterThan(10);
+        assertThat(beanFactory.getBeanDefinition("currencyServiceImpl").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("coinDeskServiceImpl").isLazyInit()).isFalse();
+    }
+
+    @Test
+    @DisplayName("延遲建立的 API 文件端點應可正常回應")
+    void apiDocs_shouldStillBeServed() {
+        HttpStatus status = WebClient.create("http://localhost:" + port + "/api/v1")
+                .get().uri("/api-docs")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .block(Duration.ofSeconds(30));
+
+        assertThat(status).isEqualTo(HttpStatus.OK);
+    }
+
+}
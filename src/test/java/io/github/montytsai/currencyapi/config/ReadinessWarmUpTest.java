@@ -0,0 +1,96 @@
+package io.github.montytsai.currencyapi.config;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證就緒前的預熱：重複執行熱門路徑、只向上游取得一次資料，且預熱期間 readiness 仍為 REFUSING_TRAFFIC。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"readiness.warm-up.enabled=true", "readiness.warm-up.iterations=5"})
+@ActiveProfiles("test")
+class ReadinessWarmUpTest {
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer();
+
+    private static final AtomicReference<ReadinessState> READINESS_DURING_STARTUP = new AtomicReference<>();
+
+    @Autowired
+    private ReadinessWarmUp readinessWarmUp;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @TestConfiguration
+    static class ReadinessProbe {
+
+        /**
+         * 與預熱同樣在 ApplicationRunner 階段執行，記錄當時的 readiness 狀態。
+         */
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        ApplicationRunner readinessRecorder(ApplicationAvailability availability) {
+            return args -> READINESS_DURING_STARTUP.set(availability.getReadinessState());
+        }
+
+    }
+
+    @Test
+    @DisplayName("預熱應重複執行所有路徑，且只向上游取得一次 CoinDesk 資料")
+    void warmUp_shouldExerciseHotPathsWithSingleUpstreamFetch() {
+        ReadinessWarmUp.Result result = readinessWarmUp.getLastResult();
+
+        assertThat(result).isNotNull();
+        assertThat(result.getIterations()).isEqualTo(5);
+        assertThat(result.getRequests()).isEqualTo(5 * 4);
+        assertThat(result.getFailures()).isZero();
+        assertThat(result.isCoinDeskPrimed()).isTrue();
+        assertThat(STUB.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("預熱期間 readiness 應拒絕流量，完成後 readiness 健康群組回報 UP")
+    void readiness_shouldBeRefusedUntilWarmUpCompletes() {
+        String readiness = WebClient.create("http://localhost:" + port + "/api/v1")
+                .get().uri("/actuator/health/readiness")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(10));
+
+        assertThat(READINESS_DURING_STARTUP.get()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+        assertThat(readiness).contains("\"status\":\"UP\"");
+    }
+
+}
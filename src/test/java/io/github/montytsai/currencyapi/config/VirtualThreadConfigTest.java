@@ -0,0 +1,72 @@
+package io.github.montytsai.currencyapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 驗證虛擬執行緒模式的開關與在不支援的 JDK 上的退回行為。
+ */
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    @DisplayName("未開啟虛擬執行緒模式時，不應建立任何相關 Bean")
+    void disabledByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadConfig.class));
+    }
+
+    @Test
+    @DisplayName("在不支援虛擬執行緒的 JDK 上開啟時，應維持平台執行緒且正常啟動")
+    void enabledOnUnsupportedJdk_shouldFallBack() {
+        assumeTrue(!VirtualThreads.isSupported());
+
+        contextRunner.withPropertyValues(VirtualThreadConfig.ENABLED_PROPERTY + "=true")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).doesNotHaveBean(VirtualThreadConfig.class);
+                });
+    }
+
+    @Test
+    @DisplayName("平台執行緒模式下，CoinDesk 執行緒池不應取代 applicationTaskExecutor (MVC 非同步處理不退回 SimpleAsyncTaskExecutor)")
+    void platformThreads_shouldKeepApplicationTaskExecutor() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+                .withUserConfiguration(CoinDeskExecutorConfig.class, VirtualThreadConfig.class)
+                .withPropertyValues("spring.task.execution.thread-name-prefix=app-task-")
+                .run(context -> {
+                    assertThat(context).hasBean(CoinDeskExecutorConfig.COIN_DESK_EXECUTOR);
+                    ThreadPoolTaskExecutor executor = context.getBean(
+                            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, ThreadPoolTaskExecutor.class);
+                    assertThat(executor.getThreadNamePrefix()).isEqualTo("app-task-");
+                });
+    }
+
+    @Test
+    @DisplayName("在支援虛擬執行緒的 JDK 上開啟時，非同步工作應在虛擬執行緒上執行")
+    void enabledOnSupportedJdk_shouldRunTasksOnVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported());
+
+        contextRunner.withPropertyValues(VirtualThreadConfig.ENABLED_PROPERTY + "=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+                    AsyncTaskExecutor executor = context.getBean(AsyncTaskExecutor.class);
+                    Boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual")
+                            .invoke(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+                    assertThat(virtual).isTrue();
+                });
+    }
+
+}
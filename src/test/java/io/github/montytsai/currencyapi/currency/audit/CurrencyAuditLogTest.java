@@ -0,0 +1,223 @@
+package io.github.montytsai.currencyapi.currency.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證稽核紀錄：提交的異動批次寫入 CURRENCY_AUDIT、回滾的異動不寫入、佇列已滿時的各溢出策略，
+ * 以及多個執行緒同時寫入時 (包含與停止同時進行)，停止 (graceful shutdown) 後所有已提交的事件都已寫入。
+ * <p>
+ * 以獨立的 H2 記憶體資料庫執行正式的 schema.sql，不啟動 Spring context。
+ */
+class CurrencyAuditLogTest {
+
+    private DataSourceTransactionManager transactionManager;
+    private JdbcTemplate jdbcTemplate;
+    private MeterRegistry registry;
+    private CurrencyAuditLog auditLog;
+
+    @BeforeEach
+    void createDatabase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:audit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopWriter() {
+        RequestContextHolder.resetRequestAttributes();
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("異動前後的欄位、來源 IP 與聲稱的操作者 (請求標頭) 批次寫入 CURRENCY_AUDIT")
+    void writesCommittedEventsInBatches() {
+        auditLog = auditLog("caller-runs", 1024, Duration.ZERO);
+        auditLog.start();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-Actor", "alice");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        auditLog.record(AuditAction.PARTIAL_UPDATE, "USD", state("美金", "$", true), state("美元", "US$", true));
+        RequestContextHolder.resetRequestAttributes();
+        for (int i = 0; i < 999; i++) {
+            auditLog.record(AuditAction.CREATE, "C" + i, null, state("Currency " + i, null, true));
+        }
+        auditLog.stop();
+
+        assertThat(rows()).isEqualTo(1000);
+        assertThat(events("written")).isEqualTo(1000);
+        Map<String, Object> update = jdbcTemplate.queryForMap(
+                "SELECT remote_address, claimed_actor, action, before_value, after_value FROM CURRENCY_AUDIT "
+                        + "WHERE currency_code = 'USD'");
+        assertThat(update.get("REMOTE_ADDRESS")).isEqualTo("10.0.0.7");
+        assertThat(update.get("CLAIMED_ACTOR")).isEqualTo("alice");
+        assertThat(update.get("ACTION")).isEqualTo("PARTIAL_UPDATE");
+        assertThat(update.get("BEFORE_VALUE")).isEqualTo("{\"displayName\":\"美金\",\"symbol\":\"$\",\"active\":true}");
+        assertThat(update.get("AFTER_VALUE")).isEqualTo("{\"displayName\":\"美元\",\"symbol\":\"US$\",\"active\":true}");
+        Map<String, Object> created = jdbcTemplate.queryForMap(
+                "SELECT remote_address, claimed_actor, before_value FROM CURRENCY_AUDIT WHERE currency_code = 'C0'");
+        assertThat(created.get("REMOTE_ADDRESS")).isEqualTo(CurrencyAuditLog.SYSTEM_ACTOR);
+        assertThat(created.get("CLAIMED_ACTOR")).isNull();
+        assertThat(created.get("BEFORE_VALUE")).isNull();
+    }
+
+    @Test
+    @DisplayName("交易提交後才放入佇列，回滾的異動不留下紀錄")
+    void recordsOnlyCommittedTransactions() {
+        auditLog = auditLog("caller-runs", 1024, Duration.ZERO);
+        auditLog.start();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            auditLog.record(AuditAction.SOFT_DELETE, "GBP", state("英鎊", "£", true), state("英鎊", "£", false));
+            assertThat(auditLog.isRunning()).isTrue();
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status ->
+                auditLog.record(AuditAction.REACTIVATE, "EUR", state("歐元", "€", false), state("歐元", "€", true)));
+        auditLog.stop();
+
+        assertThat(jdbcTemplate.queryForList("SELECT currency_code FROM CURRENCY_AUDIT", String.class))
+                .containsExactly("EUR");
+    }
+
+    @Test
+    @DisplayName("佇列已滿時：drop 捨棄並計數、caller-runs 由呼叫端直接寫入、block 逾時後捨棄")
+    void appliesOverflowPolicyWhenQueueIsFull() {
+        // 寫入執行緒尚未啟動，佇列 (容量 4) 放滿後即觸發溢出策略
+        auditLog = auditLog("drop", 4, Duration.ZERO);
+        recordCreates(10);
+        assertThat(events("dropped")).isEqualTo(6);
+        assertThat(rows()).isZero();
+        auditLog.start();
+        auditLog.stop();
+        assertThat(rows()).isEqualTo(4);
+
+        jdbcTemplate.update("DELETE FROM CURRENCY_AUDIT");
+        registry = new SimpleMeterRegistry();
+        auditLog = auditLog("caller-runs", 4, Duration.ZERO);
+        recordCreates(10);
+        assertThat(events("caller_runs")).isEqualTo(6);
+        assertThat(rows()).isEqualTo(6);
+        auditLog.start();
+        auditLog.stop();
+        assertThat(rows()).isEqualTo(10);
+        assertThat(events("dropped")).isZero();
+
+        registry = new SimpleMeterRegistry();
+        auditLog = auditLog("block", 1, Duration.ofMillis(20)); // 容量至少為 2
+        recordCreates(3);
+        assertThat(events("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("多個執行緒同時寫入，停止時寫完佇列中所有已提交的事件")
+    void flushesEveryCommittedEventOnStop() {
+        int threads = 4;
+        int perThread = 5_000;
+        auditLog = auditLog("block", 256, Duration.ofSeconds(10));
+        auditLog.start();
+
+        List<CompletableFuture<Void>> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            producers.add(CompletableFuture.runAsync(() -> recordCreates(perThread)));
+        }
+        CompletableFuture.allOf(producers.toArray(new CompletableFuture[0])).join();
+        auditLog.stop();
+
+        assertThat(rows()).isEqualTo(threads * perThread);
+        assertThat(events("written")).isEqualTo(threads * perThread);
+        assertThat(events("dropped")).isZero();
+        assertThat(registry.get(CurrencyAuditLog.QUEUE_SIZE).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("停止與寫入同時進行時，停止前後提交的事件都會寫入，不會留在佇列中")
+    void keepsEventsCommittedWhileStopping() throws Exception {
+        int threads = 4;
+        int perThread = 5_000;
+        auditLog = auditLog("caller-runs", 256, Duration.ZERO);
+        auditLog.start();
+        CountDownLatch producing = new CountDownLatch(threads);
+
+        List<CompletableFuture<Void>> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            producers.add(CompletableFuture.runAsync(() -> {
+                producing.countDown();
+                recordCreates(perThread);
+            }));
+        }
+        assertThat(producing.await(5, TimeUnit.SECONDS)).isTrue();
+        auditLog.stop();
+        CompletableFuture.allOf(producers.toArray(new CompletableFuture[0])).join();
+
+        assertThat(rows()).isEqualTo(threads * perThread);
+        assertThat(events("written") + events("caller_runs")).isEqualTo(threads * perThread);
+        assertThat(events("lost")).isZero();
+        assertThat(registry.get(CurrencyAuditLog.QUEUE_SIZE).gauge().value()).isZero();
+    }
+
+    private CurrencyAuditLog auditLog(String overflowPolicy, int capacity, Duration blockTimeout) {
+        return new CurrencyAuditLog(true, capacity, 64, Duration.ofMillis(5), overflowPolicy, blockTimeout, "X-Actor",
+                jdbcTemplate, transactionManager, new ObjectMapper(), registry);
+    }
+
+    private void recordCreates(int count) {
+        for (int i = 0; i < count; i++) {
+            auditLog.record(AuditAction.CREATE, "C" + i, null, state("Currency " + i, null, true));
+        }
+    }
+
+    private int rows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CURRENCY_AUDIT", Integer.class);
+        return (rows == null) ? 0 : rows;
+    }
+
+    private double events(String result) {
+        return registry.get(CurrencyAuditLog.EVENTS).tag("result", result).counter().count();
+    }
+
+    private static CurrencyState state(String displayName, String symbol, boolean active) {
+        Currency currency = new Currency();
+        currency.setDisplayName(displayName);
+        currency.setSymbol(symbol);
+        currency.setActive(active);
+        return CurrencyState.of(currency);
+    }
+
+}
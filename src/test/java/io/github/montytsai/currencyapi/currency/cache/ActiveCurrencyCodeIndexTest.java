@@ -0,0 +1,145 @@
+package io.github.montytsai.currencyapi.currency.cache;
+
+import io.github.montytsai.currencyapi.currency.entity.Currency;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.repository.CurrencyRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * 驗證 ActiveCurrencyCodeIndex 與 CurrencyLookupTable 的負向快取語義：「不在索引內」的判斷必須永遠正確。
+ */
+@ExtendWith(MockitoExtension.class)
+class ActiveCurrencyCodeIndexTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private CurrencyLookupTable lookupTable;
+    private ActiveCurrencyCodeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(currencyRepository.findAll()).thenReturn(Arrays.asList(
+                currency("USD", "美金", true),
+                currency("CAD", "加幣", false),
+                currency("USDTEST", "長代碼", true)));
+
+        lookupTable = new CurrencyLookupTable(currencyRepository);
+        lookupTable.afterPropertiesSet();
+        index = new ActiveCurrencyCodeIndex(lookupTable, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("載入後，只有啟用中的代碼可能命中，其餘代碼可直接判定不存在")
+    void shouldRejectUnknownOrInactiveCodesAfterLoad() {
+        assertTrue(index.mightBeActive("USD"));
+        assertTrue(index.mightBeActive("USDTEST"), "超過 3 字元的代碼應退回一般 Map 查詢");
+        assertFalse(index.mightBeActive("CAD"));
+        assertFalse(index.mightBeActive("JPY"));
+        assertFalse(index.mightBeActive("usd"));
+    }
+
+    @Test
+    @DisplayName("查詢表應保存非啟用幣別的名稱，供 CoinDesk 轉換使用")
+    void lookupTable_shouldKeepInactiveCurrencyNames() {
+        int id = lookupTable.idOf("CAD");
+
+        assertEquals("加幣", lookupTable.displayName(id));
+        assertFalse(lookupTable.isActive(id));
+    }
+
+    @Test
+    @DisplayName("新增的代碼應立即生效")
+    void markActive_shouldTakeEffectImmediately() {
+        index.markActive("JPY");
+
+        assertTrue(index.mightBeActive("JPY"));
+    }
+
+    @Test
+    @DisplayName("交易中的停用應延後到提交後才從索引移除")
+    void deactivation_withinTransaction_shouldApplyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        lookupTable.putAfterCommit(currency("USD", "美金", false));
+        assertTrue(index.mightBeActive("USD"), "交易提交前仍必須視為可能啟用");
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertFalse(index.mightBeActive("USD"));
+    }
+
+    @Test
+    @DisplayName("同時執行的重新載入應依序完成，不互相清除對方的狀態")
+    void concurrentReloads_shouldNotInterfere() throws Exception {
+        CountDownLatch firstQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstQuery = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        when(currencyRepository.findAll()).thenAnswer(invocation -> {
+            if (queries.incrementAndGet() == 1) {
+                firstQueryStarted.countDown();
+                assertTrue(releaseFirstQuery.await(5, TimeUnit.SECONDS));
+            }
+            return Collections.singletonList(currency("USD", "美金", true));
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(lookupTable::reload);
+        assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(lookupTable::reload);
+        Thread.sleep(50);
+        index.markActive("JPY"); // 第一個重新載入的期間啟用，會記錄在它的 activatedDuringReload
+        releaseFirstQuery.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, queries.get());
+        assertTrue(index.mightBeActive("USD"));
+        assertFalse(index.mightBeActive("CAD"));
+    }
+
+    @Test
+    @DisplayName("停用索引時，所有代碼都應交由資料庫判斷")
+    void disabledIndex_shouldNeverReject() {
+        ActiveCurrencyCodeIndex disabled = new ActiveCurrencyCodeIndex(lookupTable, false);
+
+        assertTrue(disabled.mightBeActive("JPY"));
+    }
+
+    private static Currency currency(String code, String displayName, boolean active) {
+        Currency currency = new Currency();
+        currency.setCode(code);
+        currency.setDisplayName(displayName);
+        currency.setActive(active);
+        return currency;
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.github.montytsai.currencyapi.currency.cache;
+
+import io.github.montytsai.currencyapi.CurrencyApiDemoApplication;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyUpdateRequest;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.service.CurrencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 以同一個 JVM 中的兩個應用程式 context (節點 A、B) 共用一個檔案模式的 H2，驗證一個節點的目錄異動會在一秒內反映到另一個節點的記憶體查詢表。
+ * 每個節點都以預設設定啟動 (各自執行 schema.sql / data.sql)。
+ */
+class CatalogVersionMultiNodeTest {
+
+    private static final Duration PROPAGATION_LIMIT = Duration.ofSeconds(1);
+
+    @TempDir
+    static Path directory;
+
+    private static String url;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        url = "jdbc:h2:file:" + directory.resolve("catalog").toAbsolutePath();
+        nodeA = start(); // 第一個節點建立 schema 與初始資料
+        nodeB = start();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    @DisplayName("節點 A 新增的幣別在一秒內可由節點 B 查詢 (不被 B 的負向快取拒絕)")
+    void createOnOneNodeIsVisibleOnTheOther() {
+        assertThat(index(nodeB).mightBeActive("JPY")).isFalse();
+
+        nodeA.getBean(CurrencyService.class).create(createRequest("JPY", "日圓", "¥"));
+
+        assertPropagates(() -> index(nodeB).mightBeActive("JPY"));
+        assertThat(nodeB.getBean(CurrencyService.class).findActiveByCode("JPY").getDisplayName()).isEqualTo("日圓");
+    }
+
+    @Test
+    @DisplayName("節點 B 的更新與停用在一秒內反映到節點 A 的查詢表")
+    void updateAndDeleteOnOneNodeAreVisibleOnTheOther() {
+        CurrencyUpdateRequest rename = new CurrencyUpdateRequest();
+        rename.setDisplayName(Optional.of("英國鎊"));
+        nodeB.getBean(CurrencyService.class).partialUpdate("GBP", rename);
+
+        CurrencyLookupTable tableA = nodeA.getBean(CurrencyLookupTable.class);
+        assertPropagates(() -> "英國鎊".equals(tableA.displayName(tableA.idOf("GBP"))));
+
+        nodeB.getBean(CurrencyService.class).softDeleteByCode("GBP");
+
+        assertPropagates(() -> !index(nodeA).mightBeActive("GBP"));
+    }
+
+    @Test
+    @DisplayName("回滾的異動不遞增版本號；執行異動的節點不因自己的異動重新載入")
+    void versionFollowsCommittedChangesOnly() {
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        long before = version(jdbcTemplate);
+        CatalogVersion versionA = nodeA.getBean(CatalogVersion.class);
+        assertPropagates(() -> versionA.seenVersion() == before); // 先前測試的異動已反映
+        CurrencyUpdateRequest rolledBack = new CurrencyUpdateRequest();
+        rolledBack.setSymbol(Optional.of("X$"));
+
+        new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            nodeA.getBean(CurrencyService.class).partialUpdate("USD", rolledBack);
+            status.setRollbackOnly();
+        });
+        assertThat(version(jdbcTemplate)).isEqualTo(before);
+        assertThat(versionA.seenVersion()).isEqualTo(before);
+
+        double reloadsA = reloads(nodeA);
+        CurrencyUpdateRequest rename = new CurrencyUpdateRequest();
+        rename.setSymbol(Optional.of("US$"));
+        nodeA.getBean(CurrencyService.class).partialUpdate("USD", rename);
+
+        assertThat(version(jdbcTemplate)).isEqualTo(before + 1);
+        assertThat(versionA.seenVersion()).isEqualTo(before + 1);
+        CurrencyLookupTable tableB = nodeB.getBean(CurrencyLookupTable.class);
+        assertPropagates(() -> "US$".equals(tableB.symbol(tableB.idOf("USD"))));
+        assertThat(reloads(nodeA)).isEqualTo(reloadsA);
+    }
+
+    @Test
+    @DisplayName("之後啟動的節點再次執行 schema.sql / data.sql，不刪除也不覆寫共用資料庫中的目錄與版本號")
+    void startingAnotherNodeKeepsSharedData() {
+        CurrencyUpdateRequest rename = new CurrencyUpdateRequest();
+        rename.setSymbol(Optional.of("EU€"));
+        nodeA.getBean(CurrencyService.class).partialUpdate("EUR", rename);
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        long before = version(jdbcTemplate);
+
+        try (ConfigurableApplicationContext nodeC = start()) {
+            assertThat(version(jdbcTemplate)).isEqualTo(before);
+            CurrencyLookupTable tableC = nodeC.getBean(CurrencyLookupTable.class);
+            assertThat(tableC.symbol(tableC.idOf("EUR"))).isEqualTo("EU€");
+        }
+        CurrencyLookupTable tableA = nodeA.getBean(CurrencyLookupTable.class);
+        assertThat(tableA.symbol(tableA.idOf("EUR"))).isEqualTo("EU€");
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CurrencyApiDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=" + url,
+                        "--currency.coherence.poll-interval=100ms",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.io.github.montytsai=INFO");
+    }
+
+    private static ActiveCurrencyCodeIndex index(ConfigurableApplicationContext node) {
+        return node.getBean(ActiveCurrencyCodeIndex.class);
+    }
+
+    private static long version(JdbcTemplate jdbcTemplate) {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM CURRENCY_CATALOG_VERSION WHERE id = 1", Long.class);
+        return (version == null) ? -1 : version;
+    }
+
+    private static double reloads(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).get(CatalogVersion.RELOADS).counter().count();
+    }
+
+    private static CurrencyCreateRequest createRequest(String code, String displayName, String symbol) {
+        CurrencyCreateRequest request = new CurrencyCreateRequest();
+        request.setCode(code);
+        request.setDisplayName(displayName);
+        request.setSymbol(symbol);
+        return request;
+    }
+
+    private static void assertPropagates(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + PROPAGATION_LIMIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("change was not visible within %s", PROPAGATION_LIMIT).isNegative();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,288 @@
+package io.github.montytsai.currencyapi.currency.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.montytsai.currencyapi.config.BinaryFormatConfig;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyReplaceRequest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * 幣別 API 的 REST 合約測試，servlet 模式 ({@link CurrencyControllerTest}) 與
+ * reactive 模式 (CurrencyRouterTest) 執行完全相同的案例。
+ * <p>
+ * 子類別負責提供指向 {@code /currencies} 所在根路徑的 {@link WebTestClient}，並確保每個測試開始時資料為 data.sql 的初始狀態。
+ */
+public abstract class CurrencyApiContractTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final String BASE_PATH = "/currencies";
+
+    protected abstract WebTestClient client();
+
+    // =================================================================
+    // == 查詢 (Read) 測試
+    // =================================================================
+
+    @Test
+    @DisplayName("[C006] 查詢所有幣別應回傳 200 OK 且包含初始「啟用」資料")
+    void testGetAllCurrencies() {
+        client().get().uri(BASE_PATH).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$").value(hasSize(3)) // data.sql 中有 3 筆 active 的資料
+                .jsonPath("$[0].code").isEqualTo("USD");
+    }
+
+    @Test
+    @DisplayName("[C009] 依存在的幣別代碼查詢應回傳 200 OK 及對應資料")
+    void testGetCurrencyByCode_Success() {
+        client().get().uri(BASE_PATH + "/USD").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("USD")
+                .jsonPath("$.displayName").isEqualTo("美金");
+    }
+
+    @Test
+    @DisplayName("[C010] 依不存在的幣別代碼查詢應回傳 404 Not Found")
+    void testGetCurrencyByCode_NotFound() {
+        client().get().uri(BASE_PATH + "/JPY").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("[C011] 依空白的幣別代碼查詢應回傳 400 Bad Request")
+    void testGetCurrencyByCode_WithBlankCode_ShouldReturn400() {
+        client().get().uri(BASE_PATH + "/   ").exchange() // 使用空白字串
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Accept: application/cbor 應以 CBOR 回應單筆幣別")
+    void testGetCurrencyByCode_WithCborAccept_ShouldReturnCbor() throws Exception {
+        byte[] body = client().get().uri(BASE_PATH + "/USD")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode currency = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(currency.get("code").asText()).isEqualTo("USD");
+        assertThat(currency.get("displayName").asText()).isEqualTo("美金");
+    }
+
+    @Test
+    @DisplayName("Accept: application/x-jackson-smile 應以 Smile 回應幣別清單")
+    void testGetAllCurrencies_WithSmileAccept_ShouldReturnSmile() throws Exception {
+        byte[] body = client().get().uri(BASE_PATH)
+                .accept(BinaryFormatConfig.APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(BinaryFormatConfig.APPLICATION_SMILE)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode currencies = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(currencies.size()).isEqualTo(3);
+        assertThat(currencies.get(0).get("code").asText()).isEqualTo("USD");
+    }
+
+    @Test
+    @DisplayName("未指定 Accept 時應維持以 JSON 回應")
+    void testGetAllCurrencies_WithoutAccept_ShouldReturnJson() {
+        client().get().uri(BASE_PATH).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    // =================================================================
+    // == 新增 (Create) 測試
+    // =================================================================
+
+    @Test
+    @DisplayName("[C001] 新增一筆新的幣別應回傳 201 Created")
+    void testCreateCurrency_Success() throws Exception {
+        CurrencyCreateRequest newCurrency = new CurrencyCreateRequest();
+        newCurrency.setCode("JPY");
+        newCurrency.setDisplayName("日圓");
+        newCurrency.setSymbol("¥");
+
+        postJson(BASE_PATH, objectMapper.writeValueAsString(newCurrency))
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("JPY");
+
+        // 新增後應可立即查詢 (不會被負向快取誤判為不存在)
+        client().get().uri(BASE_PATH + "/JPY").exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("[C003] 新增已存在的幣別應回傳 409 Conflict")
+    void testCreateCurrency_Conflict() throws Exception {
+        CurrencyCreateRequest existingCurrency = new CurrencyCreateRequest();
+        existingCurrency.setCode("USD");
+        existingCurrency.setDisplayName("美元");
+        existingCurrency.setSymbol("$");
+
+        postJson(BASE_PATH, objectMapper.writeValueAsString(existingCurrency))
+                .expectStatus().isEqualTo(409);
+    }
+
+    @DisplayName("[C002] 新增時若提供無效的幣別資料，應回傳 400 Bad Request")
+    @ParameterizedTest(name = "[{0}] {3}")
+    @CsvSource({
+            " 'V002',     'J',           '日圓',       '代碼長度不足'",
+            " 'V003',     'TOOLONGGGGG', '日圓',       '代碼長度過長'",
+            " 'V001',     ''   ,         '日圓',       '代碼為空字串'",
+            " 'V005',     'JPY',         ''   ,       '顯示名稱為空字串'"
+    })
+    void testCreateCurrency_WithInvalidData_ShouldReturn400(String testCaseId, String code, String displayName, String testCaseName) throws Exception {
+        CurrencyCreateRequest badRequest = new CurrencyCreateRequest();
+        badRequest.setCode(code);
+        badRequest.setDisplayName(displayName);
+        badRequest.setSymbol("S"); // Symbol 必須提供
+
+        postJson(BASE_PATH, objectMapper.writeValueAsString(badRequest))
+                .expectStatus().isBadRequest();
+    }
+
+    // =================================================================
+    // == 更新 (Update) 測試
+    // =================================================================
+
+    @Test
+    @DisplayName("[C015] PUT - 使用完整資料更新應回傳 200 OK")
+    void testReplaceCurrency_WithPut_Success() throws Exception {
+        CurrencyReplaceRequest fullUpdateRequest = new CurrencyReplaceRequest();
+        fullUpdateRequest.setCode("USD");
+        fullUpdateRequest.setDisplayName("美國元");
+        fullUpdateRequest.setSymbol("US$");
+
+        client().put().uri(BASE_PATH + "/USD")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(fullUpdateRequest))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.displayName").isEqualTo("美國元")
+                .jsonPath("$.symbol").isEqualTo("US$");
+    }
+
+    @Test
+    @DisplayName("PATCH - 部分更新應回傳 200 OK 且未提供欄位應保持不變")
+    void testPartialUpdateCurrency_WithPatch_ShouldKeepOldValues() {
+        // 請求中只提供 displayName，不提供 symbol
+        String partialRequestJson = "{\"displayName\": \"新台幣\"}";
+
+        patchJson(BASE_PATH + "/USD", partialRequestJson)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.displayName").isEqualTo("新台幣")
+                .jsonPath("$.symbol").isEqualTo("$"); // 驗證 symbol 保持原樣
+    }
+
+    @Test
+    @DisplayName("PATCH - 提供 null 值應能成功將 symbol 更新為 null")
+    void testPartialUpdateCurrency_WithNullValue_ShouldUpdateToNull() {
+        // 請求中只提供 symbol，且值為 null
+        String partialRequestJson = "{\"symbol\": null}";
+
+        // USD 的 symbol 初始值為 "$"
+        patchJson(BASE_PATH + "/USD", partialRequestJson)
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.displayName").isEqualTo("美金") // 驗證 displayName 保持原樣
+                .jsonPath("$.symbol").doesNotExist(); // 驗證 symbol 已變為 null
+    }
+
+    @Test
+    @DisplayName("[C018] 更新時若路徑ID與內容ID不符應回傳 400 Bad Request")
+    void testUpdateCurrency_MismatchedId() throws Exception {
+        CurrencyReplaceRequest request = new CurrencyReplaceRequest();
+        request.setCode("CAD");
+        request.setDisplayName("Canadian Dollar");
+        request.setSymbol("C$");
+
+        client().put().uri(BASE_PATH + "/USD")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(request))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    // =================================================================
+    // == 刪除與啟用 (Delete & Reactivate) 測試
+    // =================================================================
+
+    @Test
+    @DisplayName("[C021] 軟刪除一筆存在的幣別應回傳 204 No Content")
+    void testSoftDeleteCurrency_Success() {
+        client().delete().uri(BASE_PATH + "/USD").exchange()
+                .expectStatus().isNoContent();
+
+        // 驗證是否真的被軟刪除 (查詢啟用列表時應找不到)
+        client().get().uri(BASE_PATH + "/USD").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("重新啟用已被軟刪除的幣別應回傳 200 OK")
+    void testReactivateCurrency_Success() {
+        // data.sql 中 CAD is_active = false
+        client().post().uri(BASE_PATH + "/CAD/reactivate").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CAD")
+                .jsonPath("$.active").isEqualTo(true);
+
+        // 驗證是否真的被重新啟用
+        client().get().uri(BASE_PATH + "/CAD").exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("新增已軟刪除的幣別應將其重新啟用並更新，回傳 201 Created")
+    void testCreateCurrency_WhenInactive_ShouldReactivateAndUpdate() throws Exception {
+        CurrencyCreateRequest reactivateRequest = new CurrencyCreateRequest();
+        reactivateRequest.setCode("CAD"); // CAD 在 data.sql 中是 inactive
+        reactivateRequest.setDisplayName("新加幣");
+        reactivateRequest.setSymbol("C$$");
+
+        postJson(BASE_PATH, objectMapper.writeValueAsString(reactivateRequest))
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.displayName").isEqualTo("新加幣")
+                .jsonPath("$.active").isEqualTo(true);
+    }
+
+    private WebTestClient.ResponseSpec postJson(String path, String json) {
+        return client().post().uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec patchJson(String path, String json) {
+        return client().patch().uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+
+}
@@ -0,0 +1,344 @@
+package io.github.montytsai.currencyapi.currency.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.montytsai.currencyapi.currency.controller.CurrencyController;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyCreateRequest;
+import io.github.montytsai.currencyapi.currency.dto.CurrencyResponse;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.github.montytsai.currencyapi.currency.service.CurrencyService;
+import io.github.montytsai.currencyapi.exception.GlobalExceptionHandler;
+import io.github.montytsai.currencyapi.exception.IdempotencyKeyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 驗證 Idempotency-Key：重送回傳第一次的回應、不同請求重用 key 時拒絕、同時送出的重複請求只執行一次、
+ * 失敗的請求不保存、key 與異動在同一個交易中提交、重新啟動 (新的實例由資料庫載入) 或重送到另一個節點後仍回傳保存的回應，
+ * 以及 key 依客戶端區分。另一個節點以新的 {@link IdempotentRequests} 實例與同一個資料庫模擬，經由真正的 POST /currencies。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentRequestsIntegrationTest {
+
+    private static final String CREATE_BODY = "{\"code\":\"JPY\",\"displayName\":\"日圓\",\"symbol\":\"¥\"}";
+    private static final String MOCK_MVC_ADDRESS = "127.0.0.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CurrencyLookupTable lookupTable;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("reset.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        lookupTable.reload();
+        client = MockMvcWebTestClient.bindTo(mockMvc).build();
+        // 測試框架為測試執行緒綁定的模擬請求；直接呼叫 execute 的測試與其他執行緒一樣不屬於任何客戶端
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("相同 key 重送時回傳第一次的 201 與內容，不回應 409；未帶 key 時照常回應 409")
+    void replaysStoredResponseForRepeatedKey() {
+        String key = UUID.randomUUID().toString();
+        EntityExchangeResult<String> first = create(key, CREATE_BODY).expectStatus().isCreated()
+                .expectHeader().doesNotExist(IdempotentRequests.REPLAYED_HEADER)
+                .expectBody(String.class).returnResult();
+        EntityExchangeResult<String> retry = create(key, CREATE_BODY).expectStatus().isCreated()
+                .expectHeader().valueEquals(IdempotentRequests.REPLAYED_HEADER, "true")
+                .expectBody(String.class).returnResult();
+
+        assertThat(retry.getResponseBody()).isEqualTo(first.getResponseBody());
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM IDEMPOTENCY_KEY WHERE idempotency_key = ?",
+                Integer.class, IdempotentRequests.scope(MOCK_MVC_ADDRESS, key))).isEqualTo(201);
+        create(null, CREATE_BODY).expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    @DisplayName("相同 key 用於不同的請求內容或端點時回應 422，key 過長時回應 400")
+    void rejectsKeyReusedForDifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        create(key, CREATE_BODY).expectStatus().isCreated();
+
+        create(key, CREATE_BODY.replace("日圓", "円")).expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        client.post().uri("/currencies/JPY/reactivate").header(IdempotentRequests.HEADER, key)
+                .exchange().expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        create(repeat('k', IdempotentRequests.MAX_KEY_LENGTH + 1), CREATE_BODY).expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("相同 key 的請求仍在處理中時等待其結果，只執行一次")
+    void concurrentDuplicatesWaitForTheInFlightRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                idempotentRequests.execute(key, "POST /test", "body", String.class, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.status(HttpStatus.CREATED).body("done");
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<String>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotentRequests.execute(key, "POST /test", "body", String.class, () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok("executed again");
+                }));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("done");
+        ResponseEntity<String> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatusCodeValue()).isEqualTo(201);
+        assertThat(replayed.getBody()).isEqualTo("done");
+        assertThat(replayed.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("等待逾時回應 409；失敗的請求不保存，重送時重新執行")
+    void doesNotStoreFailures() throws Exception {
+        IdempotentRequests requests = newInstance(Duration.ofMillis(50));
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> slow = CompletableFuture.supplyAsync(() ->
+                requests.execute(key, "POST /test", "body", String.class, () -> {
+                    started.countDown();
+                    await(release);
+                    throw new IllegalStateException("boom");
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> requests.execute(key, "POST /test", "body", String.class, () -> ResponseEntity.ok("x")))
+                .isInstanceOf(IdempotencyKeyException.class)
+                .hasMessageContaining("still in progress");
+        release.countDown();
+        assertThat(slow).failsWithin(Duration.ofSeconds(5));
+
+        assertThat(requests.execute(key, "POST /test", "body", String.class, () -> ResponseEntity.ok("second")).getBody())
+                .isEqualTo("second");
+    }
+
+    @Test
+    @DisplayName("重新啟動後 (新的實例由資料庫載入)，相同 key 仍回傳保存的回應")
+    void replaysAfterRestart() {
+        String key = UUID.randomUUID().toString();
+        EntityExchangeResult<CurrencyResponse> first = create(key, CREATE_BODY).expectStatus().isCreated()
+                .expectBody(CurrencyResponse.class).returnResult();
+
+        IdempotentRequests restarted = newInstance(Duration.ofSeconds(1));
+        ResponseEntity<CurrencyResponse> replayed = this.asClient(MOCK_MVC_ADDRESS, () -> restarted.execute(key,
+                "POST /currencies", createRequest(), CurrencyResponse.class, () -> {
+                    throw new AssertionError("must not execute again");
+                }));
+
+        assertThat(replayed.getStatusCodeValue()).isEqualTo(201);
+        assertThat(replayed.getBody()).isNotNull();
+        assertThat(replayed.getBody().getCode()).isEqualTo("JPY");
+        assertThat(replayed.getBody().getCreatedAt()).isEqualTo(first.getResponseBody().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("重送落在另一個節點 (記憶體中沒有這個 key) 時，以資料庫中保存的回應回應 201，不再執行而得到 409")
+    void replaysRetryLandingOnAnotherNode() {
+        WebTestClient nodeB = this.node(newInstance(Duration.ofSeconds(1)), MOCK_MVC_ADDRESS); // 在第一次請求之前就已啟動
+        String key = UUID.randomUUID().toString();
+        EntityExchangeResult<String> first = create(client, key, CREATE_BODY).expectStatus().isCreated()
+                .expectBody(String.class).returnResult();
+
+        EntityExchangeResult<String> retry = create(nodeB, key, CREATE_BODY).expectStatus().isCreated()
+                .expectHeader().valueEquals(IdempotentRequests.REPLAYED_HEADER, "true")
+                .expectBody(String.class).returnResult();
+
+        assertThat(retry.getResponseBody()).isEqualTo(first.getResponseBody());
+        create(nodeB, UUID.randomUUID().toString(), CREATE_BODY).expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    @DisplayName("key 依客戶端區分：其他客戶端使用相同的 key 不會取得保存的回應，也不會被拒絕 (422)")
+    void scopesKeysPerClient() {
+        WebTestClient alice = this.node(idempotentRequests, "10.0.0.1");
+        WebTestClient mallory = this.node(idempotentRequests, "10.0.0.2");
+        String key = UUID.randomUUID().toString();
+        create(alice, key, CREATE_BODY).expectStatus().isCreated();
+
+        create(mallory, key, CREATE_BODY).expectStatus().isEqualTo(HttpStatus.CONFLICT) // 重新執行，而不是重送 alice 的回應
+                .expectHeader().doesNotExist(IdempotentRequests.REPLAYED_HEADER);
+        create(mallory, key, CREATE_BODY.replace("JPY", "KRW").replace("日圓", "韓元").replace("¥", "₩"))
+                .expectStatus().isCreated();
+        create(alice, key, CREATE_BODY).expectStatus().isCreated()
+                .expectHeader().valueEquals(IdempotentRequests.REPLAYED_HEADER, "true");
+    }
+
+    @Test
+    @DisplayName("其他節點已以相同 key 完成時，本次的異動與 key 一起回滾，改回傳先完成者保存的回應")
+    void keyIsStoredInTheSameTransactionAsTheChange() {
+        IdempotentRequests nodeA = newInstance(Duration.ofSeconds(1));
+        IdempotentRequests nodeB = newInstance(Duration.ofSeconds(1));
+        String key = UUID.randomUUID().toString();
+        nodeA.execute(key, "POST /test", "body", String.class, () -> {
+            jdbcTemplate.update("UPDATE CURRENCY SET symbol = 'A$' WHERE code = 'USD'");
+            return ResponseEntity.status(HttpStatus.CREATED).body("from A");
+        });
+
+        ResponseEntity<String> response = nodeB.execute(key, "POST /test", "body", String.class, () -> {
+            jdbcTemplate.update("UPDATE CURRENCY SET symbol = 'B$' WHERE code = 'USD'");
+            return ResponseEntity.status(HttpStatus.CREATED).body("from B");
+        });
+
+        assertThat(response.getBody()).isEqualTo("from A");
+        assertThat(response.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(jdbcTemplate.queryForObject("SELECT symbol FROM CURRENCY WHERE code = 'USD'", String.class))
+                .isEqualTo("A$");
+        assertThatThrownBy(() -> nodeB.execute(UUID.randomUUID().toString(), "POST /test", "body", String.class, () -> {
+            jdbcTemplate.update("UPDATE CURRENCY SET symbol = 'C$' WHERE code = 'USD'");
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT symbol FROM CURRENCY WHERE code = 'USD'", String.class))
+                .isEqualTo("A$");
+    }
+
+    private WebTestClient.ResponseSpec create(String key, String body) {
+        return create(client, key, body);
+    }
+
+    private static WebTestClient.ResponseSpec create(WebTestClient client, String key, String body) {
+        WebTestClient.RequestBodySpec request = client.post().uri("/currencies").contentType(MediaType.APPLICATION_JSON);
+        if (key != null) {
+            request.header(IdempotentRequests.HEADER, key);
+        }
+        return request.bodyValue(body).exchange();
+    }
+
+    private IdempotentRequests newInstance(Duration waitTimeout) {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        IdempotentRequests requests = new IdempotentRequests(true, Duration.ofHours(1), 100, waitTimeout, "",
+                jdbcTemplate, transactionManager, objectMapper, registry);
+        requests.afterPropertiesSet();
+        return requests;
+    }
+
+    /**
+     * @return 以 requests 處理 Idempotency-Key 的另一個節點 (同一個資料庫與服務)，請求來自 remoteAddress
+     */
+    private WebTestClient node(IdempotentRequests requests, String remoteAddress) {
+        CurrencyController controller = new CurrencyController();
+        ReflectionTestUtils.setField(controller, "currencyService", currencyService);
+        ReflectionTestUtils.setField(controller, "idempotentRequests", requests);
+        MockMvc node = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .defaultRequest(post("/").with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                }))
+                .build();
+        return MockMvcWebTestClient.bindTo(node).build();
+    }
+
+    private <T> T asClient(String remoteAddress, Supplier<T> action) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private CurrencyCreateRequest createRequest() {
+        try {
+            return objectMapper.readValue(CREATE_BODY, CurrencyCreateRequest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+}
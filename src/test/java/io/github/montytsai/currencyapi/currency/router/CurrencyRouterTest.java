@@ -0,0 +1,121 @@
+package io.github.montytsai.currencyapi.currency.router;
+
+import io.github.montytsai.currencyapi.currency.controller.CurrencyApiContractTest;
+import io.github.montytsai.currencyapi.currency.lookup.CurrencyLookupTable;
+import io.r2dbc.spi.ConnectionFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reactive 模式 (WebFlux 函式式路由 + R2DBC，執行於 Netty) 的幣別 API 合約測試。
+ * <p>
+ * 請求在伺服器的事件迴圈中處理，無法以測試交易回滾，因此每個測試前以 reset.sql / data.sql 還原初始資料
+ * 並重新載入記憶體中的幣別目錄。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "reactive"})
+class CurrencyRouterTest extends CurrencyApiContractTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private CurrencyLookupTable lookupTable;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("reset.sql"), new ClassPathResource("data.sql"))
+                .populate(connectionFactory)
+                .block();
+        lookupTable.reload();
+
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port + "/api/v1")
+                .build();
+    }
+
+    @Override
+    protected WebTestClient client() {
+        return client;
+    }
+
+    @Test
+    @DisplayName("Reactive 模式的異動在提交後寫入稽核紀錄 (來源 IP 與聲稱的操作者)；失敗的異動不記錄")
+    void writes_shouldBeAudited() throws InterruptedException {
+        String actor = "reactive-" + UUID.randomUUID();
+        patch(actor, "/currencies/USD", "{\"symbol\": \"US$\"}").expectStatus().isOk();
+        patch(actor, "/currencies/GBP", "{\"displayName\": \"\"}").expectStatus().isBadRequest();
+
+        List<Map<String, Object>> rows = auditRows(actor);
+        for (int i = 0; i < 100 && rows.isEmpty(); i++) { // 由背景執行緒批次寫入
+            Thread.sleep(50);
+            rows = auditRows(actor);
+        }
+
+        assertThat(rows).hasSize(1);
+        Map<String, Object> row = rows.get(0);
+        assertThat(row.get("REMOTE_ADDRESS")).isEqualTo("127.0.0.1");
+        assertThat(row.get("ACTION")).isEqualTo("PARTIAL_UPDATE");
+        assertThat(row.get("CURRENCY_CODE")).isEqualTo("USD");
+        assertThat(row.get("BEFORE_VALUE")).isEqualTo("{\"displayName\":\"美金\",\"symbol\":\"$\",\"active\":true}");
+        assertThat(row.get("AFTER_VALUE")).isEqualTo("{\"displayName\":\"美金\",\"symbol\":\"US$\",\"active\":true}");
+    }
+
+    @Test
+    @DisplayName("Reactive 模式的異動在同一個交易中遞增目錄版本號，失敗或未異動的請求不遞增")
+    void writes_shouldBumpCatalogVersion() {
+        long before = catalogVersion();
+
+        patch("tester", "/currencies/USD", "{\"symbol\": \"US$\"}").expectStatus().isOk();
+        assertThat(catalogVersion()).isEqualTo(before + 1);
+
+        patch("tester", "/currencies/GBP", "{\"displayName\": \"\"}").expectStatus().isBadRequest();
+        client.post().uri("/currencies/USD/reactivate").exchange().expectStatus().isOk(); // 已啟用，不異動
+        assertThat(catalogVersion()).isEqualTo(before + 1);
+    }
+
+    private WebTestClient.ResponseSpec patch(String actor, String path, String json) {
+        return client.patch().uri(path)
+                .header("X-Actor", actor)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+
+    private long catalogVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM CURRENCY_CATALOG_VERSION WHERE id = 1", Long.class);
+        return (version == null) ? -1 : version;
+    }
+
+    private List<Map<String, Object>> auditRows(String actor) {
+        return jdbcTemplate.queryForList(
+                "SELECT remote_address, action, currency_code, before_value, after_value FROM CURRENCY_AUDIT "
+                        + "WHERE claimed_actor = ?", actor);
+    }
+
+}
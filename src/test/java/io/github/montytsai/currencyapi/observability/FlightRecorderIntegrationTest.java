@@ -0,0 +1,132 @@
+package io.github.montytsai.currencyapi.observability;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 驗證 JFR 錄製端點：需要 token 才能操作，錄製期間的請求應留下帶有幣別代碼、資料筆數與回應大小的自訂事件。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "observability.flight-recorder.token=" + FlightRecorderIntegrationTest.TOKEN)
+@ActiveProfiles("test")
+class FlightRecorderIntegrationTest {
+
+    static final String TOKEN = "test-token";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer();
+
+    @TempDir
+    static Path dumpDirectory;
+
+    @LocalServerPort
+    private int port;
+
+    private WebClient client;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+        registry.add("observability.flight-recorder.dump-directory", () -> dumpDirectory.toString());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebClient.create("http://localhost:" + port + "/api/v1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.control("stop", TOKEN);
+    }
+
+    @Test
+    @DisplayName("未帶 token 或 token 錯誤時拒絕操作，也不會開始錄製")
+    void control_shouldRejectInvalidToken() {
+        assertEquals(HttpStatus.FORBIDDEN, this.control("start", null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, this.control("start", "wrong").getStatusCode());
+        assertFalse(this.status().contains("RUNNING"));
+    }
+
+    @Test
+    @DisplayName("錄製期間的上游呼叫、幣別查詢與轉換應留下自訂的 JFR 事件")
+    void recording_shouldContainApplicationEvents() throws IOException {
+        assertEquals(HttpStatus.OK, this.control("start", TOKEN).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, this.control("start", TOKEN).getStatusCode());
+
+        get("/currencies/USD");
+        get("/coindesk/transformed");
+
+        ResponseEntity<Map> dump = this.control("dump", TOKEN);
+        assertEquals(HttpStatus.OK, dump.getStatusCode());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Paths.get((String) dump.getBody().get("file")));
+        Map<String, List<RecordedEvent>> byName = events.stream()
+                .filter(event -> event.getEventType().getName().startsWith("io.github.montytsai.currencyapi."))
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName(), HashMap::new, Collectors.toList()));
+
+        RecordedEvent query = byName.get(CatalogQueryEvent.NAME).stream()
+                .filter(event -> "findActiveByCode".equals(event.getString("query")))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("USD", query.getString("currencyCode"));
+        assertEquals(1, query.getInt("rows"));
+
+        RecordedEvent upstream = byName.get(UpstreamFetchEvent.NAME).get(0);
+        assertEquals("SUCCESS", upstream.getString("outcome"));
+        assertTrue(upstream.getLong("responseBytes") > 0, "responseBytes: " + upstream.getLong("responseBytes"));
+
+        assertEquals(3, byName.get(MappingEvent.NAME).get(0).getInt("currencies"));
+    }
+
+    private void get(String path) {
+        client.get().uri(path).retrieve().toBodilessEntity().block(TIMEOUT);
+    }
+
+    private String status() {
+        return client.get().uri("/actuator/flightrecorder").retrieve().bodyToMono(String.class).block(TIMEOUT);
+    }
+
+    private ResponseEntity<Map> control(String action, String token) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("token", token);
+        return client.post().uri("/actuator/flightrecorder/" + action)
+                .bodyValue(body)
+                .exchangeToMono(response -> response.toEntity(Map.class))
+                .block(TIMEOUT);
+    }
+
+}
@@ -0,0 +1,197 @@
+package io.github.montytsai.currencyapi.observability;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 驗證 Server-Timing 標頭：預設不輸出，以 actuator 端點在執行期間開啟後，
+ * 非同步的 CoinDesk 端點與同步的幣別端點都應帶有各自階段的耗時。
+ * <p>
+ * 同時驗證慢請求飛行記錄器：門檻設為 0，每個請求都會被記錄。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"observability.slow-requests.threshold=0ms",
+                "observability.flight-recorder.token=" + ServerTimingIntegrationTest.TOKEN})
+@ActiveProfiles("test")
+class ServerTimingIntegrationTest {
+
+    static final String TOKEN = "test-token";
+
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(50);
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Pattern METRIC = Pattern.compile("([a-z]+);dur=([0-9.]+)");
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer().withLatency(UPSTREAM_LATENCY);
+
+    @LocalServerPort
+    private int port;
+
+    private WebClient client;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebClient.create("http://localhost:" + port + "/api/v1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.toggle(false);
+    }
+
+    @Test
+    @DisplayName("預設不輸出 Server-Timing；以 actuator 開啟後立即生效，關閉後再度消失")
+    void header_shouldFollowRuntimeToggle() {
+        assertFalse(get("/currencies").getHeaders().containsKey(ServerTimingFilter.HEADER));
+
+        this.toggle(true);
+        assertTrue(get("/currencies").getHeaders().containsKey(ServerTimingFilter.HEADER));
+
+        this.toggle(false);
+        assertFalse(get("/currencies").getHeaders().containsKey(ServerTimingFilter.HEADER));
+    }
+
+    @Test
+    @DisplayName("未帶 token 或 token 錯誤時拒絕切換 (403)，狀態不變")
+    void toggle_shouldRequireToken() {
+        assertEquals(HttpStatus.FORBIDDEN, this.toggle(true, null));
+        assertEquals(HttpStatus.FORBIDDEN, this.toggle(true, "wrong-token"));
+
+        assertFalse(get("/currencies").getHeaders().containsKey(ServerTimingFilter.HEADER));
+    }
+
+    @Test
+    @DisplayName("CoinDesk 轉換端點 (非同步) 應拆解出上游、轉換與序列化的耗時")
+    void transformed_shouldBreakDownUpstreamMappingAndSerialization() {
+        this.toggle(true);
+
+        ResponseEntity<String> response = get("/coindesk/transformed");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, Double> timings = parse(response.getHeaders().getFirst(ServerTimingFilter.HEADER));
+        assertTrue(timings.get("upstream") >= UPSTREAM_LATENCY.toMillis(), "upstream: " + timings);
+        assertNotNull(timings.get("mapping"), "mapping: " + timings);
+        assertNotNull(timings.get("serialization"), "serialization: " + timings);
+        assertFalse(timings.containsKey("db"), "the transformed response reads names from the in-memory catalog: " + timings);
+        assertTrue(timings.get("total") >= timings.get("upstream"), "total: " + timings);
+        assertTrue(response.getBody().contains("currencyInfo"));
+    }
+
+    @Test
+    @DisplayName("幣別查詢端點應包含資料庫查詢的耗時")
+    void currencyByCode_shouldIncludeDbPhase() {
+        this.toggle(true);
+
+        ResponseEntity<String> response = get("/currencies/USD");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, Double> timings = parse(response.getHeaders().getFirst(ServerTimingFilter.HEADER));
+        assertNotNull(timings.get("db"), "db: " + timings);
+        assertNotNull(timings.get("serialization"), "serialization: " + timings);
+        assertFalse(timings.containsKey("upstream"), "upstream: " + timings);
+    }
+
+    @Test
+    @DisplayName("慢請求記錄應包含端點、路徑變數、各階段耗時、SQL 敘述數與上游結果，最慢的排在最前面")
+    @SuppressWarnings("unchecked")
+    void slowRequests_shouldCaptureRequestDetails() {
+        assertEquals(HttpStatus.FORBIDDEN, this.clearSlowRequests(null));
+        assertEquals(HttpStatus.FORBIDDEN, this.clearSlowRequests("wrong-token"));
+        assertEquals(HttpStatus.NO_CONTENT, this.clearSlowRequests(TOKEN));
+        get("/currencies/USD");
+        get("/coindesk/transformed");
+
+        Map<String, Object> body = client.get().uri("/actuator/slowrequests")
+                .retrieve().bodyToMono(Map.class).block(TIMEOUT);
+
+        List<Map<String, Object>> slowest = (List<Map<String, Object>>) body.get("slowest");
+        Map<String, Object> transformed = slowest.get(0);
+        assertEquals("GET /coindesk/transformed", transformed.get("endpoint"));
+        assertEquals("SUCCESS", transformed.get("upstream"));
+        assertEquals(200, transformed.get("status"));
+        assertTrue(((Map<String, Object>) transformed.get("phasesMs")).containsKey("upstream"));
+
+        Map<String, Object> byCode = ((List<Map<String, Object>>) body.get("recent")).stream()
+                .filter(request -> "GET /currencies/{code}".equals(request.get("endpoint")))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(Collections.singletonMap("code", "USD"), byCode.get("pathVariables"));
+        assertEquals(1, byCode.get("sqlStatements"));
+        assertTrue(((Map<String, Object>) byCode.get("phasesMs")).containsKey("db"));
+        assertNull(byCode.get("upstream"));
+    }
+
+    private ResponseEntity<String> get(String path) {
+        return client.get().uri(path).retrieve().toEntity(String.class).block(TIMEOUT);
+    }
+
+    private void toggle(boolean enabled) {
+        assertEquals(HttpStatus.OK, this.toggle(enabled, TOKEN));
+    }
+
+    private HttpStatus toggle(boolean enabled, String token) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("enabled", enabled);
+        if (token != null) {
+            body.put("token", token);
+        }
+        return client.post().uri("/actuator/servertiming").bodyValue(body)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .block(TIMEOUT);
+    }
+
+    private HttpStatus clearSlowRequests(String token) {
+        return client.delete()
+                .uri(builder -> builder.path("/actuator/slowrequests")
+                        .queryParamIfPresent("token", Optional.ofNullable(token)).build())
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .block(TIMEOUT);
+    }
+
+    private static Map<String, Double> parse(String header) {
+        assertNotNull(header, "Server-Timing header");
+        Map<String, Double> timings = new HashMap<>();
+        Matcher matcher = METRIC.matcher(header);
+        while (matcher.find()) {
+            timings.put(matcher.group(1), Double.valueOf(matcher.group(2)));
+        }
+        return timings;
+    }
+
+}
@@ -0,0 +1,173 @@
+package io.github.montytsai.currencyapi.observability;
+
+import io.github.montytsai.currencyapi.support.CoinDeskStubServer;
+import io.github.montytsai.currencyapi.support.SqlStatementBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 每個端點宣告單一請求可執行的 SQL 敘述數上限 ({@link #BUDGETS})，超過即失敗，避免無意間增加查詢 (例如 N+1 或多餘的 select)。
+ * <p>
+ * 新增端點時必須一併宣告上限 ({@link #everyEndpoint_shouldDeclareBudget()})。
+ * 寫入端點會修改資料，因此測試結束後重建 context。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SqlStatementBudgetIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * 端點 ({@code <method> <路徑樣式>}) 與單一請求的 SQL 敘述數上限。
+     */
+    private static final Map<String, Integer> BUDGETS = new LinkedHashMap<>();
+
+    static {
+        BUDGETS.put("GET /currencies", 1);
+        BUDGETS.put("GET /currencies/{code}", 1);
+        BUDGETS.put("GET /currencies/search", 1);
+        BUDGETS.put("POST /currencies", 3);
+        BUDGETS.put("PUT /currencies/{code}", 2);
+        BUDGETS.put("PATCH /currencies/{code}", 2);
+        BUDGETS.put("DELETE /currencies/{code}", 2);
+        BUDGETS.put("POST /currencies/{code}/reactivate", 2);
+        BUDGETS.put("GET /coindesk/original", 0);
+        BUDGETS.put("GET /coindesk/transformed", 0);
+    }
+
+    private static final CoinDeskStubServer STUB = new CoinDeskStubServer();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private WebClient client;
+    private SqlStatementBudget budget;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("coin-desk.api.url", STUB::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = WebClient.create("http://localhost:" + port + "/api/v1");
+        budget = new SqlStatementBudget(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("每個應用程式端點都應宣告 SQL 敘述數上限")
+    void everyEndpoint_shouldDeclareBudget() {
+        Set<String> endpoints = new TreeSet<>();
+        handlerMapping.getHandlerMethods().forEach((info, handler) -> {
+            if (handler.getBeanType().getPackage().getName().startsWith("io.github.montytsai.currencyapi")) {
+                endpoints.addAll(endpoints(info));
+            }
+        });
+
+        assertEquals(new TreeSet<>(BUDGETS.keySet()), endpoints);
+    }
+
+    @Test
+    @DisplayName("查詢端點不應超過 SQL 敘述數上限")
+    void readEndpoints_shouldStayWithinBudget() {
+        this.assertWithinBudget(HttpMethod.GET, "/currencies", "/currencies", null, HttpStatus.OK);
+        this.assertWithinBudget(HttpMethod.GET, "/currencies/{code}", "/currencies/USD", null, HttpStatus.OK);
+        this.assertWithinBudget(HttpMethod.GET, "/currencies/search", "/currencies/search?name=元", null, HttpStatus.OK);
+        this.assertWithinBudget(HttpMethod.GET, "/coindesk/original", "/coindesk/original", null, HttpStatus.OK);
+        this.assertWithinBudget(HttpMethod.GET, "/coindesk/transformed", "/coindesk/transformed", null, HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("寫入端點不應超過 SQL 敘述數上限")
+    void writeEndpoints_shouldStayWithinBudget() {
+        Map<String, Object> create = new LinkedHashMap<>();
+        create.put("code", "JPY");
+        create.put("displayName", "日圓");
+        create.put("symbol", "¥");
+        this.assertWithinBudget(HttpMethod.POST, "/currencies", "/currencies", create, HttpStatus.CREATED);
+
+        Map<String, Object> replace = new LinkedHashMap<>(create);
+        replace.put("displayName", "日幣");
+        this.assertWithinBudget(HttpMethod.PUT, "/currencies/{code}", "/currencies/JPY", replace, HttpStatus.OK);
+
+        this.assertWithinBudget(HttpMethod.PATCH, "/currencies/{code}", "/currencies/JPY",
+                Collections.singletonMap("symbol", "円"), HttpStatus.OK);
+        this.assertWithinBudget(HttpMethod.DELETE, "/currencies/{code}", "/currencies/JPY", null, HttpStatus.NO_CONTENT);
+        this.assertWithinBudget(HttpMethod.POST, "/currencies/{code}/reactivate", "/currencies/JPY/reactivate", null, HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("已知不存在的代碼由記憶體索引直接回應，不執行任何 SQL")
+    void unknownCode_shouldNotQueryDatabase() {
+        int statements = budget.measure("GET", "/currencies/{code}", () -> assertEquals(HttpStatus.NOT_FOUND,
+                client.get().uri("/currencies/XXX").exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode())).block(TIMEOUT)));
+
+        assertEquals(0, statements);
+    }
+
+    private void assertWithinBudget(HttpMethod method, String pattern, String path, Object body, HttpStatus expected) {
+        String endpoint = method.name() + " " + pattern;
+        Integer max = BUDGETS.get(endpoint);
+        assertTrue(max != null, "No budget declared for " + endpoint);
+        budget.assertWithin(max, method.name(), pattern, () -> {
+            WebClient.RequestBodySpec request = client.method(method).uri(path);
+            if (body != null) {
+                request.bodyValue(body);
+            }
+            HttpStatus status = request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                    .block(TIMEOUT);
+            assertEquals(expected, status, endpoint);
+        });
+    }
+
+    private static Set<String> endpoints(RequestMappingInfo info) {
+        Set<String> endpoints = new TreeSet<>();
+        for (String pattern : info.getPatternValues()) {
+            info.getMethodsCondition().getMethods()
+                    .forEach(method -> endpoints.add(method.name() + " " + pattern));
+        }
+        return endpoints;
+    }
+
+}
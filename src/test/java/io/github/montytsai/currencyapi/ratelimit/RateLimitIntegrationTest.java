@@ -0,0 +1,65 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import io.github.montytsai.currencyapi.exception.TooManyRequestsException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證每個客戶端的頻率限制：額度內帶有 RateLimit-* 標頭，超過時回應 429 與 Retry-After，
+ * 設定 client-key-header 時不同 API key 各自計算，未設定限制的路由不受影響。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"rate-limit.routes[0].pattern=/currencies/search", "rate-limit.routes[0].permits-per-second=0.01",
+                "rate-limit.routes[0].burst=2", "rate-limit.client-key-header=X-API-Key"})
+@ActiveProfiles("test")
+class RateLimitIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("超過額度時回應 429 與 RateLimit-* / Retry-After，其他客戶端與路由不受影響")
+    void rejectsClientOverItsBudget() {
+        WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+
+        ResponseEntity<String> first = search(client, "key-a");
+        assertThat(first.getStatusCodeValue()).isEqualTo(200);
+        assertThat(first.getHeaders().getFirst(TooManyRequestsException.LIMIT_HEADER)).isEqualTo("2");
+        assertThat(first.getHeaders().getFirst(TooManyRequestsException.REMAINING_HEADER)).isEqualTo("1");
+        assertThat(search(client, "key-a").getHeaders().getFirst(TooManyRequestsException.REMAINING_HEADER)).isEqualTo("0");
+
+        ResponseEntity<String> rejected = search(client, "key-a");
+        assertThat(rejected.getStatusCodeValue()).isEqualTo(429);
+        assertThat(rejected.getHeaders().getFirst(TooManyRequestsException.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(rejected.getHeaders().getFirst(TooManyRequestsException.RESET_HEADER)).isEqualTo("200");
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("100");
+        assertThat(rejected.getBody()).contains("Rate limit exceeded for /currencies/search");
+
+        assertThat(search(client, "key-b").getStatusCodeValue()).isEqualTo(200);
+        ResponseEntity<String> unlimited = client.get().uri("/currencies/USD").header("X-API-Key", "key-a")
+                .retrieve().toEntity(String.class).block(TIMEOUT);
+        assertThat(unlimited).isNotNull();
+        assertThat(unlimited.getStatusCodeValue()).isEqualTo(200);
+        assertThat(unlimited.getHeaders().containsKey(TooManyRequestsException.LIMIT_HEADER)).isFalse();
+    }
+
+    private static ResponseEntity<String> search(WebClient client, String apiKey) {
+        return client.get().uri("/currencies/search?name={name}", "美").header("X-API-Key", apiKey)
+                .exchangeToMono(response -> response.toEntity(String.class))
+                .block(TIMEOUT);
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import io.github.montytsai.currencyapi.exception.TooManyRequestsException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 驗證客戶端識別：未設定 client-key-header 時忽略客戶端自填的標頭，只以來源 IP 計算。
+ */
+class RateLimitInterceptorTest {
+
+    private static final String PATTERN = "/currencies/search";
+
+    @Test
+    @DisplayName("未設定 client-key-header 時，換 API key 無法繞過同一來源 IP 的限制")
+    void ignoresApiKeyUnlessConfigured() {
+        RateLimitInterceptor interceptor = interceptor("");
+
+        assertThat(interceptor.preHandle(request("10.0.0.1", "key-a"), new MockHttpServletResponse(), null)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(request("10.0.0.1", "key-b"), new MockHttpServletResponse(), null))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(interceptor.preHandle(request("10.0.0.2", "key-a"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    @DisplayName("設定 client-key-header 時以該標頭識別，沒有標頭時改用來源 IP")
+    void usesConfiguredHeader() {
+        RateLimitInterceptor interceptor = interceptor("X-API-Key");
+
+        assertThat(interceptor.preHandle(request("10.0.0.1", "key-a"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("10.0.0.1", "key-b"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("10.0.0.1", null), new MockHttpServletResponse(), null)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(request("10.0.0.1", null), new MockHttpServletResponse(), null))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private static RateLimitInterceptor interceptor(String clientKeyHeader) {
+        RateLimitRoute route = new RateLimitRoute();
+        route.setPattern(PATTERN);
+        route.setPermitsPerSecond(0.01);
+        route.setBurst(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(new TokenBucketTable(64),
+                Collections.singletonList(route), clientKeyHeader, null);
+        interceptor.setEnforcing(true);
+        return interceptor;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1" + PATTERN);
+        request.setRemoteAddr(remoteAddress);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.montytsai.currencyapi.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 驗證 token bucket 表：額度內接受、超過時拒絕並回報等待時間、依時間補充、客戶端之間互不影響，以及固定容量下的淘汰。
+ */
+class TokenBucketTableTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    @DisplayName("額度內的請求被接受，超過時拒絕並回報下一個 token 的等待時間")
+    void acceptsBurstThenRejects() {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long client = TokenBucketTable.fingerprint("203.0.113.7", 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(table.tryAcquire(client, ONE_HOUR, 3)).isPositive();
+        }
+        long rejected = table.tryAcquire(client, ONE_HOUR, 3);
+
+        assertThat(rejected).isNegative();
+        assertThat(-rejected).isGreaterThan(ONE_HOUR - TimeUnit.MINUTES.toNanos(1)).isLessThanOrEqualTo(ONE_HOUR);
+    }
+
+    @Test
+    @DisplayName("經過一個間隔後補充一個 token")
+    void refillsOverTime() throws InterruptedException {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long client = TokenBucketTable.fingerprint("203.0.113.7", 0);
+        long interval = TimeUnit.MILLISECONDS.toNanos(50);
+
+        assertThat(table.tryAcquire(client, interval, 1)).isPositive();
+        assertThat(table.tryAcquire(client, interval, 1)).isNegative();
+
+        TimeUnit.NANOSECONDS.sleep(interval + TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(table.tryAcquire(client, interval, 1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("不同客戶端、同一客戶端的不同路由各自計算額度")
+    void isolatesClientsAndRoutes() {
+        TokenBucketTable table = new TokenBucketTable(64);
+        long first = TokenBucketTable.fingerprint("key-a", 0);
+        long second = TokenBucketTable.fingerprint("key-b", 0);
+        long firstOtherRoute = TokenBucketTable.fingerprint("key-a", 1);
+
+        assertThat(table.tryAcquire(first, ONE_HOUR, 1)).isPositive();
+        assertThat(table.tryAcquire(first, ONE_HOUR, 1)).isNegative();
+        assertThat(table.tryAcquire(second, ONE_HOUR, 1)).isPositive();
+        assertThat(table.tryAcquire(firstOtherRoute, ONE_HOUR, 1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("容量固定：客戶端超過容量時淘汰額度最滿 (最久沒有請求) 的客戶端")
+    void evictsIdleClientsWhenFull() {
+        TokenBucketTable table = new TokenBucketTable(TokenBucketTable.WAYS);
+        assertThat(table.capacity()).isEqualTo(TokenBucketTable.WAYS);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(table.tryAcquire(TokenBucketTable.fingerprint("client-" + i, 0), ONE_HOUR, 1)).isPositive();
+        }
+
+        assertThat(table.capacity()).isEqualTo(TokenBucketTable.WAYS);
+        assertThat(table.tryAcquire(TokenBucketTable.fingerprint("client-999", 0), ONE_HOUR, 1)).isNegative();
+        assertThat(table.tryAcquire(TokenBucketTable.fingerprint("client-0", 0), ONE_HOUR, 1)).isPositive();
+        assertThatThrownBy(() -> new TokenBucketTable(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
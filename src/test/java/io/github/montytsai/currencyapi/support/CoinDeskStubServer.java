@@ -0,0 +1,176 @@
+package io.github.montytsai.currencyapi.support;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * 以 Reactor Netty 在本機啟動的 CoinDesk API 替身 (Stub)，供整合測試與負載測試使用，不需連線外部網路。
+ * <p>
+ * 可設定回應延遲、失敗率與回應內容，用於模擬上游服務變慢或不穩定的情境。
+ * 以 {@link #tls()} 建立時改以 HTTPS 提供服務 (自簽憑證，見 {@link #clientSslContext()})，用於量測連線與 TLS 交握的成本。
+ */
+public class CoinDeskStubServer implements AutoCloseable {
+
+    public static final String PATH = "/coindesk.json";
+
+    private static final String KEY_STORE = "/tls/coindesk-stub.p12";
+    private static final char[] KEY_STORE_PASSWORD = "changeit".toCharArray();
+
+    private final DisposableServer server;
+    private final boolean tls;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile Supplier<Duration> latency = () -> Duration.ZERO;
+    private volatile double failureRate;
+    private volatile byte[] body = loadSampleBody();
+
+    public CoinDeskStubServer() {
+        this(false);
+    }
+
+    private CoinDeskStubServer(boolean tls) {
+        this.tls = tls;
+        HttpServer httpServer = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connectionCount.incrementAndGet());
+        if (tls) {
+            SslContext sslContext = serverSslContext();
+            httpServer = httpServer.secure(spec -> spec.sslContext(sslContext));
+        }
+        this.server = httpServer
+                .route(routes -> routes.get(PATH, (request, response) -> {
+                    requestCount.incrementAndGet();
+                    Duration delay = latency.get();
+                    boolean fail = failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+                    Mono<Void> reply = fail
+                            ? response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send()
+                            : response.header("Content-Type", "application/json").sendByteArray(Mono.just(body)).then();
+                    return delay.isZero() ? reply : Mono.delay(delay).then(reply);
+                }).head(PATH, (request, response) -> response.header("Content-Type", "application/json")
+                        .header("Content-Length", String.valueOf(body.length))
+                        .send()))
+                .bindNow();
+    }
+
+    /**
+     * @return 以 HTTPS 提供服務的替身
+     */
+    public static CoinDeskStubServer tls() {
+        return new CoinDeskStubServer(true);
+    }
+
+    /**
+     * @return 可直接設定於 {@code coin-desk.api.url} 的完整網址
+     */
+    public String url() {
+        return (tls ? "https" : "http") + "://127.0.0.1:" + server.port() + PATH;
+    }
+
+    public CoinDeskStubServer withLatency(Duration fixedLatency) {
+        this.latency = () -> fixedLatency;
+        return this;
+    }
+
+    public CoinDeskStubServer withLatency(Supplier<Duration> latencySupplier) {
+        this.latency = latencySupplier;
+        return this;
+    }
+
+    public CoinDeskStubServer withFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    public CoinDeskStubServer withBody(byte[] body) {
+        this.body = body.clone();
+        return this;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return 已接受的 TCP 連線數 (每條連線代表一次完整的連線建立與 TLS 交握)
+     */
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    /**
+     * @return 信任替身自簽憑證的用戶端 SslContext
+     */
+    public static SslContext clientSslContext() {
+        try {
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(loadKeyStore());
+            return SslContextBuilder.forClient().trustManager(trustManagerFactory).build();
+        } catch (GeneralSecurityException | SSLException e) {
+            throw new IllegalStateException("Failed to build client SSL context for the CoinDesk stub", e);
+        }
+    }
+
+    private static SslContext serverSslContext() {
+        try {
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(loadKeyStore(), KEY_STORE_PASSWORD);
+            return SslContextBuilder.forServer(keyManagerFactory).build();
+        } catch (GeneralSecurityException | SSLException e) {
+            throw new IllegalStateException("Failed to build server SSL context for the CoinDesk stub", e);
+        }
+    }
+
+    private static KeyStore loadKeyStore() throws GeneralSecurityException {
+        try (InputStream in = CoinDeskStubServer.class.getResourceAsStream(KEY_STORE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test resource " + KEY_STORE);
+            }
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEY_STORE_PASSWORD);
+            return keyStore;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 測試資源中的 CoinDesk 範例回應
+     */
+    public static byte[] loadSampleBody() {
+        try (InputStream in = CoinDeskStubServer.class.getResourceAsStream("/coindesk/coindesk.json")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test resource /coindesk/coindesk.json");
+            }
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
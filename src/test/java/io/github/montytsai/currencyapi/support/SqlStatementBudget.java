@@ -0,0 +1,87 @@
+package io.github.montytsai.currencyapi.support;
+
+import io.github.montytsai.currencyapi.observability.SqlStatementMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 量測單一請求執行的 SQL 敘述數，並斷言不超過端點宣告的上限。
+ * <p>
+ * 讀取 {@link SqlStatementMetrics} 的 {@code http.server.sql.statements} (每個端點一個 DistributionSummary)：
+ * 請求前後的總和差即為這個請求的敘述數。指標在請求完成後才記錄，回應可能先送達用戶端，因此會短暫等待新的樣本。
+ * 同一個端點的請求須依序送出。
+ */
+public final class SqlStatementBudget {
+
+    private static final Duration RECORD_TIMEOUT = Duration.ofSeconds(2);
+
+    private final MeterRegistry registry;
+
+    public SqlStatementBudget(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param method  HTTP 方法
+     * @param uri     路徑樣式 (不含 context path)，例如 {@code /currencies/{code}}
+     * @param request 送出一個請求並等待回應
+     * @return 這個請求執行的 SQL 敘述數
+     */
+    public int measure(String method, String uri, Runnable request) {
+        long countBefore = this.count(method, uri);
+        double totalBefore = this.total(method, uri);
+        request.run();
+
+        long deadline = System.nanoTime() + RECORD_TIMEOUT.toNanos();
+        while (this.count(method, uri) == countBefore) {
+            if (System.nanoTime() > deadline) {
+                fail("No " + SqlStatementMetrics.SQL_STATEMENTS + " sample was recorded for " + method + " " + uri);
+            }
+            sleep();
+        }
+        assertTrue(this.count(method, uri) == countBefore + 1, "Concurrent requests to " + method + " " + uri);
+        return (int) (this.total(method, uri) - totalBefore);
+    }
+
+    /**
+     * 送出請求並斷言其 SQL 敘述數不超過上限。
+     *
+     * @return 這個請求執行的 SQL 敘述數
+     */
+    public int assertWithin(int budget, String method, String uri, Runnable request) {
+        int statements = this.measure(method, uri, request);
+        assertTrue(statements <= budget, method + " " + uri + " executed " + statements
+                + " SQL statements, exceeding its budget of " + budget + ".");
+        return statements;
+    }
+
+    private long count(String method, String uri) {
+        DistributionSummary summary = this.summary(method, uri);
+        return (summary == null) ? 0 : summary.count();
+    }
+
+    private double total(String method, String uri) {
+        DistributionSummary summary = this.summary(method, uri);
+        return (summary == null) ? 0 : summary.totalAmount();
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        return registry.find(SqlStatementMetrics.SQL_STATEMENTS).tag("method", method).tag("uri", uri).summary();
+    }
+
+    private static void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for " + SqlStatementMetrics.SQL_STATEMENTS);
+        }
+    }
+
+}
@@ -0,0 +1,4 @@
+-- 測試之間將幣別目錄還原為 data.sql 的初始狀態 (schema.sql 不會刪除既有資料)，之後再執行 data.sql；
+-- 目錄已變動，版本號同樣遞增
+DELETE FROM CURRENCY;
+UPDATE CURRENCY_CATALOG_VERSION SET version = version + 1 WHERE id = 1;